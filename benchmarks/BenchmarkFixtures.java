@@ -0,0 +1,73 @@
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The BenchmarkFixtures class builds the Questions and Students the JMH benchmarks
+ * run against
+ * 
+ * Every Question gets `options` answers named "A0", "A1", ... with the last one
+ * marked correct, so the benchmarks see the same shapes from run to run.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class BenchmarkFixtures {
+
+    /**
+     * The fixtures are only static helpers
+     */
+    private BenchmarkFixtures(){
+    }
+
+    /**
+     * Builds a Question with a given number of answers
+     * 
+     * @param questionString The String of the question text
+     * @param options The number of possible answers
+     * @param multipleChoice Whether or not to build a MultipleChoiceQuestion
+     * @return The built Question
+     */
+    public static QuestionInterface buildQuestion(String questionString, int options, boolean multipleChoice){
+        QuestionInterface question = multipleChoice
+            ? new MultipleChoiceQuestion(questionString)
+            : new Question(questionString);
+
+        for (int i = 0; i < options - 1; i++){
+            question.addPossibleAnswer("A" + i);
+        }
+        question.addCorrectAnswer("A" + (options - 1));
+
+        return question;
+    }
+
+    /**
+     * Builds a Set of Questions, alternating between single and multiple choice
+     * 
+     * @param count The number of Questions
+     * @param options The number of possible answers of each Question
+     * @return The Set of Questions, in the order they were built
+     */
+    public static Set<QuestionInterface> buildQuestions(int count, int options){
+        Set<QuestionInterface> questionSet = new LinkedHashSet<QuestionInterface>();
+        for (int i = 0; i < count; i++){
+            questionSet.add(buildQuestion("Question " + i, options, i % 2 == 1));
+        }
+
+        return questionSet;
+    }
+
+    /**
+     * Builds a Set of Students with random IDs
+     * 
+     * @param count The number of Students
+     * @return The Set of Students, in the order they were built
+     */
+    public static Set<Student> buildStudents(int count){
+        Set<Student> studentSet = new LinkedHashSet<Student>();
+        for (int i = 0; i < count; i++){
+            studentSet.add(new Student());
+        }
+
+        return studentSet;
+    }
+}
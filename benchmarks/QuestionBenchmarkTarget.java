@@ -0,0 +1,101 @@
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import ivote.bench.QuestionTarget;
+
+/**
+ * Runs the Question operations measured by ivote.bench.QuestionBenchmark
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class QuestionBenchmarkTarget implements QuestionTarget {
+
+    /**
+     * The number of possible answers of the Question
+     */
+    private int options;
+
+    /**
+     * The Question being looked up
+     */
+    private QuestionInterface question;
+
+    /**
+     * A quarter of the Question's positions, as a Set
+     */
+    private Set<Integer> positionSet;
+
+    /**
+     * The same positions as positionSet, as an array
+     */
+    private int[] positionArray;
+
+    /**
+     * A reusable output buffer for the array lookup
+     */
+    private Answer[] answersOut;
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void setUp(int options){
+        this.options = options;
+        this.question = BenchmarkFixtures.buildQuestion("Question", options, true);
+
+        SplittableRandom random = new SplittableRandom(42);
+        this.positionSet = new HashSet<Integer>();
+        while (this.positionSet.size() < Math.max(1, options / 4)){
+            this.positionSet.add(random.nextInt(options));
+        }
+
+        this.positionArray = new int[this.positionSet.size()];
+        int i = 0;
+        for (int position : this.positionSet){
+            this.positionArray[i++] = position;
+        }
+        this.answersOut = new Answer[this.positionArray.length];
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public Object getAnswerAtPosition(int position){
+        return this.question.getAnswerAtPosition(position);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public Object getAnswersAtPositionsSet(){
+        return this.question.getAnswersAtPositions(this.positionSet);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getAnswersAtPositionsArray(){
+        return this.question.getAnswersAtPositions(this.positionArray, this.positionArray.length, this.answersOut);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean hasCorrectAnswer(){
+        return this.question.hasCorrectAnswer();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public Object buildQuestion(){
+        return BenchmarkFixtures.buildQuestion("Question", this.options, false);
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.SplittableRandom;
+
+import ivote.bench.StudentTarget;
+
+/**
+ * Runs the Student operations measured by ivote.bench.StudentBenchmark
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class StudentBenchmarkTarget implements StudentTarget {
+
+    /**
+     * The Student answering
+     */
+    private Student student;
+
+    /**
+     * The Question being answered
+     */
+    private QuestionInterface question;
+
+    /**
+     * A seeded generator for the seeded overloads
+     */
+    private SplittableRandom random;
+
+    /**
+     * A reusable ballot buffer for the allocation-free overload
+     */
+    private long[] ballot;
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void setUp(int options, boolean multipleChoice, String allocator){
+        if (allocator.equals("sequential")){
+            Student.setIDAllocator(new SequentialIDAllocator(7));
+        } else {
+            Student.setIDAllocator(new RandomIDAllocator(7));
+        }
+
+        this.student = new Student();
+        this.question = BenchmarkFixtures.buildQuestion("Question", options, multipleChoice);
+        this.random = new SplittableRandom(42);
+        this.ballot = new long[BallotStore.wordsFor(options)];
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public Object getAnswerIndices(){
+        return this.student.getAnswerIndices(this.question);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public Object getAnswerIndicesSeeded(){
+        return this.student.getAnswerIndices(this.question, this.random);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getAnswerIndicesBuffer(){
+        return this.student.getAnswerIndices(this.question, this.random, this.ballot, 0);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public Object construct(){
+        Student created = new Student();
+        created.release();
+        return created;
+    }
+}
@@ -0,0 +1,67 @@
+import java.util.Arrays;
+
+import ivote.bench.TallyTarget;
+
+/**
+ * Runs the tally counter operations measured by ivote.bench.TallyBenchmark
+ * 
+ * The counters are measured on their own rather than through a ConcurrentTally,
+ * since a ConcurrentTally's rankings expect a single writer at a time
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class TallyBenchmarkTarget implements TallyTarget {
+
+    /**
+     * The counters being benchmarked
+     */
+    private TallyCountersInterface counters;
+
+    /**
+     * A row to copy counts into while reading
+     */
+    private long[] row;
+
+    /**
+     * The number of Questions
+     */
+    private int questions;
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void setUp(String layout, int questions, int options){
+        int[] positionCounts = new int[questions];
+        Arrays.fill(positionCounts, options);
+
+        this.counters = TallyLayout.valueOf(layout).create(positionCounts);
+        this.row = new long[options];
+        this.questions = questions;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void add(int questionIndex, int answerIndex){
+        this.counters.add(questionIndex, answerIndex, 1);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long sum(){
+        long sum = 0;
+        for (int i = 0; i < this.questions; i++){
+            this.counters.copyRow(i, this.row);
+            for (long count : this.row){
+                sum += count;
+            }
+        }
+
+        return sum;
+    }
+}
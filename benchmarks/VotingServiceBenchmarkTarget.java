@@ -0,0 +1,69 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import ivote.bench.VotingServiceTarget;
+
+/**
+ * Runs the VotingService operations measured by ivote.bench.VotingServiceBenchmark
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class VotingServiceBenchmarkTarget implements VotingServiceTarget {
+
+    /**
+     * The VotingService being benchmarked
+     */
+    private VotingService votingService;
+
+    /**
+     * The real standard output, put back in tearDown
+     */
+    private PrintStream standardOut;
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * Also points System.out at a null stream, since printStatistics would
+     * otherwise swamp the JMH output
+     */
+    @Override
+    public void setUp(int students, int questions, int options, int parallelism){
+        this.votingService = new VotingService(
+            BenchmarkFixtures.buildStudents(students),
+            BenchmarkFixtures.buildQuestions(questions, options)
+        );
+        this.votingService.setSeed(42);
+        this.votingService.setParallelism(parallelism);
+
+        // Every benchmarked round is then a re-vote
+        this.votingService.chooseAnswers();
+
+        this.standardOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void chooseAnswers(){
+        this.votingService.chooseAnswers();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void printStatistics(){
+        this.votingService.printStatistics();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void tearDown(){
+        System.setOut(this.standardOut);
+    }
+}
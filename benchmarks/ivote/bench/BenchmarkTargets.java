@@ -0,0 +1,41 @@
+package ivote.bench;
+
+/**
+ * The BenchmarkTargets class loads the code the benchmarks measure
+ * 
+ * JMH only accepts benchmark classes in a named package, while the simulator's
+ * classes live in the default package, which a named package can't refer to.
+ * So each benchmark talks to a small target interface declared here, and a
+ * default-package class implements it by calling the simulator directly. The
+ * implementation is loaded by name once, during setup; after that every call
+ * has a single receiver type, which the JIT inlines like a direct call.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public final class BenchmarkTargets {
+
+    /**
+     * The targets are only loaded through the static helper
+     */
+    private BenchmarkTargets(){
+    }
+
+    /**
+     * Loads and creates a default-package implementation of a target interface
+     * 
+     * @param <T> The target interface
+     * @param targetType The target interface's class
+     * @param className The name of the default-package class implementing it
+     * @return A new instance of the implementation
+     * @throws IllegalStateException If the class can't be found or created
+     */
+    public static <T> T load(Class<T> targetType, String className){
+        try {
+            Object target = Class.forName(className).getDeclaredConstructor().newInstance();
+            return targetType.cast(target);
+        } catch (ReflectiveOperationException e){
+            throw new IllegalStateException("Could not load benchmark target " + className, e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ivote.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the Question lookups the VotingService relies on
+ * 
+ * Run with `-prof gc` to see the allocation rate next to the throughput.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionBenchmark {
+
+    /**
+     * The number of possible answers of the Question
+     */
+    @Param({"4", "64", "200"})
+    public int options;
+
+    /**
+     * The Question operations being measured
+     */
+    private QuestionTarget target;
+
+    /**
+     * The next position getAnswerAtPosition looks up
+     */
+    private int nextPosition;
+
+    /**
+     * Builds the Question and the positions to look up
+     */
+    @Setup
+    public void setUp(){
+        this.target = BenchmarkTargets.load(QuestionTarget.class, "QuestionBenchmarkTarget");
+        this.target.setUp(this.options);
+    }
+
+    /**
+     * Looks up one position, walking through every position in turn
+     * @return The Answer found
+     */
+    @Benchmark
+    public Object getAnswerAtPosition(){
+        int position = this.nextPosition;
+        this.nextPosition = position + 1 == this.options ? 0 : position + 1;
+        return this.target.getAnswerAtPosition(position);
+    }
+
+    /**
+     * Looks up a quarter of the positions through the Set overload
+     * @return The Set of Answers found
+     */
+    @Benchmark
+    public Object getAnswersAtPositionsSet(){
+        return this.target.getAnswersAtPositionsSet();
+    }
+
+    /**
+     * Looks up a quarter of the positions through the array overload
+     * @return The number of Answers found
+     */
+    @Benchmark
+    public int getAnswersAtPositionsArray(){
+        return this.target.getAnswersAtPositionsArray();
+    }
+
+    /**
+     * Checks whether the Question has a correct answer
+     * @return Whether or not a correct answer was found
+     */
+    @Benchmark
+    public boolean hasCorrectAnswer(){
+        return this.target.hasCorrectAnswer();
+    }
+
+    /**
+     * Builds a Question answer by answer
+     * @return The built Question
+     */
+    @Benchmark
+    public Object buildQuestion(){
+        return this.target.buildQuestion();
+    }
+}
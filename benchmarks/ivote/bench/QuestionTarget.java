@@ -0,0 +1,49 @@
+package ivote.bench;
+
+/**
+ * The Question operations measured by QuestionBenchmark
+ * 
+ * Implemented by the default-package QuestionBenchmarkTarget (see BenchmarkTargets)
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface QuestionTarget {
+
+    /**
+     * Builds the Question and the positions to look up
+     * @param options The number of possible answers of the Question
+     */
+    public void setUp(int options);
+
+    /**
+     * Looks up a single position
+     * @param position The position to look up
+     * @return The Answer found
+     */
+    public Object getAnswerAtPosition(int position);
+
+    /**
+     * Looks up a quarter of the positions through the Set overload
+     * @return The Set of Answers found
+     */
+    public Object getAnswersAtPositionsSet();
+
+    /**
+     * Looks up a quarter of the positions through the array overload
+     * @return The number of Answers found
+     */
+    public int getAnswersAtPositionsArray();
+
+    /**
+     * Checks whether the Question has a correct answer
+     * @return Whether or not a correct answer was found
+     */
+    public boolean hasCorrectAnswer();
+
+    /**
+     * Builds a new Question answer by answer
+     * @return The built Question
+     */
+    public Object buildQuestion();
+}
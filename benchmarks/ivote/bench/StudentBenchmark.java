@@ -0,0 +1,101 @@
+package ivote.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for choosing answers and creating Students
+ * 
+ * Run with `-prof gc` to see the allocation rate next to the throughput.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentBenchmark {
+
+    /**
+     * The number of possible answers of the Question
+     */
+    @Param({"4", "64", "200"})
+    public int options;
+
+    /**
+     * Whether or not the Question is multiple choice
+     */
+    @Param({"false", "true"})
+    public boolean multipleChoice;
+
+    /**
+     * Which ID allocator Students are created with
+     */
+    @Param({"random", "sequential"})
+    public String allocator;
+
+    /**
+     * The Student operations being measured
+     */
+    private StudentTarget target;
+
+    /**
+     * Builds the Student and the Question
+     */
+    @Setup
+    public void setUp(){
+        this.target = BenchmarkTargets.load(StudentTarget.class, "StudentBenchmarkTarget");
+        this.target.setUp(this.options, this.multipleChoice, this.allocator);
+    }
+
+    /**
+     * Chooses answers through the original Set overload
+     * @return The Set of chosen indices
+     */
+    @Benchmark
+    public Object getAnswerIndices(){
+        return this.target.getAnswerIndices();
+    }
+
+    /**
+     * Chooses answers through the seeded Set overload
+     * @return The Set of chosen indices
+     */
+    @Benchmark
+    public Object getAnswerIndicesSeeded(){
+        return this.target.getAnswerIndicesSeeded();
+    }
+
+    /**
+     * Chooses answers into a reusable ballot buffer
+     * @return The number of chosen indices
+     */
+    @Benchmark
+    public int getAnswerIndicesBuffer(){
+        return this.target.getAnswerIndicesBuffer();
+    }
+
+    /**
+     * Creates a Student with a unique ID (through findValidID) and releases it,
+     * so the registry stays the same size from one call to the next
+     * @return The created Student
+     */
+    @Benchmark
+    public Object construct(){
+        return this.target.construct();
+    }
+}
@@ -0,0 +1,44 @@
+package ivote.bench;
+
+/**
+ * The Student operations measured by StudentBenchmark
+ * 
+ * Implemented by the default-package StudentBenchmarkTarget (see BenchmarkTargets)
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface StudentTarget {
+
+    /**
+     * Builds the Student and the Question they answer
+     * @param options The number of possible answers of the Question
+     * @param multipleChoice Whether or not the Question is multiple choice
+     * @param allocator Which ID allocator to create Students with ("random" or "sequential")
+     */
+    public void setUp(int options, boolean multipleChoice, String allocator);
+
+    /**
+     * Chooses answers through the original Set overload
+     * @return The Set of chosen indices
+     */
+    public Object getAnswerIndices();
+
+    /**
+     * Chooses answers through the seeded Set overload
+     * @return The Set of chosen indices
+     */
+    public Object getAnswerIndicesSeeded();
+
+    /**
+     * Chooses answers into a reusable ballot buffer
+     * @return The number of chosen indices
+     */
+    public int getAnswerIndicesBuffer();
+
+    /**
+     * Creates a Student with a unique ID, then releases the ID again
+     * @return The created Student
+     */
+    public Object construct();
+}
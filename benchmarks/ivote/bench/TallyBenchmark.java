@@ -0,0 +1,175 @@
+package ivote.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * JMH benchmarks comparing the tally layouts (see TallyLayout) under 1, 4 and 16
+ * writer threads
+ * 
+ * Each writer votes on its own Questions, interleaved with the other writers'
+ * (writer t takes every Question q with q % writers == t), so writers never touch
+ * the same count but do touch neighbouring rows. That is the case where a packed
+ * layout loses to false sharing and a padded one shouldn't. The scores are
+ * per-thread throughputs added up, so a layout that scales keeps its score growing
+ * with the writers (on a machine with that many cores).
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TallyBenchmark {
+
+    /**
+     * The TallyLayout the counts are laid out in (ADDERS is the default layout)
+     */
+    @Param({"ADDERS", "FLAT", "PADDED", "STRIPED"})
+    public String layout;
+
+    /**
+     * The number of Questions
+     */
+    @Param({"64", "4096"})
+    public int questions;
+
+    /**
+     * The number of possible answers of each Question
+     */
+    @Param({"4"})
+    public int options;
+
+    /**
+     * The counter operations being measured
+     */
+    private TallyTarget target;
+
+    /**
+     * Builds the empty counters
+     */
+    @Setup
+    public void setUp(){
+        this.target = BenchmarkTargets.load(TallyTarget.class, "TallyBenchmarkTarget");
+        this.target.setUp(this.layout, this.questions, this.options);
+    }
+
+    /**
+     * The votes one writer thread adds, drawn ahead of time so the benchmark
+     * measures the counters rather than the random numbers
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+
+        /**
+         * The number of votes drawn (a power of 2)
+         */
+        private static final int VOTES = 1024;
+
+        /**
+         * The Question of each vote
+         */
+        private final int[] questionIndices = new int[VOTES];
+
+        /**
+         * The Answer of each vote
+         */
+        private final int[] answerIndices = new int[VOTES];
+
+        /**
+         * The next vote to add
+         */
+        private int next;
+
+        /**
+         * Draws this writer's votes from its own Questions
+         * 
+         * @param benchmark The benchmark's shared state
+         * @param threads Which writer this is, and how many there are
+         */
+        @Setup
+        public void setUp(TallyBenchmark benchmark, ThreadParams threads){
+            int writers = threads.getThreadCount();
+            int writer = threads.getThreadIndex();
+            int owned = Math.max((benchmark.questions - writer + writers - 1) / writers, 1);
+
+            SplittableRandom random = new SplittableRandom(writer);
+            for (int i = 0; i < VOTES; i++){
+                this.questionIndices[i] = (writer + random.nextInt(owned) * writers) % benchmark.questions;
+                this.answerIndices[i] = random.nextInt(benchmark.options);
+            }
+        }
+
+        /**
+         * Adds this writer's next vote
+         * 
+         * @param target The counters to add to
+         */
+        void vote(TallyTarget target){
+            int i = this.next;
+            this.next = (i + 1) & (VOTES - 1);
+            target.add(this.questionIndices[i], this.answerIndices[i]);
+        }
+    }
+
+    /**
+     * Adds votes from a single writer
+     * 
+     * @param writer The writer's votes
+     */
+    @Benchmark
+    @Threads(1)
+    public void add1Writer(Writer writer){
+        writer.vote(this.target);
+    }
+
+    /**
+     * Adds votes from 4 writers at once
+     * 
+     * @param writer The writer's votes
+     */
+    @Benchmark
+    @Threads(4)
+    public void add4Writers(Writer writer){
+        writer.vote(this.target);
+    }
+
+    /**
+     * Adds votes from 16 writers at once
+     * 
+     * @param writer The writer's votes
+     */
+    @Benchmark
+    @Threads(16)
+    public void add16Writers(Writer writer){
+        writer.vote(this.target);
+    }
+
+    /**
+     * Reads every count (a striped layout pays for its stripes here)
+     * 
+     * @return The sum of the counts
+     */
+    @Benchmark
+    @Threads(1)
+    public long sum(){
+        return this.target.sum();
+    }
+}
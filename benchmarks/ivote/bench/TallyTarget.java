@@ -0,0 +1,33 @@
+package ivote.bench;
+
+/**
+ * The tally counter operations measured by TallyBenchmark
+ * 
+ * Implemented by the default-package TallyBenchmarkTarget (see BenchmarkTargets)
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface TallyTarget {
+
+    /**
+     * Builds empty counters
+     * @param layout The name of the TallyLayout to lay the counts out in
+     * @param questions The number of Questions
+     * @param options The number of possible answers of each Question
+     */
+    public void setUp(String layout, int questions, int options);
+
+    /**
+     * Adds one vote for an answer (called from many threads at once)
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     */
+    public void add(int questionIndex, int answerIndex);
+
+    /**
+     * Reads every count
+     * @return The sum of the counts
+     */
+    public long sum();
+}
@@ -0,0 +1,99 @@
+package ivote.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for a full voting round and for printing the statistics
+ * 
+ * The electorate spans 10 to 1M Students, so the larger parameter combinations
+ * need a few GB of heap. Run with `-prof gc` to see the allocation rate next to
+ * the throughput.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class VotingServiceBenchmark {
+
+    /**
+     * The number of Students voting
+     */
+    @Param({"10", "1000", "100000", "1000000"})
+    public int students;
+
+    /**
+     * The number of Questions
+     */
+    @Param({"4", "64"})
+    public int questions;
+
+    /**
+     * The number of possible answers of each Question
+     */
+    @Param({"4", "64"})
+    public int options;
+
+    /**
+     * How many threads voting may be split across
+     */
+    @Param({"1", "4"})
+    public int parallelism;
+
+    /**
+     * The VotingService operations being measured
+     */
+    private VotingServiceTarget target;
+
+    /**
+     * Builds the electorate and runs a first round, so every benchmarked round
+     * is a re-vote
+     */
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.target = BenchmarkTargets.load(VotingServiceTarget.class, "VotingServiceBenchmarkTarget");
+        this.target.setUp(this.students, this.questions, this.options, this.parallelism);
+    }
+
+    /**
+     * Puts back anything the target changed outside itself
+     */
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        this.target.tearDown();
+    }
+
+    /**
+     * Runs one full voting round
+     */
+    @Benchmark
+    public void chooseAnswers(){
+        this.target.chooseAnswers();
+    }
+
+    /**
+     * Prints the statistics of every Question
+     */
+    @Benchmark
+    public void printStatistics(){
+        this.target.printStatistics();
+    }
+}
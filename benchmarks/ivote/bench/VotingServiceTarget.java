@@ -0,0 +1,36 @@
+package ivote.bench;
+
+/**
+ * The VotingService operations measured by VotingServiceBenchmark
+ * 
+ * Implemented by the default-package VotingServiceBenchmarkTarget (see BenchmarkTargets)
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface VotingServiceTarget {
+
+    /**
+     * Builds the electorate and runs a first voting round
+     * @param students The number of Students voting
+     * @param questions The number of Questions
+     * @param options The number of possible answers of each Question
+     * @param parallelism How many threads voting may be split across
+     */
+    public void setUp(int students, int questions, int options, int parallelism);
+
+    /**
+     * Runs one full voting round
+     */
+    public void chooseAnswers();
+
+    /**
+     * Prints the statistics of every Question
+     */
+    public void printStatistics();
+
+    /**
+     * Undoes anything setUp changed outside the target
+     */
+    public void tearDown();
+}
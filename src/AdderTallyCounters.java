@@ -0,0 +1,110 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The AdderTallyCounters class keeps each Question's counts in its own row of
+ * LongAdders (TallyLayout.ADDERS)
+ * 
+ * A LongAdder spreads contended updates over several padded cells and only adds
+ * them up when read, so writers on different threads don't fight over one cache
+ * line and a reader never blocks a writer.
+ * 
+ * A Question's row is only made when one of its counts first changes; until then
+ * every count reads as 0. In a big question bank where most Questions get few or
+ * no votes, memory follows the Questions actually voted on.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class AdderTallyCounters implements TallyCountersInterface {
+
+    /**
+     * The number of answer positions of each Question
+     */
+    private final int[] positionCounts;
+
+    /**
+     * The counts matrix, a row made per Question on its first change
+     * 
+     * counts[i][j] is the number of Students who chose Answer index j of
+     * Question index i (a missing row counts 0 for every answer)
+     */
+    private final AtomicReferenceArray<LongAdder[]> counts;
+
+    /**
+     * Creates the counters with every count at 0
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     */
+    public AdderTallyCounters(int[] positionCounts){
+        this.positionCounts = positionCounts.clone();
+        this.counts = new AtomicReferenceArray<LongAdder[]>(positionCounts.length);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void add(int questionIndex, int answerIndex, long delta){
+        row(questionIndex)[answerIndex].add(delta);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long get(int questionIndex, int answerIndex){
+        LongAdder[] row = this.counts.get(questionIndex);
+        return row == null ? 0 : row[answerIndex].sum();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void copyRow(int questionIndex, long[] rowOut){
+        LongAdder[] row = this.counts.get(questionIndex);
+        for (int j = 0; j < this.positionCounts[questionIndex]; j++){
+            rowOut[j] = row == null ? 0 : row[j].sum();
+        }
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getAllocatedRowCount(){
+        int rows = 0;
+        for (int i = 0; i < this.counts.length(); i++){
+            if (this.counts.get(i) != null){
+                rows++;
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Gets a Question's row of counters, making it on first use
+     * 
+     * @param questionIndex The index of the Question
+     * @return The Question's counters
+     */
+    private LongAdder[] row(int questionIndex){
+        LongAdder[] row = this.counts.get(questionIndex);
+        if (row != null){
+            return row;
+        }
+
+        int positionCount = this.positionCounts[questionIndex];
+        row = new LongAdder[positionCount];
+        for (int j = 0; j < positionCount; j++){
+            row[j] = new LongAdder();
+        }
+        if (!this.counts.compareAndSet(questionIndex, null, row)){
+            row = this.counts.get(questionIndex);
+        }
+
+        return row;
+    }
+}
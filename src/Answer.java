@@ -3,13 +3,20 @@
  * 
  * An Answer object is not bound to its question, but exists as its own entity. 
  * With a String for the answer and a boolean denoting whether or not it's correct,
- * we can implement a very basic set of getter-setter commands, as well as some overrides
+ * we can implement a very basic set of getter commands, as well as some overrides
  * to maintain equality and hashing (for use with a Set or a HashMap or HashSet, allowing for
  * a variety of implementations).
  * 
  * For this implementation, an Answer object is equal to (or has the same hashcode as) another
  * if their answer strings are equal (or have the same hashcode).
  * 
+ * An Answer can't be changed once made, so a Question's correctness mask can't fall
+ * out of step with its Answers (a Question swaps in a different Answer instead, see
+ * QuestionInterface.setCorrect). The hashcode is worked out once, in the constructor,
+ * rather than on every Set probe. Questions take their Answers from the AnswerPool,
+ * so Questions with the same answer share one Answer object, and comparing two of
+ * them usually comes down to comparing references.
+ * 
  * @author George Matta
  * @version 1.0
  */
@@ -18,12 +25,17 @@ public class Answer {
     /**
      * A String denoting the answer's text
      */
-    private String answerString;
+    private final String answerString;
 
     /**
      * A Boolean denoting whether or not the answer is correct
      */
-    private boolean isCorrect;
+    private final boolean isCorrect;
+
+    /**
+     * The answerString's hashcode, cached when the Answer is made
+     */
+    private final int hash;
 
     /**
      * A basic constructor for an Answer object.
@@ -36,6 +48,7 @@ public class Answer {
     public Answer(String answerString, boolean isCorrect){
         this.answerString = answerString;
         this.isCorrect = isCorrect;
+        this.hash = answerString.hashCode();
     }
 
     /**
@@ -46,14 +59,6 @@ public class Answer {
         return this.answerString;
     }
 
-    /**
-     * A simple setter for the answerString attribute of the Answer object
-     * @param answerString A String denoting the answer's text
-     */
-    public void setAnswerString(String answerString){
-        this.answerString = answerString;
-    }
-
     /**
      * A simple getter for the isCorrect attribute of the Answer object
      * @return A Boolean denoting whether or not the answer is correct
@@ -62,22 +67,14 @@ public class Answer {
         return this.isCorrect;
     }
 
-    /**
-     * A simple setter for the isCorrect attribute of the Answer object
-     * @param isCorrect A Boolean denoting whether or not the answer is correct
-     */
-    public void setCorrect(boolean isCorrect){
-        this.isCorrect = isCorrect;
-    }
-
     /**
      * Retrieves the answerString's hashcode
      * 
-     * @return The answerString's hashcode (retrieved by calling hashcode() on it).
+     * @return The answerString's hashcode (cached from calling hashcode() on it).
      */
     @Override
     public int hashCode(){
-        return this.answerString.hashCode();
+        return this.hash;
     }
 
     /**
@@ -108,7 +105,12 @@ public class Answer {
      * @return Whether or not the objects are equal
      */
     public boolean equals(Answer other){
-        return this.equals(other.answerString);
+        // Pooled texts are usually the same object, and differing hashcodes rule out a match
+        if (this.answerString == other.answerString){
+            return true;
+        }
+
+        return this.hash == other.hash && this.equals(other.answerString);
     }
 
     /**
@@ -0,0 +1,157 @@
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The AnswerPool class keeps one shared Answer for every answer text and correctness
+ * 
+ * Question banks reuse the same answers ("True", "False", "A" to "E", numbers...)
+ * across a huge number of Questions. Answers can't be changed, so Questions take
+ * theirs from here, and each distinct answer (a text, correct or not) is one object
+ * no matter how many Questions use it. A Question still keeps which of its positions
+ * are correct in its own correctness mask, and changing that swaps in the other
+ * pooled Answer for the text.
+ * 
+ * The pool only holds its Answers weakly: once no Question uses an Answer any more,
+ * the garbage collector can take it and its entry is dropped on a later lookup, so
+ * answers typed in freely don't make the pool grow without bound.
+ * 
+ * The pool is thread-safe, and looking up an answer that is already pooled doesn't
+ * allocate.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public final class AnswerPool {
+
+    /**
+     * The pooled correct Answers, by text
+     */
+    private static final ConcurrentHashMap<String, PooledAnswer> CORRECT = new ConcurrentHashMap<String, PooledAnswer>();
+
+    /**
+     * The pooled incorrect Answers, by text
+     */
+    private static final ConcurrentHashMap<String, PooledAnswer> INCORRECT = new ConcurrentHashMap<String, PooledAnswer>();
+
+    /**
+     * Where the garbage collector queues the entries of Answers it has taken
+     */
+    private static final ReferenceQueue<Answer> COLLECTED = new ReferenceQueue<Answer>();
+
+    /**
+     * The pool only has static methods
+     */
+    private AnswerPool(){
+    }
+
+    /**
+     * Gets the shared Answer for a text and correctness, adding it to the pool if it
+     * is new
+     * 
+     * @param answerString The answer text
+     * @param isCorrect Whether or not the answer is correct
+     * @return The pooled Answer
+     */
+    public static Answer get(String answerString, boolean isCorrect){
+        ConcurrentHashMap<String, PooledAnswer> pool = isCorrect ? CORRECT : INCORRECT;
+        Answer answer = find(pool, answerString);
+        if (answer != null){
+            return answer;
+        }
+
+        expungeCollected();
+
+        // Share the text with the other correctness, if it is pooled
+        Answer other = find(isCorrect ? INCORRECT : CORRECT, answerString);
+        answer = new Answer(other != null ? other.getAnswerString() : answerString, isCorrect);
+
+        while (true){
+            PooledAnswer entry = new PooledAnswer(answer, isCorrect);
+            PooledAnswer existing = pool.putIfAbsent(answer.getAnswerString(), entry);
+            if (existing == null){
+                return answer;
+            }
+
+            Answer pooled = existing.get();
+            if (pooled != null){
+                return pooled;
+            }
+            // The entry's Answer was collected but not yet expunged, so replace it
+            if (pool.replace(answer.getAnswerString(), existing, entry)){
+                return answer;
+            }
+        }
+    }
+
+    /**
+     * A simple getter for the number of Answers in the pool (including any collected
+     * but not yet dropped)
+     * @return The size of the pool
+     */
+    public static int getSize(){
+        return CORRECT.size() + INCORRECT.size();
+    }
+
+    /**
+     * Empties the pool
+     * 
+     * Answers already handed out stay as they are; Answers pooled afterwards just
+     * won't be shared with them
+     */
+    public static void clear(){
+        CORRECT.clear();
+        INCORRECT.clear();
+    }
+
+    /**
+     * Looks an Answer up in one of the pools
+     * 
+     * @param pool The pool of correct or incorrect Answers
+     * @param answerString The answer text
+     * @return The pooled Answer, or null if there is none (or it was collected)
+     */
+    private static Answer find(ConcurrentHashMap<String, PooledAnswer> pool, String answerString){
+        PooledAnswer entry = pool.get(answerString);
+        return entry != null ? entry.get() : null;
+    }
+
+    /**
+     * Drops the entries of every Answer the garbage collector has taken
+     */
+    private static void expungeCollected(){
+        PooledAnswer entry;
+        while ((entry = (PooledAnswer) COLLECTED.poll()) != null){
+            (entry.isCorrect ? CORRECT : INCORRECT).remove(entry.answerString, entry);
+        }
+    }
+
+    /**
+     * The PooledAnswer class is a pool entry: a weak reference to an Answer that
+     * remembers where it is kept, so it can be dropped once the Answer is collected
+     */
+    private static final class PooledAnswer extends WeakReference<Answer> {
+
+        /**
+         * The text the entry is kept under
+         */
+        private final String answerString;
+
+        /**
+         * Whether the entry is in the pool of correct Answers
+         */
+        private final boolean isCorrect;
+
+        /**
+         * Creates an entry for an Answer
+         * 
+         * @param answer The pooled Answer
+         * @param isCorrect Whether or not the Answer is correct
+         */
+        PooledAnswer(Answer answer, boolean isCorrect){
+            super(answer, COLLECTED);
+            this.answerString = answer.getAnswerString();
+            this.isCorrect = isCorrect;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The BallotIngestor class streams BallotRecords from outside into a VotingService
+ * 
+ * Records are handed in through submit (or read from an Iterator or a file) and
+ * placed in a bounded queue. A single applier thread drains the queue in batches and
+ * applies each batch to the service under one lock, so the tallies stay readable
+ * while ingestion continues. When the applier falls behind and the queue fills up,
+ * submitting blocks until there is room again, which keeps memory bounded no matter
+ * how long the stream is. A blocked submitter wakes up every so often to check that
+ * the ingestor hasn't been closed and the applier hasn't failed, so it is never left
+ * waiting on a queue nobody drains.
+ * 
+ * Records that don't match a Student or Question of the service are skipped and
+ * counted as rejected rather than stopping the stream.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class BallotIngestor {
+
+    /**
+     * A record placed on the queue to tell the applier thread the stream has ended
+     */
+    private static final BallotRecord END_OF_STREAM = new BallotRecord("", -1, new int[0]);
+
+    /**
+     * How long a blocked submitter waits for room before checking the ingestor again,
+     * in milliseconds
+     */
+    private static final long CHECK_INTERVAL_MILLIS = 50;
+
+    /**
+     * The VotingService the ballots are applied to
+     */
+    private final VotingService votingService;
+
+    /**
+     * The bounded queue between the submitters and the applier thread
+     */
+    private final BlockingQueue<BallotRecord> queue;
+
+    /**
+     * The largest number of records applied under one lock
+     */
+    private final int batchSize;
+
+    /**
+     * The thread draining the queue into the VotingService
+     */
+    private final Thread applier;
+
+    /**
+     * The number of records applied so far
+     */
+    private final AtomicLong appliedCount;
+
+    /**
+     * The number of records skipped because they didn't match the service
+     */
+    private final AtomicLong rejectedCount;
+
+    /**
+     * The error that stopped the applier thread, if any
+     */
+    private volatile RuntimeException failure;
+
+    /**
+     * Whether or not close() has been called (volatile, since submitters on other
+     * threads check it)
+     */
+    private volatile boolean closed;
+
+    /**
+     * Creates a BallotIngestor and starts its applier thread
+     * 
+     * @param votingService The VotingService the ballots are applied to
+     * @param queueCapacity The most records that can wait to be applied at once
+     * @param batchSize The largest number of records applied under one lock
+     * @throws IllegalArgumentException If the queue capacity or batch size is 0 or less
+     */
+    public BallotIngestor(VotingService votingService, int queueCapacity, int batchSize){
+        if (queueCapacity <= 0 || batchSize <= 0){
+            throw new IllegalArgumentException("queueCapacity and batchSize must be positive integers");
+        }
+
+        this.votingService = votingService;
+        this.queue = new ArrayBlockingQueue<BallotRecord>(queueCapacity);
+        this.batchSize = batchSize;
+        this.appliedCount = new AtomicLong();
+        this.rejectedCount = new AtomicLong();
+
+        this.applier = new Thread(this::applyBatches, "ballot-ingestor");
+        this.applier.setDaemon(true);
+        this.applier.start();
+    }
+
+    /**
+     * Hands in a record, waiting for room in the queue if the applier has fallen behind
+     * 
+     * @param record The BallotRecord to apply
+     * @throws InterruptedException If interrupted while waiting for room
+     * @throws IllegalStateException If the ingestor is closed or the applier has failed
+     */
+    public void submit(BallotRecord record) throws InterruptedException {
+        checkOpen();
+        while (!this.queue.offer(record, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)){
+            checkOpen();
+        }
+    }
+
+    /**
+     * Hands in a record, giving up if there is no room in the queue within the timeout
+     * 
+     * @param record The BallotRecord to apply
+     * @param timeout How long to wait for room
+     * @param unit The unit of the timeout
+     * @return Whether or not the record was accepted
+     * @throws InterruptedException If interrupted while waiting for room
+     * @throws IllegalStateException If the ingestor is closed or the applier has failed
+     */
+    public boolean offer(BallotRecord record, long timeout, TimeUnit unit) throws InterruptedException {
+        checkOpen();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long interval = TimeUnit.MILLISECONDS.toNanos(CHECK_INTERVAL_MILLIS);
+
+        long remaining = deadline - System.nanoTime();
+        while (!this.queue.offer(record, Math.max(0, Math.min(remaining, interval)), TimeUnit.NANOSECONDS)){
+            checkOpen();
+            remaining = deadline - System.nanoTime();
+            if (remaining <= 0){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Hands in every record of an Iterator, in order
+     * 
+     * The Iterator is only advanced as fast as the applier keeps up, so it may be
+     * unbounded or lazily produced
+     * 
+     * @param records The BallotRecords to apply
+     * @return The number of records handed in
+     * @throws InterruptedException If interrupted while waiting for room
+     */
+    public long ingest(Iterator<BallotRecord> records) throws InterruptedException {
+        long count = 0;
+        while (records.hasNext()){
+            submit(records.next());
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Hands in every record of a file, one record per line (see BallotRecord.fromLine)
+     * 
+     * Blank lines are skipped. The file is read as the applier keeps up, so it is
+     * never held in memory all at once.
+     * 
+     * @param path The path of the file to read
+     * @return The number of records handed in
+     * @throws IOException If the file can't be read
+     * @throws InterruptedException If interrupted while waiting for room
+     * @throws IllegalArgumentException If a line is not a valid record
+     */
+    public long ingestFile(Path path) throws IOException, InterruptedException {
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path)){
+            String line = reader.readLine();
+            while (line != null){
+                if (!line.isBlank()){
+                    submit(BallotRecord.fromLine(line));
+                    count++;
+                }
+                line = reader.readLine();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * A simple getter for the number of records applied so far
+     * @return The number of applied records
+     */
+    public long getAppliedCount(){
+        return this.appliedCount.get();
+    }
+
+    /**
+     * A simple getter for the number of records skipped because they didn't match
+     * a Student or Question of the service
+     * @return The number of rejected records
+     */
+    public long getRejectedCount(){
+        return this.rejectedCount.get();
+    }
+
+    /**
+     * A simple getter for the number of records waiting to be applied
+     * @return The number of queued records
+     */
+    public int getPendingCount(){
+        return this.queue.size();
+    }
+
+    /**
+     * Ends the stream and waits for every record handed in so far to be applied
+     * 
+     * @throws InterruptedException If interrupted while waiting for the applier
+     * @throws IllegalStateException If the applier thread failed
+     */
+    public void close() throws InterruptedException {
+        if (!this.closed){
+            this.closed = true;
+            // A failed applier no longer drains the queue, so don't wait for room it won't make
+            while (this.failure == null
+                    && !this.queue.offer(END_OF_STREAM, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)){
+                if (!this.applier.isAlive()){
+                    break;
+                }
+            }
+            this.applier.join();
+        }
+
+        if (this.failure != null){
+            throw new IllegalStateException("The ballot applier thread failed.", this.failure);
+        }
+    }
+
+    /**
+     * Makes sure records can still be handed in
+     * 
+     * @throws IllegalStateException If the ingestor is closed or the applier has failed
+     */
+    private void checkOpen(){
+        if (this.failure != null){
+            throw new IllegalStateException("The ballot applier thread failed.", this.failure);
+        }
+        if (this.closed){
+            throw new IllegalStateException("The ingestor has been closed.");
+        }
+    }
+
+    /**
+     * The applier thread's loop: waits for a record, drains whatever else is queued
+     * (up to the batch size), and applies the batch to the VotingService
+     */
+    private void applyBatches(){
+        List<BallotRecord> batch = new ArrayList<BallotRecord>(this.batchSize);
+        boolean ended = false;
+
+        try {
+            while (!ended){
+                batch.add(this.queue.take());
+                this.queue.drainTo(batch, this.batchSize - 1);
+
+                // Anything after the end marker was never accepted, so drop it
+                for (int i = 0; i < batch.size(); i++){
+                    if (batch.get(i) == END_OF_STREAM){
+                        batch.subList(i, batch.size()).clear();
+                        ended = true;
+                    }
+                }
+
+                int applied = this.votingService.submitBallots(batch);
+                this.appliedCount.addAndGet(applied);
+                this.rejectedCount.addAndGet(batch.size() - applied);
+                batch.clear();
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e){
+            // Submitters waiting for room see this the next time they check
+            this.failure = e;
+            this.queue.clear();
+        }
+    }
+}
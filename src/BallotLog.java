@@ -0,0 +1,361 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * The BallotLog class is an append-only audit trail of every ballot a VotingService
+ * applies, from which the statistics and ballots can be rebuilt (see BallotLogReader
+ * and VotingService.enableBallotLog)
+ * 
+ * The log is a directory of segment files named ballots-00000000.log, ballots-00000001.log
+ * and so on. Each segment starts with a 24 byte little-endian header (magic, version,
+ * segment number, and the election's fingerprint), followed by batches:
+ * 
+ * - The length of the batch's records in bytes and their CRC32C checksum (4 bytes each)
+ * - The records, each a type byte and its varint fields:
+ *   BALLOT (Student index, Question index, word count, then each word's old and new
+ *   value) or ROUND (the round just finished and the seed)
+ * 
+ * Voting threads fill their own BallotLogBatch and hand it in whole, so the log's
+ * lock is taken once per batch rather than once per ballot. Batches are written
+ * straight away but only forced to disk once groupCommitBytes have built up or a
+ * round ends (group commit), so one fsync covers many ballots. Once a segment
+ * reaches segmentBytes, the next batch starts a new one.
+ * 
+ * A reopened log never appends to an old segment; it starts the next one, so a
+ * batch torn by a crash only ever ends a segment.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class BallotLog {
+
+    /**
+     * The first four bytes of every segment ("IVBL")
+     */
+    static final int MAGIC = 0x4C425649;
+
+    /**
+     * The version of the segment layout
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of a segment header in bytes
+     */
+    static final int HEADER_SIZE = 24;
+
+    /**
+     * The size of a batch's length and checksum in bytes
+     */
+    static final int FRAME_SIZE = 8;
+
+    /**
+     * The type byte of a BALLOT record
+     */
+    static final int BALLOT = 1;
+
+    /**
+     * The type byte of a ROUND record
+     */
+    static final int ROUND = 2;
+
+    /**
+     * The default size a segment rolls over at (64 MB)
+     */
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    /**
+     * The default number of bytes written between forces to disk (1 MB)
+     */
+    public static final long DEFAULT_GROUP_COMMIT_BYTES = 1L << 20;
+
+    /**
+     * The directory of the segments
+     */
+    private final Path directory;
+
+    /**
+     * The fingerprint of the election, written into every segment
+     */
+    private final long fingerprint;
+
+    /**
+     * The size a segment rolls over at
+     */
+    private final long segmentBytes;
+
+    /**
+     * The number of bytes written between forces to disk
+     */
+    private final long groupCommitBytes;
+
+    /**
+     * The checksum of the batch being written
+     */
+    private final CRC32C crc;
+
+    /**
+     * The number of the segment being written
+     */
+    private long segmentNumber;
+
+    /**
+     * The channel of the segment being written, or null once closed
+     */
+    private FileChannel channel;
+
+    /**
+     * The size of the segment being written
+     */
+    private long segmentSize;
+
+    /**
+     * The bytes written since the last force to disk
+     */
+    private long unsyncedBytes;
+
+    /**
+     * The total bytes written
+     */
+    private long bytesWritten;
+
+    /**
+     * The number of batches written
+     */
+    private long batchCount;
+
+    /**
+     * The number of forces to disk
+     */
+    private long syncCount;
+
+    /**
+     * Opens a ballot log with the default segment and group commit sizes
+     * 
+     * @param directory The directory of the segments (created if needed)
+     * @param fingerprint The fingerprint of the election
+     * @throws IOException If the directory or the new segment can't be created
+     * @throws IllegalStateException If the directory holds another election's log
+     */
+    public BallotLog(Path directory, long fingerprint) throws IOException {
+        this(directory, fingerprint, DEFAULT_SEGMENT_BYTES, DEFAULT_GROUP_COMMIT_BYTES);
+    }
+
+    /**
+     * Opens a ballot log, starting a new segment after any already in the directory
+     * 
+     * @param directory The directory of the segments (created if needed)
+     * @param fingerprint The fingerprint of the election
+     * @param segmentBytes The size a segment rolls over at
+     * @param groupCommitBytes The number of bytes written between forces to disk
+     * @throws IOException If the directory or the new segment can't be created
+     * @throws IllegalArgumentException If segmentBytes or groupCommitBytes is 0 or less
+     * @throws IllegalStateException If the directory holds another election's log
+     */
+    public BallotLog(Path directory, long fingerprint, long segmentBytes, long groupCommitBytes) throws IOException {
+        if (segmentBytes <= 0 || groupCommitBytes <= 0){
+            throw new IllegalArgumentException("segmentBytes and groupCommitBytes must be positive integers");
+        }
+
+        this.directory = directory;
+        this.fingerprint = fingerprint;
+        this.segmentBytes = segmentBytes;
+        this.groupCommitBytes = groupCommitBytes;
+        this.crc = new CRC32C();
+
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments(directory);
+        for (Path segment : segments){
+            BallotLogReader.checkHeader(segment, fingerprint);
+        }
+        this.segmentNumber = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+        openSegment();
+    }
+
+    /**
+     * Writes a batch of records as one checksummed unit and empties it, forcing the
+     * log to disk if enough bytes have built up since the last force
+     * 
+     * @param batch The batch to write
+     * @throws IOException If the batch can't be written
+     */
+    synchronized void write(BallotLogBatch batch) throws IOException {
+        int length = batch.getLength();
+        if (length == 0){
+            return;
+        }
+        if (this.channel == null){
+            throw new IllegalStateException("The ballot log is closed.");
+        }
+
+        // Don't let a batch straddle two segments
+        if (this.segmentSize > HEADER_SIZE && this.segmentSize + FRAME_SIZE + length > this.segmentBytes){
+            rollOver();
+        }
+
+        this.crc.reset();
+        this.crc.update(batch.getBytes(), FRAME_SIZE, length);
+        ByteBuffer buffer = ByteBuffer.wrap(batch.getBytes(), 0, FRAME_SIZE + length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) this.crc.getValue());
+        while (buffer.hasRemaining()){
+            this.channel.write(buffer);
+        }
+
+        this.segmentSize += FRAME_SIZE + length;
+        this.unsyncedBytes += FRAME_SIZE + length;
+        this.bytesWritten += FRAME_SIZE + length;
+        this.batchCount++;
+        batch.clear();
+
+        if (this.unsyncedBytes >= this.groupCommitBytes){
+            sync();
+        }
+    }
+
+    /**
+     * Forces everything written so far to disk
+     * 
+     * @throws IOException If the log can't be forced
+     */
+    public synchronized void sync() throws IOException {
+        if (this.channel == null || this.unsyncedBytes == 0){
+            return;
+        }
+
+        this.channel.force(false);
+        this.unsyncedBytes = 0;
+        this.syncCount++;
+    }
+
+    /**
+     * Forces the log to disk and closes it
+     * 
+     * @throws IOException If the log can't be forced or closed
+     */
+    public synchronized void close() throws IOException {
+        if (this.channel != null){
+            sync();
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    /**
+     * A simple getter for the directory of the segments
+     * @return The directory
+     */
+    public Path getDirectory(){
+        return this.directory;
+    }
+
+    /**
+     * A simple getter for the total bytes written
+     * @return The bytes written, including batch frames but not segment headers
+     */
+    public synchronized long getBytesWritten(){
+        return this.bytesWritten;
+    }
+
+    /**
+     * A simple getter for the number of batches written
+     * @return The number of batches
+     */
+    public synchronized long getBatchCount(){
+        return this.batchCount;
+    }
+
+    /**
+     * A simple getter for the number of times the log was forced to disk
+     * @return The number of forces
+     */
+    public synchronized long getSyncCount(){
+        return this.syncCount;
+    }
+
+    /**
+     * A simple getter for the number of the segment being written
+     * @return The segment number
+     */
+    public synchronized long getSegmentNumber(){
+        return this.segmentNumber;
+    }
+
+    /**
+     * Lists the segments of a log, oldest first
+     * 
+     * @param directory The directory of the segments
+     * @return The paths of the segments (empty if the directory doesn't exist)
+     * @throws IOException If the directory can't be read
+     */
+    public static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<Path>();
+        if (!Files.isDirectory(directory)){
+            return segments;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "ballots-*.log")){
+            for (Path segment : stream){
+                segments.add(segment);
+            }
+        }
+        // The numbers are zero padded, so names sort in segment order
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Closes the segment being written and starts the next one
+     * 
+     * @throws IOException If a segment can't be forced, closed, or created
+     */
+    private void rollOver() throws IOException {
+        sync();
+        this.channel.close();
+        this.segmentNumber++;
+        openSegment();
+    }
+
+    /**
+     * Creates the segment numbered segmentNumber and writes its header
+     * 
+     * @throws IOException If the segment can't be created
+     */
+    private void openSegment() throws IOException {
+        Path path = this.directory.resolve(String.format("ballots-%08d.log", this.segmentNumber));
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(this.segmentNumber);
+        header.putLong(this.fingerprint);
+        header.flip();
+        while (header.hasRemaining()){
+            this.channel.write(header);
+        }
+        this.segmentSize = HEADER_SIZE;
+        this.unsyncedBytes += HEADER_SIZE;
+    }
+
+    /**
+     * Reads the number out of a segment's file name
+     * 
+     * @param segment The path of the segment
+     * @return The segment number
+     */
+    private static long segmentNumber(Path segment){
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("ballots-".length(), name.length() - ".log".length()));
+    }
+}
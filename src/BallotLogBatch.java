@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * The BallotLogBatch class gathers the records of one voting thread before they
+ * are handed to a BallotLog as a single checksummed batch
+ * 
+ * Room for the batch's frame (length and checksum) is kept at the front of the
+ * buffer, so the BallotLog writes the whole batch with one call. Once the batch
+ * reaches FLUSH_BYTES it hands itself in and starts over, so it never grows much
+ * past that however many ballots a thread applies.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class BallotLogBatch {
+
+    /**
+     * The size a batch is handed in at (64 KB)
+     */
+    static final int FLUSH_BYTES = 64 << 10;
+
+    /**
+     * The log the batch is handed to
+     */
+    private final BallotLog log;
+
+    /**
+     * The frame followed by the encoded records
+     */
+    private byte[] bytes;
+
+    /**
+     * Where the next byte goes
+     */
+    private int position;
+
+    /**
+     * Creates an empty batch for a log
+     * 
+     * @param log The log the batch is handed to
+     */
+    BallotLogBatch(BallotLog log){
+        this.log = log;
+        this.bytes = new byte[FLUSH_BYTES + 256];
+        this.position = BallotLog.FRAME_SIZE;
+    }
+
+    /**
+     * Records a ballot being replaced, if it changed
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @param oldWords The array holding the old ballot
+     * @param oldOffset Where the old ballot starts in oldWords
+     * @param newWords The array holding the new ballot
+     * @param newOffset Where the new ballot starts in newWords
+     * @param wordCount The number of words in the ballot
+     * @throws UncheckedIOException If the batch fills up and can't be written
+     */
+    void writeBallot(int studentIndex, int questionIndex, long[] oldWords, int oldOffset,
+            long[] newWords, int newOffset, int wordCount){
+        if (Arrays.equals(oldWords, oldOffset, oldOffset + wordCount, newWords, newOffset, newOffset + wordCount)){
+            return;
+        }
+
+        // A type byte and three ints, then two longs per word, at most
+        ensureRoom(16 + 20 * wordCount);
+        this.bytes[this.position++] = BallotLog.BALLOT;
+        writeVarLong(studentIndex);
+        writeVarLong(questionIndex);
+        writeVarLong(wordCount);
+        for (int w = 0; w < wordCount; w++){
+            writeVarLong(oldWords[oldOffset + w]);
+            writeVarLong(newWords[newOffset + w]);
+        }
+
+        if (getLength() >= FLUSH_BYTES){
+            flush();
+        }
+    }
+
+    /**
+     * Records the end of a round
+     * 
+     * @param round The round just finished
+     * @param seed The seed of the election
+     */
+    void writeRound(int round, long seed){
+        ensureRoom(21);
+        this.bytes[this.position++] = BallotLog.ROUND;
+        writeVarLong(round);
+        writeVarLong(seed);
+    }
+
+    /**
+     * Hands the records gathered so far to the log
+     * 
+     * @throws UncheckedIOException If the batch can't be written
+     */
+    void flush(){
+        try {
+            this.log.write(this);
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A simple getter for the log the batch is handed to
+     * @return The log
+     */
+    BallotLog getLog(){
+        return this.log;
+    }
+
+    /**
+     * A simple getter for the length of the records gathered so far
+     * @return The length in bytes, not counting the frame
+     */
+    int getLength(){
+        return this.position - BallotLog.FRAME_SIZE;
+    }
+
+    /**
+     * A simple getter for the buffer (the frame, then the records)
+     * @return The live buffer
+     */
+    byte[] getBytes(){
+        return this.bytes;
+    }
+
+    /**
+     * Empties the batch once it has been written
+     */
+    void clear(){
+        this.position = BallotLog.FRAME_SIZE;
+    }
+
+    /**
+     * Makes sure the buffer has room for more bytes
+     * 
+     * @param room The number of bytes needed
+     */
+    private void ensureRoom(int room){
+        if (this.position + room > this.bytes.length){
+            this.bytes = Arrays.copyOf(this.bytes, Math.max(2 * this.bytes.length, this.position + room));
+        }
+    }
+
+    /**
+     * Writes an unsigned varint (7 bits a byte, low bits first)
+     * 
+     * @param value The value to write
+     */
+    private void writeVarLong(long value){
+        while ((value & ~0x7FL) != 0){
+            this.bytes[this.position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.bytes[this.position++] = (byte) value;
+    }
+}
@@ -0,0 +1,376 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * The BallotLogReader class reads a BallotLog back, record by record, oldest first
+ * 
+ * It works like a cursor: next() moves on to the next record and the getters
+ * describe it, so reading a log doesn't allocate per record. Every batch's checksum
+ * is checked before any of its records are returned; a batch that fails (one torn
+ * by a crash) and anything after it in the same segment are skipped, and reading
+ * carries on with the next segment.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class BallotLogReader implements AutoCloseable {
+
+    /**
+     * The segments of the log, oldest first
+     */
+    private final List<Path> segments;
+
+    /**
+     * The fingerprint the segments must have
+     */
+    private final long fingerprint;
+
+    /**
+     * The checksum of the batch being checked
+     */
+    private final CRC32C crc;
+
+    /**
+     * The index of the segment being read
+     */
+    private int segmentIndex;
+
+    /**
+     * The segment being read, mapped, or null before the first one
+     */
+    private ByteBuffer segment;
+
+    /**
+     * The records of the batch being read
+     */
+    private ByteBuffer batch;
+
+    /**
+     * The number of batches skipped because they failed their checksum
+     */
+    private int skippedBatches;
+
+    /**
+     * The type of the current record (BallotLog.BALLOT or BallotLog.ROUND)
+     */
+    private int type;
+
+    /**
+     * The Student index of the current BALLOT record
+     */
+    private int studentIndex;
+
+    /**
+     * The Question index of the current BALLOT record
+     */
+    private int questionIndex;
+
+    /**
+     * The number of words in the current BALLOT record
+     */
+    private int wordCount;
+
+    /**
+     * The old ballot of the current BALLOT record
+     */
+    private long[] oldWords;
+
+    /**
+     * The new ballot of the current BALLOT record
+     */
+    private long[] newWords;
+
+    /**
+     * The round of the current ROUND record
+     */
+    private int round;
+
+    /**
+     * The seed of the current ROUND record
+     */
+    private long seed;
+
+    /**
+     * Opens every segment of a log for reading
+     * 
+     * @param directory The directory of the segments
+     * @param fingerprint The fingerprint of the election the log must belong to
+     * @throws IOException If the directory can't be read
+     * @throws IllegalStateException If a segment belongs to another election
+     */
+    public BallotLogReader(Path directory, long fingerprint) throws IOException {
+        this.segments = BallotLog.listSegments(directory);
+        this.fingerprint = fingerprint;
+        this.crc = new CRC32C();
+        this.segmentIndex = -1;
+        this.oldWords = new long[1];
+        this.newWords = new long[1];
+    }
+
+    /**
+     * Moves on to the next record
+     * 
+     * @return Whether or not there was another record
+     * @throws IOException If a segment can't be read
+     * @throws IllegalStateException If a segment belongs to another election
+     */
+    public boolean next() throws IOException {
+        while (this.batch == null || !this.batch.hasRemaining()){
+            if (!nextBatch()){
+                return false;
+            }
+        }
+
+        this.type = this.batch.get();
+        if (this.type == BallotLog.BALLOT){
+            this.studentIndex = (int) readVarLong();
+            this.questionIndex = (int) readVarLong();
+            this.wordCount = (int) readVarLong();
+            if (this.wordCount > this.newWords.length){
+                this.oldWords = new long[this.wordCount];
+                this.newWords = new long[this.wordCount];
+            }
+            for (int w = 0; w < this.wordCount; w++){
+                this.oldWords[w] = readVarLong();
+                this.newWords[w] = readVarLong();
+            }
+        } else if (this.type == BallotLog.ROUND){
+            this.round = (int) readVarLong();
+            this.seed = readVarLong();
+        } else {
+            throw new IOException("Unknown ballot log record type " + this.type + ".");
+        }
+
+        return true;
+    }
+
+    /**
+     * A simple getter for whether the current record is a ballot (rather than the
+     * end of a round)
+     * @return Whether or not the record is a ballot
+     */
+    public boolean isBallot(){
+        return this.type == BallotLog.BALLOT;
+    }
+
+    /**
+     * A simple getter for the Student index of the current ballot
+     * @return The Student index
+     */
+    public int getStudentIndex(){
+        return this.studentIndex;
+    }
+
+    /**
+     * A simple getter for the Question index of the current ballot
+     * @return The Question index
+     */
+    public int getQuestionIndex(){
+        return this.questionIndex;
+    }
+
+    /**
+     * A simple getter for the number of words in the current ballot
+     * @return The number of words
+     */
+    public int getWordCount(){
+        return this.wordCount;
+    }
+
+    /**
+     * A simple getter for the words of the ballot being replaced
+     * 
+     * This is the reader's own buffer (only the first getWordCount() words count),
+     * reused for the next record
+     * 
+     * @return The old ballot words
+     */
+    public long[] getOldWords(){
+        return this.oldWords;
+    }
+
+    /**
+     * A simple getter for the words of the new ballot
+     * 
+     * This is the reader's own buffer (only the first getWordCount() words count),
+     * reused for the next record
+     * 
+     * @return The new ballot words
+     */
+    public long[] getNewWords(){
+        return this.newWords;
+    }
+
+    /**
+     * A simple getter for the round the current record ended
+     * @return The round
+     */
+    public int getRound(){
+        return this.round;
+    }
+
+    /**
+     * A simple getter for the seed of the current end of round
+     * @return The seed
+     */
+    public long getSeed(){
+        return this.seed;
+    }
+
+    /**
+     * A simple getter for the number of batches skipped because they failed their checksum
+     * @return The number of batches skipped
+     */
+    public int getSkippedBatches(){
+        return this.skippedBatches;
+    }
+
+    /**
+     * Lets go of the segment being read
+     */
+    @Override
+    public void close(){
+        this.segment = null;
+        this.batch = null;
+        this.segmentIndex = this.segments.size();
+    }
+
+    /**
+     * Checks that a segment belongs to an election
+     * 
+     * A segment too short to hold a header (cut off by a crash as it was created)
+     * is let through; reading skips it
+     * 
+     * @param path The path of the segment
+     * @param fingerprint The fingerprint of the election
+     * @throws IOException If the segment can't be read
+     * @throws IllegalStateException If the segment belongs to another election
+     */
+    static void checkHeader(Path path, long fingerprint) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(BallotLog.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0){
+                // Keep reading until the header is full or the file ends
+            }
+            if (!header.hasRemaining()){
+                checkHeader(path, header.flip(), fingerprint);
+            }
+        }
+    }
+
+    /**
+     * Checks a segment's header
+     * 
+     * @param path The path of the segment
+     * @param header The header, from its first byte
+     * @param fingerprint The fingerprint of the election
+     * @throws IllegalStateException If the segment belongs to another election
+     */
+    private static void checkHeader(Path path, ByteBuffer header, long fingerprint){
+        if (header.remaining() < BallotLog.HEADER_SIZE
+                || header.getInt(0) != BallotLog.MAGIC
+                || header.getInt(4) != BallotLog.VERSION
+                || header.getLong(16) != fingerprint){
+            throw new IllegalStateException("The ballot log segment " + path + " belongs to a different election.");
+        }
+    }
+
+    /**
+     * Moves on to the next batch that passes its checksum
+     * 
+     * @return Whether or not there was another batch
+     * @throws IOException If a segment can't be read
+     */
+    private boolean nextBatch() throws IOException {
+        while (true){
+            if (this.segment == null || this.segment.remaining() < BallotLog.FRAME_SIZE){
+                if (!nextSegment()){
+                    return false;
+                }
+                continue;
+            }
+
+            int length = this.segment.getInt();
+            int checksum = this.segment.getInt();
+            if (length <= 0 || length > this.segment.remaining()){
+                skipSegment();
+                continue;
+            }
+
+            ByteBuffer records = this.segment.slice(this.segment.position(), length);
+            this.crc.reset();
+            this.crc.update(records.duplicate());
+            if ((int) this.crc.getValue() != checksum){
+                skipSegment();
+                continue;
+            }
+
+            this.segment.position(this.segment.position() + length);
+            this.batch = records;
+            return true;
+        }
+    }
+
+    /**
+     * Gives up on the rest of the segment after a torn batch
+     */
+    private void skipSegment(){
+        this.skippedBatches++;
+        this.segment = null;
+    }
+
+    /**
+     * Maps the next segment and checks its header
+     * 
+     * @return Whether or not there was another segment
+     * @throws IOException If the segment can't be read
+     */
+    private boolean nextSegment() throws IOException {
+        this.segment = null;
+        this.segmentIndex++;
+        if (this.segmentIndex >= this.segments.size()){
+            return false;
+        }
+
+        Path path = this.segments.get(this.segmentIndex);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            if (channel.size() < BallotLog.HEADER_SIZE){
+                // Cut off as it was created; there is nothing in it
+                return true;
+            }
+
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            checkHeader(path, mapped, this.fingerprint);
+            mapped.position(BallotLog.HEADER_SIZE);
+            this.segment = mapped;
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads an unsigned varint from the current batch
+     * 
+     * @return The value read
+     * @throws IOException If the varint runs past the end of the batch or is too long
+     */
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64 && this.batch.hasRemaining(); shift += 7){
+            int b = this.batch.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0){
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length number.");
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.Arrays;
+
+/**
+ * The BallotRecord class holds one ballot handed in from outside the VotingService
+ * 
+ * A ballot is a Student's chosen answer indices for one Question. Students are
+ * identified by their unique ID and Questions by their index in the service, so a
+ * record can be read from a file or a stream without any Student or Question objects.
+ * 
+ * As a line of text, a record is `studentID,questionIndex,answerIndex;answerIndex;...`
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class BallotRecord {
+
+    /**
+     * The unique ID of the Student handing in the ballot
+     */
+    private final String studentID;
+
+    /**
+     * The index of the Question being answered
+     */
+    private final int questionIndex;
+
+    /**
+     * The indices of the chosen answers
+     */
+    private final int[] answerIndices;
+
+    /**
+     * Creates a BallotRecord
+     * 
+     * @param studentID The unique ID of the Student handing in the ballot
+     * @param questionIndex The index of the Question being answered
+     * @param answerIndices The indices of the chosen answers
+     */
+    public BallotRecord(String studentID, int questionIndex, int[] answerIndices){
+        this.studentID = studentID;
+        this.questionIndex = questionIndex;
+        this.answerIndices = answerIndices.clone();
+    }
+
+    /**
+     * Parses a BallotRecord from a line of text
+     * 
+     * @param line The line, formatted as `studentID,questionIndex,answerIndex;answerIndex;...`
+     * @return The parsed BallotRecord
+     * @throws IllegalArgumentException If the line is not a valid record
+     */
+    public static BallotRecord fromLine(String line){
+        String[] fields = line.split(",", -1);
+        if (fields.length != 3){
+            throw new IllegalArgumentException("A ballot record needs 3 comma-separated fields: " + line);
+        }
+
+        try {
+            int questionIndex = Integer.parseInt(fields[1].trim());
+
+            // An empty last field is an empty ballot
+            String answers = fields[2].trim();
+            String[] answerFields = answers.isEmpty() ? new String[0] : answers.split(";");
+            int[] answerIndices = new int[answerFields.length];
+            for (int i = 0; i < answerFields.length; i++){
+                answerIndices[i] = Integer.parseInt(answerFields[i].trim());
+            }
+
+            return new BallotRecord(fields[0].trim(), questionIndex, answerIndices);
+        } catch (NumberFormatException e){
+            throw new IllegalArgumentException("Invalid ballot record: " + line, e);
+        }
+    }
+
+    /**
+     * A simple getter for the unique ID of the Student handing in the ballot
+     * @return The Student's unique ID
+     */
+    public String getStudentID(){
+        return this.studentID;
+    }
+
+    /**
+     * A simple getter for the index of the Question being answered
+     * @return The Question's index
+     */
+    public int getQuestionIndex(){
+        return this.questionIndex;
+    }
+
+    /**
+     * A simple getter for the number of chosen answers
+     * @return The number of answer indices in the ballot
+     */
+    public int getAnswerCount(){
+        return this.answerIndices.length;
+    }
+
+    /**
+     * Gets one of the chosen answer indices
+     * 
+     * @param i Which of the chosen answers to get (from 0 to getAnswerCount())
+     * @return The answer index
+     */
+    public int getAnswerIndex(int i){
+        return this.answerIndices[i];
+    }
+
+    /**
+     * A String representation of the BallotRecord object, in the same format
+     * fromLine(String) reads
+     * 
+     * @return The BallotRecord object as a String `studentID,questionIndex,answerIndex;...`
+     */
+    @Override
+    public String toString(){
+        StringBuilder line = new StringBuilder();
+        line.append(this.studentID).append(',').append(this.questionIndex).append(',');
+        for (int i = 0; i < this.answerIndices.length; i++){
+            if (i > 0){
+                line.append(';');
+            }
+            line.append(this.answerIndices[i]);
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Checks if this BallotRecord object is equal to another object
+     * 
+     * @param other The other object to check equality for
+     * @return Whether or not the objects hold the same ballot
+     */
+    @Override
+    public boolean equals(Object other){
+        if (!(other instanceof BallotRecord)){
+            return false;
+        }
+
+        BallotRecord record = (BallotRecord) other;
+        return this.studentID.equals(record.studentID)
+            && this.questionIndex == record.questionIndex
+            && Arrays.equals(this.answerIndices, record.answerIndices);
+    }
+
+    /**
+     * Retrieves a hashcode combining the Student ID, Question index, and answers
+     * 
+     * @return The hashcode of the BallotRecord
+     */
+    @Override
+    public int hashCode(){
+        return 31 * (31 * this.studentID.hashCode() + this.questionIndex) + Arrays.hashCode(this.answerIndices);
+    }
+}
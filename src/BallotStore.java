@@ -0,0 +1,439 @@
+import java.util.Arrays;
+
+/**
+ * The BallotStore class holds every Student's selected answers for every Question
+ * as bitmasks, allocating a Student's ballots only once they first answer
+ * 
+ * Bit j of a ballot is set if the Student chose Answer index j of that Question.
+ * A Question with up to 64 answer positions fits its ballot in a single long;
+ * wider Questions spill into as many consecutive longs as they need.
+ * 
+ * Each Student has a row of ballot words, which starts out missing. The first
+ * ballot a Student casts gives them a sparse row: a slot per Question answered,
+ * kept in Question order (with the Questions' indices alongside), each as wide as
+ * the widest ballot. Once the slots would take up about half of what a full row
+ * does, the row is made dense, with every Question's ballot at a fixed offset.
+ * So a Student who answers 20 of 50,000 Questions holds 20 slots, not 50,000
+ * ballots, while small elections go dense straight away and pay no lookups.
+ * 
+ * Reading or changing a ballot only allocates when a slot is made. A missing
+ * ballot reads as empty.
+ * 
+ * Each Student's row is only ever touched by the thread voting for that Student,
+ * so rows need no locking as long as Students aren't split between threads.
+ * 
+ * @author George Matta
+ * @version 1.1
+ */
+public class BallotStore {
+
+    /**
+     * The number of bits in each word of a ballot
+     */
+    private static final int WORD_BITS = 64;
+
+    /**
+     * The number of slots a sparse row starts with
+     */
+    private static final int INITIAL_SLOTS = 4;
+
+    /**
+     * The number of Students (rows) in the store
+     */
+    private final int studentCount;
+
+    /**
+     * The number of words each Question's ballot takes up
+     */
+    private final int[] questionWords;
+
+    /**
+     * Where each Question's ballot starts within a dense row
+     */
+    private final int[] questionOffsets;
+
+    /**
+     * The number of words in a dense row
+     */
+    private final int rowWords;
+
+    /**
+     * The number of words in the widest Question's ballot (the width of a sparse slot)
+     */
+    private final int maxWords;
+
+    /**
+     * The number of slots a sparse row can have before it is made dense
+     */
+    private final int denseThreshold;
+
+    /**
+     * The ballot words of each Student, or null if they haven't answered anything
+     */
+    private final long[][] rows;
+
+    /**
+     * The Question index of each slot of a sparse row, or null if the row is dense
+     * (or missing)
+     */
+    private final int[][] slotQuestions;
+
+    /**
+     * The number of slots used in each sparse row
+     */
+    private final int[] slotCounts;
+
+    /**
+     * Creates an empty BallotStore
+     * 
+     * @param studentCount The number of Students to hold ballots for
+     * @param positionCounts The number of answer positions of each Question
+     */
+    public BallotStore(int studentCount, int[] positionCounts){
+        this.studentCount = studentCount;
+        this.questionWords = new int[positionCounts.length];
+        this.questionOffsets = new int[positionCounts.length];
+
+        // Lay the Questions' ballots out one after another
+        int offset = 0;
+        int maxWords = 0;
+        for (int i = 0; i < positionCounts.length; i++){
+            this.questionOffsets[i] = offset;
+            this.questionWords[i] = wordsFor(positionCounts[i]);
+            offset += this.questionWords[i];
+            maxWords = Math.max(maxWords, this.questionWords[i]);
+        }
+        this.rowWords = offset;
+        this.maxWords = maxWords;
+
+        // A slot costs its words plus an int of Question index
+        this.denseThreshold = maxWords == 0 ? 0 : (int) (this.rowWords / (2 * (maxWords + 0.5)));
+
+        this.rows = new long[studentCount][];
+        this.slotQuestions = new int[studentCount][];
+        this.slotCounts = new int[studentCount];
+    }
+
+    /**
+     * Calculates how many words a ballot needs for a number of answer positions
+     * 
+     * @param positionCount The number of answer positions
+     * @return The number of words needed
+     */
+    public static int wordsFor(int positionCount){
+        return (positionCount + WORD_BITS - 1) / WORD_BITS;
+    }
+
+    /**
+     * A simple getter for the number of Students in the store
+     * @return The number of Students
+     */
+    public int getStudentCount(){
+        return this.studentCount;
+    }
+
+    /**
+     * A simple getter for the number of words a Question's ballot takes up
+     * 
+     * @param questionIndex The index of the Question
+     * @return The number of words in the Question's ballot
+     */
+    public int getWordCount(int questionIndex){
+        return this.questionWords[questionIndex];
+    }
+
+    /**
+     * A simple getter for the number of words the widest Question's ballot takes up
+     * 
+     * A buffer this long can hold a ballot for any Question in the store
+     * 
+     * @return The largest number of words in a ballot
+     */
+    public int getMaxWordCount(){
+        return this.maxWords;
+    }
+
+    /**
+     * A simple getter for the number of words each Student's ballots take up together
+     * in a dense row
+     * @return The number of words per Student
+     */
+    public int getRowWordCount(){
+        return this.rowWords;
+    }
+
+    /**
+     * Finds where a ballot's first word is in the Student's row (see getRow(int))
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @return The index of the ballot's first word, or -1 if the Student has no
+     *         ballot for the Question yet
+     */
+    public int find(int studentIndex, int questionIndex){
+        long[] row = this.rows[studentIndex];
+        if (row == null){
+            return -1;
+        }
+
+        int[] questions = this.slotQuestions[studentIndex];
+        if (questions == null){
+            return this.questionOffsets[questionIndex];
+        }
+
+        int slot = Arrays.binarySearch(questions, 0, this.slotCounts[studentIndex], questionIndex);
+        return slot < 0 ? -1 : slot * this.maxWords;
+    }
+
+    /**
+     * Finds where a ballot's first word is in the Student's row, making an empty
+     * ballot for the Question first if the Student has none
+     * 
+     * Making a ballot can replace the Student's row, so call getRow(int) afterwards
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @return The index of the ballot's first word
+     */
+    public int slot(int studentIndex, int questionIndex){
+        int offset = find(studentIndex, questionIndex);
+        if (offset >= 0){
+            return offset;
+        }
+
+        if (this.rows[studentIndex] == null){
+            // A sparse row that wouldn't be much smaller than a dense one isn't worth it
+            if (this.denseThreshold < INITIAL_SLOTS){
+                this.rows[studentIndex] = new long[this.rowWords];
+                return this.questionOffsets[questionIndex];
+            }
+            this.rows[studentIndex] = new long[INITIAL_SLOTS * this.maxWords];
+            this.slotQuestions[studentIndex] = new int[INITIAL_SLOTS];
+        }
+
+        int count = this.slotCounts[studentIndex];
+        if (count + 1 > this.denseThreshold){
+            makeDense(studentIndex);
+            return this.questionOffsets[questionIndex];
+        }
+
+        int[] questions = this.slotQuestions[studentIndex];
+        long[] row = this.rows[studentIndex];
+        if (count == questions.length){
+            questions = Arrays.copyOf(questions, 2 * count);
+            row = Arrays.copyOf(row, 2 * count * this.maxWords);
+            this.slotQuestions[studentIndex] = questions;
+            this.rows[studentIndex] = row;
+        }
+
+        // Open a slot in Question order
+        int slot = -(Arrays.binarySearch(questions, 0, count, questionIndex) + 1);
+        System.arraycopy(questions, slot, questions, slot + 1, count - slot);
+        System.arraycopy(row, slot * this.maxWords, row, (slot + 1) * this.maxWords, (count - slot) * this.maxWords);
+        questions[slot] = questionIndex;
+        Arrays.fill(row, slot * this.maxWords, (slot + 1) * this.maxWords, 0L);
+        this.slotCounts[studentIndex] = count + 1;
+
+        return slot * this.maxWords;
+    }
+
+    /**
+     * Counts the Questions a Student has a ballot for (every Question once their
+     * row is dense)
+     * 
+     * Together with getBallotQuestion(int, int), this walks a Student's ballots
+     * without looking at the Questions they never answered
+     * 
+     * @param studentIndex The index of the Student
+     * @return The number of ballots the Student holds
+     */
+    public int getBallotCount(int studentIndex){
+        if (this.rows[studentIndex] == null){
+            return 0;
+        }
+
+        return this.slotQuestions[studentIndex] == null
+            ? this.questionWords.length
+            : this.slotCounts[studentIndex];
+    }
+
+    /**
+     * Gets the Question of one of a Student's ballots, in Question order
+     * 
+     * @param studentIndex The index of the Student
+     * @param ballotIndex Which of the Student's ballots, below getBallotCount(studentIndex)
+     * @return The index of the Question
+     */
+    public int getBallotQuestion(int studentIndex, int ballotIndex){
+        int[] questions = this.slotQuestions[studentIndex];
+        return questions == null ? ballotIndex : questions[ballotIndex];
+    }
+
+    /**
+     * A simple getter for a Student's row of ballot words
+     * 
+     * This is the live array (not a copy), so callers can read and write ballots
+     * in place using find(int, int) or slot(int, int) and getWordCount(int)
+     * 
+     * @param studentIndex The index of the Student
+     * @return The Student's ballot words, or null if they have no ballots
+     */
+    public long[] getRow(int studentIndex){
+        return this.rows[studentIndex];
+    }
+
+    /**
+     * Gets one word of a ballot
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @param wordIndex Which word of the ballot to get
+     * @return The word (0 if the Student has no ballot for the Question)
+     */
+    public long getWord(int studentIndex, int questionIndex, int wordIndex){
+        int offset = find(studentIndex, questionIndex);
+        return offset < 0 ? 0L : this.rows[studentIndex][offset + wordIndex];
+    }
+
+    /**
+     * Copies a Student's ballots into a dense row
+     * 
+     * @param studentIndex The index of the Student
+     * @param dense The array to copy into, getRowWordCount() words from denseOffset
+     * @param denseOffset Where the Student's row starts in dense
+     */
+    public void readRow(int studentIndex, long[] dense, int denseOffset){
+        long[] row = this.rows[studentIndex];
+        int[] questions = this.slotQuestions[studentIndex];
+        if (row == null){
+            Arrays.fill(dense, denseOffset, denseOffset + this.rowWords, 0L);
+        } else if (questions == null){
+            System.arraycopy(row, 0, dense, denseOffset, this.rowWords);
+        } else {
+            Arrays.fill(dense, denseOffset, denseOffset + this.rowWords, 0L);
+            for (int slot = 0; slot < this.slotCounts[studentIndex]; slot++){
+                int questionIndex = questions[slot];
+                System.arraycopy(
+                    row, slot * this.maxWords, dense,
+                    denseOffset + this.questionOffsets[questionIndex], this.questionWords[questionIndex]
+                );
+            }
+        }
+    }
+
+    /**
+     * Replaces a Student's ballots with a dense row, making slots only for the
+     * Questions with something chosen
+     * 
+     * @param studentIndex The index of the Student
+     * @param dense The array to copy from, getRowWordCount() words from denseOffset
+     * @param denseOffset Where the Student's row starts in dense
+     */
+    public void writeRow(int studentIndex, long[] dense, int denseOffset){
+        for (int questionIndex = 0; questionIndex < this.questionWords.length; questionIndex++){
+            int from = denseOffset + this.questionOffsets[questionIndex];
+            int words = this.questionWords[questionIndex];
+            int offset = find(studentIndex, questionIndex);
+
+            if (offset < 0){
+                boolean empty = true;
+                for (int w = 0; w < words && empty; w++){
+                    empty = dense[from + w] == 0L;
+                }
+                if (empty){
+                    continue;
+                }
+                offset = slot(studentIndex, questionIndex);
+            }
+            System.arraycopy(dense, from, this.rows[studentIndex], offset, words);
+        }
+    }
+
+    /**
+     * Checks if a Student has chosen a particular Answer index of a Question
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return Whether or not the Answer index is in the ballot
+     */
+    public boolean contains(int studentIndex, int questionIndex, int answerIndex){
+        return (getWord(studentIndex, questionIndex, answerIndex / WORD_BITS) & (1L << answerIndex)) != 0;
+    }
+
+    /**
+     * Adds an Answer index to a Student's ballot for a Question
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     */
+    public void add(int studentIndex, int questionIndex, int answerIndex){
+        int offset = slot(studentIndex, questionIndex);
+        this.rows[studentIndex][offset + answerIndex / WORD_BITS] |= 1L << answerIndex;
+    }
+
+    /**
+     * Empties a Student's ballot for a Question
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     */
+    public void clear(int studentIndex, int questionIndex){
+        int offset = find(studentIndex, questionIndex);
+        if (offset >= 0){
+            Arrays.fill(this.rows[studentIndex], offset, offset + this.questionWords[questionIndex], 0L);
+        }
+    }
+
+    /**
+     * Counts how many Answer indices are in a Student's ballot for a Question
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @return The number of Answer indices chosen
+     */
+    public int count(int studentIndex, int questionIndex){
+        int offset = find(studentIndex, questionIndex);
+        if (offset < 0){
+            return 0;
+        }
+
+        long[] row = this.rows[studentIndex];
+        int count = 0;
+        for (int w = 0; w < this.questionWords[questionIndex]; w++){
+            count += Long.bitCount(row[offset + w]);
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the ballot words allocated across every Student
+     * 
+     * @return The number of words held, including unused room in sparse rows
+     */
+    public long getAllocatedWords(){
+        long words = 0;
+        for (long[] row : this.rows){
+            if (row != null){
+                words += row.length;
+            }
+        }
+
+        return words;
+    }
+
+    /**
+     * Turns a Student's sparse row into a dense one
+     * 
+     * @param studentIndex The index of the Student
+     */
+    private void makeDense(int studentIndex){
+        long[] dense = new long[this.rowWords];
+        readRow(studentIndex, dense, 0);
+        this.rows[studentIndex] = dense;
+        this.slotQuestions[studentIndex] = null;
+        this.slotCounts[studentIndex] = 0;
+    }
+}
@@ -0,0 +1,407 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ConcurrentTally class holds the live vote counts of a VotingService in
+ * concurrent counters
+ * 
+ * The correct and wrong totals are LongAdders, and the answer counts are kept in
+ * TallyCountersInterface counters laid out as chosen by a TallyLayout: by default a
+ * lazily made row of LongAdders per Question, or one contiguous buffer (optionally
+ * padded or striped) for tallies where most Questions are voted on. Either way
+ * the counters themselves take no lock and a reader never blocks a writer, though
+ * each add also moves the answer in its Question's ranking under that ranking's
+ * write lock (see RankedCounts).
+ * 
+ * Writers wrap each group of changes that belong together (a ballot, a batch, or
+ * a whole round) in beginWrite() and endWrite(). snapshot() uses those two counters
+ * the way an optimistic read lock would: it copies every count, and only trusts the
+ * copy if no group of changes started or was still running while it copied.
+ * 
+ * Each Question's counts are also kept sorted by count (see RankedCounts), so the
+ * top answers of a Question, an answer's share, and its rank can be asked for at
+ * any time without sorting the row.
+ * 
+ * A Question's ranking (and, in the default layout, its counters) is only made
+ * when one of its counts first changes; until then every count reads as 0. In a
+ * big question bank where most Questions get few or no votes, memory follows the
+ * Questions actually voted on.
+ * 
+ * @author George Matta
+ * @version 1.1
+ */
+public class ConcurrentTally {
+
+    /**
+     * How many times snapshot() retries before settling for a copy that may be
+     * in the middle of a write
+     */
+    private static final int SNAPSHOT_ATTEMPTS = 64;
+
+    /**
+     * The number of answer positions of each Question
+     */
+    private final int[] positionCounts;
+
+    /**
+     * How the answer counts are laid out
+     */
+    private final TallyLayout layout;
+
+    /**
+     * The answer counts: how many Students chose each Answer index of each
+     * Question index
+     */
+    private final TallyCountersInterface counts;
+
+    /**
+     * The number of correct answers chosen
+     */
+    private final LongAdder numCorrect;
+
+    /**
+     * The number of wrong answers chosen
+     */
+    private final LongAdder numWrong;
+
+    /**
+     * The number of groups of changes that have started
+     */
+    private final LongAdder writesStarted;
+
+    /**
+     * The number of groups of changes that have finished
+     */
+    private final LongAdder writesFinished;
+
+    /**
+     * Each Question's counts, kept sorted by count (made with the Question's row)
+     */
+    private final AtomicReferenceArray<RankedCounts> rankings;
+
+    /**
+     * The history every change is also recorded in, or null
+     */
+    private volatile TallyHistory history;
+
+    /**
+     * Creates a ConcurrentTally with every count at 0, in the default layout
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     */
+    public ConcurrentTally(int[] positionCounts){
+        this(positionCounts, TallyLayout.ADDERS);
+    }
+
+    /**
+     * Creates a ConcurrentTally with every count at 0
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     * @param layout How the answer counts are laid out
+     */
+    public ConcurrentTally(int[] positionCounts, TallyLayout layout){
+        this.positionCounts = positionCounts.clone();
+        this.layout = layout;
+        this.counts = layout.create(this.positionCounts);
+        this.rankings = new AtomicReferenceArray<RankedCounts>(positionCounts.length);
+
+        this.numCorrect = new LongAdder();
+        this.numWrong = new LongAdder();
+        this.writesStarted = new LongAdder();
+        this.writesFinished = new LongAdder();
+    }
+
+    /**
+     * Marks the start of a group of changes that snapshots should see all or
+     * none of. Must be followed by endWrite(), even if the changes fail
+     */
+    public void beginWrite(){
+        this.writesStarted.increment();
+    }
+
+    /**
+     * Marks the end of a group of changes started with beginWrite()
+     */
+    public void endWrite(){
+        this.writesFinished.increment();
+    }
+
+    /**
+     * Changes how many Students chose an answer
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @param delta How much to change the count by
+     */
+    public void add(int questionIndex, int answerIndex, long delta){
+        this.counts.add(questionIndex, answerIndex, delta);
+        writableRanking(questionIndex).add(answerIndex, delta);
+
+        TallyHistory history = this.history;
+        if (history != null){
+            history.record(questionIndex, answerIndex, delta);
+        }
+    }
+
+    /**
+     * Changes how many Students chose each answer of a Question at once
+     * 
+     * @param questionIndex The index of the Question
+     * @param deltas How much to change each answer's count by
+     */
+    public void addRow(int questionIndex, int[] deltas){
+        for (int j = 0; j < deltas.length; j++){
+            if (deltas[j] != 0){
+                this.counts.add(questionIndex, j, deltas[j]);
+            }
+        }
+        writableRanking(questionIndex).addAll(deltas);
+
+        TallyHistory history = this.history;
+        if (history != null){
+            history.recordRow(questionIndex, deltas);
+        }
+    }
+
+    /**
+     * Changes the correct and wrong totals
+     * 
+     * @param correctDelta How much to change the number of correct answers by
+     * @param wrongDelta How much to change the number of wrong answers by
+     */
+    public void addScore(long correctDelta, long wrongDelta){
+        if (correctDelta != 0){
+            this.numCorrect.add(correctDelta);
+        }
+        if (wrongDelta != 0){
+            this.numWrong.add(wrongDelta);
+        }
+
+        TallyHistory history = this.history;
+        if (history != null){
+            history.recordScore(correctDelta, wrongDelta);
+        }
+    }
+
+    /**
+     * Sets the history every change is also recorded in
+     * 
+     * @param history The TallyHistory, or null to stop recording history
+     */
+    public void setHistory(TallyHistory history){
+        this.history = history;
+    }
+
+    /**
+     * Gets how many Students currently chose an answer
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return The count (may include part of a write in progress)
+     */
+    public long getCount(int questionIndex, int answerIndex){
+        return this.counts.get(questionIndex, answerIndex);
+    }
+
+    /**
+     * A simple getter for the number of correct answers chosen
+     * @return The number of correct answers (may include part of a write in progress)
+     */
+    public long getNumCorrect(){
+        return this.numCorrect.sum();
+    }
+
+    /**
+     * A simple getter for the number of wrong answers chosen
+     * @return The number of wrong answers (may include part of a write in progress)
+     */
+    public long getNumWrong(){
+        return this.numWrong.sum();
+    }
+
+    /**
+     * Gets the answers of a Question with the highest counts
+     * 
+     * Reads the already sorted order, so it costs O(k) rather than a sort of the row
+     * 
+     * @param questionIndex The index of the Question
+     * @param k The most answers to return
+     * @return The answers, highest count first (ties in no particular order)
+     */
+    public List<RankedAnswer> getTopAnswers(int questionIndex, int k){
+        int n = Math.min(Math.max(k, 0), this.positionCounts[questionIndex]);
+        int[] answerIndices = new int[n];
+        long[] answerCounts = new long[n];
+        RankedCounts ranking = this.rankings.get(questionIndex);
+        long total = 0;
+        if (ranking != null){
+            total = ranking.top(n, answerIndices, answerCounts);
+        } else {
+            // Nothing voted yet: every count is 0, in answer order
+            for (int i = 0; i < n; i++){
+                answerIndices[i] = i;
+            }
+        }
+
+        List<RankedAnswer> top = new ArrayList<RankedAnswer>(n);
+        for (int i = 0; i < n; i++){
+            double share = total <= 0 ? 0.0 : (double) answerCounts[i] / total;
+            top.add(new RankedAnswer(answerIndices[i], answerCounts[i], share));
+        }
+
+        return top;
+    }
+
+    /**
+     * Gets an answer's share of every answer chosen for its Question
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return The share, from 0 to 1 (0 if nothing has been chosen)
+     */
+    public double getShare(int questionIndex, int answerIndex){
+        RankedCounts ranking = this.rankings.get(questionIndex);
+        return ranking != null ? ranking.share(answerIndex) : 0.0;
+    }
+
+    /**
+     * Gets an answer's rank within its Question
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return 1 plus the number of answers with a higher count (tied answers share a rank)
+     */
+    public int getRank(int questionIndex, int answerIndex){
+        RankedCounts ranking = this.rankings.get(questionIndex);
+        return ranking != null ? ranking.rank(answerIndex) : 1;
+    }
+
+    /**
+     * Gets how many answers have been chosen for a Question in total
+     * 
+     * @param questionIndex The index of the Question
+     * @return The sum of the Question's counts
+     */
+    public long getTotal(int questionIndex){
+        RankedCounts ranking = this.rankings.get(questionIndex);
+        return ranking != null ? ranking.total() : 0L;
+    }
+
+    /**
+     * A simple getter for the number of Questions (rows) in the tally
+     * @return The number of Questions
+     */
+    public int getQuestionCount(){
+        return this.positionCounts.length;
+    }
+
+    /**
+     * A simple getter for the number of answer positions (columns) of a Question
+     * 
+     * @param questionIndex The index of the Question
+     * @return The number of answer positions
+     */
+    public int getPositionCount(int questionIndex){
+        return this.positionCounts[questionIndex];
+    }
+
+    /**
+     * A simple getter for how the answer counts are laid out
+     * @return The layout of the counts
+     */
+    public TallyLayout getLayout(){
+        return this.layout;
+    }
+
+    /**
+     * Counts the Questions whose counters have been made (those voted on so far
+     * in the default layout, every Question in the flat ones)
+     * 
+     * @return The number of Questions with counters
+     */
+    public int getAllocatedRowCount(){
+        return this.counts.getAllocatedRowCount();
+    }
+
+    /**
+     * Copies every count into an immutable StatisticsSnapshot without blocking
+     * any writer
+     * 
+     * The copy is retried while a group of changes is running, and is marked
+     * consistent once a copy is made with no group of changes starting, running,
+     * or finishing. If the writers never pause long enough, the last copy is
+     * returned marked as not consistent.
+     * 
+     * @return The snapshot of the counts
+     */
+    public StatisticsSnapshot snapshot(){
+        long[][] copy = new long[this.positionCounts.length][];
+        for (int i = 0; i < this.positionCounts.length; i++){
+            copy[i] = new long[this.positionCounts[i]];
+        }
+
+        long correct = 0;
+        long wrong = 0;
+        boolean consistent = false;
+
+        for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS && !consistent; attempt++){
+            // Read finished before started, so a write in progress always shows up
+            // as more started than finished
+            long finished = this.writesFinished.sum();
+            long started = this.writesStarted.sum();
+            if (started != finished){
+                Thread.onSpinWait();
+                continue;
+            }
+
+            copyCounts(copy);
+            correct = this.numCorrect.sum();
+            wrong = this.numWrong.sum();
+
+            // Any write that touched what we just read started before this
+            consistent = this.writesStarted.sum() == started;
+        }
+
+        // Fall back to a best-effort copy
+        if (!consistent){
+            copyCounts(copy);
+            correct = this.numCorrect.sum();
+            wrong = this.numWrong.sum();
+        }
+
+        return new StatisticsSnapshot(copy, correct, wrong, consistent);
+    }
+
+    /**
+     * Copies every count into a matrix
+     * 
+     * @param copy The matrix to copy into
+     */
+    private void copyCounts(long[][] copy){
+        for (int i = 0; i < copy.length; i++){
+            this.counts.copyRow(i, copy[i]);
+        }
+    }
+
+    /**
+     * Gets a Question's ranking for writing, making it on first use
+     * 
+     * @param questionIndex The index of the Question
+     * @return The Question's ranking
+     */
+    private RankedCounts writableRanking(int questionIndex){
+        RankedCounts ranking = this.rankings.get(questionIndex);
+        if (ranking != null){
+            return ranking;
+        }
+
+        ranking = new RankedCounts(this.positionCounts[questionIndex]);
+        if (!this.rankings.compareAndSet(questionIndex, null, ranking)){
+            ranking = this.rankings.get(questionIndex);
+        }
+
+        return ranking;
+    }
+}
@@ -0,0 +1,95 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The CsvStatisticsWriter renders statistics as comma-separated values
+ * 
+ * There is a header row, then one row per answer:
+ * `question_index,question,answer_index,answer,correct,count`.
+ * The totals come last as two rows whose question_index is `total`.
+ * Fields holding a comma, quote, or line break are quoted.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class CsvStatisticsWriter implements StatisticsWriterInterface {
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void beginReport(Writer out) throws IOException {
+        out.write("question_index,question,answer_index,answer,correct,count\n");
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void writeQuestion(Writer out, int questionIndex, QuestionInterface question, long[] counts, int positionCount) throws IOException {
+        for (int answerIndex = 0; answerIndex < positionCount; answerIndex++){
+            // Skip the empty slots left by removed answers
+            Answer answer = question.getAnswerAtPosition(answerIndex);
+            if (answer == null){
+                continue;
+            }
+
+            out.write(Integer.toString(questionIndex));
+            out.write(',');
+            writeField(out, question.getQuestionString());
+            out.write(',');
+            out.write(Integer.toString(answerIndex));
+            out.write(',');
+            writeField(out, answer.getAnswerString());
+            out.write(',');
+            out.write(answer.isCorrect() ? "true" : "false");
+            out.write(',');
+            out.write(Long.toString(counts[answerIndex]));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void endReport(Writer out, long numCorrect, long numWrong) throws IOException {
+        out.write("total,,,Correct,true,");
+        out.write(Long.toString(numCorrect));
+        out.write('\n');
+        out.write("total,,,Incorrect,false,");
+        out.write(Long.toString(numWrong));
+        out.write('\n');
+    }
+
+    /**
+     * Writes a text field, quoting it (and doubling its quotes) if it holds a
+     * comma, quote, or line break
+     * 
+     * @param out The Writer to render into
+     * @param field The text of the field
+     * @throws IOException If the Writer fails
+     */
+    private static void writeField(Writer out, String field) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < field.length() && !needsQuotes; i++){
+            char c = field.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!needsQuotes){
+            out.write(field);
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < field.length(); i++){
+            char c = field.charAt(i);
+            if (c == '"'){
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,43 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ExponentialThinkTime draws think times from an exponential distribution
+ * 
+ * This is the memoryless "Poisson arrivals" model: most voters answer quickly, with
+ * a long tail of slow ones
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class ExponentialThinkTime implements ThinkTimeInterface {
+
+    /**
+     * The mean think time in nanoseconds
+     */
+    private final double meanNanos;
+
+    /**
+     * Creates an ExponentialThinkTime
+     * 
+     * @param mean The mean think time
+     * @param unit The unit of the mean
+     * @throws IllegalArgumentException If the mean is negative
+     */
+    public ExponentialThinkTime(long mean, TimeUnit unit){
+        if (mean < 0){
+            throw new IllegalArgumentException("mean must not be negative");
+        }
+
+        this.meanNanos = unit.toNanos(mean);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long nextThinkNanos(SplittableRandom random){
+        // Inverse transform: -mean * ln(U), with U in (0, 1]
+        return (long) (-this.meanNanos * Math.log(1.0 - random.nextDouble()));
+    }
+}
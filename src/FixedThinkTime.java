@@ -0,0 +1,40 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The FixedThinkTime has every voter think for the same amount of time before
+ * every Question
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class FixedThinkTime implements ThinkTimeInterface {
+
+    /**
+     * The think time in nanoseconds
+     */
+    private final long nanos;
+
+    /**
+     * Creates a FixedThinkTime
+     * 
+     * @param duration The think time
+     * @param unit The unit of the think time
+     * @throws IllegalArgumentException If the think time is negative
+     */
+    public FixedThinkTime(long duration, TimeUnit unit){
+        if (duration < 0){
+            throw new IllegalArgumentException("duration must not be negative");
+        }
+
+        this.nanos = unit.toNanos(duration);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long nextThinkNanos(SplittableRandom random){
+        return this.nanos;
+    }
+}
@@ -0,0 +1,224 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * The FlatTallyCounters class keeps every count of every Question in one contiguous
+ * long[], with each Question's row found at a fixed offset (TallyLayout.FLAT,
+ * PADDED, and STRIPED)
+ * 
+ * Counts are changed with VarHandle atomic adds, so any number of threads can
+ * write at once without a lock and without a LongAdder object per count. Reading
+ * a row walks neighbouring longs instead of chasing a pointer per answer.
+ * 
+ * Packed tightly, the rows of neighbouring Questions share cache lines, so two
+ * threads voting on different Questions can still slow each other down (false
+ * sharing). The padded layout pads each row so the next one starts at least a cache
+ * line further on, so no two rows ever share a line. The array header means the
+ * start of a line can't be known from Java, which is why the padding is sized for
+ * any alignment rather than just filling out the row's last line.
+ * 
+ * The striped layout goes one step further for writers hitting the same Question:
+ * it keeps several padded copies of the buffer one after another, each thread adds
+ * into the copy its identity hashes to, and a read adds the copies back up.
+ * 
+ * Every row is made up front, so this layout suits question banks that are mostly
+ * voted on; AdderTallyCounters only makes the rows that are used.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class FlatTallyCounters implements TallyCountersInterface {
+
+    /**
+     * Atomic access to the elements of the counts buffer
+     */
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The number of longs in a cache line (assumed to be 64 bytes)
+     */
+    static final int LINE_LONGS = 8;
+
+    /**
+     * The most stripes a striped layout is given by default
+     */
+    static final int MAX_DEFAULT_STRIPES = 64;
+
+    /**
+     * The number of answer positions of each Question
+     */
+    private final int[] positionCounts;
+
+    /**
+     * Where each Question's row starts within a stripe
+     */
+    private final int[] offsets;
+
+    /**
+     * The number of longs in one stripe (one copy of every row)
+     */
+    private final int stripeLength;
+
+    /**
+     * The number of stripes minus 1, to pick a stripe with a mask
+     */
+    private final int stripeMask;
+
+    /**
+     * The counts of every stripe, one stripe after another
+     * 
+     * counts[s * stripeLength + offsets[i] + j] is stripe s's share of how many
+     * Students chose Answer index j of Question index i
+     */
+    private final long[] counts;
+
+    /**
+     * Creates the counters with every count at 0
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     * @param padded Whether each row is followed by a cache line of padding
+     * @param stripes The number of copies of the buffer writers are spread over
+     *                (1 for no striping)
+     * @throws IllegalArgumentException If stripes isn't a positive power of 2, or
+     *                                  the buffer wouldn't fit in one array
+     */
+    public FlatTallyCounters(int[] positionCounts, boolean padded, int stripes){
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1){
+            throw new IllegalArgumentException("stripes must be a positive power of 2");
+        }
+
+        this.positionCounts = positionCounts.clone();
+        this.offsets = new int[positionCounts.length];
+
+        long offset = 0;
+        for (int i = 0; i < positionCounts.length; i++){
+            this.offsets[i] = (int) offset;
+            offset += padded ? paddedLength(positionCounts[i]) : positionCounts[i];
+            if (offset * stripes > Integer.MAX_VALUE - LINE_LONGS){
+                throw new IllegalArgumentException("The tally is too large for a flat layout.");
+            }
+        }
+
+        this.stripeLength = (int) offset;
+        this.stripeMask = stripes - 1;
+        this.counts = new long[this.stripeLength * stripes];
+    }
+
+    /**
+     * Gets how many stripes a striped layout uses by default: one per processor,
+     * rounded up to a power of 2
+     * 
+     * @return The default number of stripes
+     */
+    public static int defaultStripes(){
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = Integer.highestOneBit(Math.max(processors, 1));
+        if (stripes < processors){
+            stripes <<= 1;
+        }
+
+        return Math.min(stripes, MAX_DEFAULT_STRIPES);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void add(int questionIndex, int answerIndex, long delta){
+        int index = this.offsets[questionIndex] + answerIndex;
+        if (this.stripeMask != 0){
+            index += stripe() * this.stripeLength;
+        }
+
+        COUNTS.getAndAdd(this.counts, index, delta);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long get(int questionIndex, int answerIndex){
+        int index = this.offsets[questionIndex] + answerIndex;
+        long count = 0;
+        for (int s = 0; s <= this.stripeMask; s++){
+            count += (long) COUNTS.getVolatile(this.counts, index + s * this.stripeLength);
+        }
+
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void copyRow(int questionIndex, long[] rowOut){
+        int positionCount = this.positionCounts[questionIndex];
+        int offset = this.offsets[questionIndex];
+        for (int j = 0; j < positionCount; j++){
+            rowOut[j] = (long) COUNTS.getVolatile(this.counts, offset + j);
+        }
+
+        for (int s = 1; s <= this.stripeMask; s++){
+            int stripeOffset = offset + s * this.stripeLength;
+            for (int j = 0; j < positionCount; j++){
+                rowOut[j] += (long) COUNTS.getVolatile(this.counts, stripeOffset + j);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * Every row is made up front, so this is every Question
+     */
+    @Override
+    public int getAllocatedRowCount(){
+        return this.positionCounts.length;
+    }
+
+    /**
+     * A simple getter for the number of stripes
+     * @return The number of copies of the buffer writers are spread over
+     */
+    public int getStripeCount(){
+        return this.stripeMask + 1;
+    }
+
+    /**
+     * A simple getter for the length of the whole buffer
+     * @return The number of longs in every stripe together
+     */
+    public int getBufferLength(){
+        return this.counts.length;
+    }
+
+    /**
+     * Gets the stripe the current thread adds into
+     * 
+     * A thread's identity hash never changes, so it always lands on the same stripe
+     * 
+     * @return The index of the stripe
+     */
+    private int stripe(){
+        int h = System.identityHashCode(Thread.currentThread()) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & this.stripeMask;
+    }
+
+    /**
+     * Gets how many longs a padded row takes: the row plus at least 7 longs of
+     * padding, rounded up to a whole number of cache lines
+     * 
+     * With 7 longs between the last count of one row and the first of the next,
+     * the two are at least a line apart wherever the lines fall
+     * 
+     * @param positionCount The number of answer positions of the row
+     * @return The padded length of the row
+     */
+    static int paddedLength(int positionCount){
+        if (positionCount == 0){
+            return 0;
+        }
+
+        return (positionCount + 2 * LINE_LONGS - 2) & -LINE_LONGS;
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * The IDAllocatorInterface is used to hand out unique Student IDs.
+ * 
+ * Having it as an interface lets the Student class swap how IDs are made and
+ * how their uniqueness is tracked (random IDs checked against a registry, or IDs
+ * encoded from a counter that are unique by construction).
+ * 
+ * Implementations must be safe to call from several threads at once.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface IDAllocatorInterface {
+
+    /**
+     * Hands out a new ID that is not in use
+     * @return The allocated ID (guaranteed to be unique)
+     */
+    public String allocate();
+
+    /**
+     * Claims a specific ID, if it is not already in use
+     * 
+     * @param studentID The ID to claim
+     * @return Whether or not the ID was claimed (false if it was already in use)
+     */
+    public boolean reserve(String studentID);
+
+    /**
+     * Gives an ID back so it stops taking up space (and may be handed out again)
+     * 
+     * @param studentID The ID to give back
+     */
+    public void release(String studentID);
+
+    /**
+     * Checks whether an ID is in use
+     * 
+     * @param studentID The ID to check
+     * @return Whether or not the ID is in use
+     */
+    public boolean isInUse(String studentID);
+}
@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The JsonStatisticsWriter renders statistics as a single JSON object
+ * 
+ * The object looks like
+ * `{"questions":[{"index":0,"question":"...","multipleChoice":false,"answers":
+ * [{"index":0,"answer":"...","correct":true,"count":3},...]},...],
+ * "totalCorrect":N,"totalIncorrect":M}`
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class JsonStatisticsWriter implements StatisticsWriterInterface {
+
+    /**
+     * Whether or not the next Question is the first of the report
+     */
+    private boolean firstQuestion;
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void beginReport(Writer out) throws IOException {
+        this.firstQuestion = true;
+        out.write("{\"questions\":[");
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void writeQuestion(Writer out, int questionIndex, QuestionInterface question, long[] counts, int positionCount) throws IOException {
+        if (!this.firstQuestion){
+            out.write(',');
+        }
+        this.firstQuestion = false;
+
+        out.write("{\"index\":");
+        out.write(Integer.toString(questionIndex));
+        out.write(",\"question\":");
+        writeString(out, question.getQuestionString());
+        out.write(",\"multipleChoice\":");
+        out.write(question.getIsMultipleChoice() ? "true" : "false");
+        out.write(",\"answers\":[");
+
+        boolean firstAnswer = true;
+        for (int answerIndex = 0; answerIndex < positionCount; answerIndex++){
+            // Skip the empty slots left by removed answers
+            Answer answer = question.getAnswerAtPosition(answerIndex);
+            if (answer == null){
+                continue;
+            }
+
+            if (!firstAnswer){
+                out.write(',');
+            }
+            firstAnswer = false;
+
+            out.write("{\"index\":");
+            out.write(Integer.toString(answerIndex));
+            out.write(",\"answer\":");
+            writeString(out, answer.getAnswerString());
+            out.write(",\"correct\":");
+            out.write(answer.isCorrect() ? "true" : "false");
+            out.write(",\"count\":");
+            out.write(Long.toString(counts[answerIndex]));
+            out.write('}');
+        }
+
+        out.write("]}");
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void endReport(Writer out, long numCorrect, long numWrong) throws IOException {
+        out.write("],\"totalCorrect\":");
+        out.write(Long.toString(numCorrect));
+        out.write(",\"totalIncorrect\":");
+        out.write(Long.toString(numWrong));
+        out.write("}\n");
+    }
+
+    /**
+     * Writes a JSON string literal, escaping quotes, backslashes, and control characters
+     * 
+     * @param out The Writer to render into
+     * @param value The text of the string
+     * @throws IOException If the Writer fails
+     */
+    private static void writeString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            switch (c){
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20){
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,184 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts latencies in log-linear buckets, so
+ * percentiles can be read off without keeping every sample
+ * 
+ * Values are bucketed by their highest bit and the 5 bits below it, so every
+ * bucket is within about 3% of the values it holds, from 1 nanosecond to hundreds
+ * of years, in a fixed 2048 buckets. Recording is lock-free and doesn't allocate,
+ * so any number of threads can record at once.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+    /**
+     * How many bits below the highest one pick the bucket
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * How many buckets share each highest bit
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The total number of buckets
+     */
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    /**
+     * The number of values in each bucket
+     */
+    private final AtomicLongArray buckets;
+
+    /**
+     * The number of values recorded
+     */
+    private final LongAdder count;
+
+    /**
+     * The sum of the values recorded
+     */
+    private final LongAdder sum;
+
+    /**
+     * The largest value recorded
+     */
+    private final AtomicLong max;
+
+    /**
+     * Creates an empty LatencyHistogram
+     */
+    public LatencyHistogram(){
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a value
+     * 
+     * @param value The value (negative values are recorded as 0)
+     */
+    public void record(long value){
+        value = Math.max(value, 0);
+
+        this.buckets.incrementAndGet(bucketOf(value));
+        this.count.increment();
+        this.sum.add(value);
+
+        // Only contend on the max when the value might be a new one
+        long currentMax = this.max.get();
+        while (value > currentMax && !this.max.compareAndSet(currentMax, value)){
+            currentMax = this.max.get();
+        }
+    }
+
+    /**
+     * A simple getter for the number of values recorded
+     * @return The number of values
+     */
+    public long getCount(){
+        return this.count.sum();
+    }
+
+    /**
+     * A simple getter for the largest value recorded
+     * @return The largest value (0 if none were recorded)
+     */
+    public long getMax(){
+        return this.max.get();
+    }
+
+    /**
+     * Gets the mean of the values recorded
+     * @return The mean (0 if none were recorded)
+     */
+    public double getMean(){
+        long n = this.count.sum();
+        return n == 0 ? 0.0 : (double) this.sum.sum() / n;
+    }
+
+    /**
+     * Gets the value a given percentage of the recorded values are at or below
+     * 
+     * The answer is the top of the bucket the percentile falls in, so it is
+     * never lower than the true percentile and at most about 3% higher
+     * 
+     * @param percentile The percentile, from 0 to 100
+     * @return The value at that percentile (0 if none were recorded)
+     */
+    public long getValueAtPercentile(double percentile){
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++){
+            total += this.buckets.get(i);
+        }
+        if (total == 0){
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++){
+            seen += this.buckets.get(i);
+            if (seen >= rank){
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Empties the histogram
+     * 
+     * Values recorded while it is being reset may be kept or dropped
+     */
+    public void reset(){
+        for (int i = 0; i < BUCKETS; i++){
+            this.buckets.set(i, 0);
+        }
+        this.count.reset();
+        this.sum.reset();
+        this.max.set(0);
+    }
+
+    /**
+     * Finds the bucket a value belongs in
+     * 
+     * @param value The value (0 or more)
+     * @return The index of its bucket
+     */
+    private static int bucketOf(long value){
+        if (value < SUB_BUCKETS){
+            return (int) value;
+        }
+
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Finds the largest value that belongs in a bucket
+     * 
+     * @param bucket The index of the bucket
+     * @return The largest value in it
+     */
+    private static long highestValueOf(int bucket){
+        if (bucket < SUB_BUCKETS){
+            return bucket;
+        }
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = ((long) (SUB_BUCKETS + bucket % SUB_BUCKETS)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Leaderboard class keeps every Student's score (the number of correct answers
+ * they currently have chosen) ranked as ballots are applied, so "top N Students"
+ * and "rank of Student X" never rescan the electorate
+ * 
+ * Students are kept in one bucket per score, each a doubly linked list threaded
+ * through two int arrays, so moving a Student to a new score is O(1). A Fenwick
+ * tree over the buckets (best score first) counts the Students in them, so the
+ * number of Students above a score, and the score of the k-th best Student, take
+ * O(log maxScore). Memory is a few ints per Student and per possible score.
+ * 
+ * The buckets are sized for the highest score the VotingService expects a Student
+ * to reach (the correct answers of as many Questions as a Student answers), not
+ * for every answer position. If a Student still goes past it (their ballots from
+ * before the sampler changed, ballots handed in for other Questions, or a change
+ * of correctness), the buckets double, so ranks stay exact.
+ * 
+ * Students with the same score share a rank (one more than the number of Students
+ * who scored higher); within a score, the top list goes in the order the Students
+ * reached it.
+ * 
+ * Scores are changed while the VotingService's lock is held and read under this
+ * Leaderboard's lock, so a query sees whole rounds.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class Leaderboard {
+
+    /**
+     * Marks the end of a bucket's list
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The Students, by index
+     */
+    private final Student[] students;
+
+    /**
+     * The highest score a Student can have
+     */
+    private int maxScore;
+
+    /**
+     * The score of each Student
+     */
+    private final int[] scores;
+
+    /**
+     * The next Student in the same bucket, or NONE
+     */
+    private final int[] next;
+
+    /**
+     * The previous Student in the same bucket, or NONE
+     */
+    private final int[] prev;
+
+    /**
+     * The first Student of each bucket, or NONE (bucket b holds score maxScore - b)
+     */
+    private int[] head;
+
+    /**
+     * The last Student of each bucket, or NONE
+     */
+    private int[] tail;
+
+    /**
+     * The Fenwick tree of how many Students are in each bucket (1-based)
+     */
+    private int[] tree;
+
+    /**
+     * Creates a Leaderboard with every Student on a score of 0
+     * 
+     * @param students The Students, by index
+     * @param maxScore The highest score a Student is expected to reach
+     */
+    Leaderboard(Student[] students, int maxScore){
+        this.students = students;
+        this.maxScore = maxScore;
+        this.scores = new int[students.length];
+        this.next = new int[students.length];
+        this.prev = new int[students.length];
+        this.head = new int[maxScore + 1];
+        this.tail = new int[maxScore + 1];
+        this.tree = new int[maxScore + 2];
+        Arrays.fill(this.head, NONE);
+        Arrays.fill(this.tail, NONE);
+
+        // Everyone starts in the bucket for 0, in index order
+        for (int i = 0; i < students.length; i++){
+            this.prev[i] = i - 1;
+            this.next[i] = i + 1 < students.length ? i + 1 : NONE;
+        }
+        if (students.length > 0){
+            this.head[maxScore] = 0;
+            this.tail[maxScore] = students.length - 1;
+            treeAdd(maxScore, students.length);
+        }
+    }
+
+    /**
+     * Changes a Student's score
+     * 
+     * @param studentIndex The index of the Student
+     * @param delta How much the score changed by
+     */
+    synchronized void add(int studentIndex, int delta){
+        move(studentIndex, delta);
+    }
+
+    /**
+     * Changes the scores of many Students at once
+     * 
+     * @param changes Pairs of a Student index and how much their score changed by
+     * @param count The number of pairs
+     */
+    synchronized void addAll(int[] changes, int count){
+        for (int i = 0; i < count; i++){
+            move(changes[2 * i], changes[2 * i + 1]);
+        }
+    }
+
+    /**
+     * A simple getter for a Student's score
+     * 
+     * @param studentIndex The index of the Student
+     * @return The number of correct answers the Student has chosen
+     */
+    synchronized int getScore(int studentIndex){
+        return this.scores[studentIndex];
+    }
+
+    /**
+     * Gets a Student's rank
+     * 
+     * @param studentIndex The index of the Student
+     * @return 1 plus the number of Students with a higher score
+     */
+    synchronized int getRank(int studentIndex){
+        return 1 + treeSum(bucket(this.scores[studentIndex]));
+    }
+
+    /**
+     * Gets the best Students
+     * 
+     * @param n The most Students to get
+     * @return The Students, best first
+     */
+    synchronized List<RankedStudent> getTop(int n){
+        int count = Math.max(0, Math.min(n, this.students.length));
+        List<RankedStudent> top = new ArrayList<RankedStudent>(count);
+
+        while (top.size() < count){
+            // Jump straight to the bucket holding the next best Student
+            int rank = top.size() + 1;
+            int bucket = treeFind(rank);
+            for (int s = this.head[bucket]; s != NONE && top.size() < count; s = this.next[s]){
+                top.add(new RankedStudent(this.students[s], this.scores[s], rank));
+            }
+        }
+
+        return top;
+    }
+
+    /**
+     * Moves a Student to the bucket of their new score
+     * 
+     * @param studentIndex The index of the Student
+     * @param delta How much the score changed by
+     */
+    private void move(int studentIndex, int delta){
+        if (delta == 0){
+            return;
+        }
+        long newScore = (long) this.scores[studentIndex] + delta;
+        if (newScore > this.maxScore){
+            grow(newScore);
+        }
+
+        int from = bucket(this.scores[studentIndex]);
+        this.scores[studentIndex] += delta;
+        int to = bucket(this.scores[studentIndex]);
+        if (from == to){
+            return;
+        }
+
+        // Unlink from the old bucket
+        int before = this.prev[studentIndex];
+        int after = this.next[studentIndex];
+        if (before != NONE){
+            this.next[before] = after;
+        } else {
+            this.head[from] = after;
+        }
+        if (after != NONE){
+            this.prev[after] = before;
+        } else {
+            this.tail[from] = before;
+        }
+
+        // Link onto the end of the new one
+        this.prev[studentIndex] = this.tail[to];
+        this.next[studentIndex] = NONE;
+        if (this.tail[to] != NONE){
+            this.next[this.tail[to]] = studentIndex;
+        } else {
+            this.head[to] = studentIndex;
+        }
+        this.tail[to] = studentIndex;
+
+        treeAdd(from, -1);
+        treeAdd(to, 1);
+    }
+
+    /**
+     * Makes room for a higher score, at least doubling the number of buckets
+     * 
+     * Bucket b becomes bucket b + (new maxScore - old maxScore), so the lists move
+     * over as they are and the Fenwick tree is built again from their lengths
+     * 
+     * @param score The score that has to fit
+     */
+    private void grow(long score){
+        int newMaxScore = (int) Math.min(Math.max(2L * this.maxScore + 1, score), Integer.MAX_VALUE - 2);
+        int shift = newMaxScore - this.maxScore;
+
+        int[] head = new int[newMaxScore + 1];
+        int[] tail = new int[newMaxScore + 1];
+        Arrays.fill(head, 0, shift, NONE);
+        Arrays.fill(tail, 0, shift, NONE);
+        System.arraycopy(this.head, 0, head, shift, this.head.length);
+        System.arraycopy(this.tail, 0, tail, shift, this.tail.length);
+
+        // Fill in each bucket's count, then build the tree over them in O(maxScore)
+        int[] tree = new int[newMaxScore + 2];
+        for (int b = 0; b < head.length; b++){
+            for (int s = head[b]; s != NONE; s = this.next[s]){
+                tree[b + 1]++;
+            }
+        }
+        for (int i = 1; i < tree.length; i++){
+            int parent = i + (i & -i);
+            if (parent < tree.length){
+                tree[parent] += tree[i];
+            }
+        }
+
+        this.maxScore = newMaxScore;
+        this.head = head;
+        this.tail = tail;
+        this.tree = tree;
+    }
+
+    /**
+     * A simple getter for the highest score the buckets currently cover
+     * @return The highest score
+     */
+    synchronized int getMaxScore(){
+        return this.maxScore;
+    }
+
+    /**
+     * Finds the bucket of a score (the best score is bucket 0)
+     * 
+     * Negative scores (which only a change of correctness mid-election can cause)
+     * share the bucket of 0
+     * 
+     * @param score The score
+     * @return The bucket
+     */
+    private int bucket(int score){
+        return this.maxScore - Math.max(0, Math.min(score, this.maxScore));
+    }
+
+    /**
+     * Adds to the count of a bucket in the Fenwick tree
+     * 
+     * @param bucket The bucket
+     * @param delta How much the count changed by
+     */
+    private void treeAdd(int bucket, int delta){
+        for (int i = bucket + 1; i < this.tree.length; i += i & -i){
+            this.tree[i] += delta;
+        }
+    }
+
+    /**
+     * Counts the Students in the buckets before one (those with a higher score)
+     * 
+     * @param bucket The bucket
+     * @return The number of Students in buckets 0 to bucket - 1
+     */
+    private int treeSum(int bucket){
+        int sum = 0;
+        for (int i = bucket; i > 0; i -= i & -i){
+            sum += this.tree[i];
+        }
+
+        return sum;
+    }
+
+    /**
+     * Finds the bucket holding the Student of a rank
+     * 
+     * @param rank The 1-based rank, at most the number of Students
+     * @return The first bucket whose Students, with those before it, number at least rank
+     */
+    private int treeFind(int rank){
+        int position = 0;
+        for (int step = Integer.highestOneBit(this.tree.length - 1); step > 0; step >>= 1){
+            int nextPosition = position + step;
+            if (nextPosition < this.tree.length && this.tree[nextPosition] < rank){
+                position = nextPosition;
+                rank -= this.tree[nextPosition];
+            }
+        }
+
+        return position;
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The LogNormalThinkTime draws think times from a log-normal distribution
+ * 
+ * Human response times are usually close to log-normal: they bunch up around a
+ * typical value and skew towards long delays, never going below zero
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class LogNormalThinkTime implements ThinkTimeInterface {
+
+    /**
+     * The natural log of the median think time in nanoseconds
+     */
+    private final double mu;
+
+    /**
+     * The standard deviation of the think time's natural log
+     */
+    private final double sigma;
+
+    /**
+     * Creates a LogNormalThinkTime
+     * 
+     * @param median The median think time
+     * @param unit The unit of the median
+     * @param sigma How spread out the think times are (the standard deviation of
+     *              their natural log; around 0.5 to 1 is typical for people)
+     * @throws IllegalArgumentException If the median isn't positive or sigma is negative
+     */
+    public LogNormalThinkTime(long median, TimeUnit unit, double sigma){
+        if (median <= 0 || sigma < 0){
+            throw new IllegalArgumentException("median must be positive and sigma must not be negative");
+        }
+
+        this.mu = Math.log(unit.toNanos(median));
+        this.sigma = sigma;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long nextThinkNanos(SplittableRandom random){
+        return (long) Math.exp(this.mu + this.sigma * nextGaussian(random));
+    }
+
+    /**
+     * Draws a standard normal value with the Box-Muller transform
+     * 
+     * @param random The random generator to draw from
+     * @return The normal value
+     */
+    private static double nextGaussian(SplittableRandom random){
+        double u = 1.0 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * v);
+    }
+}
@@ -0,0 +1,399 @@
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The MappedQuestion class is a read-only Question backed by a record in a
+ * question bank (see QuestionBankReader)
+ * 
+ * The answer positions and correctness bitmask are read straight from the bank,
+ * so voting on a MappedQuestion never touches its Answer objects; those are only
+ * built the first time an Answer is asked for (e.g. when printing statistics),
+ * taken from the shared AnswerPool.
+ * 
+ * Every method that would change the Question throws an
+ * UnsupportedOperationException. To edit a Question from a bank, copy it into a
+ * Question or MultipleChoiceQuestion first.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class MappedQuestion implements QuestionInterface {
+
+    /**
+     * The reader of the bank the Question belongs to, for its Strings
+     */
+    private final QuestionBankReader reader;
+
+    /**
+     * The whole bank
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Where the Question's record starts
+     */
+    private final int recordOffset;
+
+    /**
+     * The ordinal of the Question (its bank reserved a block for all its Questions)
+     */
+    private final int ordinal;
+
+    /**
+     * Where the Question's correctness bitmask starts
+     */
+    private final int maskOffset;
+
+    /**
+     * Whether or not the question accepts multiple choices
+     */
+    private final boolean isMultipleChoice;
+
+    /**
+     * The number of answer positions
+     */
+    private final int positionCount;
+
+    /**
+     * The number of correct answers
+     */
+    private final int correctCount;
+
+    /**
+     * The number of positions still holding an answer
+     */
+    private final int answerCount;
+
+    /**
+     * A bitmask of which positions still hold an answer, or null if they all do
+     */
+    private final long[] liveMask;
+
+    /**
+     * The possible answers indexed by position (null until first needed, and
+     * null at the positions of removed answers)
+     * 
+     * Volatile, since the Question is shared with the voting threads: the array is
+     * filled before it is published here, so a thread that sees it sees every Answer
+     * in it. Two threads may both build it; they build the same Answers.
+     */
+    private volatile Answer[] answerPositions;
+
+    /**
+     * The Set of possible answers (null until first needed, and published like
+     * answerPositions)
+     */
+    private volatile Set<Answer> answerSet;
+
+    /**
+     * Wraps a Question record of a question bank
+     * 
+     * @param reader The reader of the bank
+     * @param buffer The whole bank
+     * @param recordOffset Where the Question's record starts
+     * @param ordinal The ordinal of the Question
+     */
+    MappedQuestion(QuestionBankReader reader, ByteBuffer buffer, int recordOffset, int ordinal){
+        this.reader = reader;
+        this.buffer = buffer;
+        this.recordOffset = recordOffset;
+        this.ordinal = ordinal;
+        this.isMultipleChoice = (buffer.getInt(recordOffset) & QuestionBankReader.FLAG_MULTIPLE_CHOICE) != 0;
+        this.positionCount = buffer.getInt(recordOffset + 8);
+        this.correctCount = buffer.getInt(recordOffset + 12);
+        this.maskOffset = QuestionBankReader.maskOffset(recordOffset, this.positionCount);
+
+        // Removed answers are stored as a string index of -1
+        long[] liveMask = new long[BallotStore.wordsFor(this.positionCount)];
+        int answerCount = 0;
+        int positionsOffset = recordOffset + QuestionBankReader.RECORD_HEADER_SIZE;
+        for (int i = 0; i < this.positionCount; i++){
+            if (buffer.getInt(positionsOffset + 4 * i) >= 0){
+                liveMask[i >>> 6] |= 1L << i;
+                answerCount++;
+            }
+        }
+        this.answerCount = answerCount;
+        this.liveMask = answerCount == this.positionCount ? null : liveMask;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getOrdinal(){
+        return this.ordinal;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public String getQuestionString(){
+        return this.reader.getString(this.buffer.getInt(this.recordOffset + 4));
+    }
+
+    /**
+     * Not supported, the Question is read-only
+     * 
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void setQuestionString(String questionString){
+        throw readOnly();
+    }
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * The Set is unmodifiable
+     */
+    @Override
+    public Set<Answer> getPossibleAnswers(){
+        Set<Answer> answerSet = this.answerSet;
+        if (answerSet == null){
+            Set<Answer> answers = new LinkedHashSet<Answer>(this.positionCount * 2);
+            for (Answer answer : loadAnswers()){
+                if (answer != null){
+                    answers.add(answer);
+                }
+            }
+            answerSet = Collections.unmodifiableSet(answers);
+            this.answerSet = answerSet;
+        }
+
+        return answerSet;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public Answer getAnswerAtPosition(int answerIndex){
+        return findAnswerAtPosition(answerIndex);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public Set<Answer> getAnswersAtPositions(Set<Integer> answerIndices){
+        Set<Answer> answersSet = new HashSet<Answer>(answerIndices.size() * 2);
+
+        for (int answerIndex : answerIndices){
+            Answer ansAtPos = findAnswerAtPosition(answerIndex);
+            if (ansAtPos != null)
+                answersSet.add(ansAtPos);
+        }
+
+        return answersSet;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getAnswersAtPositions(int[] answerIndices, int count, Answer[] answersOut){
+        int found = 0;
+
+        for (int i = 0; i < count; i++){
+            Answer ansAtPos = findAnswerAtPosition(answerIndices[i]);
+            if (ansAtPos != null)
+                answersOut[found++] = ansAtPos;
+        }
+
+        return found;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getPositionCount(){
+        return this.positionCount;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getAnswerCount(){
+        return this.answerCount;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long getLiveMaskWord(int wordIndex){
+        int wordCount = BallotStore.wordsFor(this.positionCount);
+        if (wordIndex >= wordCount){
+            return 0L;
+        }
+        if (this.liveMask != null){
+            return this.liveMask[wordIndex];
+        }
+
+        // Every position is live, so only the last word is partly filled
+        int bits = this.positionCount - (wordIndex << 6);
+        return bits >= 64 ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Not supported, the Question is read-only
+     * 
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void addPossibleAnswer(String answerString, boolean isCorrect){
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, the Question is read-only
+     * 
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void addPossibleAnswer(String answerString){
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, the Question is read-only
+     * 
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void addPossibleAnswer(Answer answer){
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, the Question is read-only
+     * 
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void addCorrectAnswer(String answerString){
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, the Question is read-only
+     * 
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void removePossibleAnswer(String answerString){
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, the Question is read-only
+     * 
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void removePossibleAnswer(Answer answer){
+        throw readOnly();
+    }
+
+    /**
+     * Not supported, the Question is read-only
+     * 
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void setCorrect(String answerString, boolean isCorrect){
+        throw readOnly();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean hasCorrectAnswer(){
+        return this.correctCount > 0;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getCorrectCount(){
+        return this.correctCount;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long getCorrectMaskWord(int wordIndex){
+        if (wordIndex >= BallotStore.wordsFor(this.positionCount)){
+            return 0L;
+        }
+
+        return this.buffer.getLong(this.maskOffset + 8 * wordIndex);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean getIsMultipleChoice(){
+        return this.isMultipleChoice;
+    }
+
+    /**
+     * Gets the Answer at a position, building the Answers the first time
+     * 
+     * @param answerIndex The index to get the answer for
+     * @return The Answer object found, or null if the position is out of range
+     *         or its answer was removed
+     */
+    private Answer findAnswerAtPosition(int answerIndex){
+        if (answerIndex < 0 || answerIndex >= this.positionCount){
+            return null;
+        }
+
+        return loadAnswers()[answerIndex];
+    }
+
+    /**
+     * Builds the Question's Answers from the bank, the first time they are needed
+     * 
+     * @return The Answers indexed by position
+     */
+    private Answer[] loadAnswers(){
+        Answer[] answerPositions = this.answerPositions;
+        if (answerPositions == null){
+            Answer[] answers = new Answer[this.positionCount];
+            int positionsOffset = this.recordOffset + QuestionBankReader.RECORD_HEADER_SIZE;
+
+            for (int i = 0; i < this.positionCount; i++){
+                int stringIndex = this.buffer.getInt(positionsOffset + 4 * i);
+                if (stringIndex >= 0){
+                    boolean isCorrect = (getCorrectMaskWord(i >>> 6) & (1L << i)) != 0;
+                    answers[i] = AnswerPool.get(this.reader.getString(stringIndex), isCorrect);
+                }
+            }
+            // Only publish the array once every Answer is in it
+            answerPositions = answers;
+            this.answerPositions = answerPositions;
+        }
+
+        return answerPositions;
+    }
+
+    /**
+     * Creates the exception thrown by every method that would change the Question
+     * @return The exception to throw
+     */
+    private static UnsupportedOperationException readOnly(){
+        return new UnsupportedOperationException("Questions loaded from a question bank are read-only.");
+    }
+}
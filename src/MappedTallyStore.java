@@ -0,0 +1,671 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.CRC32C;
+
+/**
+ * The MappedTallyStore class keeps checkpoints of a VotingService's tallies and
+ * ballots in a memory-mapped file, so an election can be reopened after a restart
+ * without replaying any ballots
+ * 
+ * The file has a fixed, little-endian layout:
+ * 
+ * - A 64 byte header: magic, version, number of Questions and Students, total
+ *   answer positions, ballot words per Student, a fingerprint of the election's
+ *   layout, and the size of a slot
+ * - The number of answer positions of each Question (padded to 8 bytes)
+ * - Two checkpoint slots, each holding: epoch, CRC32C checksum, seed, round,
+ *   correct and wrong totals, a digest of the ballot rows, every count (row after
+ *   row), a CRC32C per Student's ballot row (padded to 8 bytes), every ballot word
+ *   (Student after Student), and the epoch again as a trailer
+ * 
+ * Each checkpoint overwrites the older of the two slots with the next epoch, so
+ * the newest complete checkpoint is never touched while another is being written.
+ * When the file is opened, a slot only counts if its leading and trailing epochs
+ * match, its checksum is right, and every ballot row matches its CRC and the
+ * digest; a torn write fails those checks and the other slot is used instead.
+ * 
+ * A checkpoint only rewrites the ballot rows of Students whose ballots changed since
+ * that slot was last written (see markChanged), so checkpointing after a re-vote of
+ * a few Students costs in proportion to them rather than the whole electorate. The
+ * counts are always rewritten, since there is one row per Question rather than per
+ * Student. The slot's checksum covers its fixed fields and counts, and the digest
+ * (an XOR of a hash of each Student's row CRC) is updated a row at a time, so the
+ * unchanged rows never have to be read back.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class MappedTallyStore {
+
+    /**
+     * The first four bytes of every tally file ("IVTS")
+     */
+    private static final int MAGIC = 0x53545649;
+
+    /**
+     * The version of the file layout
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The size of the file header in bytes
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * The size of a slot's fixed fields (epoch, checksum, seed, round, totals, digest) in bytes
+     */
+    private static final int SLOT_HEADER_SIZE = 56;
+
+    /**
+     * The channel of the open file
+     */
+    private final FileChannel channel;
+
+    /**
+     * The whole file, mapped into memory
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The number of Questions
+     */
+    private final int questionCount;
+
+    /**
+     * The total number of answer positions across every Question
+     */
+    private final int totalPositions;
+
+    /**
+     * The number of Students
+     */
+    private final int studentCount;
+
+    /**
+     * The number of ballot words per Student
+     */
+    private final int rowWords;
+
+    /**
+     * Where the first slot starts in the file
+     */
+    private final int slotsOffset;
+
+    /**
+     * The size of a slot in bytes
+     */
+    private final int slotSize;
+
+    /**
+     * The slot holding the newest valid checkpoint, or -1 if there is none
+     */
+    private int currentSlot;
+
+    /**
+     * The epoch of the newest valid checkpoint (0 if there is none)
+     */
+    private long epoch;
+
+    /**
+     * The Students whose ballot rows each slot is missing, one DirtyRows per slot
+     */
+    private final DirtyRows[] dirtyRows;
+
+    /**
+     * Opens (or creates) a tally file for an election
+     * 
+     * @param path The path of the file
+     * @param positionCounts The number of answer positions of each Question
+     * @param studentCount The number of Students
+     * @param rowWords The number of ballot words per Student
+     * @param fingerprint A fingerprint of the election's Students and Questions
+     * @throws IOException If the file can't be opened or mapped
+     * @throws IllegalStateException If the file belongs to a different election
+     * @throws IllegalArgumentException If the election is too big for a single mapping
+     */
+    public MappedTallyStore(Path path, int[] positionCounts, int studentCount, int rowWords, long fingerprint) throws IOException {
+        long totalPositions = 0;
+        for (int positionCount : positionCounts){
+            totalPositions += positionCount;
+        }
+
+        // Work the sizes out in longs, so a huge election is turned away rather than wrapping around
+        long ballotWords = Math.multiplyExact((long) studentCount, (long) rowWords);
+        long slotsOffset = HEADER_SIZE + align8(4L * positionCounts.length);
+        long slotSize = SLOT_HEADER_SIZE + 8L * totalPositions + align8(4L * studentCount)
+            + Math.multiplyExact(8L, ballotWords) + 8;
+        long fileSize = slotsOffset + 2 * slotSize;
+        if (fileSize > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("The election is too big for a single mapped tally file.");
+        }
+
+        this.questionCount = positionCounts.length;
+        this.totalPositions = (int) totalPositions;
+        this.studentCount = studentCount;
+        this.rowWords = rowWords;
+        this.slotsOffset = (int) slotsOffset;
+        this.slotSize = (int) slotSize;
+        this.dirtyRows = new DirtyRows[] {new DirtyRows(studentCount), new DirtyRows(studentCount)};
+
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean isNew = this.channel.size() == 0;
+        if (!isNew && this.channel.size() != fileSize){
+            this.channel.close();
+            throw new IllegalStateException("The tally file " + path + " belongs to a different election.");
+        }
+
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (isNew){
+            writeHeader(positionCounts, studentCount, rowWords, fingerprint);
+        } else {
+            checkHeader(path, positionCounts, studentCount, rowWords, fingerprint);
+        }
+
+        findCurrentSlot();
+
+        // Neither slot holds the service's ballots until it's restored from one
+        markAllChanged();
+    }
+
+    /**
+     * Notes that a Student's ballots changed, so the next checkpoint into each slot
+     * rewrites their row
+     * 
+     * @param studentIndex The index of the Student
+     */
+    public void markChanged(int studentIndex){
+        this.dirtyRows[0].mark(studentIndex);
+        this.dirtyRows[1].mark(studentIndex);
+    }
+
+    /**
+     * Notes that every Student's ballots may have changed (after a full round), so
+     * the next checkpoint into each slot rewrites every row
+     */
+    public void markAllChanged(){
+        this.dirtyRows[0].markAll();
+        this.dirtyRows[1].markAll();
+    }
+
+    /**
+     * A simple getter for whether or not the file holds a valid checkpoint
+     * @return Whether or not there is a checkpoint to restore
+     */
+    public boolean hasCheckpoint(){
+        return this.currentSlot >= 0;
+    }
+
+    /**
+     * A simple getter for the epoch of the newest valid checkpoint
+     * @return The epoch (0 if there is no checkpoint)
+     */
+    public long getEpoch(){
+        return this.epoch;
+    }
+
+    /**
+     * A simple getter for the seed saved in the newest checkpoint
+     * @return The seed of the VotingService
+     */
+    public long getSeed(){
+        return this.buffer.getLong(slotStart(this.currentSlot) + 16);
+    }
+
+    /**
+     * A simple getter for the round saved in the newest checkpoint
+     * @return The round of the VotingService
+     */
+    public int getRound(){
+        return (int) this.buffer.getLong(slotStart(this.currentSlot) + 24);
+    }
+
+    /**
+     * Writes a new checkpoint into the older slot and forces it to disk
+     * 
+     * Only the ballot rows marked as changed since the slot was last written are
+     * written. The snapshot and the ballots must be from the same moment (taken while
+     * no ballots were being applied)
+     * 
+     * @param seed The seed of the VotingService
+     * @param round The round of the VotingService
+     * @param snapshot The counts and totals
+     * @param ballots The BallotStore
+     */
+    public void writeCheckpoint(long seed, int round, StatisticsSnapshot snapshot, BallotStore ballots){
+        int slot = this.currentSlot == 0 ? 1 : 0;
+        int start = slotStart(slot);
+        long newEpoch = this.epoch + 1;
+
+        // Invalidate the slot first, so a crash part way through can't look complete
+        this.buffer.putLong(start, 0L);
+        this.buffer.putLong(start + this.slotSize - 8, 0L);
+
+        this.buffer.putLong(start + 16, seed);
+        this.buffer.putLong(start + 24, round);
+        this.buffer.putLong(start + 32, snapshot.getNumCorrect());
+        this.buffer.putLong(start + 40, snapshot.getNumWrong());
+
+        // Every count, row after row
+        LongBuffer counts = longs(start + SLOT_HEADER_SIZE, this.totalPositions);
+        for (int i = 0; i < snapshot.getQuestionCount(); i++){
+            for (int j = 0; j < snapshot.getPositionCount(i); j++){
+                counts.put(snapshot.getCount(i, j));
+            }
+        }
+
+        // The ballot rows the slot is missing, as a dense row each
+        DirtyRows dirty = this.dirtyRows[slot];
+        long[] row = new long[this.rowWords];
+        boolean written = false;
+        try {
+            long digest = 0L;
+            if (dirty.isAll()){
+                for (int studentIndex = 0; studentIndex < this.studentCount; studentIndex++){
+                    digest ^= rowDigest(studentIndex, writeRow(start, studentIndex, ballots, row));
+                }
+            } else {
+                // Swap each rewritten row's part of the digest for its new one
+                digest = this.buffer.getLong(start + 48);
+                for (int k = 0; k < dirty.size(); k++){
+                    int studentIndex = dirty.get(k);
+                    int oldCrc = this.buffer.getInt(crcStart(start) + 4 * studentIndex);
+                    digest ^= rowDigest(studentIndex, oldCrc)
+                        ^ rowDigest(studentIndex, writeRow(start, studentIndex, ballots, row));
+                }
+            }
+            this.buffer.putLong(start + 48, digest);
+            written = true;
+        } finally {
+            // A row written part way leaves the slot's digest unknown, so redo it all next time
+            if (written){
+                dirty.clear();
+            } else {
+                dirty.markAll();
+            }
+        }
+
+        // Seal the slot: trailer, checksum, then the leading epoch
+        this.buffer.putLong(start + this.slotSize - 8, newEpoch);
+        this.buffer.putLong(start + 8, checksum(start));
+        this.buffer.putLong(start, newEpoch);
+        this.buffer.force();
+
+        this.currentSlot = slot;
+        this.epoch = newEpoch;
+    }
+
+    /**
+     * Copies the newest checkpoint's counts into a (fresh) ConcurrentTally and its
+     * ballots into a (fresh) BallotStore
+     * 
+     * The newest slot then holds the BallotStore's rows, so only changes made after
+     * this have to be written back into it
+     * 
+     * @param tally The ConcurrentTally to add the counts to
+     * @param ballots The BallotStore to overwrite
+     * @throws IllegalStateException If there is no checkpoint
+     */
+    public void restore(ConcurrentTally tally, BallotStore ballots){
+        if (!hasCheckpoint()){
+            throw new IllegalStateException("The tally file has no checkpoint to restore.");
+        }
+
+        int start = slotStart(this.currentSlot);
+        tally.beginWrite();
+        try {
+            LongBuffer counts = longs(start + SLOT_HEADER_SIZE, this.totalPositions);
+            for (int i = 0; i < this.questionCount; i++){
+                // Restore a row at a time, so its ranking is sorted once
+                int[] row = new int[tally.getPositionCount(i)];
+                for (int j = 0; j < row.length; j++){
+                    row[j] = (int) counts.get();
+                }
+                tally.addRow(i, row);
+            }
+            tally.addScore(this.buffer.getLong(start + 32), this.buffer.getLong(start + 40));
+        } finally {
+            tally.endWrite();
+        }
+
+        LongBuffer words = longs(ballotsStart(start), this.studentCount * this.rowWords);
+        long[] row = new long[this.rowWords];
+        for (int studentIndex = 0; studentIndex < this.studentCount; studentIndex++){
+            words.get(row);
+            ballots.writeRow(studentIndex, row, 0);
+        }
+        this.dirtyRows[this.currentSlot].clear();
+    }
+
+    /**
+     * Closes the file. The last checkpoint stays on disk
+     * 
+     * @throws IOException If the file can't be closed
+     */
+    public void close() throws IOException {
+        this.buffer.force();
+        this.channel.close();
+    }
+
+    /**
+     * Writes the header and position counts of a new file
+     */
+    private void writeHeader(int[] positionCounts, int studentCount, int rowWords, long fingerprint){
+        this.buffer.putInt(0, MAGIC);
+        this.buffer.putInt(4, VERSION);
+        this.buffer.putInt(8, positionCounts.length);
+        this.buffer.putInt(12, studentCount);
+        this.buffer.putInt(16, this.totalPositions);
+        this.buffer.putInt(20, rowWords);
+        this.buffer.putLong(24, fingerprint);
+        this.buffer.putLong(32, this.slotSize);
+        for (int i = 0; i < positionCounts.length; i++){
+            this.buffer.putInt(HEADER_SIZE + 4 * i, positionCounts[i]);
+        }
+        this.buffer.force();
+    }
+
+    /**
+     * Makes sure an existing file's header matches this election
+     * 
+     * @throws IllegalStateException If anything in the header differs
+     */
+    private void checkHeader(Path path, int[] positionCounts, int studentCount, int rowWords, long fingerprint){
+        boolean matches = this.buffer.getInt(0) == MAGIC
+            && this.buffer.getInt(4) == VERSION
+            && this.buffer.getInt(8) == positionCounts.length
+            && this.buffer.getInt(12) == studentCount
+            && this.buffer.getInt(16) == this.totalPositions
+            && this.buffer.getInt(20) == rowWords
+            && this.buffer.getLong(24) == fingerprint
+            && this.buffer.getLong(32) == this.slotSize;
+
+        for (int i = 0; i < positionCounts.length && matches; i++){
+            matches = this.buffer.getInt(HEADER_SIZE + 4 * i) == positionCounts[i];
+        }
+
+        if (!matches){
+            throw new IllegalStateException("The tally file " + path + " belongs to a different election.");
+        }
+    }
+
+    /**
+     * Finds the slot with the newest checkpoint that passes every check
+     */
+    private void findCurrentSlot(){
+        this.currentSlot = -1;
+        this.epoch = 0;
+
+        for (int slot = 0; slot < 2; slot++){
+            int start = slotStart(slot);
+            long slotEpoch = this.buffer.getLong(start);
+
+            boolean valid = slotEpoch > 0
+                && this.buffer.getLong(start + this.slotSize - 8) == slotEpoch
+                && this.buffer.getLong(start + 8) == checksum(start)
+                && rowsMatch(start);
+
+            if (valid && slotEpoch > this.epoch){
+                this.currentSlot = slot;
+                this.epoch = slotEpoch;
+            }
+        }
+    }
+
+    /**
+     * Checks every ballot row of a slot against its CRC, and the CRCs against the
+     * slot's digest
+     * 
+     * @param start Where the slot starts in the file
+     * @return Whether or not every row is the one the slot was sealed with
+     */
+    private boolean rowsMatch(int start){
+        long digest = 0L;
+        for (int studentIndex = 0; studentIndex < this.studentCount; studentIndex++){
+            int rowCrc = rowCrc(start, studentIndex);
+            if (this.buffer.getInt(crcStart(start) + 4 * studentIndex) != rowCrc){
+                return false;
+            }
+            digest ^= rowDigest(studentIndex, rowCrc);
+        }
+
+        return this.buffer.getLong(start + 48) == digest;
+    }
+
+    /**
+     * Writes a Student's ballots into a slot as a dense row, along with the row's CRC
+     * 
+     * @param start Where the slot starts in the file
+     * @param studentIndex The index of the Student
+     * @param ballots The BallotStore
+     * @param row A buffer of rowWords longs
+     * @return The CRC32C of the row
+     */
+    private int writeRow(int start, int studentIndex, BallotStore ballots, long[] row){
+        ballots.readRow(studentIndex, row, 0);
+        int offset = rowStart(start, studentIndex);
+        for (int w = 0; w < this.rowWords; w++){
+            this.buffer.putLong(offset + 8 * w, row[w]);
+        }
+
+        int rowCrc = rowCrc(start, studentIndex);
+        this.buffer.putInt(crcStart(start) + 4 * studentIndex, rowCrc);
+        return rowCrc;
+    }
+
+    /**
+     * Calculates the CRC32C of a Student's ballot row as it is in a slot
+     * 
+     * @param start Where the slot starts in the file
+     * @param studentIndex The index of the Student
+     * @return The CRC of the row
+     */
+    private int rowCrc(int start, int studentIndex){
+        CRC32C crc = new CRC32C();
+        crc.update(this.buffer.slice(rowStart(start, studentIndex), 8 * this.rowWords));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Mixes a Student's index and row CRC into their part of a slot's digest
+     * 
+     * @param studentIndex The index of the Student
+     * @param rowCrc The CRC of the Student's row
+     * @return The Student's part of the digest
+     */
+    private static long rowDigest(int studentIndex, int rowCrc){
+        long z = ((long) studentIndex << 32 | (rowCrc & 0xFFFFFFFFL)) + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Calculates the CRC32C of a slot's fixed fields and counts (everything from the
+     * seed up to the row CRCs)
+     * 
+     * @param start Where the slot starts in the file
+     * @return The checksum
+     */
+    private long checksum(int start){
+        CRC32C crc = new CRC32C();
+        crc.update(this.buffer.slice(start + 16, SLOT_HEADER_SIZE - 16 + 8 * this.totalPositions));
+        return crc.getValue();
+    }
+
+    /**
+     * Gets a little-endian view of some longs in the file
+     * 
+     * @param offset Where the first long is in the file
+     * @param count How many longs the view covers
+     * @return The view of the longs
+     */
+    private LongBuffer longs(int offset, int count){
+        return this.buffer.slice(offset, 8 * count).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    /**
+     * Finds where a slot starts in the file
+     * 
+     * @param slot The slot (0 or 1)
+     * @return The offset of the slot
+     */
+    private int slotStart(int slot){
+        return this.slotsOffset + slot * this.slotSize;
+    }
+
+    /**
+     * Finds where a slot's ballot words start in the file
+     * 
+     * @param start Where the slot starts in the file
+     * @return The offset of the ballot words
+     */
+    private int ballotsStart(int start){
+        return crcStart(start) + (int) align8(4L * this.studentCount);
+    }
+
+    /**
+     * Finds where a slot's row CRCs start in the file
+     * 
+     * @param start Where the slot starts in the file
+     * @return The offset of the row CRCs
+     */
+    private int crcStart(int start){
+        return start + SLOT_HEADER_SIZE + 8 * this.totalPositions;
+    }
+
+    /**
+     * Finds where a Student's ballot row starts in a slot
+     * 
+     * @param start Where the slot starts in the file
+     * @param studentIndex The index of the Student
+     * @return The offset of the row
+     */
+    private int rowStart(int start, int studentIndex){
+        return ballotsStart(start) + 8 * this.rowWords * studentIndex;
+    }
+
+    /**
+     * Rounds a size up to a multiple of 8 bytes
+     * 
+     * @param size The size in bytes
+     * @return The rounded size
+     */
+    private static long align8(long size){
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * The DirtyRows class keeps track of the Students whose ballot rows a slot is
+     * missing: either every Student, or a list of them (with a BitSet so each is
+     * listed once)
+     */
+    private static final class DirtyRows {
+
+        /**
+         * Which Students are listed
+         */
+        private final BitSet listed;
+
+        /**
+         * The listed Students, in the order they were marked
+         */
+        private int[] students;
+
+        /**
+         * The number of listed Students
+         */
+        private int size;
+
+        /**
+         * Whether or not every Student's row is missing
+         */
+        private boolean all;
+
+        /**
+         * Creates an empty list
+         * 
+         * @param studentCount The number of Students
+         */
+        DirtyRows(int studentCount){
+            this.listed = new BitSet(studentCount);
+            this.students = new int[16];
+        }
+
+        /**
+         * Lists a Student, unless they already are (or every Student is)
+         * 
+         * @param studentIndex The index of the Student
+         */
+        void mark(int studentIndex){
+            if (this.all || this.listed.get(studentIndex)){
+                return;
+            }
+
+            this.listed.set(studentIndex);
+            if (this.size == this.students.length){
+                this.students = Arrays.copyOf(this.students, this.size * 2);
+            }
+            this.students[this.size++] = studentIndex;
+        }
+
+        /**
+         * Marks every Student at once
+         */
+        void markAll(){
+            this.all = true;
+        }
+
+        /**
+         * Empties the list
+         */
+        void clear(){
+            if (this.all){
+                this.listed.clear();
+            } else {
+                for (int k = 0; k < this.size; k++){
+                    this.listed.clear(this.students[k]);
+                }
+            }
+            this.size = 0;
+            this.all = false;
+        }
+
+        /**
+         * A simple getter for whether or not every Student is marked
+         * @return Whether or not every row is missing
+         */
+        boolean isAll(){
+            return this.all;
+        }
+
+        /**
+         * A simple getter for the number of listed Students
+         * @return The number of listed Students
+         */
+        int size(){
+            return this.size;
+        }
+
+        /**
+         * Gets a listed Student
+         * 
+         * @param k The position in the list
+         * @return The index of the Student
+         */
+        int get(int k){
+            return this.students[k];
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * The MetricsSnapshot class is an immutable copy of a VotingService's metrics
+ * at one moment (see VotingMetrics)
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class MetricsSnapshot {
+
+    /**
+     * The percentiles kept for every phase
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    /**
+     * The number of ballots applied
+     */
+    private final long ballots;
+
+    /**
+     * The number of ballots that differed from the Student's previous one
+     */
+    private final long changedBallots;
+
+    /**
+     * The number of answers taken back by re-votes
+     */
+    private final long reversals;
+
+    /**
+     * The number of voting rounds run
+     */
+    private final long rounds;
+
+    /**
+     * The bytes allocated while voting
+     */
+    private final long allocatedBytes;
+
+    /**
+     * How long the metrics had been recording, in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * The number of latencies recorded for each phase
+     */
+    private final long[] latencyCounts;
+
+    /**
+     * The mean latency of each phase, in nanoseconds
+     */
+    private final double[] latencyMeans;
+
+    /**
+     * The kept percentiles of each phase, in nanoseconds
+     * 
+     * latencyPercentiles[p][i] is percentile PERCENTILES[i] of phase p
+     */
+    private final long[][] latencyPercentiles;
+
+    /**
+     * Creates a MetricsSnapshot, reading the percentiles off the histograms
+     * 
+     * @param ballots The number of ballots applied
+     * @param changedBallots The number of ballots that differed from the previous one
+     * @param reversals The number of answers taken back by re-votes
+     * @param rounds The number of voting rounds run
+     * @param allocatedBytes The bytes allocated while voting
+     * @param elapsedNanos How long the metrics had been recording
+     * @param latencies The latency histogram of each phase, in VotingMetrics.Phase order
+     */
+    MetricsSnapshot(long ballots, long changedBallots, long reversals, long rounds,
+            long allocatedBytes, long elapsedNanos, LatencyHistogram[] latencies){
+        this.ballots = ballots;
+        this.changedBallots = changedBallots;
+        this.reversals = reversals;
+        this.rounds = rounds;
+        this.allocatedBytes = allocatedBytes;
+        this.elapsedNanos = elapsedNanos;
+
+        this.latencyCounts = new long[latencies.length];
+        this.latencyMeans = new double[latencies.length];
+        this.latencyPercentiles = new long[latencies.length][PERCENTILES.length];
+        for (int p = 0; p < latencies.length; p++){
+            this.latencyCounts[p] = latencies[p].getCount();
+            this.latencyMeans[p] = latencies[p].getMean();
+            for (int i = 0; i < PERCENTILES.length; i++){
+                this.latencyPercentiles[p][i] = latencies[p].getValueAtPercentile(PERCENTILES[i]);
+            }
+        }
+    }
+
+    /**
+     * A simple getter for the number of ballots applied
+     * @return The number of ballots
+     */
+    public long getBallots(){
+        return this.ballots;
+    }
+
+    /**
+     * A simple getter for the number of ballots that differed from the Student's previous one
+     * @return The number of changed ballots
+     */
+    public long getChangedBallots(){
+        return this.changedBallots;
+    }
+
+    /**
+     * A simple getter for the number of answers taken back by re-votes
+     * @return The number of reversals
+     */
+    public long getReversals(){
+        return this.reversals;
+    }
+
+    /**
+     * A simple getter for the number of voting rounds run
+     * @return The number of rounds
+     */
+    public long getRounds(){
+        return this.rounds;
+    }
+
+    /**
+     * A simple getter for the bytes allocated while voting
+     * @return The allocated bytes (0 if the JVM can't measure them)
+     */
+    public long getAllocatedBytes(){
+        return this.allocatedBytes;
+    }
+
+    /**
+     * A simple getter for how long the metrics had been recording
+     * @return The elapsed time in nanoseconds
+     */
+    public long getElapsedNanos(){
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Gets how many ballots were applied per second while the metrics were recording
+     * @return The ballot throughput
+     */
+    public double getBallotsPerSecond(){
+        return this.elapsedNanos <= 0 ? 0.0 : this.ballots * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * Gets how many latencies were recorded for a phase
+     * 
+     * @param phase The phase
+     * @return The number of latencies recorded
+     */
+    public long getLatencyCount(VotingMetrics.Phase phase){
+        return this.latencyCounts[phase.ordinal()];
+    }
+
+    /**
+     * Gets the mean latency of a phase
+     * 
+     * @param phase The phase
+     * @return The mean latency in nanoseconds
+     */
+    public double getMeanLatency(VotingMetrics.Phase phase){
+        return this.latencyMeans[phase.ordinal()];
+    }
+
+    /**
+     * Gets a latency percentile of a phase
+     * 
+     * Only the 50th, 90th, 99th, and 99.9th percentiles (and 100, the maximum) are kept
+     * 
+     * @param phase The phase
+     * @param percentile The percentile (50, 90, 99, 99.9, or 100)
+     * @return The latency at that percentile in nanoseconds
+     * @throws IllegalArgumentException If the percentile isn't one that is kept
+     */
+    public long getLatencyPercentile(VotingMetrics.Phase phase, double percentile){
+        for (int i = 0; i < PERCENTILES.length; i++){
+            if (PERCENTILES[i] == percentile){
+                return this.latencyPercentiles[phase.ordinal()][i];
+            }
+        }
+
+        throw new IllegalArgumentException("Only the 50, 90, 99, 99.9 and 100th percentiles are kept.");
+    }
+
+    /**
+     * A String representation of the MetricsSnapshot, with latencies in microseconds
+     * 
+     * @return The snapshot as a String
+     */
+    @Override
+    public String toString(){
+        StringBuilder builder = new StringBuilder(String.format(
+            "MetricsSnapshot(ballots=%d, changed=%d, reversals=%d, rounds=%d, allocated=%dB, %.0f ballots/s",
+            this.ballots, this.changedBallots, this.reversals, this.rounds, this.allocatedBytes,
+            getBallotsPerSecond()
+        ));
+
+        for (VotingMetrics.Phase phase : VotingMetrics.Phase.values()){
+            builder.append(String.format(
+                ", %s: n=%d mean=%.1fus p99=%.1fus max=%.1fus", phase, getLatencyCount(phase),
+                getMeanLatency(phase) / 1e3, getLatencyPercentile(phase, 99) / 1e3,
+                getLatencyPercentile(phase, 100) / 1e3
+            ));
+        }
+
+        return builder.append(")").toString();
+    }
+}
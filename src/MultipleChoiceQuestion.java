@@ -34,8 +34,8 @@ public class MultipleChoiceQuestion extends Question {
      */
     @Override
     public void addPossibleAnswer(String answerString, boolean isCorrect){
-        // Set.Add returns false if the object was already in the set
-        if  (!this.answerSet.add(new Answer(answerString, isCorrect))){
+        // registerAnswer returns false if the answer was already a possible answer
+        if  (!this.registerAnswer(answerString, isCorrect)){
             throw new IllegalArgumentException("That answer is already a possible answer.");
         }
     }
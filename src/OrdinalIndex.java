@@ -0,0 +1,99 @@
+import java.util.Arrays;
+
+/**
+ * The OrdinalIndex class finds the row a VotingService keeps for a Student or
+ * Question from its ordinal
+ * 
+ * The rows are in ordinal order, and ordinals are handed out in creation order, so
+ * the ordinals of one service's Students (or Questions) are usually a dense run. The
+ * index keeps a table covering that run, and a row is found by subtracting the
+ * lowest ordinal and reading one array element. If the ordinals are spread out
+ * (the service picked a few Students out of many made elsewhere), the table would
+ * waste too much memory, so the index keeps just the sorted ordinals and finds a row
+ * by binary search instead.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class OrdinalIndex {
+
+    /**
+     * How many table entries there may be per row before the ordinals count as
+     * spread out
+     */
+    private static final int MAX_SPREAD = 4;
+
+    /**
+     * The lowest ordinal
+     */
+    private final int firstOrdinal;
+
+    /**
+     * The row of each ordinal from firstOrdinal on (-1 for an ordinal with no row),
+     * or null if the ordinals are too spread out for a table
+     */
+    private final int[] rows;
+
+    /**
+     * The ordinal of each row, in increasing order (only kept without a table)
+     */
+    private final int[] ordinals;
+
+    /**
+     * Creates an index of the rows of some ordinals
+     * 
+     * @param sortedOrdinals The ordinal of each row, in increasing order
+     * @throws IllegalArgumentException If two rows have the same ordinal
+     */
+    public OrdinalIndex(int[] sortedOrdinals){
+        for (int i = 1; i < sortedOrdinals.length; i++){
+            if (sortedOrdinals[i] == sortedOrdinals[i - 1]){
+                throw new IllegalArgumentException("Two rows have the ordinal " + sortedOrdinals[i] + ".");
+            }
+        }
+
+        int count = sortedOrdinals.length;
+        this.firstOrdinal = count > 0 ? sortedOrdinals[0] : 0;
+        long span = count > 0 ? (long) sortedOrdinals[count - 1] - this.firstOrdinal + 1 : 0;
+
+        if (span <= (long) MAX_SPREAD * count + 64){
+            this.rows = new int[(int) span];
+            Arrays.fill(this.rows, -1);
+            for (int i = 0; i < count; i++){
+                this.rows[sortedOrdinals[i] - this.firstOrdinal] = i;
+            }
+            this.ordinals = null;
+        } else {
+            this.rows = null;
+            this.ordinals = sortedOrdinals.clone();
+        }
+    }
+
+    /**
+     * Finds the row of an ordinal
+     * 
+     * @param ordinal The ordinal to look up
+     * @return The row, or -1 if no row has that ordinal
+     */
+    public int indexOf(int ordinal){
+        if (this.rows == null){
+            int row = Arrays.binarySearch(this.ordinals, ordinal);
+            return row >= 0 ? row : -1;
+        }
+
+        long offset = (long) ordinal - this.firstOrdinal;
+        if (offset < 0 || offset >= this.rows.length){
+            return -1;
+        }
+
+        return this.rows[(int) offset];
+    }
+
+    /**
+     * A simple getter for whether or not rows are found through a table
+     * @return Whether or not the ordinals were dense enough for a table
+     */
+    public boolean isDirect(){
+        return this.rows != null;
+    }
+}
@@ -0,0 +1,412 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * The PartialTally class holds the results of one shard of an election, so shards
+ * voted on separate VotingServices (or separate processes) can be combined
+ * 
+ * A PartialTally has the count of every answer, the correct and wrong totals, and
+ * how many ballots were cast for each Question (Students who chose at least one
+ * answer). Merging adds all of these up, so merging is associative and
+ * commutative and the shards can be combined in any order or grouping.
+ * 
+ * PartialTallies are immutable, and have a compact wire encoding (see writeTo):
+ * a magic number, the shape of the election, and every number as a variable
+ * length integer, so the many small and zero counts take a byte each.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class PartialTally {
+
+    /**
+     * The first four bytes of every encoded PartialTally ("IVPT")
+     */
+    private static final int MAGIC = 0x49565054;
+
+    /**
+     * The counts matrix
+     * 
+     * counts[i][j] is the number of Students who chose Answer index j of
+     * Question index i
+     */
+    private final long[][] counts;
+
+    /**
+     * The number of ballots cast for each Question
+     */
+    private final long[] ballotCounts;
+
+    /**
+     * The number of correct answers chosen
+     */
+    private final long numCorrect;
+
+    /**
+     * The number of wrong answers chosen
+     */
+    private final long numWrong;
+
+    /**
+     * Creates a PartialTally
+     * 
+     * The arrays are kept as given, so they must not be changed afterwards
+     * 
+     * @param counts The counts matrix
+     * @param ballotCounts The number of ballots cast for each Question
+     * @param numCorrect The number of correct answers chosen
+     * @param numWrong The number of wrong answers chosen
+     * @throws IllegalArgumentException If there isn't one ballot count per Question
+     */
+    public PartialTally(long[][] counts, long[] ballotCounts, long numCorrect, long numWrong){
+        if (counts.length != ballotCounts.length){
+            throw new IllegalArgumentException("There must be one ballot count per Question.");
+        }
+
+        this.counts = counts;
+        this.ballotCounts = ballotCounts;
+        this.numCorrect = numCorrect;
+        this.numWrong = numWrong;
+    }
+
+    /**
+     * Creates an empty PartialTally (the identity of merge) for Questions with the
+     * given numbers of positions
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     * @return The empty PartialTally
+     */
+    public static PartialTally empty(int[] positionCounts){
+        long[][] counts = new long[positionCounts.length][];
+        for (int i = 0; i < positionCounts.length; i++){
+            counts[i] = new long[positionCounts[i]];
+        }
+
+        return new PartialTally(counts, new long[positionCounts.length], 0, 0);
+    }
+
+    /**
+     * Combines this PartialTally with another one from the same election
+     * 
+     * @param other The PartialTally to combine with
+     * @return A new PartialTally holding the sums of both
+     * @throws IllegalArgumentException If the two have differently shaped Questions
+     */
+    public PartialTally merge(PartialTally other){
+        if (!sameShape(other)){
+            throw new IllegalArgumentException("Only PartialTallies of the same Questions can be merged.");
+        }
+
+        long[][] counts = new long[this.counts.length][];
+        long[] ballotCounts = new long[this.ballotCounts.length];
+        for (int i = 0; i < this.counts.length; i++){
+            counts[i] = new long[this.counts[i].length];
+            for (int j = 0; j < counts[i].length; j++){
+                counts[i][j] = this.counts[i][j] + other.counts[i][j];
+            }
+            ballotCounts[i] = this.ballotCounts[i] + other.ballotCounts[i];
+        }
+
+        return new PartialTally(
+            counts, ballotCounts, this.numCorrect + other.numCorrect, this.numWrong + other.numWrong
+        );
+    }
+
+    /**
+     * Gets how many Students chose an answer
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return The number of Students who chose the Answer
+     */
+    public long getCount(int questionIndex, int answerIndex){
+        return this.counts[questionIndex][answerIndex];
+    }
+
+    /**
+     * Gets how many ballots were cast for a Question
+     * 
+     * @param questionIndex The index of the Question
+     * @return The number of Students who chose at least one of its answers
+     */
+    public long getBallotCount(int questionIndex){
+        return this.ballotCounts[questionIndex];
+    }
+
+    /**
+     * A simple getter for the number of Questions
+     * @return The number of Questions
+     */
+    public int getQuestionCount(){
+        return this.counts.length;
+    }
+
+    /**
+     * A simple getter for the number of answer positions of a Question
+     * 
+     * @param questionIndex The index of the Question
+     * @return The number of answer positions
+     */
+    public int getPositionCount(int questionIndex){
+        return this.counts[questionIndex].length;
+    }
+
+    /**
+     * A simple getter for the number of correct answers chosen
+     * @return The number of correct answers chosen
+     */
+    public long getNumCorrect(){
+        return this.numCorrect;
+    }
+
+    /**
+     * A simple getter for the number of wrong answers chosen
+     * @return The number of wrong answers chosen
+     */
+    public long getNumWrong(){
+        return this.numWrong;
+    }
+
+    /**
+     * Copies the counts into a StatisticsSnapshot, so the combined results can be
+     * rendered with VotingService.writeStatistics
+     * 
+     * @return The snapshot of the counts
+     */
+    public StatisticsSnapshot toSnapshot(){
+        long[][] counts = new long[this.counts.length][];
+        for (int i = 0; i < this.counts.length; i++){
+            counts[i] = this.counts[i].clone();
+        }
+
+        return new StatisticsSnapshot(counts, this.numCorrect, this.numWrong, true);
+    }
+
+    /**
+     * Encodes the PartialTally onto a stream
+     * 
+     * @param out The stream to write to
+     * @throws IOException If the stream fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        writeVarLong(out, this.counts.length);
+        for (int i = 0; i < this.counts.length; i++){
+            writeVarLong(out, this.counts[i].length);
+        }
+
+        // Zig-zag so any value round-trips, while small counts still take a single byte
+        for (int i = 0; i < this.counts.length; i++){
+            writeVarLong(out, zigZag(this.ballotCounts[i]));
+            for (int j = 0; j < this.counts[i].length; j++){
+                writeVarLong(out, zigZag(this.counts[i][j]));
+            }
+        }
+
+        writeVarLong(out, zigZag(this.numCorrect));
+        writeVarLong(out, zigZag(this.numWrong));
+    }
+
+    /**
+     * Decodes a PartialTally from a stream
+     * 
+     * @param in The stream to read from
+     * @return The decoded PartialTally
+     * @throws IOException If the stream fails, or doesn't hold a PartialTally
+     */
+    public static PartialTally readFrom(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC){
+            throw new IOException("The stream does not hold a PartialTally.");
+        }
+
+        int questionCount = readLength(in);
+        long[][] counts = new long[questionCount][];
+        for (int i = 0; i < questionCount; i++){
+            counts[i] = new long[readLength(in)];
+        }
+
+        long[] ballotCounts = new long[questionCount];
+        for (int i = 0; i < questionCount; i++){
+            ballotCounts[i] = unZigZag(readVarLong(in));
+            for (int j = 0; j < counts[i].length; j++){
+                counts[i][j] = unZigZag(readVarLong(in));
+            }
+        }
+
+        long numCorrect = unZigZag(readVarLong(in));
+        long numWrong = unZigZag(readVarLong(in));
+        return new PartialTally(counts, ballotCounts, numCorrect, numWrong);
+    }
+
+    /**
+     * Encodes the PartialTally into a byte array
+     * @return The encoded PartialTally
+     */
+    public byte[] toBytes(){
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeTo(new DataOutputStream(bytes));
+        } catch (IOException e){
+            // A ByteArrayOutputStream never fails
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a PartialTally from a byte array
+     * 
+     * @param bytes The encoded PartialTally
+     * @return The decoded PartialTally
+     * @throws IllegalArgumentException If the bytes don't hold a PartialTally
+     */
+    public static PartialTally fromBytes(byte[] bytes){
+        try {
+            return readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e){
+            throw new IllegalArgumentException("Invalid PartialTally encoding.", e);
+        }
+    }
+
+    /**
+     * Checks if this PartialTally is equal to another object
+     * 
+     * They are equal if the other is a PartialTally with the same counts, ballot
+     * counts, and totals
+     * 
+     * @param other The other object to check equality for
+     * @return Whether or not the objects are equal
+     */
+    @Override
+    public boolean equals(Object other){
+        if (!(other instanceof PartialTally)){
+            return false;
+        }
+
+        PartialTally tally = (PartialTally) other;
+        return this.numCorrect == tally.numCorrect
+            && this.numWrong == tally.numWrong
+            && Arrays.equals(this.ballotCounts, tally.ballotCounts)
+            && Arrays.deepEquals(this.counts, tally.counts);
+    }
+
+    /**
+     * Calculates a hashcode from the counts, ballot counts, and totals
+     * @return The hashcode of the PartialTally
+     */
+    @Override
+    public int hashCode(){
+        return 31 * (31 * Arrays.deepHashCode(this.counts) + Arrays.hashCode(this.ballotCounts))
+            + Long.hashCode(this.numCorrect) + 17 * Long.hashCode(this.numWrong);
+    }
+
+    /**
+     * A String representation of the PartialTally
+     * 
+     * @return The PartialTally as a String `PartialTally(questions, correct, wrong)`
+     */
+    @Override
+    public String toString(){
+        return "PartialTally(" + this.counts.length + ", " + this.numCorrect + ", " + this.numWrong + ")";
+    }
+
+    /**
+     * Checks if another PartialTally has the same numbers of Questions and positions
+     * 
+     * @param other The PartialTally to compare with
+     * @return Whether or not the shapes match
+     */
+    private boolean sameShape(PartialTally other){
+        if (this.counts.length != other.counts.length){
+            return false;
+        }
+        for (int i = 0; i < this.counts.length; i++){
+            if (this.counts[i].length != other.counts[i].length){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes a non-negative number 7 bits at a time, lowest first, with the top
+     * bit of each byte marking that more follow
+     * 
+     * @param out The stream to write to
+     * @param value The number to write
+     * @throws IOException If the stream fails
+     */
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0){
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads a number written by writeVarLong
+     * 
+     * @param in The stream to read from
+     * @return The number read
+     * @throws IOException If the stream fails or the number is too long
+     */
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7){
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0){
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length number.");
+    }
+
+    /**
+     * Reads a number of Questions or positions
+     * 
+     * @param in The stream to read from
+     * @return The length read
+     * @throws IOException If the stream fails or the length is out of range
+     */
+    private static int readLength(DataInput in) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE - 8){
+            throw new IOException("Invalid PartialTally length " + length + ".");
+        }
+
+        return (int) length;
+    }
+
+    /**
+     * Maps a signed number to an unsigned one so small negatives stay short
+     * (0, -1, 1, -2, ... become 0, 1, 2, 3, ...)
+     * 
+     * @param value The signed number
+     * @return The zig-zag encoded number
+     */
+    private static long zigZag(long value){
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses zigZag
+     * 
+     * @param value The zig-zag encoded number
+     * @return The signed number
+     */
+    private static long unZigZag(long value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
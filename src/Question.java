@@ -1,5 +1,14 @@
 import java.util.Set;
 import java.util.HashSet;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The simple Question object implements the QuestionInterface (and justly has
@@ -9,11 +18,33 @@ import java.util.HashSet;
  * we are able to create a modifiable Question object (that can later be inherited
  * for multiple-choice questions)
  * 
+ * The Question also keeps a bitmask of which answer positions are correct, so
+ * hasCorrectAnswer is constant-time and ballots can be scored without looking
+ * at each Answer
+ * 
+ * Answers are taken from the shared AnswerPool, so a Question only holds references
+ * to them, and each text's position is indexed, so looking an answer up by its text
+ * (to remove it or change whether it is correct) doesn't allocate. The Set of
+ * possible answers is a read-only view of the positions rather than a copy
+ * 
+ * Every Question is given an ordinal when it is made (see getOrdinal()), which is
+ * what a VotingService orders its statistics rows by
+ * 
  * @author George Matta
  * @version 1.0
  */
 public class Question implements QuestionInterface {
 
+    /**
+     * The next ordinal to hand out, shared by every kind of Question
+     */
+    private static final AtomicInteger NEXT_ORDINAL = new AtomicInteger();
+
+    /**
+     * The ordinal of the Question, handed out when it was made
+     */
+    protected final int ordinal;
+
     /**
      * The String of the question text
      */
@@ -25,26 +56,85 @@ public class Question implements QuestionInterface {
     protected boolean isMultipleChoice;
 
     /**
-     * The Set of possible answers for the question
+     * The Set of possible answers for the question (a read-only view over
+     * answerPositions and answerIndices)
      */
     protected Set<Answer> answerSet;
 
+    /**
+     * The possible answers indexed by position, in insertion order
+     * 
+     * answerIndices gives us duplicate protection, while this List gives us
+     * constant-time random access (and backs answerSet). A removed answer leaves a null slot behind so the positions
+     * of the other answers (and the statistics columns that use them) never move
+     */
+    protected List<Answer> answerPositions;
+
+    /**
+     * A Map of each possible answer's text to its position
+     */
+    protected Map<String, Integer> answerIndices;
+
+    /**
+     * A bitmask of which positions hold a correct answer
+     * 
+     * Bit j of correctMask[j / 64] is set if the Answer at position j is correct.
+     * This lets a ballot (a bitmask of chosen positions) be scored with an AND and
+     * a bit count instead of looking at each chosen Answer
+     */
+    protected long[] correctMask;
+
+    /**
+     * The number of correct answers, kept up to date with correctMask
+     */
+    protected int correctCount;
+
+    /**
+     * A bitmask of which positions still hold an answer (the same layout as
+     * correctMask); a removed answer clears its bit
+     */
+    protected long[] liveMask;
+
     /**
      * A simple constructor for a Question object, only takes a questionString
      * 
      * Sets isMultipleChoice to false since multiple choice questions have their
      * own class
      * 
-     * Sets the answerSet Set to an empty HashSet
+     * Sets the answerSet Set to a view of the (empty) answer positions
      * 
      * @param questionString The String of the question text
      */
     public Question(String questionString){
+        this.ordinal = reserveOrdinals(1);
         this.questionString = questionString;
         this.isMultipleChoice = false;
-        answerSet = new HashSet<Answer>();
+        answerSet = new PossibleAnswers();
+        answerPositions = new ArrayList<Answer>();
+        answerIndices = new HashMap<String, Integer>();
+        correctMask = new long[1];
+        correctCount = 0;
+        liveMask = new long[1];
     }
     
+    /**
+     * Hands out a block of consecutive ordinals
+     * 
+     * @param count The number of ordinals needed
+     * @return The first ordinal of the block
+     */
+    static int reserveOrdinals(int count){
+        return NEXT_ORDINAL.getAndAdd(count);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getOrdinal(){
+        return this.ordinal;
+    }
+
     /**
      * {@inheritDoc}}
      */
@@ -74,18 +164,7 @@ public class Question implements QuestionInterface {
      */
     @Override    
     public Answer getAnswerAtPosition(int answerIndex){
-
-        // Loop through the answers until we find a matching index
-        int i = 0;
-        for (Answer ans : this.answerSet){
-            if (i == answerIndex){
-                return ans;
-            }
-            i += 1;
-        }
-
-        // If we don't find an answer, return an empty, false, answer
-        return new Answer("", false);
+        return findAnswerAtPosition(answerIndex);
     }
 
     /**
@@ -93,13 +172,14 @@ public class Question implements QuestionInterface {
      */
     @Override
     public Set<Answer> getAnswersAtPositions(Set<Integer> answerIndices){
-        Set<Answer> answersSet = new HashSet<Answer>();
+        // Size the set up front so it never has to rehash while we fill it
+        Set<Answer> answersSet = new HashSet<Answer>(answerIndices.size() * 2);
         
-        // Call getAnswerAtPosition on every position given
+        // Look up every position given
         for(int answerIndex : answerIndices){
-            Answer ansAtPos = getAnswerAtPosition(answerIndex);
+            Answer ansAtPos = findAnswerAtPosition(answerIndex);
             // If an answer was found, add it to the set
-            if (!ansAtPos.equals(""))
+            if (ansAtPos != null)
                 answersSet.add(ansAtPos);
         }
         
@@ -107,6 +187,102 @@ public class Question implements QuestionInterface {
         return answersSet;
     }
 
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getAnswersAtPositions(int[] answerIndices, int count, Answer[] answersOut){
+        int found = 0;
+
+        // Look up every position given, skipping the ones without an answer
+        for(int i = 0; i < count; i++){
+            Answer ansAtPos = findAnswerAtPosition(answerIndices[i]);
+            if (ansAtPos != null)
+                answersOut[found++] = ansAtPos;
+        }
+
+        return found;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getPositionCount(){
+        return this.answerPositions.size();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getAnswerCount(){
+        return this.answerIndices.size();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long getLiveMaskWord(int wordIndex){
+        if (wordIndex >= this.liveMask.length){
+            return 0L;
+        }
+
+        return this.liveMask[wordIndex];
+    }
+
+    /**
+     * Gets the Answer at a position straight from the positions List
+     * 
+     * @param answerIndex The index to get the answer for
+     * @return The Answer object found, or null if the position is out of range
+     *         or its answer was removed
+     */
+    protected Answer findAnswerAtPosition(int answerIndex){
+        if (answerIndex < 0 || answerIndex >= this.answerPositions.size()){
+            return null;
+        }
+
+        return this.answerPositions.get(answerIndex);
+    }
+
+    /**
+     * Adds an Answer to the end of the positions List and the position index
+     * 
+     * The Answer is taken from the AnswerPool, so it is shared with every other
+     * Question that has the same answer
+     * 
+     * @param answerString The String of the answer
+     * @param isCorrect Whether or not the answer is correct
+     * @return Whether or not the Answer was added (false if it was already
+     *         a possible answer)
+     */
+    protected boolean registerAnswer(String answerString, boolean isCorrect){
+        // Check the index first, so a duplicate doesn't build an Answer
+        if (this.answerIndices.containsKey(answerString)){
+            return false;
+        }
+
+        int answerIndex = this.answerPositions.size();
+        Answer answer = AnswerPool.get(answerString, isCorrect);
+        this.answerPositions.add(answer);
+        this.answerIndices.put(answer.getAnswerString(), answerIndex);
+
+        // Grow the masks if the new position doesn't fit
+        if ((answerIndex >>> 6) >= this.correctMask.length){
+            this.correctMask = Arrays.copyOf(this.correctMask, this.correctMask.length * 2);
+            this.liveMask = Arrays.copyOf(this.liveMask, this.liveMask.length * 2);
+        }
+        this.liveMask[answerIndex >>> 6] |= 1L << answerIndex;
+        if (answer.isCorrect()){
+            this.correctMask[answerIndex >>> 6] |= 1L << answerIndex;
+            this.correctCount++;
+        }
+
+        return true;
+    }
+
     /**
      * {@inheritDoc}}
      * 
@@ -119,8 +295,7 @@ public class Question implements QuestionInterface {
             throw new UnsupportedOperationException("Question already has a correct answer.");
         }
         
-        // Set.add returns false if the item was already in the set
-        if  (!answerSet.add(new Answer(answerString, isCorrect))){
+        if  (!registerAnswer(answerString, isCorrect)){
             throw new IllegalArgumentException("Answer is already a possible answer.");
         }
     }
@@ -155,7 +330,19 @@ public class Question implements QuestionInterface {
      */
     @Override
     public void removePossibleAnswer(String answerString) {
-        removePossibleAnswer(new Answer(answerString, false));
+        Integer answerIndex = this.answerIndices.remove(answerString);
+        if (answerIndex == null){
+            return;
+        }
+
+        // Leave an empty slot behind so no other answer changes position
+        Answer removed = this.answerPositions.set(answerIndex, null);
+        this.liveMask[answerIndex >>> 6] &= ~(1L << answerIndex);
+
+        if (removed.isCorrect()){
+            this.correctMask[answerIndex >>> 6] &= ~(1L << answerIndex);
+            this.correctCount--;
+        }
     }
 
     /**
@@ -163,7 +350,41 @@ public class Question implements QuestionInterface {
      */
     @Override
     public void removePossibleAnswer(Answer answer) {
-        this.answerSet.remove(answer);
+        removePossibleAnswer(answer.getAnswerString());
+    }
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * @throws UnsupportedOperationException If this would give a single-choice
+     *                                       Question a second correct answer
+     */
+    @Override
+    public void setCorrect(String answerString, boolean isCorrect){
+        Integer answerIndex = this.answerIndices.get(answerString);
+        if (answerIndex == null){
+            throw new IllegalArgumentException("Answer is not a possible answer.");
+        }
+
+        Answer answer = this.answerPositions.get(answerIndex);
+        if (answer.isCorrect() == isCorrect){
+            return;
+        }
+
+        if (isCorrect && !this.isMultipleChoice && this.hasCorrectAnswer()){
+            throw new UnsupportedOperationException("Question already has a correct answer.");
+        }
+
+        // Answers can't change, so swap in the pooled one with the new correctness
+        // and keep the mask and the count in step
+        this.answerPositions.set(answerIndex, AnswerPool.get(answer.getAnswerString(), isCorrect));
+        if (isCorrect){
+            this.correctMask[answerIndex >>> 6] |= 1L << answerIndex;
+            this.correctCount++;
+        } else {
+            this.correctMask[answerIndex >>> 6] &= ~(1L << answerIndex);
+            this.correctCount--;
+        }
     }
 
     /**
@@ -171,15 +392,27 @@ public class Question implements QuestionInterface {
      */
     @Override
     public boolean hasCorrectAnswer(){
-        // Loop through all the answers until we find any that are correct
-        for (Answer ans : this.answerSet){
-            if (ans.isCorrect()){
-                return true;
-            }
+        return this.correctCount > 0;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getCorrectCount(){
+        return this.correctCount;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long getCorrectMaskWord(int wordIndex){
+        if (wordIndex >= this.correctMask.length){
+            return 0L;
         }
 
-        // If none are found, there are no correct answers
-        return false;
+        return this.correctMask[wordIndex];
     }
 
     /**
@@ -189,4 +422,62 @@ public class Question implements QuestionInterface {
     public boolean getIsMultipleChoice(){
         return this.isMultipleChoice;
     }
-}
\ No newline at end of file
+
+    /**
+     * The PossibleAnswers class is the read-only Set of a Question's possible answers,
+     * backed by its positions List (for iterating, in position order) and its position
+     * index (for lookups), so a Question doesn't keep a third copy of its answers
+     */
+    private final class PossibleAnswers extends AbstractSet<Answer> {
+
+        /**
+         * {@inheritDoc}}
+         */
+        @Override
+        public int size(){
+            return answerIndices.size();
+        }
+
+        /**
+         * {@inheritDoc}}
+         */
+        @Override
+        public boolean contains(Object other){
+            return other instanceof Answer && answerIndices.containsKey(((Answer) other).getAnswerString());
+        }
+
+        /**
+         * {@inheritDoc}}
+         * 
+         * Removed answers' empty slots are skipped
+         */
+        @Override
+        public Iterator<Answer> iterator(){
+            return new Iterator<Answer>(){
+                private int next = advance(0);
+
+                private int advance(int from){
+                    while (from < answerPositions.size() && answerPositions.get(from) == null){
+                        from++;
+                    }
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext(){
+                    return this.next < answerPositions.size();
+                }
+
+                @Override
+                public Answer next(){
+                    if (!hasNext()){
+                        throw new NoSuchElementException();
+                    }
+                    Answer answer = answerPositions.get(this.next);
+                    this.next = advance(this.next + 1);
+                    return answer;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The QuestionBankReader class loads a question bank written by QuestionBankWriter
+ * 
+ * The file is memory-mapped and read in place: nothing is copied onto the heap
+ * when the bank is opened. A Question is only wrapped (see MappedQuestion) the
+ * first time it is asked for, and its Strings are only decoded the first time
+ * they are needed. Each distinct String is decoded once and shared by every
+ * Question that uses it.
+ * 
+ * The Questions loaded are read-only, and the reader and its Questions can be used
+ * from any thread (the parallel vote engine shares them). The lazily loaded Questions
+ * and Strings are kept in AtomicReferenceArrays, so one loaded on one thread is seen
+ * whole on every other, and each Question is only ever wrapped once.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class QuestionBankReader {
+
+    /**
+     * The first four bytes of every question bank ("IVQB")
+     */
+    static final int MAGIC = 0x49565142;
+
+    /**
+     * The version of the file layout
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the file header in bytes
+     */
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * The size of a Question record's fixed fields in bytes
+     */
+    static final int RECORD_HEADER_SIZE = 16;
+
+    /**
+     * The flag bit marking a multiple choice Question
+     */
+    static final int FLAG_MULTIPLE_CHOICE = 1;
+
+    /**
+     * The whole bank
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The number of Questions in the bank
+     */
+    private final int questionCount;
+
+    /**
+     * The number of distinct Strings in the bank
+     */
+    private final int stringCount;
+
+    /**
+     * Where the string index starts
+     */
+    private final int stringIndexOffset;
+
+    /**
+     * The Questions loaded so far (null until first asked for)
+     */
+    private final AtomicReferenceArray<MappedQuestion> questions;
+
+    /**
+     * The ordinal of the bank's first Question (the rest follow in bank order)
+     */
+    private final int ordinalBase;
+
+    /**
+     * The Strings decoded so far (null until first needed)
+     */
+    private final AtomicReferenceArray<String> strings;
+
+    /**
+     * Opens a question bank file by memory-mapping it
+     * 
+     * @param path The path of the file
+     * @throws IOException If the file can't be opened or mapped
+     * @throws IllegalArgumentException If the file isn't a question bank
+     */
+    public QuestionBankReader(Path path) throws IOException {
+        this(map(path));
+    }
+
+    /**
+     * Reads a question bank held in a buffer (from its position onwards)
+     * 
+     * @param buffer The buffer holding the bank
+     * @throws IllegalArgumentException If the buffer doesn't hold a question bank
+     */
+    public QuestionBankReader(ByteBuffer buffer){
+        this.buffer = buffer.slice();
+
+        if (this.buffer.capacity() < HEADER_SIZE || this.buffer.getInt(0) != MAGIC){
+            throw new IllegalArgumentException("Not a question bank.");
+        }
+        if (this.buffer.getInt(4) != VERSION){
+            throw new IllegalArgumentException("Unsupported question bank version " + this.buffer.getInt(4) + ".");
+        }
+
+        this.questionCount = this.buffer.getInt(8);
+        this.stringCount = this.buffer.getInt(12);
+        this.stringIndexOffset = this.buffer.getInt(16);
+        if (this.questionCount < 0 || this.stringCount < 0
+                || this.stringIndexOffset + 4L * (this.stringCount + 1) > this.buffer.capacity()){
+            throw new IllegalArgumentException("The question bank is truncated.");
+        }
+
+        this.questions = new AtomicReferenceArray<MappedQuestion>(this.questionCount);
+        // Reserve the ordinals up front, so they follow bank order however the Questions are loaded
+        this.ordinalBase = Question.reserveOrdinals(this.questionCount);
+        this.strings = new AtomicReferenceArray<String>(this.stringCount);
+    }
+
+    /**
+     * A static method to memory-map a whole file read-only
+     * 
+     * @param path The path of the file
+     * @return The mapped file
+     * @throws IOException If the file can't be opened or mapped
+     */
+    private static ByteBuffer map(Path path) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * A simple getter for the number of Questions in the bank
+     * @return The number of Questions
+     */
+    public int getQuestionCount(){
+        return this.questionCount;
+    }
+
+    /**
+     * Gets a Question from the bank, loading it the first time it is asked for
+     * 
+     * Asking for the same index again returns the same Question object
+     * 
+     * @param questionIndex The index of the Question in the bank
+     * @return The Question at that index
+     * @throws IndexOutOfBoundsException If there is no Question at that index
+     */
+    public QuestionInterface getQuestion(int questionIndex){
+        MappedQuestion question = this.questions.get(questionIndex);
+        if (question == null){
+            int offset = this.buffer.getInt(HEADER_SIZE + 4 * questionIndex);
+            question = new MappedQuestion(this, this.buffer, offset, this.ordinalBase + questionIndex);
+            // If another thread wrapped it first, use theirs so there is only ever one
+            if (!this.questions.compareAndSet(questionIndex, null, question)){
+                question = this.questions.get(questionIndex);
+            }
+        }
+
+        return question;
+    }
+
+    /**
+     * Loads every Question of the bank
+     * 
+     * @return The Questions, in the order they were written
+     */
+    public Set<QuestionInterface> getQuestions(){
+        Set<QuestionInterface> questionSet = new LinkedHashSet<QuestionInterface>(this.questionCount * 2);
+        for (int i = 0; i < this.questionCount; i++){
+            questionSet.add(getQuestion(i));
+        }
+
+        return questionSet;
+    }
+
+    /**
+     * Gets a String from the string table, decoding it the first time it is needed
+     * 
+     * @param stringIndex The index of the String
+     * @return The String at that index
+     */
+    String getString(int stringIndex){
+        String string = this.strings.get(stringIndex);
+        if (string == null){
+            int start = this.buffer.getInt(this.stringIndexOffset + 4 * stringIndex);
+            int end = this.buffer.getInt(this.stringIndexOffset + 4 * stringIndex + 4);
+            string = StandardCharsets.UTF_8.decode(this.buffer.slice(start, end - start)).toString();
+            // Keep whichever copy was stored first, so the String is still shared
+            if (!this.strings.compareAndSet(stringIndex, null, string)){
+                string = this.strings.get(stringIndex);
+            }
+        }
+
+        return string;
+    }
+
+    /**
+     * Finds where a Question record's correctness bitmask starts
+     * 
+     * The answer positions come right after the record's fixed fields, and the
+     * bitmask after those, aligned to 8 bytes
+     * 
+     * @param recordOffset Where the record starts
+     * @param positionCount The number of answer positions of the Question
+     * @return Where the bitmask starts
+     */
+    static int maskOffset(int recordOffset, int positionCount){
+        return recordOffset + ((RECORD_HEADER_SIZE + 4 * positionCount + 7) & ~7);
+    }
+}
@@ -0,0 +1,237 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The QuestionBankWriter class saves a collection of Questions in the compact
+ * binary question bank format read by QuestionBankReader
+ * 
+ * Every distinct String (question texts and answers alike) is stored once in a
+ * string table, and the Questions refer to it by index, so banks where the same
+ * answers come up again and again ("True", "False", "None of the above", ...)
+ * stay small.
+ * 
+ * The file is laid out as (all numbers big-endian):
+ * 
+ * - A 32 byte header: magic, version, number of Questions, number of Strings,
+ *   and where the string index, the string data, and the question index start
+ * - The question index: where each Question's record starts
+ * - The Question records, each aligned to 8 bytes: flags (bit 0 is multiple
+ *   choice), the String index of the question text, the number of answer
+ *   positions, the number of correct answers, the String index of the answer
+ *   at each position (-1 for a removed answer), and the correctness bitmask
+ * - The string index: where each String starts, plus where the last one ends
+ * - The string data, UTF-8 encoded
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class QuestionBankWriter {
+
+    /**
+     * The distinct Strings in the order they were first seen
+     */
+    private final List<byte[]> strings;
+
+    /**
+     * A Map of each distinct String to its index in the string table
+     */
+    private final Map<String, Integer> stringIndices;
+
+    /**
+     * The Questions to write, in order
+     */
+    private final List<QuestionInterface> questions;
+
+    /**
+     * A simple constructor for an empty QuestionBankWriter
+     */
+    public QuestionBankWriter(){
+        this.strings = new ArrayList<byte[]>();
+        this.stringIndices = new HashMap<String, Integer>();
+        this.questions = new ArrayList<QuestionInterface>();
+    }
+
+    /**
+     * Adds a Question to the bank, after the ones already added
+     * 
+     * @param question The Question to add
+     */
+    public void addQuestion(QuestionInterface question){
+        this.questions.add(question);
+        intern(question.getQuestionString());
+    }
+
+    /**
+     * Adds every Question of a collection to the bank, in iteration order
+     * 
+     * @param questions The Questions to add
+     */
+    public void addQuestions(Collection<? extends QuestionInterface> questions){
+        for (QuestionInterface question : questions){
+            addQuestion(question);
+        }
+    }
+
+    /**
+     * A static method to write a collection of Questions straight to a file
+     * 
+     * @param path The path of the file to write
+     * @param questions The Questions to write, in iteration order
+     * @throws IOException If the file can't be written
+     */
+    public static void write(Path path, Collection<? extends QuestionInterface> questions) throws IOException {
+        QuestionBankWriter writer = new QuestionBankWriter();
+        writer.addQuestions(questions);
+        writer.writeTo(path);
+    }
+
+    /**
+     * Writes the added Questions to a file, replacing anything already there
+     * 
+     * @param path The path of the file to write
+     * @throws IOException If the file can't be written
+     */
+    public void writeTo(Path path) throws IOException {
+        ByteBuffer buffer = toByteBuffer();
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            while (buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Lays the added Questions out in the question bank format
+     * 
+     * @return A buffer holding the whole bank, ready to be read from the start
+     * @throws IllegalArgumentException If the bank would be 2GB or more
+     */
+    public ByteBuffer toByteBuffer(){
+        // Intern every answer first, so the string table is complete
+        for (QuestionInterface question : this.questions){
+            for (int i = 0; i < question.getPositionCount(); i++){
+                Answer answer = question.getAnswerAtPosition(i);
+                if (answer != null){
+                    intern(answer.getAnswerString());
+                }
+            }
+        }
+
+        // Work out where everything goes
+        long size = QuestionBankReader.HEADER_SIZE + 4L * this.questions.size();
+        int[] recordOffsets = new int[this.questions.size()];
+        for (int q = 0; q < this.questions.size(); q++){
+            size = align8(size);
+            recordOffsets[q] = (int) size; // Checked against the 2GB limit below
+            size += recordSize(this.questions.get(q).getPositionCount());
+        }
+
+        long stringIndexOffset = size;
+        long stringDataOffset = stringIndexOffset + 4L * (this.strings.size() + 1);
+        size = stringDataOffset;
+        for (byte[] string : this.strings){
+            size += string.length;
+        }
+
+        if (size > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("The question bank is too big for a single file.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+        // Header
+        buffer.putInt(0, QuestionBankReader.MAGIC);
+        buffer.putInt(4, QuestionBankReader.VERSION);
+        buffer.putInt(8, this.questions.size());
+        buffer.putInt(12, this.strings.size());
+        buffer.putInt(16, (int) stringIndexOffset);
+        buffer.putInt(20, (int) stringDataOffset);
+
+        // Question index and records
+        for (int q = 0; q < this.questions.size(); q++){
+            buffer.putInt(QuestionBankReader.HEADER_SIZE + 4 * q, recordOffsets[q]);
+            writeRecord(buffer, recordOffsets[q], this.questions.get(q));
+        }
+
+        // String index and data
+        int position = (int) stringDataOffset;
+        for (int s = 0; s < this.strings.size(); s++){
+            buffer.putInt((int) stringIndexOffset + 4 * s, position);
+            buffer.put(position, this.strings.get(s));
+            position += this.strings.get(s).length;
+        }
+        buffer.putInt((int) stringIndexOffset + 4 * this.strings.size(), position);
+
+        return buffer;
+    }
+
+    /**
+     * Writes one Question's record
+     * 
+     * @param buffer The buffer holding the bank
+     * @param offset Where the record starts
+     * @param question The Question to write
+     */
+    private void writeRecord(ByteBuffer buffer, int offset, QuestionInterface question){
+        int positionCount = question.getPositionCount();
+
+        buffer.putInt(offset, question.getIsMultipleChoice() ? QuestionBankReader.FLAG_MULTIPLE_CHOICE : 0);
+        buffer.putInt(offset + 4, this.stringIndices.get(question.getQuestionString()));
+        buffer.putInt(offset + 8, positionCount);
+        buffer.putInt(offset + 12, question.getCorrectCount());
+
+        for (int i = 0; i < positionCount; i++){
+            Answer answer = question.getAnswerAtPosition(i);
+            int stringIndex = answer != null ? this.stringIndices.get(answer.getAnswerString()) : -1;
+            buffer.putInt(offset + QuestionBankReader.RECORD_HEADER_SIZE + 4 * i, stringIndex);
+        }
+
+        int maskOffset = QuestionBankReader.maskOffset(offset, positionCount);
+        for (int w = 0; w < BallotStore.wordsFor(positionCount); w++){
+            buffer.putLong(maskOffset + 8 * w, question.getCorrectMaskWord(w));
+        }
+    }
+
+    /**
+     * Adds a String to the string table if it isn't there yet
+     * 
+     * @param string The String to add
+     */
+    private void intern(String string){
+        if (!this.stringIndices.containsKey(string)){
+            this.stringIndices.put(string, this.strings.size());
+            this.strings.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Calculates the size of a Question record
+     * 
+     * @param positionCount The number of answer positions of the Question
+     * @return The size of the record in bytes
+     */
+    private static int recordSize(int positionCount){
+        return QuestionBankReader.maskOffset(0, positionCount) + 8 * BallotStore.wordsFor(positionCount);
+    }
+
+    /**
+     * Rounds a size up to a multiple of 8 bytes
+     * 
+     * @param size The size in bytes
+     * @return The rounded size
+     */
+    private static long align8(long size){
+        return (size + 7) & ~7L;
+    }
+}
@@ -15,6 +15,19 @@ import java.util.Set;
  */
 public interface QuestionInterface {
     
+    /**
+     * A simple getter for the Question's ordinal
+     * 
+     * Ordinals are dense IDs handed out in the order Questions are made, so they
+     * are the same on every run that makes the same Questions in the same order.
+     * A VotingService lays its Questions out in ordinal order, whatever order the
+     * Set it was given iterates in, and finds a Question's row from its ordinal, so
+     * no two Questions may share one.
+     * 
+     * @return The ordinal of the Question
+     */
+    public int getOrdinal();
+
     /**
      * A simple getter method for the question string of the Question
      * @return The questionString of the Question object
@@ -28,17 +41,18 @@ public interface QuestionInterface {
 
     /**
      * A simple getter method for the possible answers of the Question
-     * @return The possibleAnswers of the Question object
+     * @return The possibleAnswers of the Question object (read-only)
      */
     public Set<Answer> getPossibleAnswers();
     /**
      * Gets a single Answer object given an index
      * 
-     * Since sets don't have random access, we just loop through it's array and
-     * increment a temporary index
+     * Positions are assigned in insertion order and never move, so a removed
+     * answer leaves an empty slot rather than shifting the answers after it
      * 
      * @param answerIndex The index to get the answer for
-     * @return The Answer object found
+     * @return The Answer object found, or null if the slot's answer was removed
+     *         or the index is out of range
      */
     public Answer getAnswerAtPosition(int answerIndex);
     /**
@@ -49,6 +63,44 @@ public interface QuestionInterface {
      * @return A set of Answers found
      */
     public Set<Answer> getAnswersAtPositions(Set<Integer> answerIndices);
+    /**
+     * Looks up the Answers for the first `count` indices provided and writes
+     * them into a caller-supplied array, so a batch lookup needs no allocation
+     * 
+     * @param answerIndices An array of the indices to find
+     * @param count How many entries of answerIndices to look up
+     * @param answersOut The array the found Answers are written to
+     * @return How many Answers were written into answersOut
+     */
+    public int getAnswersAtPositions(int[] answerIndices, int count, Answer[] answersOut);
+    /**
+     * A simple getter for the number of answer positions ever assigned
+     * 
+     * This includes the empty slots left by removed answers, so it is the
+     * width a statistics row needs to have for this Question
+     * 
+     * @return The number of answer positions
+     */
+    public int getPositionCount();
+    /**
+     * A simple getter for the number of answer positions still holding an answer
+     * 
+     * This is the number of possible answers, which is less than the position
+     * count once an answer has been removed
+     * 
+     * @return The number of live answer positions
+     */
+    public int getAnswerCount();
+    /**
+     * Gets one word of the bitmask of answer positions still holding an answer
+     * 
+     * Bit j of word w is set unless the Answer at position (w * 64 + j) was
+     * removed, so Students only ever choose from the set bits
+     * 
+     * @param wordIndex Which 64-position word of the mask to get
+     * @return The word of the mask (0 past the last position)
+     */
+    public long getLiveMaskWord(int wordIndex);
 
     /**
      * Adds a possible answer to the possible answer set
@@ -90,11 +142,38 @@ public interface QuestionInterface {
      */
     public void removePossibleAnswer(Answer answer);
 
+    /**
+     * Marks a possible answer as correct or incorrect
+     * 
+     * Answers can't be changed, so this is the only way to change whether one is
+     * correct; the Question swaps in a new Answer and keeps its correctness mask in step
+     * 
+     * @param answerString The String of the answer
+     * @param isCorrect Whether or not the answer is correct
+     * @throws IllegalArgumentException If the answer is not a possible answer
+     */
+    public void setCorrect(String answerString, boolean isCorrect);
+
     /**
      * A simple getter for whether or not the question has a correct answer
      * @return Whether or not a correct answer has been added
      */
     public boolean hasCorrectAnswer();
+    /**
+     * A simple getter for the number of correct answers
+     * @return The number of possible answers that are correct
+     */
+    public int getCorrectCount();
+    /**
+     * Gets one word of the bitmask of correct answer positions
+     * 
+     * Bit j of word w is set if the Answer at position (w * 64 + j) is correct,
+     * so ANDing a ballot's word with it keeps only the correct choices
+     * 
+     * @param wordIndex Which 64-position word of the mask to get
+     * @return The word of the mask (0 past the last position)
+     */
+    public long getCorrectMaskWord(int wordIndex);
     /**
      * A simple getter for whether or not the question is multiple choice
      * @return Whether or not the question allows for multiple choices
@@ -0,0 +1,40 @@
+import java.util.SplittableRandom;
+
+/**
+ * The QuestionSamplerInterface is used to pick which Questions of the bank each
+ * Student answers, so a round costs O(Students x Questions picked) rather than
+ * O(Students x Questions)
+ * 
+ * Having it as an interface lets a VotingService swap between answering every
+ * Question (no sampler), a random subset (RandomQuestionSampler), a subset drawn
+ * from each group of Questions (StratifiedQuestionSampler), or any other rule.
+ * 
+ * Implementations must be safe to call from several threads at once, and should
+ * only draw from the random number generator they are given, so a seed gives the
+ * same subsets however voting is split across threads.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface QuestionSamplerInterface {
+
+    /**
+     * Gets the most Questions sample() can pick, so callers can size a buffer
+     * 
+     * @param questionCount The number of Questions in the bank
+     * @return The largest number of Question indices sample() writes
+     */
+    public int getMaxSampleSize(int questionCount);
+
+    /**
+     * Picks the Questions a Student answers
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionCount The number of Questions in the bank
+     * @param random The random number generator to draw from (seeded for the Student)
+     * @param questionIndices The array the picked Question indices are written to, in
+     *                        increasing order and without repeats
+     * @return How many Question indices were written
+     */
+    public int sample(int studentIndex, int questionCount, SplittableRandom random, int[] questionIndices);
+}
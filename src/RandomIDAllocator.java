@@ -0,0 +1,114 @@
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The RandomIDAllocator hands out random alphanumeric IDs and keeps a registry of
+ * the ones in use
+ * 
+ * The registry is a concurrent Set (ConcurrentHashMap's key set), so lookups never
+ * lock and additions only contend when they land in the same bin. Claiming an ID is
+ * a single atomic add, so two threads can never claim the same ID. Released IDs
+ * are removed from the registry, so discarded Students don't leak memory.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class RandomIDAllocator implements IDAllocatorInterface {
+
+    /**
+     * The characters an ID is made of (alphanumeric, case-sensitive)
+     */
+    private static final char[] ID_CHARACTERS =
+        ("0123456789" + "ABCDEFGHIJKLMNOPQRSTUVWXYZ" + "abcdefghijklmnopqrstuvwxyz").toCharArray();
+
+    /**
+     * The length of the generated IDs
+     */
+    private final int idLength;
+
+    /**
+     * The Set of IDs in use
+     */
+    private final Set<String> usedIDs;
+
+    /**
+     * Creates a RandomIDAllocator generating IDs of a given length
+     * 
+     * @param idLength The length of the generated IDs
+     * @throws IllegalArgumentException If the length is 0 or less
+     */
+    public RandomIDAllocator(int idLength){
+        if (idLength <= 0){
+            throw new IllegalArgumentException("idLength must be a positive integer");
+        }
+
+        this.idLength = idLength;
+        this.usedIDs = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * Keeps generating random IDs until one can be claimed
+     */
+    @Override
+    public String allocate(){
+        String generatedID = generateRandomID();
+        while (!this.usedIDs.add(generatedID)){
+            generatedID = generateRandomID();
+        }
+
+        return generatedID;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean reserve(String studentID){
+        return this.usedIDs.add(studentID);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void release(String studentID){
+        this.usedIDs.remove(studentID);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean isInUse(String studentID){
+        return this.usedIDs.contains(studentID);
+    }
+
+    /**
+     * A simple getter for the number of IDs in use
+     * @return The number of IDs in the registry
+     */
+    public int getUsedCount(){
+        return this.usedIDs.size();
+    }
+
+    /**
+     * Generates a random ID (not guaranteed to be unique)
+     * 
+     * Fills a char array with random characters from ID_CHARACTERS and turns it
+     * into a String once, rather than concatenating a String per character
+     * 
+     * @return The generated ID
+     */
+    private String generateRandomID(){
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] generatedID = new char[this.idLength];
+        for (int i = 0; i < this.idLength; i++){
+            generatedID[i] = ID_CHARACTERS[random.nextInt(ID_CHARACTERS.length)];
+        }
+
+        return new String(generatedID);
+    }
+}
@@ -0,0 +1,119 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The RandomQuestionSampler class picks the same number of Questions for every
+ * Student, uniformly at random from the whole bank
+ * 
+ * Small samples use Floyd's algorithm, which draws exactly k random numbers and
+ * keeps the picks sorted as it goes, so it costs O(k log k) (plus O(k) per insert)
+ * however big the bank is. Once k is large enough that the inserts would dominate,
+ * it switches to selection sampling, a single O(n) pass over the bank that comes
+ * out sorted. Either way every subset of size k is equally likely.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class RandomQuestionSampler implements QuestionSamplerInterface {
+
+    /**
+     * Samples bigger than this use selection sampling rather than Floyd's algorithm
+     */
+    static final int FLOYD_LIMIT = 256;
+
+    /**
+     * The number of Questions each Student answers
+     */
+    private final int sampleSize;
+
+    /**
+     * Creates a RandomQuestionSampler
+     * 
+     * @param sampleSize The number of Questions each Student answers (every Question
+     *                   if the bank is smaller)
+     * @throws IllegalArgumentException If sampleSize is negative
+     */
+    public RandomQuestionSampler(int sampleSize){
+        if (sampleSize < 0){
+            throw new IllegalArgumentException("sampleSize must be a non-negative integer");
+        }
+
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * A simple getter for the number of Questions each Student answers
+     * @return The sample size
+     */
+    public int getSampleSize(){
+        return this.sampleSize;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getMaxSampleSize(int questionCount){
+        return Math.min(this.sampleSize, questionCount);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int sample(int studentIndex, int questionCount, SplittableRandom random, int[] questionIndices){
+        return sampleRange(0, questionCount, this.sampleSize, random, questionIndices, 0);
+    }
+
+    /**
+     * Picks k distinct numbers from [from, from + n), sorted
+     * 
+     * @param from The first number of the range
+     * @param n The size of the range
+     * @param k The number of picks (all of the range if it is smaller)
+     * @param random The random number generator to draw from
+     * @param out The array the picks are written to
+     * @param outOffset Where in out to start writing
+     * @return The number of picks written
+     */
+    static int sampleRange(int from, int n, int k, SplittableRandom random, int[] out, int outOffset){
+        if (k >= n){
+            for (int i = 0; i < n; i++){
+                out[outOffset + i] = from + i;
+            }
+            return n;
+        }
+
+        if (k > FLOYD_LIMIT){
+            // Selection sampling: keep each number with probability (still needed / still left)
+            int picked = 0;
+            for (int i = 0; i < n && picked < k; i++){
+                if (random.nextInt(n - i) < k - picked){
+                    out[outOffset + picked++] = from + i;
+                }
+            }
+            return picked;
+        }
+
+        // Floyd's algorithm: for j from n - k up, pick t in [0, j]; if t is taken, j can't be
+        int picked = 0;
+        for (int j = n - k; j < n; j++){
+            int t = random.nextInt(j + 1);
+            int place = Arrays.binarySearch(out, outOffset, outOffset + picked, from + t);
+            int value = from + t;
+            if (place >= 0){
+                // j is bigger than every pick so far, so it goes on the end
+                value = from + j;
+                place = outOffset + picked;
+            } else {
+                place = -(place + 1);
+            }
+
+            System.arraycopy(out, place, out, place + 1, outOffset + picked - place);
+            out[place] = value;
+            picked++;
+        }
+
+        return picked;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * The RankedAnswer class holds one answer of a top-K query (see
+ * VotingService.getTopAnswers)
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class RankedAnswer {
+
+    /**
+     * The index of the Answer in its Question
+     */
+    private final int answerIndex;
+
+    /**
+     * The number of Students who chose the Answer
+     */
+    private final long count;
+
+    /**
+     * The Answer's share of every answer chosen for the Question
+     */
+    private final double share;
+
+    /**
+     * Creates a RankedAnswer
+     * 
+     * @param answerIndex The index of the Answer in its Question
+     * @param count The number of Students who chose the Answer
+     * @param share The Answer's share of every answer chosen for the Question
+     */
+    public RankedAnswer(int answerIndex, long count, double share){
+        this.answerIndex = answerIndex;
+        this.count = count;
+        this.share = share;
+    }
+
+    /**
+     * A simple getter for the index of the Answer in its Question
+     * @return The answer index
+     */
+    public int getAnswerIndex(){
+        return this.answerIndex;
+    }
+
+    /**
+     * A simple getter for the number of Students who chose the Answer
+     * @return The count
+     */
+    public long getCount(){
+        return this.count;
+    }
+
+    /**
+     * A simple getter for the Answer's share of every answer chosen for the Question
+     * @return The share, from 0 to 1
+     */
+    public double getShare(){
+        return this.share;
+    }
+
+    /**
+     * A String representation of the RankedAnswer
+     * 
+     * @return The RankedAnswer as a String `RankedAnswer(answerIndex, count, share)`
+     */
+    @Override
+    public String toString(){
+        return "RankedAnswer(" + this.answerIndex + ", " + this.count + ", " + this.share + ")";
+    }
+}
@@ -0,0 +1,350 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The RankedCounts class keeps one Question's answer counts sorted by count, and
+ * keeps them sorted as the counts change
+ * 
+ * Alongside the counts it holds the answers in order of count (highest first) and
+ * each answer's place in that order. A change of one vote swaps the answer with the
+ * first one holding its old count, found by binary search, so it costs O(log n)
+ * however many answers are tied. Bigger changes slide the answer along to its new
+ * place, and a batch that touches a large part of the row is applied and then
+ * sorted once. The top k answers are then just the first k of the order, with no
+ * sorting when they are asked for.
+ * 
+ * Writers take a write lock; readers copy what they need under an optimistic read
+ * (StampedLock) and only fall back to a read lock if a write got in the way.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class RankedCounts {
+
+    /**
+     * A batch touching more than 1/BULK_FRACTION of the row is sorted once instead
+     * of moving each answer
+     */
+    private static final int BULK_FRACTION = 16;
+
+    /**
+     * The count of each answer
+     */
+    private final long[] counts;
+
+    /**
+     * The answers in order of count, highest first (ties in no particular order)
+     */
+    private final int[] order;
+
+    /**
+     * The place of each answer in the order
+     */
+    private final int[] ranks;
+
+    /**
+     * The sum of every count
+     */
+    private long total;
+
+    /**
+     * Guards every field above
+     */
+    private final StampedLock lock;
+
+    /**
+     * Creates RankedCounts with every count at 0
+     * 
+     * @param positionCount The number of answer positions of the Question
+     */
+    RankedCounts(int positionCount){
+        this.counts = new long[positionCount];
+        this.order = new int[positionCount];
+        this.ranks = new int[positionCount];
+        for (int i = 0; i < positionCount; i++){
+            this.order[i] = i;
+            this.ranks[i] = i;
+        }
+        this.lock = new StampedLock();
+    }
+
+    /**
+     * Changes an answer's count
+     * 
+     * @param answerIndex The index of the Answer
+     * @param delta How much to change the count by
+     */
+    void add(int answerIndex, long delta){
+        if (delta == 0){
+            return;
+        }
+
+        long stamp = this.lock.writeLock();
+        try {
+            move(answerIndex, delta);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Changes every answer's count at once
+     * 
+     * @param deltas How much to change each answer's count by
+     */
+    void addAll(int[] deltas){
+        int changed = 0;
+        for (int delta : deltas){
+            if (delta != 0){
+                changed++;
+            }
+        }
+        if (changed == 0){
+            return;
+        }
+
+        long stamp = this.lock.writeLock();
+        try {
+            if (changed <= this.counts.length / BULK_FRACTION){
+                for (int i = 0; i < deltas.length; i++){
+                    if (deltas[i] != 0){
+                        move(i, deltas[i]);
+                    }
+                }
+            } else {
+                for (int i = 0; i < deltas.length; i++){
+                    this.counts[i] += deltas[i];
+                    this.total += deltas[i];
+                }
+                sort();
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Copies the answers with the highest counts, along with the total they
+     * are a share of
+     * 
+     * @param n The number of answers to copy (no more than the Question has)
+     * @param answerIndices Filled with the answers' indices, highest count first
+     * @param answerCounts Filled with the answers' counts
+     * @return The sum of every count, read together with the answers
+     */
+    long top(int n, int[] answerIndices, long[] answerCounts){
+        long stamp = this.lock.tryOptimisticRead();
+        copyTop(n, answerIndices, answerCounts);
+        long total = this.total;
+        if (!this.lock.validate(stamp)){
+            stamp = this.lock.readLock();
+            try {
+                copyTop(n, answerIndices, answerCounts);
+                total = this.total;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Gets an answer's share of the row's total, with both read together
+     * 
+     * @param answerIndex The index of the Answer
+     * @return The answer's share of the total (0 if nothing has been counted)
+     */
+    double share(int answerIndex){
+        long stamp = this.lock.tryOptimisticRead();
+        long count = this.counts[answerIndex];
+        long total = this.total;
+        if (!this.lock.validate(stamp)){
+            stamp = this.lock.readLock();
+            try {
+                count = this.counts[answerIndex];
+                total = this.total;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        return total <= 0 ? 0.0 : (double) count / total;
+    }
+
+    /**
+     * Gets an answer's rank: 1 plus the number of answers with a higher count
+     * 
+     * @param answerIndex The index of the Answer
+     * @return The rank (tied answers share a rank)
+     */
+    int rank(int answerIndex){
+        long stamp = this.lock.readLock();
+        try {
+            return firstRankBelow(this.counts[answerIndex] + 1, this.ranks[answerIndex]) + 1;
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * A simple getter for the sum of every count
+     * @return The total
+     */
+    long total(){
+        long stamp = this.lock.tryOptimisticRead();
+        long total = this.total;
+        if (!this.lock.validate(stamp)){
+            stamp = this.lock.readLock();
+            try {
+                total = this.total;
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Copies the first n answers of the order (may be torn if a write is running;
+     * callers validate)
+     */
+    private void copyTop(int n, int[] answerIndices, long[] answerCounts){
+        for (int i = 0; i < n; i++){
+            int answerIndex = this.order[i];
+            answerIndices[i] = answerIndex;
+            answerCounts[i] = this.counts[answerIndex];
+        }
+    }
+
+    /**
+     * Changes an answer's count and moves it to its new place in the order
+     * (the write lock must be held)
+     * 
+     * @param answerIndex The index of the Answer
+     * @param delta How much to change the count by (not 0)
+     */
+    private void move(int answerIndex, long delta){
+        int rank = this.ranks[answerIndex];
+        long count = this.counts[answerIndex] + delta;
+        this.counts[answerIndex] = count;
+        this.total += delta;
+
+        if (delta > 0){
+            // The first place ahead of us with a count below the new one
+            int target = firstRankBelow(count, rank);
+            if (target == rank){
+                return;
+            }
+
+            if (delta == 1){
+                // Everything in [target, rank) had our old count, so a swap keeps the order
+                swap(target, rank);
+            } else {
+                System.arraycopy(this.order, target, this.order, target + 1, rank - target);
+                this.order[target] = answerIndex;
+                renumber(target, rank);
+            }
+        } else {
+            // The last place behind us with a count above the new one
+            int target = lastRankAbove(count, rank);
+            if (target == rank){
+                return;
+            }
+
+            if (delta == -1){
+                swap(rank, target);
+            } else {
+                System.arraycopy(this.order, rank + 1, this.order, rank, target - rank);
+                this.order[target] = answerIndex;
+                renumber(rank, target);
+            }
+        }
+    }
+
+    /**
+     * Finds the first place in [0, end) whose count is below a value (end if none)
+     * 
+     * @param count The value
+     * @param end Where to stop looking
+     * @return The place found
+     */
+    private int firstRankBelow(long count, int end){
+        int low = 0;
+        int high = end;
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (this.counts[this.order[mid]] < count){
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Finds the last place in (start, length) whose count is above a value (start if none)
+     * 
+     * @param count The value
+     * @param start Where to start looking after
+     * @return The place found
+     */
+    private int lastRankAbove(long count, int start){
+        int low = start + 1;
+        int high = this.order.length;
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (this.counts[this.order[mid]] > count){
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low - 1;
+    }
+
+    /**
+     * Swaps the answers at two places in the order
+     */
+    private void swap(int first, int second){
+        int a = this.order[first];
+        int b = this.order[second];
+        this.order[first] = b;
+        this.order[second] = a;
+        this.ranks[b] = first;
+        this.ranks[a] = second;
+    }
+
+    /**
+     * Updates the places of the answers in [from, to] after they were shifted
+     */
+    private void renumber(int from, int to){
+        for (int i = from; i <= to; i++){
+            this.ranks[this.order[i]] = i;
+        }
+    }
+
+    /**
+     * Sorts the whole order by count, highest first
+     * 
+     * Each answer is packed with its count into a long so a primitive sort does it
+     * without boxing (counts fit in 32 bits, as there are fewer Students than that)
+     */
+    private void sort(){
+        long[] keys = new long[this.order.length];
+        for (int i = 0; i < keys.length; i++){
+            keys[i] = ((long) (Integer.MAX_VALUE - (int) this.counts[i]) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        for (int i = 0; i < keys.length; i++){
+            int answerIndex = (int) keys[i];
+            this.order[i] = answerIndex;
+            this.ranks[answerIndex] = i;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * The RankedStudent class holds one Student of a leaderboard query (see
+ * VotingService.getTopStudents)
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class RankedStudent {
+
+    /**
+     * The Student
+     */
+    private final Student student;
+
+    /**
+     * The number of correct answers the Student has chosen
+     */
+    private final int score;
+
+    /**
+     * The Student's rank (Students with the same score share one)
+     */
+    private final int rank;
+
+    /**
+     * Creates a RankedStudent
+     * 
+     * @param student The Student
+     * @param score The number of correct answers the Student has chosen
+     * @param rank The Student's rank
+     */
+    public RankedStudent(Student student, int score, int rank){
+        this.student = student;
+        this.score = score;
+        this.rank = rank;
+    }
+
+    /**
+     * A simple getter for the Student
+     * @return The Student
+     */
+    public Student getStudent(){
+        return this.student;
+    }
+
+    /**
+     * A simple getter for the number of correct answers the Student has chosen
+     * @return The score
+     */
+    public int getScore(){
+        return this.score;
+    }
+
+    /**
+     * A simple getter for the Student's rank
+     * @return The rank, 1 being the best
+     */
+    public int getRank(){
+        return this.rank;
+    }
+
+    /**
+     * A String representation of the RankedStudent
+     * 
+     * @return The RankedStudent as a String `RankedStudent(student, score, rank)`
+     */
+    @Override
+    public String toString(){
+        return "RankedStudent(" + this.student + ", " + this.score + ", " + this.rank + ")";
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SequentialIDAllocator hands out IDs encoded from a counter
+ * 
+ * Each allocation takes the next value of an atomic counter and writes it in base 62
+ * (alphanumeric, case-sensitive), padded to a fixed length. Counter values are never
+ * repeated, so allocated IDs are unique without any registry lookup, and nothing is
+ * kept per ID (so releasing one is free).
+ * 
+ * IDs claimed by hand with reserve are the exception: they are kept in a small
+ * concurrent Set, and allocation skips over any counter value that was claimed that way.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class SequentialIDAllocator implements IDAllocatorInterface {
+
+    /**
+     * The characters an ID is made of, in digit order
+     */
+    private static final char[] ID_CHARACTERS =
+        ("0123456789" + "ABCDEFGHIJKLMNOPQRSTUVWXYZ" + "abcdefghijklmnopqrstuvwxyz").toCharArray();
+
+    /**
+     * The base the counter is written in
+     */
+    private static final int BASE = ID_CHARACTERS.length;
+
+    /**
+     * The length of the generated IDs
+     */
+    private final int idLength;
+
+    /**
+     * The number of distinct IDs of idLength characters
+     */
+    private final long capacity;
+
+    /**
+     * The next counter value to hand out
+     */
+    private final AtomicLong counter;
+
+    /**
+     * The IDs claimed by hand with reserve
+     */
+    private final Set<String> reservedIDs;
+
+    /**
+     * Creates a SequentialIDAllocator generating IDs of a given length
+     * 
+     * @param idLength The length of the generated IDs
+     * @throws IllegalArgumentException If the length is not between 1 and 10
+     */
+    public SequentialIDAllocator(int idLength){
+        // 62^10 still fits in a long, 62^11 doesn't
+        if (idLength <= 0 || idLength > 10){
+            throw new IllegalArgumentException("idLength must be between 1 and 10");
+        }
+
+        long capacity = 1;
+        for (int i = 0; i < idLength; i++){
+            capacity *= BASE;
+        }
+
+        this.idLength = idLength;
+        this.capacity = capacity;
+        this.counter = new AtomicLong();
+        this.reservedIDs = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * @throws IllegalStateException If every ID of this length has been handed out
+     */
+    @Override
+    public String allocate(){
+        String generatedID = encode(nextValue());
+
+        // Only IDs claimed by hand can get in the way of the counter
+        while (!this.reservedIDs.isEmpty() && this.reservedIDs.contains(generatedID)){
+            generatedID = encode(nextValue());
+        }
+
+        return generatedID;
+    }
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * An ID the counter has already reached can't be claimed, since it may have
+     * been handed out
+     * 
+     * The ID is added to the Set before the counter is checked, and allocate takes a
+     * counter value before checking the Set, so if the two race either allocate sees
+     * the claim and skips the ID, or this sees the counter has passed it and gives the
+     * claim back
+     */
+    @Override
+    public boolean reserve(String studentID){
+        long value = decode(studentID);
+        if (value >= 0 && value < this.counter.get()){
+            return false;
+        }
+        if (!this.reservedIDs.add(studentID)){
+            return false;
+        }
+
+        // The counter may have passed the ID while it was being added
+        if (value >= 0 && value < this.counter.get()){
+            this.reservedIDs.remove(studentID);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * Counter IDs take up no space, so only IDs claimed by hand have anything to free
+     */
+    @Override
+    public void release(String studentID){
+        this.reservedIDs.remove(studentID);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public boolean isInUse(String studentID){
+        long value = decode(studentID);
+        return (value >= 0 && value < this.counter.get()) || this.reservedIDs.contains(studentID);
+    }
+
+    /**
+     * Takes the next counter value
+     * 
+     * @return The counter value
+     * @throws IllegalStateException If every ID of this length has been handed out
+     */
+    private long nextValue(){
+        long value = this.counter.getAndIncrement();
+        if (value >= this.capacity){
+            throw new IllegalStateException("Every " + this.idLength + " character ID has been allocated.");
+        }
+
+        return value;
+    }
+
+    /**
+     * Writes a counter value in base 62, padded to idLength characters
+     * 
+     * @param value The counter value
+     * @return The encoded ID
+     */
+    private String encode(long value){
+        char[] generatedID = new char[this.idLength];
+        for (int i = this.idLength - 1; i >= 0; i--){
+            generatedID[i] = ID_CHARACTERS[(int) (value % BASE)];
+            value /= BASE;
+        }
+
+        return new String(generatedID);
+    }
+
+    /**
+     * Reads an ID back into the counter value it encodes
+     * 
+     * @param studentID The ID to read
+     * @return The counter value, or -1 if the ID is not one this allocator could make
+     */
+    private long decode(String studentID){
+        if (studentID == null || studentID.length() != this.idLength){
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = 0; i < this.idLength; i++){
+            int digit = digitOf(studentID.charAt(i));
+            if (digit < 0){
+                return -1;
+            }
+            value = value * BASE + digit;
+        }
+
+        return value;
+    }
+
+    /**
+     * Finds the base 62 digit of a character
+     * 
+     * @param c The character
+     * @return The digit, or -1 if the character is not alphanumeric
+     */
+    private static int digitOf(char c){
+        if (c >= '0' && c <= '9'){
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z'){
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'z'){
+            return c - 'a' + 36;
+        }
+
+        return -1;
+    }
+}
@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -20,12 +23,15 @@ public class SimulationDriver {
      * all the Students answer each of the Questions, printing helpful statistics
      * at the end.
      * 
+     * If a path is given, the Questions are loaded from that question bank file
+     * (see QuestionBankWriter) instead of the built-in examples.
+     * 
      * @param args The basic String[] args for any main method in Java
      */
     public static void main(String[] args){
         // Generate Students and Questions
         Set<Student> studentSet = generateStudents(10);
-        Set<QuestionInterface> questionSet = generateQuestions();
+        Set<QuestionInterface> questionSet = args.length > 0 ? loadQuestions(args[0]) : generateQuestions();
 
         // Run the Voting Service and prints statistics
         VotingService vs = new VotingService(studentSet, questionSet);
@@ -70,6 +76,21 @@ public class SimulationDriver {
         return studentSet;
     }
 
+    /**
+     * A static method to load the Questions of a question bank file
+     * 
+     * @param path The path of the question bank
+     * @return The Set of Questions, in the order they were written
+     * @throws UncheckedIOException If the file can't be read
+     */
+    private static Set<QuestionInterface> loadQuestions(String path){
+        try {
+            return new QuestionBankReader(Paths.get(path)).getQuestions();
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * A static method to generate manually created example Questions 
      * (two single and one multi-choice)
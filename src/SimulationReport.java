@@ -0,0 +1,155 @@
+/**
+ * The SimulationReport class holds the results of a VoterSimulation run
+ * 
+ * It has how many ballots were submitted and how fast, and the spread of the
+ * submission latencies (how long each ballot took from the moment its voter was
+ * ready to hand it in, after arriving and thinking, to being counted, so time spent
+ * waiting to be scheduled or for the VotingService is included).
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class SimulationReport {
+
+    /**
+     * The number of voters simulated
+     */
+    private final int voters;
+
+    /**
+     * The number of ballots submitted
+     */
+    private final long ballots;
+
+    /**
+     * How long the whole simulation took, in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Whether or not the voters ran on virtual threads
+     */
+    private final boolean virtualThreads;
+
+    /**
+     * The mean submission latency in nanoseconds
+     */
+    private final double meanLatency;
+
+    /**
+     * The submission latencies at the 50th, 90th, 99th, and 99.9th percentiles and
+     * the largest one, in nanoseconds
+     */
+    private final long p50, p90, p99, p999, maxLatency;
+
+    /**
+     * Creates a SimulationReport from the latencies recorded during a run
+     * 
+     * @param voters The number of voters simulated
+     * @param elapsedNanos How long the whole simulation took, in nanoseconds
+     * @param virtualThreads Whether or not the voters ran on virtual threads
+     * @param latencies The submission latencies, in nanoseconds
+     */
+    public SimulationReport(int voters, long elapsedNanos, boolean virtualThreads, LatencyHistogram latencies){
+        this.voters = voters;
+        this.ballots = latencies.getCount();
+        this.elapsedNanos = elapsedNanos;
+        this.virtualThreads = virtualThreads;
+        this.meanLatency = latencies.getMean();
+        this.p50 = latencies.getValueAtPercentile(50);
+        this.p90 = latencies.getValueAtPercentile(90);
+        this.p99 = latencies.getValueAtPercentile(99);
+        this.p999 = latencies.getValueAtPercentile(99.9);
+        this.maxLatency = latencies.getMax();
+    }
+
+    /**
+     * A simple getter for the number of voters simulated
+     * @return The number of voters
+     */
+    public int getVoters(){
+        return this.voters;
+    }
+
+    /**
+     * A simple getter for the number of ballots submitted
+     * @return The number of ballots
+     */
+    public long getBallots(){
+        return this.ballots;
+    }
+
+    /**
+     * A simple getter for how long the whole simulation took
+     * @return The elapsed time in nanoseconds
+     */
+    public long getElapsedNanos(){
+        return this.elapsedNanos;
+    }
+
+    /**
+     * A simple getter for whether or not the voters ran on virtual threads
+     * @return Whether virtual threads were used (false if voters were scheduled on a pool)
+     */
+    public boolean usedVirtualThreads(){
+        return this.virtualThreads;
+    }
+
+    /**
+     * Gets how many ballots were submitted per second, over the whole run
+     * @return The submission throughput
+     */
+    public double getThroughput(){
+        return this.elapsedNanos == 0 ? 0.0 : this.ballots * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * A simple getter for the mean submission latency
+     * @return The mean latency in nanoseconds
+     */
+    public double getMeanLatency(){
+        return this.meanLatency;
+    }
+
+    /**
+     * Gets a submission latency percentile
+     * 
+     * Only the 50th, 90th, 99th, and 99.9th percentiles (and 100, the maximum) are kept
+     * 
+     * @param percentile The percentile (50, 90, 99, 99.9, or 100)
+     * @return The latency at that percentile in nanoseconds
+     * @throws IllegalArgumentException If the percentile isn't one that is kept
+     */
+    public long getLatencyPercentile(double percentile){
+        if (percentile == 50){
+            return this.p50;
+        } else if (percentile == 90){
+            return this.p90;
+        } else if (percentile == 99){
+            return this.p99;
+        } else if (percentile == 99.9){
+            return this.p999;
+        } else if (percentile == 100){
+            return this.maxLatency;
+        }
+
+        throw new IllegalArgumentException("Only the 50, 90, 99, 99.9 and 100th percentiles are kept.");
+    }
+
+    /**
+     * A String representation of the SimulationReport, with latencies in microseconds
+     * 
+     * @return The report as a String
+     */
+    @Override
+    public String toString(){
+        return String.format(
+            "SimulationReport(voters=%d, ballots=%d, elapsed=%.3fs, throughput=%.0f/s, %s, "
+                + "latency us: mean=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f)",
+            this.voters, this.ballots, this.elapsedNanos / 1e9, getThroughput(),
+            this.virtualThreads ? "virtual threads" : "scheduled pool",
+            this.meanLatency / 1e3, this.p50 / 1e3, this.p90 / 1e3, this.p99 / 1e3,
+            this.p999 / 1e3, this.maxLatency / 1e3
+        );
+    }
+}
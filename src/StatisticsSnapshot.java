@@ -0,0 +1,130 @@
+/**
+ * The StatisticsSnapshot class is an immutable copy of a VotingService's counts
+ * at one moment
+ * 
+ * Snapshots are taken with VotingService.getStatisticsSnapshot() and can be read at
+ * leisure (from a monitoring thread, for example) while voting carries on.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class StatisticsSnapshot {
+
+    /**
+     * The counts matrix
+     * 
+     * counts[i][j] is the number of Students who chose Answer index j of
+     * Question index i
+     */
+    private final long[][] counts;
+
+    /**
+     * The number of correct answers chosen
+     */
+    private final long numCorrect;
+
+    /**
+     * The number of wrong answers chosen
+     */
+    private final long numWrong;
+
+    /**
+     * Whether or not the copy was made with no write in progress
+     */
+    private final boolean consistent;
+
+    /**
+     * Creates a StatisticsSnapshot
+     * 
+     * The counts matrix is kept as given, so it must not be changed afterwards
+     * 
+     * @param counts The counts matrix
+     * @param numCorrect The number of correct answers chosen
+     * @param numWrong The number of wrong answers chosen
+     * @param consistent Whether or not the copy was made with no write in progress
+     */
+    public StatisticsSnapshot(long[][] counts, long numCorrect, long numWrong, boolean consistent){
+        this.counts = counts;
+        this.numCorrect = numCorrect;
+        this.numWrong = numWrong;
+        this.consistent = consistent;
+    }
+
+    /**
+     * Gets how many Students chose an answer
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return The number of Students who chose the Answer
+     */
+    public long getCount(int questionIndex, int answerIndex){
+        return this.counts[questionIndex][answerIndex];
+    }
+
+    /**
+     * Gets a copy of the counts of every answer of a Question
+     * 
+     * @param questionIndex The index of the Question
+     * @return The counts, indexed by answer position
+     */
+    public long[] getCounts(int questionIndex){
+        return this.counts[questionIndex].clone();
+    }
+
+    /**
+     * A simple getter for the number of Questions in the snapshot
+     * @return The number of Questions
+     */
+    public int getQuestionCount(){
+        return this.counts.length;
+    }
+
+    /**
+     * A simple getter for the number of answer positions of a Question
+     * 
+     * @param questionIndex The index of the Question
+     * @return The number of answer positions
+     */
+    public int getPositionCount(int questionIndex){
+        return this.counts[questionIndex].length;
+    }
+
+    /**
+     * A simple getter for the number of correct answers chosen
+     * @return The number of correct answers
+     */
+    public long getNumCorrect(){
+        return this.numCorrect;
+    }
+
+    /**
+     * A simple getter for the number of wrong answers chosen
+     * @return The number of wrong answers
+     */
+    public long getNumWrong(){
+        return this.numWrong;
+    }
+
+    /**
+     * A simple getter for whether or not the copy was made with no write in progress
+     * 
+     * A snapshot that is not consistent may hold part of a ballot (or round)
+     * that was being applied while it was taken
+     * 
+     * @return Whether or not the snapshot is consistent
+     */
+    public boolean isConsistent(){
+        return this.consistent;
+    }
+
+    /**
+     * A String representation of the StatisticsSnapshot object
+     * 
+     * @return The snapshot as a String `StatisticsSnapshot(questions, correct, wrong, consistent)`
+     */
+    @Override
+    public String toString(){
+        return "StatisticsSnapshot(" + this.counts.length + ", " + this.numCorrect + ", "
+            + this.numWrong + ", " + this.consistent + ")";
+    }
+}
@@ -0,0 +1,54 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The StatisticsWriterInterface is used to render a VotingService's statistics
+ * in a particular format.
+ * 
+ * The VotingService streams the report one Question at a time: beginReport once,
+ * writeQuestion for every Question in order, then endReport once. Nothing about
+ * earlier Questions has to be held on to, so the memory a report needs does not
+ * grow with the number of Questions.
+ * 
+ * Implementations only write into the Writer they are handed and never flush it;
+ * buffering and flushing is left to the caller. An implementation may keep state
+ * between calls, so one report should be written at a time.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface StatisticsWriterInterface {
+
+    /**
+     * Writes whatever comes before the first Question
+     * 
+     * @param out The Writer to render into
+     * @throws IOException If the Writer fails
+     */
+    public void beginReport(Writer out) throws IOException;
+
+    /**
+     * Writes one Question and the count of each of its answers
+     * 
+     * Positions whose answer was removed are skipped
+     * 
+     * @param out The Writer to render into
+     * @param questionIndex The index of the Question
+     * @param question The Question
+     * @param counts The count of each answer position (only the first
+     *               positionCount entries are meaningful)
+     * @param positionCount The number of answer positions in the statistics
+     * @throws IOException If the Writer fails
+     */
+    public void writeQuestion(Writer out, int questionIndex, QuestionInterface question, long[] counts, int positionCount) throws IOException;
+
+    /**
+     * Writes whatever comes after the last Question, including the totals
+     * 
+     * @param out The Writer to render into
+     * @param numCorrect The number of correct answers chosen
+     * @param numWrong The number of wrong answers chosen
+     * @throws IOException If the Writer fails
+     */
+    public void endReport(Writer out, long numCorrect, long numWrong) throws IOException;
+}
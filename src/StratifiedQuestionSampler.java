@@ -0,0 +1,114 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The StratifiedQuestionSampler class splits the bank into groups (strata), such as
+ * topics or difficulty levels, and picks a set number of Questions at random from
+ * each group for every Student
+ * 
+ * The Questions of each group are gathered once when the sampler is made, so a
+ * sample costs the same as a RandomQuestionSampler's for each group, never a pass
+ * over the bank.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class StratifiedQuestionSampler implements QuestionSamplerInterface {
+
+    /**
+     * The Question indices of each group, in increasing order
+     */
+    private final int[][] strata;
+
+    /**
+     * The number of Questions picked from each group
+     */
+    private final int[] samplesPerStratum;
+
+    /**
+     * The number of Questions in the bank the groups were made for
+     */
+    private final int questionCount;
+
+    /**
+     * Creates a StratifiedQuestionSampler
+     * 
+     * @param questionStrata The group of each Question, by Question index (the same
+     *                       order as VotingService.getQuestion(int))
+     * @param samplesPerStratum How many Questions to pick from each group (every
+     *                          Question of a group that is smaller)
+     * @throws IllegalArgumentException If a Question's group is out of range or a
+     *                                  count is negative
+     */
+    public StratifiedQuestionSampler(int[] questionStrata, int[] samplesPerStratum){
+        int[] sizes = new int[samplesPerStratum.length];
+        for (int i = 0; i < samplesPerStratum.length; i++){
+            if (samplesPerStratum[i] < 0){
+                throw new IllegalArgumentException("samplesPerStratum must hold non-negative integers");
+            }
+        }
+        for (int stratum : questionStrata){
+            if (stratum < 0 || stratum >= samplesPerStratum.length){
+                throw new IllegalArgumentException("Question stratum " + stratum + " is out of range.");
+            }
+            sizes[stratum]++;
+        }
+
+        this.strata = new int[samplesPerStratum.length][];
+        for (int i = 0; i < sizes.length; i++){
+            this.strata[i] = new int[sizes[i]];
+        }
+        Arrays.fill(sizes, 0);
+        for (int questionIndex = 0; questionIndex < questionStrata.length; questionIndex++){
+            int stratum = questionStrata[questionIndex];
+            this.strata[stratum][sizes[stratum]++] = questionIndex;
+        }
+
+        this.samplesPerStratum = samplesPerStratum.clone();
+        this.questionCount = questionStrata.length;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public int getMaxSampleSize(int questionCount){
+        int size = 0;
+        for (int i = 0; i < this.strata.length; i++){
+            size += Math.min(this.samplesPerStratum[i], this.strata[i].length);
+        }
+
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * @throws IllegalArgumentException If the bank isn't the size the groups were made for
+     */
+    @Override
+    public int sample(int studentIndex, int questionCount, SplittableRandom random, int[] questionIndices){
+        if (questionCount != this.questionCount){
+            throw new IllegalArgumentException(
+                "The sampler was made for " + this.questionCount + " Questions, not " + questionCount + "."
+            );
+        }
+
+        int picked = 0;
+        for (int i = 0; i < this.strata.length; i++){
+            // Pick positions within the group, then swap in the Questions at them
+            int[] stratum = this.strata[i];
+            int count = RandomQuestionSampler.sampleRange(
+                0, stratum.length, this.samplesPerStratum[i], random, questionIndices, picked
+            );
+            for (int j = picked; j < picked + count; j++){
+                questionIndices[j] = stratum[questionIndices[j]];
+            }
+            picked += count;
+        }
+
+        // The groups interleave in the bank, so put the picks back in Question order
+        Arrays.sort(questionIndices, 0, picked);
+        return picked;
+    }
+}
@@ -1,5 +1,9 @@
 import java.util.Set;
 import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
 
 /**
  * The Student class implements various methods for unique ID storage, manipulation,
@@ -8,6 +12,9 @@ import java.util.HashSet;
  * This class also implements a way to get an Answer from a Student
  * given a Question
  * 
+ * IDs come from a pluggable IDAllocatorInterface (random IDs with a concurrent
+ * registry by default, or counter-encoded IDs with SequentialIDAllocator)
+ * 
  * @author George Matta
  * @version 1.0
  */
@@ -17,28 +24,39 @@ public class Student {
      * The unique ID of the Student
      */
     private String studentID;
-    
+
     /**
-     * A static Set of the IDs already in the system
-     * 
-     * We use a HashSet because of its constant-time access (since we're only
-     * checking if an ID is contained in the set) and its unique elements
+     * The ordinal of the Student, handed out when it was made (see getOrdinal())
      */
-    private static Set<String> usedIDs = new HashSet<String>();
+    private final int ordinal;
 
+    /**
+     * The next ordinal to hand out
+     */
+    private static final AtomicInteger NEXT_ORDINAL = new AtomicInteger();
+    
     /**
      * A final static field of the length of an ID.
      * This implementation uses {@value #ID_LENGTH}
      */
     private static final int ID_LENGTH = 7;
+
+    /**
+     * The static allocator that hands out IDs and keeps track of the ones in use
+     * 
+     * Defaults to random IDs checked against a thread-safe registry
+     */
+    private static volatile IDAllocatorInterface idAllocator = new RandomIDAllocator(ID_LENGTH);
     
     /**
      * The default constructor for a Student
      * 
-     * Delegates to the Student(String) constructor using a random, valid, ID
+     * Uses a new ID from the ID allocator (already claimed, so it needs no
+     * further validation)
      */
     public Student(){
-        this(findValidID());
+        this.ordinal = NEXT_ORDINAL.getAndIncrement();
+        this.studentID = findValidID();
     }
 
     /**
@@ -49,48 +67,156 @@ public class Student {
      */
     public Student(String studentID){
         this.setID(studentID);
+        // Only once the ID is accepted, so a rejected Student doesn't use up an ordinal
+        this.ordinal = NEXT_ORDINAL.getAndIncrement();
     }
 
     /**
      * Retrieves a set of indices for the answers of a question
      * 
-     * We calculate a set because of the possibility of the student selecting
-     * multiple answers
+     * Delegates to getAnswerIndices(QuestionInterface, RandomGenerator) using
+     * the current thread's random number generator
      * 
      * @param question The Question the Student is being asked
      * @return A set of indices for the answers of a question
      */
     public Set<Integer> getAnswerIndices(QuestionInterface question){
+        return getAnswerIndices(question, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Retrieves a set of indices for the answers of a question
+     * 
+     * We calculate a set because of the possibility of the student selecting
+     * multiple answers. All the randomness is drawn from the given generator, so
+     * a seeded generator always produces the same choices
+     * 
+     * @param question The Question the Student is being asked
+     * @param random The random number generator to choose answers with
+     * @return A set of indices for the answers of a question
+     */
+    public Set<Integer> getAnswerIndices(QuestionInterface question, RandomGenerator random){
+        // Choose the answers into a temporary ballot
+        long[] ballot = new long[BallotStore.wordsFor(question.getPositionCount())];
+        int answerCount = chooseAnswerIndices(question, random, ballot, 0);
+
         // Initialize a Set for the output answer indices 
-        Set<Integer> answerIndices = new HashSet<Integer>();
-        // The Question's possible Answers
-        Set<Answer> possibleAnswers = question.getPossibleAnswers();
-        
-        // Start with a random number from 0-possibleAnswers' size
-        double randomNum = Math.random()*(possibleAnswers.size());
-        int answerIndex = (int) Math.floor(randomNum);
+        Set<Integer> answerIndices = new HashSet<Integer>(answerCount * 2);
+        for (int w = 0; w < ballot.length; w++){
+            long word = ballot[w];
+            while (word != 0){
+                answerIndices.add((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+
+        // Return the indices set
+        return answerIndices;
+    }
+
+    /**
+     * Chooses the indices for the answers of a question, writing them into a
+     * caller-supplied ballot bitmask rather than a new Set
+     * 
+     * Bit j of the ballot is set if Answer index j is chosen. The ballot's words
+     * (BallotStore.wordsFor(question.getPositionCount()) of them, starting at
+     * offset) are cleared first, so the buffer can be reused from ballot to
+     * ballot without allocating.
+     * 
+     * @param question The Question the Student is being asked
+     * @param random The random number generator to choose answers with
+     * @param ballot The array the ballot bitmask is written into
+     * @param offset The index of the ballot's first word in the array
+     * @return The number of answer indices chosen
+     */
+    public int getAnswerIndices(QuestionInterface question, SplittableRandom random, long[] ballot, int offset){
+        return chooseAnswerIndices(question, random, ballot, offset);
+    }
+
+    /**
+     * Chooses the indices for the answers of a question into a ballot bitmask
+     * 
+     * A single choice question gets one answer. A multiple choice question gets
+     * a random number of answers (at least one, fewer than the number of answers).
+     * The answers are drawn with Floyd's algorithm, which picks exactly that many
+     * distinct indices with one random number each and never has to retry.
+     * 
+     * Only positions that still hold an answer are drawn from. Once an answer has
+     * been removed, Floyd's algorithm draws ranks among the live positions, and
+     * each rank is mapped to its position through the Question's live mask.
+     * 
+     * @param question The Question the Student is being asked
+     * @param random The random number generator to choose answers with
+     * @param ballot The array the ballot bitmask is written into
+     * @param offset The index of the ballot's first word in the array
+     * @return The number of answer indices chosen
+     */
+    private static int chooseAnswerIndices(QuestionInterface question, RandomGenerator random, long[] ballot, int offset){
+        // The number of answer positions in the Question, and how many still hold an answer
+        int positionCount = question.getPositionCount();
+        int liveCount = question.getAnswerCount();
+
+        // Start from an empty ballot
+        for (int w = 0; w < BallotStore.wordsFor(positionCount); w++){
+            ballot[offset + w] = 0L;
+        }
+
+        // A Question with no answers can't be answered
+        if (liveCount == 0){
+            return 0;
+        }
 
         // Calculate how many Answers to randomly choose
         int answerCount = 1; // Start with 1 (a single-choice question)
         if (question.getIsMultipleChoice()){
-            // If the question is multiple choice, the random number generated
-            // is how many answers we choose
-            answerCount = answerIndex;
-            if (answerIndex == 0){
+            // If the question is multiple choice, a random number from
+            // 0-liveCount is how many answers we choose
+            answerCount = random.nextInt(liveCount);
+            if (answerCount == 0){
                 answerCount = 1;
             }
         }
 
-        // Choose a new random number for every answer to choose
-        for(int i = 0; i < answerCount; i++){
-            randomNum = Math.random()*(possibleAnswers.size());
-            answerIndex = (int) Math.floor(randomNum);
+        // Floyd's algorithm: for each of the last answerCount ranks j, pick a
+        // random t in [0, j]. If t was already chosen, j can't have been, so take j.
+        // With no removed answers a rank is its own position
+        boolean hasGaps = liveCount != positionCount;
+        for (int j = liveCount - answerCount; j < liveCount; j++){
+            int rank = random.nextInt(j + 1);
+            int answerIndex = hasGaps ? livePosition(question, rank) : rank;
+            int word = offset + (answerIndex >>> 6);
 
-            answerIndices.add(answerIndex);
+            if ((ballot[word] & (1L << answerIndex)) != 0){
+                answerIndex = hasGaps ? livePosition(question, j) : j;
+                word = offset + (answerIndex >>> 6);
+            }
+
+            ballot[word] |= 1L << answerIndex;
         }
 
-        // Return the indices set
-        return answerIndices;
+        return answerCount;
+    }
+
+    /**
+     * Finds the position of the live answer with a given rank
+     * 
+     * @param question The Question the answer belongs to
+     * @param rank How many live positions come before the one wanted
+     * @return The position of the rank-th live answer
+     */
+    private static int livePosition(QuestionInterface question, int rank){
+        for (int w = 0; ; w++){
+            long word = question.getLiveMaskWord(w);
+            int bits = Long.bitCount(word);
+            if (rank < bits){
+                // Drop the lowest set bits until the wanted one is lowest
+                for (int i = 0; i < rank; i++){
+                    word &= word - 1;
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            rank -= bits;
+        }
     }
 
     /**
@@ -107,6 +233,19 @@ public class Student {
         return question.getAnswersAtPositions(answerIndices);
     }
 
+    /**
+     * A simple getter for the Student's ordinal
+     * 
+     * Ordinals are dense IDs handed out in the order Students are made, so unlike
+     * random Student IDs they are the same on every run that makes Students in the
+     * same order. A VotingService lays its Students out in ordinal order.
+     * 
+     * @return The ordinal of the Student
+     */
+    public int getOrdinal(){
+        return this.ordinal;
+    }
+
     /**
      * A simple getter method for the student's unique ID
      * @return The Student's unique ID
@@ -118,67 +257,70 @@ public class Student {
     /**
      * A simple setter method for the student's unique ID
      * 
-     * This setter method makes sure the ID is not already in the usedIDs set
+     * This setter method claims the ID from the ID allocator, making sure it is
+     * not already in use. The Student's previous ID (if any) is given back.
      * 
      * @param generatedID A randomly or manually selected ID to cross-reference
      * @throws IllegalArgumentException If the ID is already in use
      */
     public void setID(String generatedID){
+        // Keeping the same ID changes nothing
+        if (generatedID.equals(this.studentID)){
+            return;
+        }
+
         // If the ID is already in use
-        if (usedIDs.contains(studentID)){
+        if (!idAllocator.reserve(generatedID)){
             throw new IllegalArgumentException("The provided student ID is already in use.");
         }
 
-        // Otherwise, add it and use it
-        usedIDs.add(generatedID);
+        // Otherwise, give back the old one and use the new one
+        if (this.studentID != null){
+            idAllocator.release(this.studentID);
+        }
         this.studentID = generatedID;
     }
 
     /**
-     * A static method to find a valid ID.
+     * Gives the Student's ID back to the ID allocator
      * 
-     * This method repeatedly, randomly, generates an ID until it finds one not
-     * in use
+     * Call this when the Student is discarded so its ID stops taking up space.
+     * The Student should not be used afterwards, since its ID may be handed to
+     * another Student.
+     */
+    public void release(){
+        idAllocator.release(this.studentID);
+    }
+
+    /**
+     * A static setter for the ID allocator new Students take their IDs from
      * 
-     * @return The generated user ID (guaranteed to be unique)
+     * IDs already handed out by the previous allocator are not carried over, so
+     * this should be called before any Students are created
+     * 
+     * @param allocator The ID allocator to use
      */
-    private static String findValidID(){
-        
-        // Keep generating IDs until one is found
-        String generatedID = generateRandomID();
-        while (usedIDs.contains(generatedID)){
-            generatedID = generateRandomID();
-        }
-        
-        return generatedID;
+    public static void setIDAllocator(IDAllocatorInterface allocator){
+        idAllocator = allocator;
+    }
+
+    /**
+     * A static getter for the ID allocator new Students take their IDs from
+     * @return The ID allocator in use
+     */
+    public static IDAllocatorInterface getIDAllocator(){
+        return idAllocator;
     }
 
     /**
-     * A static method to generate a random ID
+     * A static method to find a valid ID.
      * 
-     * This method generates an alphanumeric, case-sensitive, `ID_LENGTH` character
-     * long ID.
+     * Delegates to the ID allocator, which hands out an ID not in use and claims it
      * 
-     * @return The generated user ID (not guaranteed to be unique)
+     * @return The generated user ID (guaranteed to be unique)
      */
-    private static String generateRandomID(){
-        String possibleCharacters = "0123456789"
-                                    +"ABCDEFGHIJKLMNOPQRSTUVWXYZ" 
-                                    + "abcdefghijklmnopqrstuvwxyz";
-        
-        
-        // Generate an ID of length ID_LENGTH
-        String generatedID = "";
-        for (int i = 0; i < ID_LENGTH; i++){
-            // Find a random character from the possible characters and add it
-            double randomNum = Math.random()*(possibleCharacters.length()-1) + 1;
-            int characterIndex = (int) Math.floor(randomNum);
-            
-            generatedID += possibleCharacters.substring(characterIndex, characterIndex+1);
-        }
-        
-        // Return the ID
-        return generatedID;
+    private static String findValidID(){
+        return idAllocator.allocate();
     }
 
     /**
@@ -0,0 +1,174 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The TallyCoordinator class combines the results of a sharded election
+ * 
+ * The electorate is split across several worker processes (see TallyWorker), each
+ * running its own VotingService over its own Students and the same Questions. The
+ * coordinator listens on the loopback interface, receives one PartialTally from each
+ * worker, and merges them. Since merging is associative and commutative, it doesn't
+ * matter which worker reports first.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class TallyCoordinator {
+
+    /**
+     * How long to wait for the workers by default, in milliseconds
+     */
+    private static final int DEFAULT_TIMEOUT = 120_000;
+
+    /**
+     * The socket the workers connect to
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Starts listening for workers on a free loopback port
+     * 
+     * @throws IOException If the socket can't be opened
+     */
+    public TallyCoordinator() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * A simple getter for the port workers should send their results to
+     * @return The port the coordinator is listening on
+     */
+    public int getPort(){
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Receives a PartialTally from each worker and merges them
+     * 
+     * @param workers The number of workers to wait for
+     * @param positionCounts The number of answer positions of each Question
+     * @param timeoutMillis How long to wait for each worker to connect
+     * @return The combined PartialTally
+     * @throws IOException If a worker doesn't connect in time or sends a bad result
+     * @throws IllegalArgumentException If a worker voted on different Questions
+     */
+    public PartialTally aggregate(int workers, int[] positionCounts, int timeoutMillis) throws IOException {
+        this.serverSocket.setSoTimeout(timeoutMillis);
+        PartialTally total = PartialTally.empty(positionCounts);
+
+        for (int i = 0; i < workers; i++){
+            try (Socket socket = this.serverSocket.accept()){
+                socket.setSoTimeout(timeoutMillis);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                total = total.merge(PartialTally.readFrom(in));
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Stops listening for workers
+     * 
+     * @throws IOException If the socket can't be closed
+     */
+    public void close() throws IOException {
+        this.serverSocket.close();
+    }
+
+    /**
+     * Starts worker processes on this machine, running with the same Java and
+     * classpath as this one
+     * 
+     * Each worker gets its own seed (derived from the given one) and its own Students
+     * 
+     * @param port The port the workers should report to
+     * @param questionBank The path of the question bank to vote on
+     * @param workers How many workers to start
+     * @param studentsPerWorker How many Students each worker votes
+     * @param seed The seed the workers' seeds are derived from
+     * @param rounds How many rounds each worker runs
+     * @return The started processes
+     * @throws IOException If a process can't be started
+     */
+    public static List<Process> launchLocalWorkers(int port, Path questionBank, int workers,
+            int studentsPerWorker, long seed, int rounds) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        List<Process> processes = new ArrayList<Process>(workers);
+
+        for (int i = 0; i < workers; i++){
+            ProcessBuilder builder = new ProcessBuilder(
+                java, "-cp", classPath, "TallyWorker",
+                String.valueOf(port), questionBank.toString(), String.valueOf(studentsPerWorker),
+                String.valueOf(seed + i), String.valueOf(rounds)
+            );
+            builder.inheritIO();
+            processes.add(builder.start());
+        }
+
+        return processes;
+    }
+
+    /**
+     * Runs a sharded election across local worker processes and prints the
+     * combined statistics
+     * 
+     * Usage: TallyCoordinator questionBank workers studentsPerWorker [rounds]
+     * 
+     * @param args The path of the question bank, how many workers to start, how many
+     *             Students each votes, and (optionally) how many rounds they run
+     * @throws IOException If the question bank can't be read or a worker fails
+     * @throws InterruptedException If interrupted while waiting for the workers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3){
+            throw new IllegalArgumentException("Usage: TallyCoordinator questionBank workers studentsPerWorker [rounds]");
+        }
+
+        Path questionBank = Paths.get(args[0]);
+        int workers = Integer.parseInt(args[1]);
+        int studentsPerWorker = Integer.parseInt(args[2]);
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        // A service with no Students, just to know the Questions and render the results
+        VotingService questionsOnly = new VotingService(
+            new HashSet<Student>(), new QuestionBankReader(questionBank).getQuestions()
+        );
+        int[] positionCounts = new int[questionsOnly.getQuestionCount()];
+        for (int i = 0; i < positionCounts.length; i++){
+            positionCounts[i] = questionsOnly.getQuestion(i).getPositionCount();
+        }
+
+        TallyCoordinator coordinator = new TallyCoordinator();
+        PartialTally total = null;
+        try {
+            List<Process> processes = launchLocalWorkers(
+                coordinator.getPort(), questionBank, workers, studentsPerWorker, System.nanoTime(), rounds
+            );
+            total = coordinator.aggregate(workers, positionCounts, DEFAULT_TIMEOUT);
+
+            for (Process process : processes){
+                if (process.waitFor() != 0){
+                    throw new IllegalStateException("A worker exited with status " + process.exitValue() + ".");
+                }
+            }
+        } finally {
+            coordinator.close();
+        }
+
+        questionsOnly.writeStatistics(
+            new OutputStreamWriter(System.out), new TextStatisticsWriter(), total.toSnapshot()
+        );
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * The TallyCountersInterface is used to implement the storage behind a ConcurrentTally's
+ * answer counts.
+ * 
+ * Having it as an interface allows the counts to be laid out in different ways
+ * (a lazily made row of LongAdders per Question, or one contiguous buffer, see
+ * TallyLayout) without the ConcurrentTally caring which.
+ * 
+ * Implementations must allow any number of threads to add and read at once.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface TallyCountersInterface {
+
+    /**
+     * Changes how many Students chose an answer
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @param delta How much to change the count by
+     */
+    public void add(int questionIndex, int answerIndex, long delta);
+
+    /**
+     * Gets how many Students currently chose an answer
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return The count (may include part of a write in progress)
+     */
+    public long get(int questionIndex, int answerIndex);
+
+    /**
+     * Copies every count of a Question into an array
+     * 
+     * @param questionIndex The index of the Question
+     * @param rowOut The array to copy into, at least as long as the Question's
+     *               number of answer positions
+     */
+    public void copyRow(int questionIndex, long[] rowOut);
+
+    /**
+     * Counts the Questions whose counters have been made
+     * 
+     * @return The number of Questions with counters
+     */
+    public int getAllocatedRowCount();
+}
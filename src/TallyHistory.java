@@ -0,0 +1,587 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TallyHistory class keeps a VotingService's recent tallies as a series of
+ * windows, so the trend of each answer's count can be followed over time
+ * 
+ * A window is either one voting round (closed when the round finishes) or a fixed
+ * length of wall-clock time. Each window holds the changes made to every count
+ * while it was open, in a row per Question; recording a change adds to a single
+ * cell, so it costs O(1) however big the election is.
+ * 
+ * A window only keeps the Questions voted on while it was open: a small hash
+ * table from Question index to row, with a row made when one of the Question's
+ * counts first changes, and missing rows counting 0. A window nothing was voted
+ * in takes no table at all, so memory follows the Questions actually voted on
+ * rather than the size of the bank times the number of windows.
+ * 
+ * The windows live in a ring buffer of a fixed capacity. Once it is full, opening a
+ * new window evicts the oldest one, folding its rows into the base (the counts
+ * before the oldest window still kept) and dropping them, so memory stays bounded
+ * and the counts at the end of every kept window can still be worked out.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class TallyHistory {
+
+    /**
+     * The row index trends use for the correct and wrong totals
+     */
+    private static final int SCORE_ROW = -1;
+
+    /**
+     * The number of answer positions of each Question
+     */
+    private final int[] positionCounts;
+
+    /**
+     * The ring buffer of windows (a slot is null until something is recorded in it)
+     */
+    private final Window[] windows;
+
+    /**
+     * The counts before the oldest window kept
+     */
+    private final Window base;
+
+    /**
+     * The length of a wall-clock window in nanoseconds, or 0 for a window per round
+     */
+    private final long windowNanos;
+
+    /**
+     * The slot of the window currently open
+     */
+    private int newest;
+
+    /**
+     * The number of windows kept, including the open one
+     */
+    private int size;
+
+    /**
+     * The sequence number of the window currently open (the round, or the number of
+     * wall-clock windows since the history started)
+     */
+    private long currentWindowId;
+
+    /**
+     * When the open wall-clock window ends, from System.nanoTime()
+     */
+    private long currentWindowEnd;
+
+    /**
+     * Creates a TallyHistory with a window per voting round
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     * @param capacity The number of windows to keep
+     * @throws IllegalArgumentException If the capacity is 0 or less
+     */
+    public TallyHistory(int[] positionCounts, int capacity){
+        this(positionCounts, capacity, 0);
+    }
+
+    /**
+     * Creates a TallyHistory with wall-clock windows
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     * @param capacity The number of windows to keep
+     * @param windowLength The length of each window
+     * @param unit The unit of the window length
+     * @throws IllegalArgumentException If the capacity or the window length is 0 or less
+     */
+    public TallyHistory(int[] positionCounts, int capacity, long windowLength, TimeUnit unit){
+        this(positionCounts, capacity, unit.toNanos(windowLength));
+        if (windowLength <= 0){
+            throw new IllegalArgumentException("windowLength must be a positive duration");
+        }
+    }
+
+    /**
+     * The main constructor for a TallyHistory
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     * @param capacity The number of windows to keep
+     * @param windowNanos The length of a window in nanoseconds, or 0 for a window per round
+     */
+    private TallyHistory(int[] positionCounts, int capacity, long windowNanos){
+        if (capacity <= 0){
+            throw new IllegalArgumentException("capacity must be a positive integer");
+        }
+
+        this.positionCounts = positionCounts.clone();
+        this.windows = new Window[capacity];
+        this.base = new Window();
+        this.windowNanos = windowNanos;
+        this.newest = 0;
+        this.size = 1;
+        this.currentWindowId = 0;
+        this.currentWindowEnd = System.nanoTime() + windowNanos;
+    }
+
+    /**
+     * Sets the counts before the first window, for a history started after
+     * voting has already begun
+     * 
+     * @param snapshot The counts when the history starts
+     */
+    synchronized void start(StatisticsSnapshot snapshot){
+        for (int i = 0; i < this.positionCounts.length; i++){
+            for (int j = 0; j < snapshot.getPositionCount(i); j++){
+                long count = snapshot.getCount(i, j);
+                if (count != 0){
+                    this.base.row(i, this.positionCounts[i])[j] = count;
+                }
+            }
+        }
+        this.base.correct = snapshot.getNumCorrect();
+        this.base.wrong = snapshot.getNumWrong();
+    }
+
+    /**
+     * Records a change in how many Students chose an answer
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @param delta How much the count changed by
+     */
+    synchronized void record(int questionIndex, int answerIndex, long delta){
+        rotateIfDue();
+        openWindow().row(questionIndex, this.positionCounts[questionIndex])[answerIndex] += delta;
+    }
+
+    /**
+     * Records a change in every count of a Question at once
+     * 
+     * @param questionIndex The index of the Question
+     * @param deltas How much each answer's count changed by
+     */
+    synchronized void recordRow(int questionIndex, int[] deltas){
+        rotateIfDue();
+        long[] row = openWindow().row(questionIndex, this.positionCounts[questionIndex]);
+        for (int j = 0; j < deltas.length; j++){
+            row[j] += deltas[j];
+        }
+    }
+
+    /**
+     * Records a change in the correct and wrong totals
+     * 
+     * @param correctDelta How much the number of correct answers changed by
+     * @param wrongDelta How much the number of wrong answers changed by
+     */
+    synchronized void recordScore(long correctDelta, long wrongDelta){
+        rotateIfDue();
+        Window window = openWindow();
+        window.correct += correctDelta;
+        window.wrong += wrongDelta;
+    }
+
+    /**
+     * Closes the open window and opens the next one, evicting the oldest window
+     * if the buffer is full
+     * 
+     * Called at the end of every round for a history with a window per round
+     */
+    public synchronized void advance(){
+        if (this.size == this.windows.length){
+            // The slot after the newest is the oldest; fold it into the base
+            int oldest = (this.newest + 1) % this.windows.length;
+            Window evicted = this.windows[oldest];
+            if (evicted != null){
+                this.base.fold(evicted);
+                this.windows[oldest] = null;
+            }
+            this.size--;
+        }
+
+        this.newest = (this.newest + 1) % this.windows.length;
+        this.size++;
+        this.currentWindowId++;
+    }
+
+    /**
+     * Gets how an answer's count stood at the end of each of the last windows
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @param n The most windows to go back
+     * @return The counts, oldest window first; the last is the open window so far
+     */
+    public synchronized long[] getCountTrend(int questionIndex, int answerIndex, int n){
+        return countTrend(questionIndex, answerIndex, n);
+    }
+
+    /**
+     * Gets how much an answer's count changed in each of the last windows
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @param n The most windows to go back
+     * @return The changes, oldest window first; the last is the open window so far
+     */
+    public synchronized long[] getChangeTrend(int questionIndex, int answerIndex, int n){
+        rotateIfDue();
+        int count = Math.max(0, Math.min(n, this.size));
+        long[] trend = new long[count];
+        for (int i = 0; i < count; i++){
+            trend[i] = change(this.windows[slot(this.size - count + i)], questionIndex, answerIndex);
+        }
+
+        return trend;
+    }
+
+    /**
+     * Gets how the number of correct answers stood at the end of each of the last windows
+     * 
+     * @param n The most windows to go back
+     * @return The totals, oldest window first; the last is the open window so far
+     */
+    public synchronized long[] getCorrectTrend(int n){
+        return countTrend(SCORE_ROW, 0, n);
+    }
+
+    /**
+     * Gets how the number of wrong answers stood at the end of each of the last windows
+     * 
+     * @param n The most windows to go back
+     * @return The totals, oldest window first; the last is the open window so far
+     */
+    public synchronized long[] getWrongTrend(int n){
+        return countTrend(SCORE_ROW, 1, n);
+    }
+
+    /**
+     * A simple getter for the number of windows kept, including the open one
+     * @return The number of windows
+     */
+    public synchronized int getWindowCount(){
+        rotateIfDue();
+        return this.size;
+    }
+
+    /**
+     * A simple getter for the sequence number of the open window
+     * 
+     * With a window per round this is the number of rounds finished since the history
+     * started; with wall-clock windows, the number of windows that have passed
+     * 
+     * @return The window's sequence number
+     */
+    public synchronized long getCurrentWindowId(){
+        rotateIfDue();
+        return this.currentWindowId;
+    }
+
+    /**
+     * Counts the Question rows made across the kept windows and the base
+     * 
+     * @return The number of rows
+     */
+    synchronized int getRowCount(){
+        int rows = this.base.rowCount;
+        for (Window window : this.windows){
+            rows += window != null ? window.rowCount : 0;
+        }
+
+        return rows;
+    }
+
+    /**
+     * Counts the array slots (longs and references) held by the ring buffer, the
+     * windows' tables and rows, and the base, a measure of the history's memory
+     * 
+     * @return The number of slots
+     */
+    synchronized long getFootprint(){
+        long slots = this.windows.length + this.base.footprint();
+        for (Window window : this.windows){
+            slots += window != null ? window.footprint() : 0;
+        }
+
+        return slots;
+    }
+
+    /**
+     * A simple getter for whether the history has a window per round (rather than
+     * wall-clock windows)
+     * @return Whether or not windows are rounds
+     */
+    public boolean isPerRound(){
+        return this.windowNanos == 0;
+    }
+
+    /**
+     * Works out a cell's value at the end of each of the last n windows
+     * 
+     * @param row The index of the Question, or SCORE_ROW for the correct and wrong totals
+     * @param column The index of the Answer (or 0 for correct, 1 for wrong)
+     * @param n The most windows to go back
+     * @return The values, oldest window first
+     */
+    private long[] countTrend(int row, int column, int n){
+        rotateIfDue();
+        int count = Math.max(0, Math.min(n, this.size));
+        long[] trend = new long[count];
+
+        // Start from the base and add the windows older than the ones asked for
+        long running = change(this.base, row, column);
+        for (int i = 0; i < this.size; i++){
+            running += change(this.windows[slot(i)], row, column);
+            int trendIndex = i - (this.size - count);
+            if (trendIndex >= 0){
+                trend[trendIndex] = running;
+            }
+        }
+
+        return trend;
+    }
+
+    /**
+     * Gets how much a cell changed in one window
+     * 
+     * @param window The window, or null if nothing was recorded in it
+     * @param row The index of the Question, or SCORE_ROW for the correct and wrong totals
+     * @param column The index of the Answer (or 0 for correct, 1 for wrong)
+     * @return The change
+     */
+    private static long change(Window window, int row, int column){
+        if (window == null){
+            return 0L;
+        }
+        if (row == SCORE_ROW){
+            return column == 0 ? window.correct : window.wrong;
+        }
+
+        long[] cells = window.find(row);
+        return cells != null ? cells[column] : 0L;
+    }
+
+    /**
+     * Gets the open window, making it on first use
+     * 
+     * @return The open window
+     */
+    private Window openWindow(){
+        Window window = this.windows[this.newest];
+        if (window == null){
+            window = new Window();
+            this.windows[this.newest] = window;
+        }
+
+        return window;
+    }
+
+    /**
+     * Finds the slot of a kept window
+     * 
+     * @param age The window's place among the kept windows, 0 being the oldest
+     * @return The window's slot in the ring buffer
+     */
+    private int slot(int age){
+        return (this.newest - (this.size - 1 - age) + this.windows.length) % this.windows.length;
+    }
+
+    /**
+     * Opens new wall-clock windows for any time that has passed since the open one
+     * should have ended (does nothing for a history with a window per round)
+     */
+    private void rotateIfDue(){
+        if (this.windowNanos == 0){
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - this.currentWindowEnd < 0){
+            return;
+        }
+
+        long passed = (now - this.currentWindowEnd) / this.windowNanos + 1;
+        // Past a full buffer, every window would be empty anyway
+        long steps = Math.min(passed, this.windows.length);
+        for (long i = 0; i < steps; i++){
+            advance();
+        }
+        this.currentWindowId += passed - steps;
+        this.currentWindowEnd += passed * this.windowNanos;
+    }
+
+    /**
+     * The Window class holds the changes of one window (or the base counts): the
+     * correct and wrong totals, and a row per Question voted on, found through an
+     * open addressing hash table from Question index to row
+     */
+    private static final class Window {
+
+        /**
+         * The number of table slots a window starts with once it has a row
+         */
+        private static final int INITIAL_SLOTS = 8;
+
+        /**
+         * The Question index of each table slot plus 1 (0 for an empty slot), or
+         * null before the first row
+         */
+        private int[] keys;
+
+        /**
+         * The row of each table slot
+         */
+        private long[][] rows;
+
+        /**
+         * The number of rows in the table
+         */
+        private int rowCount;
+
+        /**
+         * The change in the number of correct answers
+         */
+        private long correct;
+
+        /**
+         * The change in the number of wrong answers
+         */
+        private long wrong;
+
+        /**
+         * Finds a Question's row
+         * 
+         * @param questionIndex The index of the Question
+         * @return The row, or null if the Question has none here
+         */
+        long[] find(int questionIndex){
+            if (this.keys == null){
+                return null;
+            }
+
+            int mask = this.keys.length - 1;
+            for (int i = hash(questionIndex) & mask; this.keys[i] != 0; i = (i + 1) & mask){
+                if (this.keys[i] == questionIndex + 1){
+                    return this.rows[i];
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Gets a Question's row, making it on first use
+         * 
+         * @param questionIndex The index of the Question
+         * @param positionCount The number of answer positions of the Question
+         * @return The Question's row
+         */
+        long[] row(int questionIndex, int positionCount){
+            long[] row = find(questionIndex);
+            if (row == null){
+                row = new long[positionCount];
+                put(questionIndex, row);
+            }
+
+            return row;
+        }
+
+        /**
+         * Adds another window's changes into this one, taking over the rows this one
+         * doesn't have yet (the other window is thrown away afterwards)
+         * 
+         * @param other The window to fold in
+         */
+        void fold(Window other){
+            if (other.keys != null){
+                for (int i = 0; i < other.keys.length; i++){
+                    if (other.keys[i] == 0){
+                        continue;
+                    }
+
+                    int questionIndex = other.keys[i] - 1;
+                    long[] row = find(questionIndex);
+                    if (row == null){
+                        put(questionIndex, other.rows[i]);
+                    } else {
+                        long[] otherRow = other.rows[i];
+                        for (int j = 0; j < otherRow.length; j++){
+                            row[j] += otherRow[j];
+                        }
+                    }
+                }
+            }
+
+            this.correct += other.correct;
+            this.wrong += other.wrong;
+        }
+
+        /**
+         * Counts the array slots the table and rows hold
+         * 
+         * @return The number of slots
+         */
+        long footprint(){
+            if (this.keys == null){
+                return 0;
+            }
+
+            long slots = 2L * this.keys.length;
+            for (long[] row : this.rows){
+                slots += row != null ? row.length : 0;
+            }
+
+            return slots;
+        }
+
+        /**
+         * Adds a row for a Question that has none, growing the table past half full
+         * 
+         * @param questionIndex The index of the Question
+         * @param row The Question's row
+         */
+        private void put(int questionIndex, long[] row){
+            if (this.keys == null){
+                this.keys = new int[INITIAL_SLOTS];
+                this.rows = new long[INITIAL_SLOTS][];
+            } else if (2 * (this.rowCount + 1) > this.keys.length){
+                int[] oldKeys = this.keys;
+                long[][] oldRows = this.rows;
+                this.keys = new int[2 * oldKeys.length];
+                this.rows = new long[2 * oldKeys.length][];
+                for (int i = 0; i < oldKeys.length; i++){
+                    if (oldKeys[i] != 0){
+                        insert(oldKeys[i], oldRows[i]);
+                    }
+                }
+            }
+
+            insert(questionIndex + 1, row);
+            this.rowCount++;
+        }
+
+        /**
+         * Places a key and row in the first free slot of its probe sequence
+         * 
+         * @param key The Question index plus 1
+         * @param row The Question's row
+         */
+        private void insert(int key, long[] row){
+            int mask = this.keys.length - 1;
+            int i = hash(key - 1) & mask;
+            while (this.keys[i] != 0){
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = key;
+            this.rows[i] = row;
+        }
+
+        /**
+         * Spreads a Question index over the table
+         * 
+         * @param questionIndex The index of the Question
+         * @return The hash
+         */
+        private static int hash(int questionIndex){
+            int h = questionIndex * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
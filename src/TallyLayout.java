@@ -0,0 +1,46 @@
+/**
+ * The TallyLayout enum lists the ways a ConcurrentTally can lay out its answer counts
+ * (see TallyCountersInterface)
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public enum TallyLayout {
+    /**
+     * A row of LongAdders per Question, made on the Question's first vote (the default)
+     */
+    ADDERS,
+    /**
+     * One contiguous buffer, rows packed back to back, changed with atomic adds
+     */
+    FLAT,
+    /**
+     * One contiguous buffer with every row on cache lines of its own, so writers
+     * on neighbouring Questions don't share lines
+     */
+    PADDED,
+    /**
+     * Padded buffers, one per processor, that writers are spread over and reads
+     * add back up
+     */
+    STRIPED;
+
+    /**
+     * Makes empty counters in this layout
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     * @return The counters, every count at 0
+     */
+    public TallyCountersInterface create(int[] positionCounts){
+        switch (this){
+            case FLAT:
+                return new FlatTallyCounters(positionCounts, false, 1);
+            case PADDED:
+                return new FlatTallyCounters(positionCounts, true, 1);
+            case STRIPED:
+                return new FlatTallyCounters(positionCounts, true, FlatTallyCounters.defaultStripes());
+            default:
+                return new AdderTallyCounters(positionCounts);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The TallyMergeTask class adds a parallel round's answer changes into the
+ * VotingService's statistics from several threads at once
+ * 
+ * A TallyMergeTask keeps halving its range of Question indices until it is no
+ * larger than the block size, then adds the rows of that block. Each Question is
+ * added by one thread, but neighbouring blocks are added at the same time, so this
+ * is where the statistics counters really have concurrent writers (and where the
+ * padded and striped TallyLayouts earn their memory).
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class TallyMergeTask extends RecursiveAction {
+
+    /**
+     * The serialization version of the task (required of every ForkJoinTask)
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The round's changes
+     */
+    private final VoteTally source;
+
+    /**
+     * The statistics the changes are added into
+     */
+    private final ConcurrentTally target;
+
+    /**
+     * The first Question index of the range (inclusive)
+     */
+    private final int from;
+
+    /**
+     * The last Question index of the range (exclusive)
+     */
+    private final int to;
+
+    /**
+     * The largest range that is added without splitting it any further
+     */
+    private final int blockSize;
+
+    /**
+     * Creates a TallyMergeTask for a range of Question indices
+     * 
+     * @param source The round's changes
+     * @param target The statistics to add the changes into
+     * @param from The first Question index of the range (inclusive)
+     * @param to The last Question index of the range (exclusive)
+     * @param blockSize The largest range that is added without splitting it
+     */
+    TallyMergeTask(VoteTally source, ConcurrentTally target, int from, int to, int blockSize){
+        this.source = source;
+        this.target = target;
+        this.from = from;
+        this.to = to;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Adds the range's rows directly if it is small enough, otherwise splits it
+     * in two
+     */
+    @Override
+    protected void compute(){
+        if (this.to - this.from <= this.blockSize){
+            this.source.addRowsTo(this.target, this.from, this.to);
+            return;
+        }
+
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(
+            new TallyMergeTask(this.source, this.target, this.from, middle, this.blockSize),
+            new TallyMergeTask(this.source, this.target, middle, this.to, this.blockSize)
+        );
+    }
+}
@@ -0,0 +1,71 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The TallyWorker class runs one shard of a sharded election in its own process
+ * 
+ * A worker votes its own Students on the Questions of a question bank, then sends
+ * its results as a PartialTally to a TallyCoordinator listening on the loopback
+ * interface.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class TallyWorker {
+
+    /**
+     * Runs a worker
+     * 
+     * Usage: TallyWorker port questionBank students seed rounds
+     * 
+     * @param args The coordinator's port, the path of the question bank, how many
+     *             Students to vote, the seed, and how many rounds to run
+     * @throws IOException If the question bank can't be read or the coordinator
+     *                     can't be reached
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5){
+            throw new IllegalArgumentException("Usage: TallyWorker port questionBank students seed rounds");
+        }
+
+        int port = Integer.parseInt(args[0]);
+        Set<QuestionInterface> questionSet = new QuestionBankReader(Paths.get(args[1])).getQuestions();
+        int numStudents = Integer.parseInt(args[2]);
+        long seed = Long.parseLong(args[3]);
+        int rounds = Integer.parseInt(args[4]);
+
+        Set<Student> studentSet = new LinkedHashSet<Student>(numStudents * 2);
+        for (int i = 0; i < numStudents; i++){
+            studentSet.add(new Student());
+        }
+
+        VotingService vs = new VotingService(studentSet, questionSet);
+        vs.setSeed(seed);
+        for (int round = 0; round < rounds; round++){
+            vs.chooseAnswers();
+        }
+
+        send(vs.getPartialTally(), port);
+    }
+
+    /**
+     * Sends a PartialTally to a TallyCoordinator on this machine
+     * 
+     * @param tally The PartialTally to send
+     * @param port The port the coordinator is listening on
+     * @throws IOException If the coordinator can't be reached
+     */
+    public static void send(PartialTally tally, int port) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)){
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            tally.writeTo(out);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The TextStatisticsWriter renders statistics as plain text, in the same format
+ * VotingService.printStatistics() has always printed
+ * 
+ * Each Question is followed by an `answer : count` line per answer (with `**` after
+ * the correct ones) and a blank line; the report ends with the correct and
+ * incorrect totals.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class TextStatisticsWriter implements StatisticsWriterInterface {
+
+    /**
+     * The line separator, the same one System.out.println uses
+     */
+    private static final String NEWLINE = System.lineSeparator();
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * The plain text format has no header
+     */
+    @Override
+    public void beginReport(Writer out) throws IOException {
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void writeQuestion(Writer out, int questionIndex, QuestionInterface question, long[] counts, int positionCount) throws IOException {
+        out.write(question.getQuestionString());
+        out.write(NEWLINE);
+
+        for (int answerIndex = 0; answerIndex < positionCount; answerIndex++){
+            // Skip the empty slots left by removed answers
+            Answer answer = question.getAnswerAtPosition(answerIndex);
+            if (answer == null){
+                continue;
+            }
+
+            // The answer string, how many students chose it, and whether it's correct
+            out.write(answer.getAnswerString());
+            out.write(" : ");
+            out.write(Long.toString(counts[answerIndex]));
+            if (answer.isCorrect()){
+                out.write("**");
+            }
+            out.write(NEWLINE);
+        }
+
+        // Separate the questions
+        out.write(NEWLINE);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public void endReport(Writer out, long numCorrect, long numWrong) throws IOException {
+        out.write("Total Correct: ");
+        out.write(Long.toString(numCorrect));
+        out.write(NEWLINE);
+        out.write("Total Incorrect: ");
+        out.write(Long.toString(numWrong));
+        out.write(NEWLINE);
+    }
+}
@@ -0,0 +1,25 @@
+import java.util.SplittableRandom;
+
+/**
+ * The ThinkTimeInterface describes how long a simulated voter thinks before
+ * answering each Question (see VoterSimulation)
+ * 
+ * Having it as an interface lets a load test swap the shape of the delays
+ * (fixed, uniform, exponential, log-normal...) without touching the simulation.
+ * 
+ * Implementations must be safe to call from several threads at once; all the
+ * randomness comes from the generator passed in.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface ThinkTimeInterface {
+
+    /**
+     * Draws the next think time
+     * 
+     * @param random The voter's random generator
+     * @return How long to think, in nanoseconds (0 or more)
+     */
+    public long nextThinkNanos(SplittableRandom random);
+}
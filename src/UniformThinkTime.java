@@ -0,0 +1,50 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The UniformThinkTime draws think times evenly between a minimum and a maximum
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class UniformThinkTime implements ThinkTimeInterface {
+
+    /**
+     * The shortest think time in nanoseconds
+     */
+    private final long minNanos;
+
+    /**
+     * The longest think time in nanoseconds
+     */
+    private final long maxNanos;
+
+    /**
+     * Creates a UniformThinkTime
+     * 
+     * @param min The shortest think time
+     * @param max The longest think time
+     * @param unit The unit of both think times
+     * @throws IllegalArgumentException If min is negative or greater than max
+     */
+    public UniformThinkTime(long min, long max, TimeUnit unit){
+        if (min < 0 || min > max){
+            throw new IllegalArgumentException("min must be between 0 and max");
+        }
+
+        this.minNanos = unit.toNanos(min);
+        this.maxNanos = unit.toNanos(max);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long nextThinkNanos(SplittableRandom random){
+        if (this.minNanos == this.maxNanos){
+            return this.minNanos;
+        }
+
+        return random.nextLong(this.minNanos, this.maxNanos + 1);
+    }
+}
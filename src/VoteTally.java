@@ -0,0 +1,233 @@
+import java.util.Arrays;
+
+/**
+ * The VoteTally class holds the statistics changes made by one shard of Students
+ * during a voting round
+ * 
+ * Each worker of the parallel vote engine records into its own VoteTally so no
+ * two threads ever write to the same counters. Once the workers finish, the
+ * tallies are merged together and added into the VotingService's statistics.
+ * 
+ * Since a re-vote takes back a Student's previous choices, the counts held here
+ * are changes (and so can be negative) rather than totals.
+ * 
+ * A VoteTally can also pass its answer changes straight through to a
+ * ConcurrentTally (see direct), which is cheaper when only a few ballots change.
+ * 
+ * @author George Matta
+ * @version 1.1
+ */
+class VoteTally {
+
+    /**
+     * The statistics changes matrix (null when passing changes straight through)
+     * 
+     * statistics[i][j] is the change in how many Students chose Answer index j
+     * of Question index i. A row is only made once one of its answers changes.
+     */
+    int[][] statistics;
+
+    /**
+     * The number of answer positions of each Question
+     */
+    private final int[] positionCounts;
+
+    /**
+     * The ConcurrentTally answer changes are passed straight to (null when they
+     * are held in the statistics matrix)
+     */
+    private ConcurrentTally target;
+
+    /**
+     * The change in the number of correct answers chosen
+     */
+    long numCorrect;
+
+    /**
+     * The change in the number of wrong answers chosen
+     */
+    long numWrong;
+
+    /**
+     * The number of ballots that differed from the Student's previous one
+     */
+    long changedBallots;
+
+    /**
+     * The number of answers taken back (chosen before, not anymore)
+     */
+    long reversals;
+
+    /**
+     * Pairs of a Student index and how much their score changed by (null when
+     * Student scores are not being kept)
+     */
+    int[] scoreChanges;
+
+    /**
+     * The number of pairs in scoreChanges
+     */
+    int scoreChangeCount;
+
+    /**
+     * The batch the ballots applied are logged in (null when the ballot log is off)
+     */
+    BallotLogBatch logBatch;
+
+    /**
+     * Creates an empty VoteTally for Questions with the given numbers of positions
+     * 
+     * @param positionCounts The number of answer positions of each Question
+     */
+    VoteTally(int[] positionCounts){
+        this.positionCounts = positionCounts;
+        this.statistics = new int[positionCounts.length][];
+    }
+
+    /**
+     * Creates a VoteTally that passes every answer change straight through to
+     * a ConcurrentTally
+     * 
+     * The score changes are still held here until addTo is called
+     * 
+     * @param target The ConcurrentTally to pass changes to
+     * @return The created VoteTally
+     */
+    static VoteTally direct(ConcurrentTally target){
+        VoteTally tally = new VoteTally(new int[0]);
+        tally.statistics = null;
+        tally.target = target;
+        return tally;
+    }
+
+    /**
+     * Records a change in how many Students chose an answer
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @param delta How much the count changed by
+     */
+    void add(int questionIndex, int answerIndex, int delta){
+        if (this.target != null){
+            this.target.add(questionIndex, answerIndex, delta);
+        } else {
+            int[] row = this.statistics[questionIndex];
+            if (row == null){
+                row = new int[this.positionCounts[questionIndex]];
+                this.statistics[questionIndex] = row;
+            }
+            row[answerIndex] += delta;
+        }
+    }
+
+    /**
+     * Starts keeping each Student's score changes (see addStudentScore)
+     */
+    void trackScores(){
+        this.scoreChanges = new int[16];
+    }
+
+    /**
+     * Records a change in a Student's score, if scores are being kept
+     * 
+     * @param studentIndex The index of the Student
+     * @param delta How much the Student's score changed by
+     */
+    void addStudentScore(int studentIndex, int delta){
+        if (this.scoreChanges == null || delta == 0){
+            return;
+        }
+
+        if (2 * this.scoreChangeCount + 2 > this.scoreChanges.length){
+            this.scoreChanges = Arrays.copyOf(this.scoreChanges, 2 * this.scoreChanges.length);
+        }
+        this.scoreChanges[2 * this.scoreChangeCount] = studentIndex;
+        this.scoreChanges[2 * this.scoreChangeCount + 1] = delta;
+        this.scoreChangeCount++;
+    }
+
+    /**
+     * Adds another VoteTally's changes into this one
+     * 
+     * @param other The VoteTally to merge into this one
+     */
+    void merge(VoteTally other){
+        for (int i = 0; i < this.statistics.length; i++){
+            int[] row = this.statistics[i];
+            int[] otherRow = other.statistics[i];
+            if (otherRow == null){
+                continue;
+            }
+            if (row == null){
+                // The other tally is thrown away after merging, so its row can be taken
+                this.statistics[i] = otherRow;
+                continue;
+            }
+            for (int j = 0; j < row.length; j++){
+                row[j] += otherRow[j];
+            }
+        }
+
+        this.numCorrect += other.numCorrect;
+        this.numWrong += other.numWrong;
+        this.changedBallots += other.changedBallots;
+        this.reversals += other.reversals;
+
+        // Hand the other shard's logged ballots in now, since its tally goes away
+        if (other.logBatch != null){
+            other.logBatch.flush();
+        }
+
+        // Keep the score changes in Student order (other's shard comes after this one)
+        if (this.scoreChanges != null && other.scoreChangeCount > 0){
+            int total = this.scoreChangeCount + other.scoreChangeCount;
+            if (2 * total > this.scoreChanges.length){
+                this.scoreChanges = Arrays.copyOf(this.scoreChanges, Math.max(2 * total, 2 * this.scoreChanges.length));
+            }
+            System.arraycopy(
+                other.scoreChanges, 0, this.scoreChanges, 2 * this.scoreChangeCount, 2 * other.scoreChangeCount
+            );
+            this.scoreChangeCount = total;
+        }
+    }
+
+    /**
+     * Adds the changes held here into a ConcurrentTally
+     * 
+     * Answer changes already passed straight through are not added again
+     * 
+     * @param tally The ConcurrentTally to add the changes into
+     */
+    void addTo(ConcurrentTally tally){
+        if (this.statistics != null){
+            addRowsTo(tally, 0, this.statistics.length);
+        }
+        addScoreTo(tally);
+    }
+
+    /**
+     * Adds the answer changes of a range of Questions into a ConcurrentTally
+     * 
+     * Separate ranges can be added from separate threads (see TallyMergeTask)
+     * 
+     * @param tally The ConcurrentTally to add the changes into
+     * @param from The first Question index to add (inclusive)
+     * @param to The last Question index to add (exclusive)
+     */
+    void addRowsTo(ConcurrentTally tally, int from, int to){
+        for (int i = from; i < to; i++){
+            if (this.statistics[i] != null){
+                tally.addRow(i, this.statistics[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds the change in the correct and wrong totals into a ConcurrentTally
+     * 
+     * @param tally The ConcurrentTally to add the changes into
+     */
+    void addScoreTo(ConcurrentTally tally){
+        tally.addScore(this.numCorrect, this.numWrong);
+    }
+}
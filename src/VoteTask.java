@@ -0,0 +1,81 @@
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The VoteTask class splits a range of Students across a ForkJoinPool for the
+ * parallel vote engine of the VotingService
+ * 
+ * A VoteTask keeps halving its range of Student indices until it is no larger
+ * than the shard size, then votes that shard into its own VoteTally. The tallies
+ * of the two halves are merged on the way back up, so the task returns the
+ * combined changes of every Student in its range.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class VoteTask extends RecursiveTask<VoteTally> {
+
+    /**
+     * The serialization version of the task (required of every ForkJoinTask)
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The VotingService whose Students are voting
+     */
+    private final VotingService votingService;
+
+    /**
+     * The first Student index of the range (inclusive)
+     */
+    private final int from;
+
+    /**
+     * The last Student index of the range (exclusive)
+     */
+    private final int to;
+
+    /**
+     * The largest range that is voted without splitting it any further
+     */
+    private final int shardSize;
+
+    /**
+     * Creates a VoteTask for a range of Student indices
+     * 
+     * @param votingService The VotingService whose Students are voting
+     * @param from The first Student index of the range (inclusive)
+     * @param to The last Student index of the range (exclusive)
+     * @param shardSize The largest range that is voted without splitting it
+     */
+    VoteTask(VotingService votingService, int from, int to, int shardSize){
+        this.votingService = votingService;
+        this.from = from;
+        this.to = to;
+        this.shardSize = shardSize;
+    }
+
+    /**
+     * Votes the range directly if it is small enough, otherwise splits it in
+     * two and merges the halves' tallies
+     * 
+     * @return The combined VoteTally of every Student in the range
+     */
+    @Override
+    protected VoteTally compute(){
+        if (this.to - this.from <= this.shardSize){
+            VoteTally tally = this.votingService.createTally();
+            this.votingService.voteRange(this.from, this.to, tally);
+            return tally;
+        }
+
+        // Hand the left half to another worker and vote the right half ourselves
+        int middle = (this.from + this.to) >>> 1;
+        VoteTask left = new VoteTask(this.votingService, this.from, middle, this.shardSize);
+        left.fork();
+        VoteTally rightTally = new VoteTask(this.votingService, middle, this.to, this.shardSize).compute();
+
+        VoteTally leftTally = left.join();
+        leftTally.merge(rightTally);
+        return leftTally;
+    }
+}
@@ -0,0 +1,393 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The VoterSimulation class load-tests a VotingService with voters that arrive
+ * and answer at realistic times, rather than all at once in a tight loop
+ * 
+ * Each Student is its own voter: it arrives at a random moment within the arrival
+ * window, then for each Question it answers (every Question, or the ones the
+ * service's question sampler picks for it) thinks for a while (drawn from a
+ * ThinkTimeInterface), chooses its answers into a reused ballot bitmask, and submits
+ * it with submitBallot. The voters all run at once, so the submissions contend the
+ * way real ones would.
+ * 
+ * Where the runtime has virtual threads (Java 21 and later), every voter gets its
+ * own virtual thread, which costs little enough memory to run hundreds of thousands
+ * at once. Otherwise each voter's steps are scheduled on a small pool, which holds
+ * as many voters but doesn't block while they think.
+ * 
+ * submitBallot holds the VotingService's monitor, and a virtual thread blocked on a
+ * monitor pins its carrier thread (on Java 21). So voters queue for the service on a
+ * ReentrantLock, which parks a waiting virtual thread instead, and only the voter
+ * holding it goes on to take the (then uncontended) monitor.
+ * 
+ * The run reports the submission throughput and the latency percentiles of the
+ * submissions, each timed from the moment its voter was ready to hand it in rather
+ * than from the call to submitBallot, so waiting to be scheduled or for the service
+ * counts too (see SimulationReport).
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class VoterSimulation {
+
+    /**
+     * The VotingService the voters submit to
+     */
+    private final VotingService votingService;
+
+    /**
+     * The voters
+     */
+    private final List<Student> students;
+
+    /**
+     * How long voters think before each Question
+     */
+    private final ThinkTimeInterface thinkTime;
+
+    /**
+     * The seed the voters' random generators are split from
+     */
+    private long seed;
+
+    /**
+     * The window voters arrive in, in nanoseconds
+     */
+    private long arrivalWindowNanos;
+
+    /**
+     * Whether or not to run the voters on virtual threads when the runtime has them
+     */
+    private boolean useVirtualThreads;
+
+    /**
+     * The lock voters queue on before submitting (see the class comment)
+     */
+    private final ReentrantLock submitLock;
+
+    /**
+     * The first error a voter ran into during the current run, if any
+     */
+    private volatile RuntimeException failure;
+
+    /**
+     * Creates a VoterSimulation
+     * 
+     * The voters all arrive at once and use virtual threads if they can, until
+     * told otherwise
+     * 
+     * @param votingService The VotingService the voters submit to
+     * @param students The voters (they must be part of the VotingService)
+     * @param thinkTime How long voters think before each Question
+     */
+    public VoterSimulation(VotingService votingService, Collection<Student> students, ThinkTimeInterface thinkTime){
+        this.votingService = votingService;
+        this.students = new ArrayList<Student>(students);
+        this.thinkTime = thinkTime;
+        this.seed = System.nanoTime();
+        this.arrivalWindowNanos = 0;
+        this.useVirtualThreads = true;
+        this.submitLock = new ReentrantLock();
+    }
+
+    /**
+     * Sets the seed the voters' arrivals, think times, and answers are drawn from
+     * 
+     * @param seed The seed
+     */
+    public void setSeed(long seed){
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the window voters arrive in; each voter arrives at an evenly random
+     * moment within it
+     * 
+     * @param window The length of the window (0 for every voter to arrive at once)
+     * @param unit The unit of the window
+     * @throws IllegalArgumentException If the window is negative
+     */
+    public void setArrivalWindow(long window, TimeUnit unit){
+        if (window < 0){
+            throw new IllegalArgumentException("window must not be negative");
+        }
+
+        this.arrivalWindowNanos = unit.toNanos(window);
+    }
+
+    /**
+     * Sets whether or not to run the voters on virtual threads when the runtime
+     * has them (the scheduled pool is used otherwise)
+     * 
+     * @param useVirtualThreads Whether or not to use virtual threads
+     */
+    public void setUseVirtualThreads(boolean useVirtualThreads){
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+    /**
+     * Checks whether the running Java has virtual threads
+     * @return Whether or not virtual threads are available
+     */
+    public static boolean virtualThreadsAvailable(){
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null){
+            return false;
+        }
+
+        executor.shutdown();
+        return true;
+    }
+
+    /**
+     * Runs every voter through every Question and waits for them all to finish
+     * 
+     * @return The throughput and latencies of the submissions
+     * @throws InterruptedException If interrupted while waiting for the voters
+     * @throws IllegalStateException If a voter's submission failed
+     */
+    public SimulationReport run() throws InterruptedException {
+        this.failure = null;
+        LatencyHistogram latencies = new LatencyHistogram();
+        CountDownLatch finished = new CountDownLatch(this.students.size());
+
+        // Split every voter's generator up front, so a seed gives the same voters every run
+        SplittableRandom seedRandom = new SplittableRandom(this.seed);
+        List<Voter> voters = new ArrayList<Voter>(this.students.size());
+        for (Student student : this.students){
+            voters.add(new Voter(student, seedRandom.split(), latencies, finished));
+        }
+
+        ExecutorService virtualThreads = this.useVirtualThreads ? newVirtualThreadExecutor() : null;
+        long start = System.nanoTime();
+
+        if (virtualThreads != null){
+            for (Voter voter : voters){
+                virtualThreads.execute(() -> voter.runBlocking(start));
+            }
+            virtualThreads.shutdown();
+            finished.await();
+        } else {
+            ScheduledExecutorService pool = Executors.newScheduledThreadPool(
+                Runtime.getRuntime().availableProcessors()
+            );
+            try {
+                for (Voter voter : voters){
+                    voter.schedule(pool, start);
+                }
+                finished.await();
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        if (this.failure != null){
+            throw new IllegalStateException("A voter failed to submit a ballot.", this.failure);
+        }
+
+        return new SimulationReport(voters.size(), elapsed, virtualThreads != null, latencies);
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task, if the running
+     * Java has them
+     * 
+     * Looked up by reflection, so the simulator still builds and runs on Java 17
+     * 
+     * @return The executor, or null if virtual threads aren't available
+     */
+    private static ExecutorService newVirtualThreadExecutor(){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e){
+            return null;
+        }
+    }
+
+    /**
+     * One simulated voter
+     * 
+     * The voter's steps are the same either way it runs: wait to arrive, then
+     * think and answer each of its Questions in turn
+     */
+    private final class Voter implements Runnable {
+
+        /**
+         * The Student voting
+         */
+        private final Student student;
+
+        /**
+         * The voter's own random generator
+         */
+        private final SplittableRandom random;
+
+        /**
+         * Where the submission latencies are recorded
+         */
+        private final LatencyHistogram latencies;
+
+        /**
+         * Counted down once the voter has answered every Question
+         */
+        private final CountDownLatch finished;
+
+        /**
+         * The indices of the Questions the voter answers, or null for every Question
+         */
+        private final int[] questionIndices;
+
+        /**
+         * The number of Questions the voter answers
+         */
+        private final int questionCount;
+
+        /**
+         * The ballot bitmask, reused for every Question (made on the first one)
+         */
+        private long[] ballot;
+
+        /**
+         * How many Questions the voter has answered
+         */
+        private int answered;
+
+        /**
+         * When the voter is (or was) ready to hand in its next ballot, in System.nanoTime()
+         */
+        private long readyAt;
+
+        /**
+         * The pool the voter's steps are scheduled on (null on a virtual thread)
+         */
+        private ScheduledExecutorService pool;
+
+        /**
+         * Creates a voter
+         */
+        Voter(Student student, SplittableRandom random, LatencyHistogram latencies, CountDownLatch finished){
+            this.student = student;
+            this.random = random;
+            this.latencies = latencies;
+            this.finished = finished;
+
+            // Answer the same Questions a round of voting would
+            if (votingService.getQuestionSampler() != null){
+                this.questionIndices = new int[votingService.getMaxQuestionsPerStudent()];
+                this.questionCount = votingService.getQuestionsFor(student, this.questionIndices);
+            } else {
+                this.questionIndices = null;
+                this.questionCount = votingService.getQuestionCount();
+            }
+        }
+
+        /**
+         * Runs the whole voter on the current thread, sleeping while it waits
+         * and thinks (meant for a virtual thread)
+         * 
+         * @param start When the run started, in System.nanoTime()
+         */
+        void runBlocking(long start){
+            try {
+                this.readyAt = start + arrivalDelay();
+                while (this.answered < this.questionCount){
+                    this.readyAt += thinkTime.nextThinkNanos(this.random);
+                    long wait = this.readyAt - System.nanoTime();
+                    if (wait > 0){
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    answerNext();
+                    // The voter reads the next Question once this ballot is in
+                    this.readyAt = System.nanoTime();
+                }
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e){
+                failure = e;
+            } finally {
+                this.finished.countDown();
+            }
+        }
+
+        /**
+         * Schedules the voter's arrival on a pool; each step schedules the next
+         * 
+         * @param pool The pool to schedule on
+         * @param start When the run started, in System.nanoTime()
+         */
+        void schedule(ScheduledExecutorService pool, long start){
+            this.pool = pool;
+            if (this.questionCount == 0){
+                this.finished.countDown();
+                return;
+            }
+
+            this.readyAt = start + arrivalDelay() + thinkTime.nextThinkNanos(this.random);
+            pool.schedule(this, this.readyAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Answers the next Question, then schedules the one after (or finishes)
+         */
+        @Override
+        public void run(){
+            boolean scheduled = false;
+            try {
+                answerNext();
+
+                if (this.answered < this.questionCount){
+                    long think = thinkTime.nextThinkNanos(this.random);
+                    this.readyAt = System.nanoTime() + think;
+                    this.pool.schedule(this, think, TimeUnit.NANOSECONDS);
+                    scheduled = true;
+                }
+            } catch (RuntimeException e){
+                failure = e;
+            } finally {
+                if (!scheduled){
+                    this.finished.countDown();
+                }
+            }
+        }
+
+        /**
+         * Chooses answers for the next Question and submits them, recording how
+         * long it has been since the voter was ready to
+         */
+        private void answerNext(){
+            int questionIndex = this.questionIndices != null ? this.questionIndices[this.answered] : this.answered;
+            this.answered++;
+            if (this.ballot == null){
+                this.ballot = new long[votingService.getMaxBallotWords()];
+            }
+            this.student.getAnswerIndices(votingService.getQuestion(questionIndex), this.random, this.ballot, 0);
+
+            submitLock.lock();
+            try {
+                votingService.submitBallot(this.student, questionIndex, this.ballot);
+            } finally {
+                submitLock.unlock();
+            }
+            this.latencies.record(System.nanoTime() - this.readyAt);
+        }
+
+        /**
+         * Draws how long the voter waits before arriving
+         * @return The delay in nanoseconds
+         */
+        private long arrivalDelay(){
+            return arrivalWindowNanos == 0 ? 0 : this.random.nextLong(arrivalWindowNanos);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The VotingMetrics class records how fast a VotingService's voting pipeline runs
+ * 
+ * It counts the ballots applied (and how many of them changed, and how many answers
+ * re-votes took back), the voting rounds, and the bytes allocated while voting, and
+ * keeps a latency histogram for each phase of the pipeline (see Phase).
+ * 
+ * Metrics are off until VotingService.enableMetrics() is called; while off, the
+ * voting loops don't touch them at all. While on, counts are gathered in each
+ * shard's VoteTally and added here once per shard, and per-Student latencies are
+ * only timed for one Student in every SAMPLE_INTERVAL, so recording costs next to
+ * nothing. Recording is lock-free and doesn't allocate (see LatencyHistogram).
+ * 
+ * The metrics can be pulled with snapshot(), or watched over JMX once registered
+ * (see register).
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public class VotingMetrics implements VotingMetricsMBean {
+
+    /**
+     * The phases of the voting pipeline that are timed
+     */
+    public enum Phase {
+        /**
+         * A whole chooseAnswers() or revoteStudents() round
+         */
+        ROUND,
+        /**
+         * Choosing one Student's answers for one Question (sampled)
+         */
+        ANSWER_INDICES,
+        /**
+         * Applying one ballot to the tallies (sampled)
+         */
+        APPLY_BALLOT,
+        /**
+         * A submitBallot() or submitBallots() call
+         */
+        SUBMIT
+    }
+
+    /**
+     * Time one Student out of this many (a power of 2)
+     */
+    static final int SAMPLE_INTERVAL = 64;
+
+    /**
+     * The latency histogram of each phase, in nanoseconds
+     */
+    private final LatencyHistogram[] latencies;
+
+    /**
+     * The number of ballots applied
+     */
+    private final LongAdder ballots;
+
+    /**
+     * The number of ballots that differed from the Student's previous one
+     */
+    private final LongAdder changedBallots;
+
+    /**
+     * The number of answers taken back by re-votes
+     */
+    private final LongAdder reversals;
+
+    /**
+     * The number of voting rounds run
+     */
+    private final LongAdder rounds;
+
+    /**
+     * The bytes allocated while voting
+     */
+    private final LongAdder allocatedBytes;
+
+    /**
+     * The JVM's per-thread allocation counters, or null if it doesn't have them
+     */
+    private final com.sun.management.ThreadMXBean allocationCounter;
+
+    /**
+     * When the metrics were created or last reset
+     */
+    private volatile long startNanos;
+
+    /**
+     * The name the metrics are registered under with JMX, or null
+     */
+    private ObjectName objectName;
+
+    /**
+     * Creates empty VotingMetrics
+     */
+    public VotingMetrics(){
+        this.latencies = new LatencyHistogram[Phase.values().length];
+        for (int i = 0; i < this.latencies.length; i++){
+            this.latencies[i] = new LatencyHistogram();
+        }
+        this.ballots = new LongAdder();
+        this.changedBallots = new LongAdder();
+        this.reversals = new LongAdder();
+        this.rounds = new LongAdder();
+        this.allocatedBytes = new LongAdder();
+        this.allocationCounter = findAllocationCounter();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Finds the JVM's per-thread allocation counters, if it has them
+     * @return The counters, or null if they aren't available
+     */
+    private static com.sun.management.ThreadMXBean findAllocationCounter(){
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean){
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()){
+                return counter;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Records how long a phase took
+     * 
+     * @param phase The phase
+     * @param nanos How long it took, in nanoseconds
+     */
+    public void recordLatency(Phase phase, long nanos){
+        this.latencies[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Records a batch of applied ballots
+     * 
+     * @param ballots The number of ballots applied
+     * @param changedBallots How many of them differed from the Student's previous one
+     * @param reversals How many answers they took back
+     */
+    void addBallots(long ballots, long changedBallots, long reversals){
+        this.ballots.add(ballots);
+        this.changedBallots.add(changedBallots);
+        this.reversals.add(reversals);
+    }
+
+    /**
+     * Records a finished voting round
+     */
+    void addRound(){
+        this.rounds.increment();
+    }
+
+    /**
+     * Gets how many bytes the current thread has allocated so far
+     * 
+     * Take the difference of two readings on the same thread and pass it to
+     * addAllocatedBytes
+     * 
+     * @return The bytes allocated by the current thread (0 if the JVM can't measure them)
+     */
+    long currentThreadAllocatedBytes(){
+        return this.allocationCounter == null ? 0 : this.allocationCounter.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Records bytes allocated while voting
+     * 
+     * @param bytes The number of bytes
+     */
+    void addAllocatedBytes(long bytes){
+        if (bytes > 0){
+            this.allocatedBytes.add(bytes);
+        }
+    }
+
+    /**
+     * Takes a copy of every counter and the percentiles of every phase
+     * @return The snapshot of the metrics
+     */
+    public MetricsSnapshot snapshot(){
+        return new MetricsSnapshot(
+            this.ballots.sum(), this.changedBallots.sum(), this.reversals.sum(), this.rounds.sum(),
+            this.allocatedBytes.sum(), System.nanoTime() - this.startNanos, this.latencies
+        );
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, so JMX clients (such
+     * as JConsole) can watch them
+     * 
+     * @param name The name to tell these metrics apart from others
+     * @return The ObjectName the metrics were registered under
+     * @throws IllegalStateException If the metrics can't be registered
+     */
+    public synchronized ObjectName register(String name){
+        unregister();
+
+        try {
+            ObjectName objectName = new ObjectName("ivote:type=VotingMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+            return objectName;
+        } catch (JMException e){
+            throw new IllegalStateException("Couldn't register the voting metrics as " + name + ".", e);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they were registered
+     */
+    public synchronized void unregister(){
+        if (this.objectName == null){
+            return;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(this.objectName)){
+                server.unregisterMBean(this.objectName);
+            }
+        } catch (JMException e){
+            throw new IllegalStateException("Couldn't unregister the voting metrics.", e);
+        } finally {
+            this.objectName = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long getBallots(){
+        return this.ballots.sum();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long getChangedBallots(){
+        return this.changedBallots.sum();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long getReversals(){
+        return this.reversals.sum();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long getRounds(){
+        return this.rounds.sum();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public long getAllocatedBytes(){
+        return this.allocatedBytes.sum();
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public double getBallotsPerSecond(){
+        long elapsed = System.nanoTime() - this.startNanos;
+        return elapsed <= 0 ? 0.0 : this.ballots.sum() * 1e9 / elapsed;
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public double getRoundMeanMicros(){
+        return meanMicros(Phase.ROUND);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public double getRoundP99Micros(){
+        return p99Micros(Phase.ROUND);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public double getAnswerIndicesMeanMicros(){
+        return meanMicros(Phase.ANSWER_INDICES);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public double getAnswerIndicesP99Micros(){
+        return p99Micros(Phase.ANSWER_INDICES);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public double getApplyBallotMeanMicros(){
+        return meanMicros(Phase.APPLY_BALLOT);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public double getApplyBallotP99Micros(){
+        return p99Micros(Phase.APPLY_BALLOT);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public double getSubmitMeanMicros(){
+        return meanMicros(Phase.SUBMIT);
+    }
+
+    /**
+     * {@inheritDoc}}
+     */
+    @Override
+    public double getSubmitP99Micros(){
+        return p99Micros(Phase.SUBMIT);
+    }
+
+    /**
+     * {@inheritDoc}}
+     * 
+     * Anything recorded while resetting may be kept or dropped
+     */
+    @Override
+    public void reset(){
+        for (LatencyHistogram histogram : this.latencies){
+            histogram.reset();
+        }
+        this.ballots.reset();
+        this.changedBallots.reset();
+        this.reversals.reset();
+        this.rounds.reset();
+        this.allocatedBytes.reset();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets the mean latency of a phase in microseconds
+     * 
+     * @param phase The phase
+     * @return The mean latency
+     */
+    private double meanMicros(Phase phase){
+        return this.latencies[phase.ordinal()].getMean() / 1e3;
+    }
+
+    /**
+     * Gets the 99th percentile latency of a phase in microseconds
+     * 
+     * @param phase The phase
+     * @return The 99th percentile latency
+     */
+    private double p99Micros(Phase phase){
+        return this.latencies[phase.ordinal()].getValueAtPercentile(99) / 1e3;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * The VotingMetricsMBean is the JMX management interface of VotingMetrics
+ * 
+ * JMX needs a standard MBean's interface to be named after its class, hence the
+ * name. Latencies are reported in microseconds.
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+public interface VotingMetricsMBean {
+
+    /**
+     * A simple getter for the number of ballots applied
+     * @return The number of ballots
+     */
+    public long getBallots();
+
+    /**
+     * A simple getter for the number of ballots that differed from the Student's previous one
+     * @return The number of changed ballots
+     */
+    public long getChangedBallots();
+
+    /**
+     * A simple getter for the number of answers taken back by re-votes
+     * @return The number of reversals
+     */
+    public long getReversals();
+
+    /**
+     * A simple getter for the number of voting rounds run
+     * @return The number of rounds
+     */
+    public long getRounds();
+
+    /**
+     * A simple getter for the bytes allocated while voting
+     * @return The allocated bytes (0 if the JVM can't measure them)
+     */
+    public long getAllocatedBytes();
+
+    /**
+     * Gets how many ballots were applied per second since the metrics were enabled or reset
+     * @return The ballot throughput
+     */
+    public double getBallotsPerSecond();
+
+    /**
+     * A simple getter for the mean time a voting round took
+     * @return The mean in microseconds
+     */
+    public double getRoundMeanMicros();
+
+    /**
+     * A simple getter for the 99th percentile of the time a voting round took
+     * @return The percentile in microseconds
+     */
+    public double getRoundP99Micros();
+
+    /**
+     * A simple getter for the mean time choosing a Student's answers took
+     * @return The mean in microseconds
+     */
+    public double getAnswerIndicesMeanMicros();
+
+    /**
+     * A simple getter for the 99th percentile of the time choosing a Student's answers took
+     * @return The percentile in microseconds
+     */
+    public double getAnswerIndicesP99Micros();
+
+    /**
+     * A simple getter for the mean time applying a ballot took
+     * @return The mean in microseconds
+     */
+    public double getApplyBallotMeanMicros();
+
+    /**
+     * A simple getter for the 99th percentile of the time applying a ballot took
+     * @return The percentile in microseconds
+     */
+    public double getApplyBallotP99Micros();
+
+    /**
+     * A simple getter for the mean time a submission took
+     * @return The mean in microseconds
+     */
+    public double getSubmitMeanMicros();
+
+    /**
+     * A simple getter for the 99th percentile of the time a submission took
+     * @return The percentile in microseconds
+     */
+    public double getSubmitP99Micros();
+
+    /**
+     * Starts every counter and histogram again from zero
+     */
+    public void reset();
+}
@@ -1,8 +1,20 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The VotingService class brings together the pieces developed in the project to 
@@ -13,49 +25,178 @@ import java.util.Arrays;
  * correct and incorrect answers are chosen, etc.
  * 
  * This class provides implementations for those features, as well as a way to view said
- * statistics.
+ * statistics (as plain text, CSV, or JSON; see StatisticsWriterInterface).
+ * 
+ * Voting can be split across several threads: the Students are divided into shards
+ * on a ForkJoinPool, each shard is tallied separately, and the tallies are merged at
+ * the end. Every Student draws their answers from a generator seeded by the service's
+ * seed, the round, and the Student's index, so a given seed produces the same
+ * statistics no matter how many threads are used.
+ * 
+ * Students and Questions are laid out by their ordinals (the order they were made
+ * in) rather than the order the given Sets iterate in, so the rows, ballots and
+ * seeds come out the same from run to run even when the Sets are HashSets.
+ * 
+ * A re-vote only applies the difference between a Student's old and new ballots,
+ * so some Students can be re-polled (revoteStudents) or have a ballot handed in
+ * (submitBallot) at a cost proportional to the answers that actually changed.
+ * 
+ * Ballots can also be streamed in from outside (see BallotIngestor). The methods
+ * that change the tallies are synchronized with each other, but the tallies
+ * themselves are lock-free concurrent counters (see ConcurrentTally), so reading
+ * them, or taking a consistent snapshot with getStatisticsSnapshot(), never
+ * blocks the writers.
+ * 
+ * For long elections the tallies and ballots can be checkpointed into a
+ * memory-mapped file (see enablePersistence and MappedTallyStore), so a restarted
+ * service picks up where it left off instead of voting everything again.
+ * 
+ * Throughput, latency, and allocation metrics can be turned on with enableMetrics
+ * (see VotingMetrics); while they are off, voting doesn't record anything.
  * 
  * @author George Matta
  * @version 1.1
  */
 public class VotingService {
+
+    /**
+     * Below this many Students, voting always runs on the calling thread
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 2048;
+
+    /**
+     * The fewest Students a parallel worker is given to vote at once
+     */
+    private static final int MIN_SHARD_SIZE = 512;
+
+    /**
+     * How many shards each worker thread should get, so uneven shards even out
+     */
+    private static final int SHARDS_PER_THREAD = 4;
+
+    /**
+     * The fewest Questions a parallel worker is given to add into the statistics at once
+     */
+    private static final int MIN_MERGE_BLOCK = 64;
+
+    /**
+     * The size of the buffer statistics reports are rendered into
+     */
+    private static final int REPORT_BUFFER_SIZE = 1 << 16;
     
     /**
-     * A Map of Student to their selected answers matrix 
+     * The selected answers of every Student, stored as bitmasks
      * 
-     * matrix[i] would be the selections set made for Question index i
+     * The ballot of Student index i for Question index j holds the selections
+     * made by students[i] for questions[j]
      */
-    private Map<Student, Set<Integer>[]> studentAnswersMap;
+    private BallotStore ballotStore;
 
     /**
      * The Set of Questions
      */
     private Set<QuestionInterface> questionSet;
-    
+
+    /**
+     * The Students in a fixed order (ordinal order)
+     * 
+     * A Student's index in this array decides its random seed and which shard
+     * it is voted in
+     */
+    private Student[] students;
+
+    /**
+     * The Questions in the same order as the rows of the statistics matrix
+     * (ordinal order)
+     */
+    private QuestionInterface[] questions;
+
+    /**
+     * A Map of each Student's unique ID to their index in the students array, for
+     * BallotRecords (which only carry the ID)
+     */
+    private Map<String, Integer> studentIndices;
+
     /**
-     * The number of correct answers chosen
+     * Finds a Student's index in the students array from their ordinal
      */
-    private int numCorrect;
+    private OrdinalIndex studentOrdinals;
 
     /**
-     * The number of wrong answers chosen
+     * Finds a Question's index in the questions array from its ordinal
+     */
+    private OrdinalIndex questionOrdinals;
+    
+    /**
+     * The number of answer positions of each Question, in the questions order
      */
-    private int numWrong;
+    private int[] positionCounts;
 
     /**
-     * The statistics int matrix
+     * The statistics counters, including the correct and wrong totals
      * 
-     * statistics[i][j] is the number of Students who chose Answer index j of 
-     * Question index i
+     * Counter (i, j) is the number of Students who chose Answer index j of 
+     * Question index i. Volatile since setTallyLayout swaps it for a copy while
+     * readers don't take the lock
      */
-    private int[][] statistics;
+    private volatile ConcurrentTally statistics;
 
     /**
      * A boolean denoting whether or not the Answers have been chosen by the Students
      * This ensures that we do not attempt to display statistics that have not
      * been calculated
      */
-    private boolean hasVoted;
+    private volatile boolean hasVoted;
+
+    /**
+     * The seed every Student's random choices are derived from
+     */
+    private long seed;
+
+    /**
+     * How many voting rounds have been run since the seed was set
+     */
+    private int round;
+
+    /**
+     * How many threads voting may be split across
+     */
+    private int parallelism;
+
+    /**
+     * The pool parallel voting runs on, created the first time it is needed
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The file checkpoints are written to, or null if persistence is off
+     */
+    private MappedTallyStore tallyStore;
+
+    /**
+     * The metrics being recorded, or null if metrics are off
+     */
+    private volatile VotingMetrics metrics;
+
+    /**
+     * The windowed history of the tallies, or null if history is off
+     */
+    private TallyHistory history;
+
+    /**
+     * The Students ranked by score, or null if the leaderboard is off
+     */
+    private Leaderboard leaderboard;
+
+    /**
+     * The log every applied ballot is written to, or null if the ballot log is off
+     */
+    private BallotLog ballotLog;
+
+    /**
+     * Picks the Questions each Student answers, or null for every Question
+     */
+    private QuestionSamplerInterface questionSampler;
 
     /**
      * A simple constructor for the VotingService object
@@ -81,189 +222,1669 @@ public class VotingService {
      * 
      * @param studentSet The Set of Students
      * @param questionSet The Set of Questions
+     * @throws IllegalArgumentException If two Questions (or two Students) have the
+     *                                  same ordinal
      */
     public VotingService(Set<Student> studentSet, Set<QuestionInterface> questionSet){
         this.questionSet = questionSet;
+        // Lay everything out by ordinal, so the layout doesn't depend on the Sets' order
+        this.students = studentSet.toArray(new Student[0]);
+        Arrays.sort(this.students, Comparator.comparingInt(Student::getOrdinal));
+        this.questions = questionSet.toArray(new QuestionInterface[0]);
+        Arrays.sort(this.questions, Comparator.comparingInt(QuestionInterface::getOrdinal));
+        this.studentOrdinals = new OrdinalIndex(ordinalsOf(this.students));
+        this.questionOrdinals = new OrdinalIndex(ordinalsOf(this.questions));
+        this.studentIndices = new HashMap<String, Integer>(this.students.length * 2);
+        for (int i = 0; i < this.students.length; i++){
+            this.studentIndices.put(this.students[i].getID(), i);
+        }
+        this.seed = System.nanoTime();
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+
+        this.positionCounts = new int[this.questions.length];
+        for (int i = 0; i < this.questions.length; i++){
+            this.positionCounts[i] = this.questions[i].getPositionCount();
+        }
         
-        initializeStudentAnswersMap(studentSet);
+        initializeBallotStore();
         initializeStatistics();
     }
 
     /**
-     * Intializes the Student->Answers map
-     * 
-     * studentAnswersMap[student][i] would be the Set of Integer indexes of the answers
-     * of Question index i
+     * Intializes the Student->Answers ballot store
      * 
-     * @param studentSet The set of all Students
+     * Every Student gets an empty ballot for every Question, sized to the Question's
+     * number of answer positions
      */
-    @SuppressWarnings("unchecked")
-    private void initializeStudentAnswersMap(Set<Student> studentSet){
-        this.studentAnswersMap = new HashMap<Student, Set<Integer>[]>();
-
-        Set<Integer>[] answersSets = new HashSet[questionSet.size()]; 
-
-        // For each Student, set their answers set
-        for(Student student : studentSet){
-            
-            // As many answer sets as there are questions
-            for(int i = 0; i < questionSet.size(); i++){
-                answersSets[i] = new HashSet<Integer>(); 
-            }
-
-            this.studentAnswersMap.put(student, answersSets);
-            
-            // Prepare for the next iteration
-            answersSets = new HashSet[questionSet.size()];
-        }
+    private void initializeBallotStore(){
+        this.ballotStore = new BallotStore(this.students.length, this.positionCounts);
     }
 
     /**
-     * Initializes the statistics int array depending on how many questions exist
+     * Initializes the statistics counters depending on how many questions exist
      * and how many answers exist for each question
      */
     private void initializeStatistics(){
-        // As many rows as there are questions
-        this.statistics = createStatistics(this.questionSet);
+        // As many rows as there are questions, as many columns as answer positions
+        this.statistics = new ConcurrentTally(this.positionCounts);
 
         // To maintain validation
         this.hasVoted = false;
     }
 
     /**
-     * A static method to create a viable matrix for the statistics
+     * Sets the seed every Student's random choices are derived from, and starts
+     * counting rounds again from the first one
+     * 
+     * Two services with the same Students, Questions, and seed produce the same
+     * statistics round for round
      * 
-     * The return matrix has many rows as there are questions, and each column has
-     * as many entries as there are possible answers for that question
+     * @param seed The seed to derive random choices from
+     */
+    public synchronized void setSeed(long seed){
+        this.seed = seed;
+        this.round = 0;
+    }
+
+    /**
+     * A simple getter for the seed every Student's random choices are derived from
+     * @return The seed of the service
+     */
+    public synchronized long getSeed(){
+        return this.seed;
+    }
+
+    /**
+     * Sets how many threads voting may be split across
      * 
-     * matrix[i][j] = Answer index j at Question index i
+     * A parallelism of 1 always votes on the calling thread
      * 
-     * @param questionSet The set of all the Questions
-     * @return The created statistics matrix
+     * @param parallelism The number of threads to vote with
+     * @throws IllegalArgumentException If the parallelism is 0 or less
      */
-    private static int[][] createStatistics(Set<QuestionInterface> questionSet){
-        int[][] statistics = new int[questionSet.size()][];
+    public synchronized void setParallelism(int parallelism){
+        if (parallelism <= 0){
+            throw new IllegalArgumentException("parallelism must be a positive integer");
+        }
 
-        // As many columns as there are answers to each question
-        int i = 0;
-        for (QuestionInterface question : questionSet){
-            statistics[i++] = new int[question.getPossibleAnswers().size()];
+        // The old pool has the wrong number of threads, so let it wind down
+        if (this.pool != null && this.pool.getParallelism() != parallelism){
+            this.pool.shutdown();
+            this.pool = null;
         }
 
-        return statistics;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * A simple getter for how many threads voting may be split across
+     * @return The parallelism of the service
+     */
+    public synchronized int getParallelism(){
+        return this.parallelism;
     }
 
     /**
      * Runs the entire simulation by choosing Answers for every Question for every
      * Student.
      * 
+     * Small groups of Students (or a parallelism of 1) are voted on the calling
+     * thread. Otherwise the Students are split into shards across a ForkJoinPool,
+     * and the shards' tallies are merged once they all finish.
+     * 
      * Records the statistics to be printed later.
      */
-    public void chooseAnswers(){
-        // Initialize the Set of answer indices so we don't recreate it each iteration
-        Set<Integer> answerIndices = null;
-        // The index of the question we're currently on
-        int questionIndex = 0;
-        // The Student currently being looped through
-        Student student = null;
-        Set<Integer>[] studentAnswers = null;
+    public synchronized void chooseAnswers(){
+        VotingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        VoteTally tally = null;
+        boolean parallel = this.parallelism > 1 && this.students.length >= SEQUENTIAL_THRESHOLD;
 
-        // Loop through each student
-        for (Map.Entry<Student, Set<Integer>[]> studentAnswersEntry : this.studentAnswersMap.entrySet()){
-            student = studentAnswersEntry.getKey();
-            studentAnswers = studentAnswersEntry.getValue();
-            questionIndex = 0; // We have a new Student, so start at the first question
-
-            // Loop through each question and see what answers the Student responds with
-            for (QuestionInterface question : questionSet){
-                if(studentAnswers[questionIndex] != null && studentAnswers[questionIndex].size() > 0){
-                    answerIndices = studentAnswers[questionIndex];
-                    for(int answerIndex : answerIndices){
-                        this.statistics[questionIndex][answerIndex]--;
-
-                        if (question.getAnswerAtPosition(answerIndex).isCorrect()){
-                            this.numCorrect--;
-                        } else {
-                            this.numWrong--;
-                        }
-                    }
+        if (!parallel){
+            tally = createTally();
+            voteRange(0, this.students.length, tally);
+        } else {
+            // Aim for a few shards per thread, but don't make them too small to be worth it
+            int shardSize = Math.max(
+                MIN_SHARD_SIZE, this.students.length / (this.parallelism * SHARDS_PER_THREAD)
+            );
+            tally = getPool().invoke(new VoteTask(this, 0, this.students.length, shardSize));
+        }
 
-                    studentAnswers[questionIndex] = null;
-                }
+        // Add the round's changes into the statistics as a single write, so a
+        // snapshot sees the whole round or none of it
+        this.statistics.beginWrite();
+        try {
+            if (parallel && this.questions.length > MIN_MERGE_BLOCK){
+                // Add blocks of Questions from the pool's threads at once
+                int blockSize = Math.max(
+                    MIN_MERGE_BLOCK, this.questions.length / (this.parallelism * SHARDS_PER_THREAD)
+                );
+                getPool().invoke(new TallyMergeTask(tally, this.statistics, 0, this.questions.length, blockSize));
+                tally.addScoreTo(this.statistics);
+            } else {
+                tally.addTo(this.statistics);
+            }
+        } finally {
+            this.statistics.endWrite();
+        }
+        addScores(tally);
+
+        finishRound();
+        if (metrics != null){
+            recordRound(metrics, start, (long) this.students.length * ballotsPerStudent(), tally);
+        }
+        commitBallotLog(tally, true);
+        if (this.tallyStore != null){
+            this.tallyStore.markAllChanged();
+        }
+        checkpointIfPersistent();
+    }
+
+    /**
+     * Re-polls only the given Students, applying just the difference between
+     * each of their old and new ballots to the statistics
+     * 
+     * The Students answer exactly as they would have in a full chooseAnswers()
+     * round, but the cost is proportional to the Students given rather than
+     * the whole electorate
+     * 
+     * @param studentsToRevote The Students to re-poll
+     * @return The number of ballots that changed
+     * @throws IllegalArgumentException If a Student is not part of this service
+     */
+    public synchronized int revoteStudents(Collection<Student> studentsToRevote){
+        VotingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        VoteTally tally = createDirectTally();
+        long[] newBallot = new long[this.ballotStore.getMaxWordCount()];
+        QuestionSamplerInterface sampler = this.questionSampler;
+        int[] sampled = sampler != null ? new int[sampler.getMaxSampleSize(this.questions.length)] : null;
+        long ballotCount = 0;
+        int changedBallots = 0;
 
-                // Get the indices of chosen answers
-                answerIndices = student.getAnswerIndices(question);
-                studentAnswers[questionIndex] = answerIndices;
-                // Loop  through each index
-                for(int answerIndex : answerIndices) {
-                    // Update the main statistics table
-                    this.statistics[questionIndex][answerIndex]++;
-                    
-                    // Update the score tracker
-                    if (question.getAnswerAtPosition(answerIndex).isCorrect()){
-                        this.numCorrect++;
-                    } else {
-                        this.numWrong++;
+        this.statistics.beginWrite();
+        try {
+            for (Student student : studentsToRevote){
+                int studentIndex = getStudentIndex(student);
+                SplittableRandom random = new SplittableRandom(studentSeed(studentIndex));
+                int questionCount = sampleQuestions(studentIndex, sampler, sampled);
+                long correctBefore = tally.numCorrect;
+                ballotCount += questionCount;
+
+                for (int k = 0; k < questionCount; k++){
+                    int questionIndex = sampled != null ? sampled[k] : k;
+                    student.getAnswerIndices(this.questions[questionIndex], random, newBallot, 0);
+                    if (applyBallot(studentIndex, questionIndex, newBallot, 0, tally)){
+                        changedBallots++;
+                        markChanged(studentIndex);
                     }
                 }
-                // Go to the next question
-                questionIndex++;
-            }   
+                tally.addStudentScore(studentIndex, (int) (tally.numCorrect - correctBefore));
+            }
+        } finally {
+            tally.addTo(this.statistics);
+            this.statistics.endWrite();
+            addScores(tally);
+        }
+
+        finishRound();
+        if (metrics != null){
+            recordRound(metrics, start, ballotCount, tally);
+        }
+        commitBallotLog(tally, true);
+        checkpointIfPersistent();
+        return changedBallots;
+    }
+
+    /**
+     * Hands in a Student's new answers for one Question, replacing their old ones
+     * 
+     * Only the answers that differ from the Student's previous ballot touch the
+     * statistics, so re-submitting an unchanged ballot costs next to nothing
+     * 
+     * @param student The Student handing in the ballot
+     * @param question The Question being answered
+     * @param answerIndices The indices of the chosen answers
+     * @return Whether or not the ballot differed from the Student's previous one
+     * @throws IllegalArgumentException If the Student or Question is not part of this
+     *                                  service, or an answer index is out of range or
+     *                                  was removed from the Question
+     */
+    public synchronized boolean submitBallot(Student student, QuestionInterface question, Set<Integer> answerIndices){
+        VotingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int studentIndex = getStudentIndex(student);
+        int questionIndex = getQuestionIndex(question);
+
+        // Build the ballot bitmask from the indices
+        long[] newBallot = new long[this.ballotStore.getWordCount(questionIndex)];
+        for (int answerIndex : answerIndices){
+            if (answerIndex < 0 || answerIndex >= this.positionCounts[questionIndex]){
+                throw new IllegalArgumentException("Answer index " + answerIndex + " is out of range.");
+            }
+            newBallot[answerIndex >>> 6] |= 1L << answerIndex;
+        }
+        if (!choosesLiveAnswers(questionIndex, newBallot)){
+            throw new IllegalArgumentException("The ballot chooses an answer that was removed.");
+        }
+
+        return submitBallotWords(studentIndex, questionIndex, newBallot, metrics, start);
+    }
+
+    /**
+     * Hands in a Student's new answers for one Question as a ballot bitmask (bit j
+     * set if Answer index j is chosen), replacing their old ones
+     * 
+     * Works like submitBallot(Student, QuestionInterface, Set), but takes the ballot
+     * as Student.getAnswerIndices(question, random, ballot, 0) writes it, so handing
+     * one in doesn't allocate a Set
+     * 
+     * @param student The Student handing in the ballot
+     * @param questionIndex The index of the Question being answered
+     * @param ballot The ballot bitmask, at least getMaxBallotWords() long if it is reused
+     *               across Questions
+     * @return Whether or not the ballot differed from the Student's previous one
+     * @throws IllegalArgumentException If the Student is not part of this service, the
+     *                                  Question index is out of range, or the ballot
+     *                                  chooses a position the Question doesn't have or
+     *                                  an answer that was removed
+     */
+    public synchronized boolean submitBallot(Student student, int questionIndex, long[] ballot){
+        VotingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int studentIndex = getStudentIndex(student);
+        if (questionIndex < 0 || questionIndex >= this.questions.length){
+            throw new IllegalArgumentException("Question index " + questionIndex + " is out of range.");
+        }
+
+        // Every bit past the Question's last position must be clear
+        int words = this.ballotStore.getWordCount(questionIndex);
+        int positionCount = this.positionCounts[questionIndex];
+        if (ballot.length < words
+                || (words > 0 && (positionCount & 63) != 0 && (ballot[words - 1] >>> (positionCount & 63)) != 0)){
+            throw new IllegalArgumentException("The ballot chooses an answer index out of range.");
+        }
+        if (!choosesLiveAnswers(questionIndex, ballot)){
+            throw new IllegalArgumentException("The ballot chooses an answer that was removed.");
+        }
+
+        return submitBallotWords(studentIndex, questionIndex, ballot, metrics, start);
+    }
+
+    /**
+     * Applies one ballot handed in by submitBallot
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @param newBallot The ballot bitmask
+     * @param metrics The metrics to record the submission in (or null)
+     * @param start When the submission started, if metrics are on
+     * @return Whether or not the ballot differed from the Student's previous one
+     */
+    private boolean submitBallotWords(int studentIndex, int questionIndex, long[] newBallot,
+            VotingMetrics metrics, long start){
+        VoteTally tally = createDirectTally();
+        boolean changed = false;
+
+        this.statistics.beginWrite();
+        try {
+            changed = applyBallot(studentIndex, questionIndex, newBallot, 0, tally);
+            tally.addStudentScore(studentIndex, (int) tally.numCorrect);
+            if (changed){
+                markChanged(studentIndex);
+            }
+        } finally {
+            tally.addTo(this.statistics);
+            this.statistics.endWrite();
+            addScores(tally);
         }
 
-        // The voting has been completed
         this.hasVoted = true;
+        if (metrics != null){
+            recordSubmit(metrics, start, 1, tally);
+        }
+        commitBallotLog(tally, false);
+        return changed;
     }
 
     /**
-     * Prints the statistics calculated
-     * @throws IllegalStateException If the voting has not been done yet
-     *                               (chooseAnswers() wasn't called) 
+     * Applies a batch of BallotRecords streamed in from outside, under one lock
+     * 
+     * Each record replaces the Student's ballot for that Question, applying only
+     * the difference (see submitBallot). Records naming an unknown Student or
+     * Question, an out of range answer index, or an answer that was removed from
+     * the Question are skipped.
+     * 
+     * @param records The BallotRecords to apply, in order
+     * @return The number of records applied (the rest were skipped)
      */
-    public void printStatistics(){
+    public synchronized int submitBallots(List<BallotRecord> records){
+        VotingMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        VoteTally tally = createDirectTally();
+        long[] newBallot = new long[this.ballotStore.getMaxWordCount()];
+        int applied = 0;
 
-        // If the user tries printing statistics before running the simulation
-        if (!hasVoted){
-            throw new IllegalStateException(
-                "The statistics for this service have not been calculated." +
-                " Make sure to run `chooseAnswers() before printing the statistics."
-            );
+        this.statistics.beginWrite();
+        try {
+            applied = applyRecords(records, newBallot, tally);
+        } finally {
+            tally.addTo(this.statistics);
+            this.statistics.endWrite();
+            addScores(tally);
         }
 
-        // Initialize indices for the question and answer so they aren't remade later
-        int questionIndex = 0;
-        int answerIndex = 0;
-
-        // Loop through each Question in the set
-        for (QuestionInterface question : questionSet){
-            // Print the question
-            System.out.println(question.getQuestionString());
-            
-            // Loop through each Answer in the Question's Answer set
-            answerIndex = 0;
-            for (Answer answer : question.getPossibleAnswers()){
-                // Send the answer string and how many students chose it
-                System.out.print(answer.getAnswerString() + " : ");
-                System.out.print(this.statistics[questionIndex][answerIndex]);
-                
-                // If the answer is correct, mark it accordingly
-                if (answer.isCorrect()){
-                    System.out.println("**");
-                } else {
-                    System.out.println();
+        if (applied > 0){
+            this.hasVoted = true;
+        }
+        if (metrics != null){
+            recordSubmit(metrics, start, applied, tally);
+        }
+        commitBallotLog(tally, false);
+        return applied;
+    }
+
+    /**
+     * Applies each valid BallotRecord of a batch (see submitBallots)
+     * 
+     * @param records The BallotRecords to apply, in order
+     * @param newBallot A buffer big enough for any Question's ballot
+     * @param tally The VoteTally to record the changes in
+     * @return The number of records applied
+     */
+    private int applyRecords(List<BallotRecord> records, long[] newBallot, VoteTally tally){
+        int applied = 0;
+
+        for (BallotRecord record : records){
+            Integer studentIndex = this.studentIndices.get(record.getStudentID());
+            int questionIndex = record.getQuestionIndex();
+            if (studentIndex == null || questionIndex < 0 || questionIndex >= this.questions.length){
+                continue;
+            }
+
+            // Build the ballot bitmask, skipping the record if any index is out of range
+            int words = this.ballotStore.getWordCount(questionIndex);
+            Arrays.fill(newBallot, 0, words, 0L);
+            boolean valid = true;
+            for (int i = 0; i < record.getAnswerCount(); i++){
+                int answerIndex = record.getAnswerIndex(i);
+                if (answerIndex < 0 || answerIndex >= this.positionCounts[questionIndex]){
+                    valid = false;
+                    break;
+                }
+                newBallot[answerIndex >>> 6] |= 1L << answerIndex;
+            }
+
+            if (valid && choosesLiveAnswers(questionIndex, newBallot)){
+                long correctBefore = tally.numCorrect;
+                if (applyBallot(studentIndex, questionIndex, newBallot, 0, tally)){
+                    markChanged(studentIndex);
                 }
-                
-                // Go to the next answer
-                answerIndex++;
+                tally.addStudentScore(studentIndex, (int) (tally.numCorrect - correctBefore));
+                applied++;
             }
-            
-            // Separate the questions and go to the next question
-            System.out.println();
-            questionIndex++;
         }
-        
-        // Final statistics of the total number of correct and incorrect answers chosen
-        System.out.println("Total Correct: " + this.numCorrect);
-        System.out.println("Total Incorrect: " + this.numWrong);
+
+        return applied;
+    }
+
+    /**
+     * Checks that a ballot only chooses answers still in its Question
+     * 
+     * @param questionIndex The index of the Question
+     * @param ballot The ballot bitmask
+     * @return Whether or not every chosen position still holds an answer
+     */
+    private boolean choosesLiveAnswers(int questionIndex, long[] ballot){
+        QuestionInterface question = this.questions[questionIndex];
+        int words = this.ballotStore.getWordCount(questionIndex);
+        for (int w = 0; w < words; w++){
+            if ((ballot[w] & ~question.getLiveMaskWord(w)) != 0){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets how many Students currently have an answer chosen
+     * 
+     * Never blocks, but may include part of a write in progress (use
+     * getStatisticsSnapshot() for a consistent view of several counts)
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return The number of Students who chose the Answer
+     */
+    public long getAnswerCount(int questionIndex, int answerIndex){
+        return this.statistics.getCount(questionIndex, answerIndex);
+    }
+
+    /**
+     * A simple getter for the number of correct answers currently chosen
+     * @return The number of correct answers chosen
+     */
+    public long getNumCorrect(){
+        return this.statistics.getNumCorrect();
+    }
+
+    /**
+     * A simple getter for the number of wrong answers currently chosen
+     * @return The number of wrong answers chosen
+     */
+    public long getNumWrong(){
+        return this.statistics.getNumWrong();
+    }
+
+    /**
+     * Takes an immutable copy of every count and the correct/wrong totals
+     * 
+     * Safe to call from any thread while voting is running: it never blocks the
+     * writers, and the copy holds whole ballots, batches, and rounds only (see
+     * StatisticsSnapshot.isConsistent())
+     * 
+     * @return The snapshot of the statistics
+     */
+    public StatisticsSnapshot getStatisticsSnapshot(){
+        return this.statistics.snapshot();
+    }
+
+    /**
+     * Gets the answers of a Question with the most votes
+     * 
+     * The counts are kept sorted as votes come in, so this never sorts the
+     * Question's answers and can be called as often as needed while voting runs
+     * 
+     * @param questionIndex The index of the Question
+     * @param k The most answers to return
+     * @return The answers, most votes first, with their counts and shares
+     */
+    public List<RankedAnswer> getTopAnswers(int questionIndex, int k){
+        return this.statistics.getTopAnswers(questionIndex, k);
+    }
+
+    /**
+     * Gets an answer's share of every answer chosen for its Question
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return The share, from 0 to 1 (0 if nothing has been chosen)
+     */
+    public double getAnswerShare(int questionIndex, int answerIndex){
+        return this.statistics.getShare(questionIndex, answerIndex);
+    }
+
+    /**
+     * Gets an answer's rank within its Question
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @return 1 plus the number of answers with more votes (tied answers share a rank)
+     */
+    public int getAnswerRank(int questionIndex, int answerIndex){
+        return this.statistics.getRank(questionIndex, answerIndex);
+    }
+
+    /**
+     * Takes this service's results as a PartialTally, to be combined with other
+     * services voting different Students on the same Questions (see TallyCoordinator)
+     * 
+     * @return The counts, totals, and number of ballots cast for each Question
+     */
+    public synchronized PartialTally getPartialTally(){
+        // Writers hold this lock, so the counts and the ballots match
+        StatisticsSnapshot snapshot = this.statistics.snapshot();
+        long[][] counts = new long[this.questions.length][];
+        long[] ballotCounts = new long[this.questions.length];
+
+        for (int questionIndex = 0; questionIndex < this.questions.length; questionIndex++){
+            counts[questionIndex] = snapshot.getCounts(questionIndex);
+        }
+
+        // A ballot is cast if it has a choice in it
+        for (int studentIndex = 0; studentIndex < this.students.length; studentIndex++){
+            for (int b = 0; b < this.ballotStore.getBallotCount(studentIndex); b++){
+                int questionIndex = this.ballotStore.getBallotQuestion(studentIndex, b);
+                if (this.ballotStore.count(studentIndex, questionIndex) != 0){
+                    ballotCounts[questionIndex]++;
+                }
+            }
+        }
+
+        return new PartialTally(counts, ballotCounts, snapshot.getNumCorrect(), snapshot.getNumWrong());
+    }
+
+    /**
+     * Gets the Question at an index, the same index BallotRecords and
+     * getAnswerCount use
+     * 
+     * @param questionIndex The index of the Question
+     * @return The Question at that index
+     */
+    public QuestionInterface getQuestion(int questionIndex){
+        return this.questions[questionIndex];
+    }
+
+    /**
+     * A simple getter for the number of Questions in the service
+     * @return The number of Questions
+     */
+    public int getQuestionCount(){
+        return this.questions.length;
+    }
+
+    /**
+     * Turns on persistence, checkpointing the tallies and ballots into a
+     * memory-mapped file after every round
+     * 
+     * If the file already holds a checkpoint of this election (the same Students
+     * and Questions in the same order) and nothing has been voted yet, the
+     * tallies, ballots, seed, and round are restored from it. Otherwise the
+     * current state is written as the first checkpoint.
+     * 
+     * Rounds (chooseAnswers() and revoteStudents()) checkpoint automatically;
+     * ballots handed in with submitBallot() or submitBallots() are saved by the
+     * next round or by calling checkpoint(). A checkpoint only rewrites the ballots
+     * of the Students that changed, so one after a small re-vote is cheap.
+     * 
+     * @param path The path of the tally file
+     * @return Whether or not a checkpoint was restored
+     * @throws IOException If the file can't be opened or mapped
+     * @throws IllegalStateException If the file belongs to a different election
+     */
+    public synchronized boolean enablePersistence(Path path) throws IOException {
+        disablePersistence();
+
+        MappedTallyStore store = new MappedTallyStore(
+            path, this.positionCounts, this.students.length,
+            this.ballotStore.getRowWordCount(), fingerprint()
+        );
+        this.tallyStore = store;
+
+        if (store.hasCheckpoint() && !this.hasVoted){
+            store.restore(this.statistics, this.ballotStore);
+            this.seed = store.getSeed();
+            this.round = store.getRound();
+            this.hasVoted = true;
+            if (this.leaderboard != null){
+                this.leaderboard = buildLeaderboard();
+            }
+            return true;
+        }
+
+        checkpoint();
+        return false;
+    }
+
+    /**
+     * Turns off persistence and closes the tally file (the last checkpoint stays on disk)
+     * 
+     * @throws IOException If the file can't be closed
+     */
+    public synchronized void disablePersistence() throws IOException {
+        if (this.tallyStore != null){
+            this.tallyStore.close();
+            this.tallyStore = null;
+        }
+    }
+
+    /**
+     * Writes the current tallies and ballots into the tally file
+     * 
+     * @throws IllegalStateException If persistence is not turned on
+     */
+    public synchronized void checkpoint(){
+        if (this.tallyStore == null){
+            throw new IllegalStateException("Persistence is not enabled for this service.");
+        }
+
+        // Writers hold this lock, so the snapshot and the ballots match
+        this.tallyStore.writeCheckpoint(
+            this.seed, this.round, this.statistics.snapshot(), this.ballotStore
+        );
+    }
+
+    /**
+     * Notes that a Student's ballots changed, so the next checkpoint rewrites them
+     * 
+     * @param studentIndex The index of the Student
+     */
+    private void markChanged(int studentIndex){
+        if (this.tallyStore != null){
+            this.tallyStore.markChanged(studentIndex);
+        }
+    }
+
+    /**
+     * Writes a checkpoint if persistence is turned on
+     */
+    private void checkpointIfPersistent(){
+        if (this.tallyStore != null){
+            checkpoint();
+        }
+    }
+
+    /**
+     * Calculates a fingerprint of the Students and Questions, in order, so a tally
+     * file is never restored into a different election
+     * 
+     * @return The 64-bit FNV-1a hash of every Student ID, Question, and answer position count
+     */
+    private long fingerprint(){
+        long hash = 0xcbf29ce484222325L;
+        for (Student student : this.students){
+            hash = fingerprint(hash, student.getID());
+        }
+        for (int i = 0; i < this.questions.length; i++){
+            hash = fingerprint(hash, this.questions[i].getQuestionString());
+            hash = (hash ^ this.positionCounts[i]) * 0x100000001b3L;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Folds a String into an FNV-1a hash
+     * 
+     * @param hash The hash so far
+     * @param string The String to fold in
+     * @return The new hash
+     */
+    private static long fingerprint(long hash, String string){
+        for (int i = 0; i < string.length(); i++){
+            hash = (hash ^ string.charAt(i)) * 0x100000001b3L;
+        }
+
+        // Separate consecutive Strings
+        return (hash ^ 0xff) * 0x100000001b3L;
+    }
+
+    /**
+     * Turns on metrics (or returns the ones already on)
+     * 
+     * @return The metrics being recorded
+     */
+    public synchronized VotingMetrics enableMetrics(){
+        if (this.metrics == null){
+            this.metrics = new VotingMetrics();
+        }
+
+        return this.metrics;
+    }
+
+    /**
+     * Turns metrics off, unregistering them from JMX if they were registered
+     */
+    public synchronized void disableMetrics(){
+        if (this.metrics != null){
+            this.metrics.unregister();
+            this.metrics = null;
+        }
+    }
+
+    /**
+     * A simple getter for the metrics being recorded
+     * @return The metrics, or null if metrics are off
+     */
+    public VotingMetrics getMetrics(){
+        return this.metrics;
+    }
+
+    /**
+     * Turns on a history of the tallies with a window per round, keeping the last
+     * windows rounds (replacing any history already on)
+     * 
+     * @param windows The number of windows to keep
+     * @return The history being recorded
+     * @throws IllegalArgumentException If windows is 0 or less
+     */
+    public synchronized TallyHistory enableHistory(int windows){
+        return startHistory(new TallyHistory(this.positionCounts, windows));
+    }
+
+    /**
+     * Turns on a history of the tallies with wall-clock windows, keeping the last
+     * windows of them (replacing any history already on)
+     * 
+     * @param windows The number of windows to keep
+     * @param windowLength The length of each window
+     * @param unit The unit of the window length
+     * @return The history being recorded
+     * @throws IllegalArgumentException If windows or windowLength is 0 or less
+     */
+    public synchronized TallyHistory enableHistory(int windows, long windowLength, TimeUnit unit){
+        return startHistory(new TallyHistory(this.positionCounts, windows, windowLength, unit));
+    }
+
+    /**
+     * Starts recording a history from the current counts
+     * 
+     * Every write to the statistics holds this service's lock, so no change can
+     * slip in between the snapshot and the history being attached
+     * 
+     * @param history The history to record
+     * @return The history
+     */
+    private TallyHistory startHistory(TallyHistory history){
+        history.start(this.statistics.snapshot());
+        this.history = history;
+        this.statistics.setHistory(history);
+        return history;
+    }
+
+    /**
+     * Turns the history of the tallies off
+     */
+    public synchronized void disableHistory(){
+        this.history = null;
+        this.statistics.setHistory(null);
+    }
+
+    /**
+     * A simple getter for the history of the tallies
+     * @return The history, or null if history is off
+     */
+    public synchronized TallyHistory getHistory(){
+        return this.history;
+    }
+
+    /**
+     * Gets how an answer's count stood at the end of each of the last n windows
+     * 
+     * @param questionIndex The index of the Question
+     * @param answerIndex The index of the Answer
+     * @param n The most windows to go back
+     * @return The counts, oldest window first; the last is the open window so far
+     * @throws IllegalStateException If history is not enabled
+     */
+    public long[] getTrend(int questionIndex, int answerIndex, int n){
+        TallyHistory history = getHistory();
+        if (history == null){
+            throw new IllegalStateException("History is not enabled for this service.");
+        }
+
+        return history.getCountTrend(questionIndex, answerIndex, n);
+    }
+
+    /**
+     * Sets which Questions each Student answers in chooseAnswers() and
+     * revoteStudents()
+     * 
+     * With a sampler each Student answers only the Questions it picks for them
+     * (the same ones every round, for a given seed), and only those Questions'
+     * ballots and counts are touched. Ballots a Student cast before the sampler
+     * changed are left as they are.
+     * 
+     * @param questionSampler The QuestionSamplerInterface to pick with, or null for
+     *                        every Student to answer every Question
+     */
+    public synchronized void setQuestionSampler(QuestionSamplerInterface questionSampler){
+        this.questionSampler = questionSampler;
+    }
+
+    /**
+     * A simple getter for the QuestionSampler
+     * @return The QuestionSamplerInterface in use, or null if every Question is answered
+     */
+    public synchronized QuestionSamplerInterface getQuestionSampler(){
+        return this.questionSampler;
+    }
+
+    /**
+     * Sets how the statistics counters are laid out in memory (see TallyLayout),
+     * keeping every count as it stands
+     * 
+     * The default lazily made rows of LongAdders suit big question banks that are
+     * only partly voted on. A bank that is mostly voted on is better served by one
+     * flat buffer, which is also the fastest to read back.
+     * 
+     * A parallel round (see setParallelism) adds its changes into the statistics from
+     * the pool's threads at once, each thread adding a block of Questions, so the rows
+     * at the edges of neighbouring blocks are written at the same time. The padded
+     * layout keeps those rows on cache lines of their own, and the striped one also
+     * spreads the threads over a copy of the buffer each. Ballots handed in one by one
+     * (submitBallot, BallotIngestor, VoterSimulation) are still applied under this
+     * service's lock, one writer at a time, and gain nothing from either layout.
+     * 
+     * @param layout The layout of the counters
+     */
+    public synchronized void setTallyLayout(TallyLayout layout){
+        if (layout == this.statistics.getLayout()){
+            return;
+        }
+
+        // Every write holds this service's lock, so the copy misses nothing
+        StatisticsSnapshot snapshot = this.statistics.snapshot();
+        ConcurrentTally statistics = new ConcurrentTally(this.positionCounts, layout);
+        statistics.beginWrite();
+        try {
+            for (int i = 0; i < this.positionCounts.length; i++){
+                for (int j = 0; j < this.positionCounts[i]; j++){
+                    long count = snapshot.getCount(i, j);
+                    if (count != 0){
+                        statistics.add(i, j, count);
+                    }
+                }
+            }
+            statistics.addScore(snapshot.getNumCorrect(), snapshot.getNumWrong());
+        } finally {
+            statistics.endWrite();
+        }
+
+        statistics.setHistory(this.history);
+        this.statistics = statistics;
+    }
+
+    /**
+     * A simple getter for how the statistics counters are laid out
+     * @return The TallyLayout of the counters
+     */
+    public TallyLayout getTallyLayout(){
+        return this.statistics.getLayout();
+    }
+
+    /**
+     * Turns on the ballot log, writing every ballot applied from now on to an
+     * append-only log in a directory (see BallotLog)
+     * 
+     * If the directory already holds a log of this election and nothing has been
+     * voted yet, the log is replayed first (see replayBallotLog) and carries on
+     * from there. If ballots have already been voted and the directory is empty,
+     * the ballots as they stand are logged first, so the log can always rebuild
+     * the election on its own.
+     * 
+     * Rounds force the log to disk when they finish; ballots handed in with
+     * submitBallot() or submitBallots() are forced in groups, once enough have
+     * built up, or by calling getBallotLog().sync().
+     * 
+     * @param directory The directory of the log
+     * @return Whether or not a log was replayed
+     * @throws IOException If the log can't be read or created
+     * @throws IllegalStateException If the directory holds another election's log,
+     *                               or holds a log and ballots have already been voted
+     */
+    public synchronized boolean enableBallotLog(Path directory) throws IOException {
+        disableBallotLog();
+
+        boolean replayed = false;
+        if (!BallotLog.listSegments(directory).isEmpty()){
+            if (this.hasVoted){
+                throw new IllegalStateException(
+                    "The ballot log in " + directory + " can only be reopened before any voting."
+                );
+            }
+            replayBallotLog(directory);
+            replayed = true;
+        }
+
+        this.ballotLog = new BallotLog(directory, fingerprint());
+
+        if (this.hasVoted && !replayed){
+            // Start the log off with every ballot already cast
+            VoteTally tally = createDirectTally();
+            long[] empty = new long[this.ballotStore.getMaxWordCount()];
+            for (int studentIndex = 0; studentIndex < this.students.length; studentIndex++){
+                for (int b = 0; b < this.ballotStore.getBallotCount(studentIndex); b++){
+                    int questionIndex = this.ballotStore.getBallotQuestion(studentIndex, b);
+                    tally.logBatch.writeBallot(
+                        studentIndex, questionIndex, empty, 0, this.ballotStore.getRow(studentIndex),
+                        this.ballotStore.find(studentIndex, questionIndex),
+                        this.ballotStore.getWordCount(questionIndex)
+                    );
+                }
+            }
+            commitBallotLog(tally, true);
+        }
+
+        return replayed;
+    }
+
+    /**
+     * Turns the ballot log off, forcing it to disk and closing it
+     * 
+     * @throws IOException If the log can't be forced or closed
+     */
+    public synchronized void disableBallotLog() throws IOException {
+        if (this.ballotLog != null){
+            BallotLog log = this.ballotLog;
+            this.ballotLog = null;
+            log.close();
+        }
+    }
+
+    /**
+     * A simple getter for the ballot log
+     * @return The ballot log, or null if it is off
+     */
+    public synchronized BallotLog getBallotLog(){
+        return this.ballotLog;
+    }
+
+    /**
+     * Rebuilds the statistics and ballots by replaying a ballot log, without
+     * polling any Students
+     * 
+     * Each logged ballot is put straight into the ballot store and its changes are
+     * gathered in one VoteTally, which is added into the statistics once at the end.
+     * The round and seed are restored from the last round the log finished, so
+     * voting carries on just as it would have.
+     * 
+     * @param directory The directory of the log
+     * @return The number of ballots replayed
+     * @throws IOException If the log can't be read
+     * @throws IllegalStateException If ballots have already been voted, or the log
+     *                               belongs to another election or doesn't follow on
+     *                               from the ballots it replays onto
+     */
+    public synchronized long replayBallotLog(Path directory) throws IOException {
+        if (this.hasVoted){
+            throw new IllegalStateException("A ballot log can only be replayed before any voting.");
+        }
+
+        VoteTally tally = createTally();
+        // Don't log the ballots being replayed again
+        tally.logBatch = null;
+        long replayed = 0;
+
+        try (BallotLogReader reader = new BallotLogReader(directory, fingerprint())){
+            while (reader.next()){
+                if (!reader.isBallot()){
+                    this.round = reader.getRound();
+                    this.seed = reader.getSeed();
+                    continue;
+                }
+
+                int studentIndex = reader.getStudentIndex();
+                int questionIndex = reader.getQuestionIndex();
+                if (studentIndex >= this.students.length || questionIndex >= this.questions.length
+                        || reader.getWordCount() != this.ballotStore.getWordCount(questionIndex)
+                        || !matchesBallot(studentIndex, questionIndex, reader.getOldWords())){
+                    throw new IllegalStateException("The ballot log in " + directory + " does not follow on from its ballots.");
+                }
+
+                long correctBefore = tally.numCorrect;
+                applyBallot(studentIndex, questionIndex, reader.getNewWords(), 0, tally);
+                tally.addStudentScore(studentIndex, (int) (tally.numCorrect - correctBefore));
+                replayed++;
+            }
+        } finally {
+            // Keep the statistics in step with the ballots replayed so far
+            this.statistics.beginWrite();
+            try {
+                tally.addTo(this.statistics);
+            } finally {
+                this.statistics.endWrite();
+            }
+            addScores(tally);
+        }
+
+        if (replayed > 0){
+            this.hasVoted = true;
+            if (this.tallyStore != null){
+                this.tallyStore.markAllChanged();
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Checks whether a Student's ballot for a Question is the one given
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @param words The ballot words to compare with
+     * @return Whether or not the ballot holds exactly those words
+     */
+    private boolean matchesBallot(int studentIndex, int questionIndex, long[] words){
+        for (int w = 0; w < this.ballotStore.getWordCount(questionIndex); w++){
+            if (this.ballotStore.getWord(studentIndex, questionIndex, w) != words[w]){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Hands a VoteTally's logged ballots to the ballot log
+     * 
+     * @param tally The applied VoteTally
+     * @param endOfRound Whether a round just finished, in which case the end of the
+     *                   round is logged and the log is forced to disk
+     * @throws UncheckedIOException If the log can't be written
+     */
+    private void commitBallotLog(VoteTally tally, boolean endOfRound){
+        if (tally.logBatch == null){
+            return;
+        }
+
+        if (endOfRound){
+            tally.logBatch.writeRound(this.round, this.seed);
+        }
+        tally.logBatch.flush();
+
+        if (endOfRound){
+            try {
+                tally.logBatch.getLog().sync();
+            } catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Turns on the leaderboard, scoring every Student by the number of correct
+     * answers they have chosen (or returns straight away if it is already on)
+     * 
+     * Scores are worked out from the ballots once here, then kept up to date as
+     * ballots are applied, so later queries never rescan the Students
+     */
+    public synchronized void enableLeaderboard(){
+        if (this.leaderboard == null){
+            this.leaderboard = buildLeaderboard();
+        }
+    }
+
+    /**
+     * Turns the leaderboard off
+     */
+    public synchronized void disableLeaderboard(){
+        this.leaderboard = null;
+    }
+
+    /**
+     * Gets the Students with the most correct answers, in O(log maxScore) per
+     * distinct score plus the Students returned
+     * 
+     * @param n The most Students to get
+     * @return The Students, best first (Students with the same score share a rank)
+     * @throws IllegalStateException If the leaderboard is not enabled
+     */
+    public List<RankedStudent> getTopStudents(int n){
+        return getLeaderboard().getTop(n);
+    }
+
+    /**
+     * Gets a Student's rank, in O(log maxScore)
+     * 
+     * @param student The Student
+     * @return 1 plus the number of Students with more correct answers
+     * @throws IllegalArgumentException If the Student is not part of this service
+     * @throws IllegalStateException If the leaderboard is not enabled
+     */
+    public int getStudentRank(Student student){
+        return getLeaderboard().getRank(getStudentIndex(student));
+    }
+
+    /**
+     * Gets a Student's score
+     * 
+     * @param student The Student
+     * @return The number of correct answers the Student has chosen
+     * @throws IllegalArgumentException If the Student is not part of this service
+     * @throws IllegalStateException If the leaderboard is not enabled
+     */
+    public int getStudentScore(Student student){
+        return getLeaderboard().getScore(getStudentIndex(student));
+    }
+
+    /**
+     * A simple getter for the leaderboard that makes sure it is on
+     * 
+     * @return The leaderboard
+     * @throws IllegalStateException If the leaderboard is not enabled
+     */
+    synchronized Leaderboard getLeaderboard(){
+        if (this.leaderboard == null){
+            throw new IllegalStateException("The leaderboard is not enabled for this service.");
+        }
+
+        return this.leaderboard;
+    }
+
+    /**
+     * Builds a Leaderboard from the ballots as they stand
+     * 
+     * @return The Leaderboard
+     */
+    private Leaderboard buildLeaderboard(){
+        Leaderboard leaderboard = new Leaderboard(this.students, maxLeaderboardScore());
+        for (int studentIndex = 0; studentIndex < this.students.length; studentIndex++){
+            long[] ballots = this.ballotStore.getRow(studentIndex);
+            int score = 0;
+            for (int b = 0; b < this.ballotStore.getBallotCount(studentIndex); b++){
+                int questionIndex = this.ballotStore.getBallotQuestion(studentIndex, b);
+                int offset = this.ballotStore.find(studentIndex, questionIndex);
+                for (int w = 0; w < this.ballotStore.getWordCount(questionIndex); w++){
+                    score += Long.bitCount(ballots[offset + w] & this.questions[questionIndex].getCorrectMaskWord(w));
+                }
+            }
+            leaderboard.add(studentIndex, score);
+        }
+
+        return leaderboard;
+    }
+
+    /**
+     * Works out the highest score a Student can reach from here on: the correct
+     * answers of the Questions with the most of them, as many Questions as a
+     * Student answers
+     * 
+     * This only sizes the Leaderboard's buckets; they grow if a Student goes past it
+     * 
+     * @return The highest score
+     */
+    private int maxLeaderboardScore(){
+        int[] correctCounts = new int[this.questions.length];
+        for (int i = 0; i < this.questions.length; i++){
+            correctCounts[i] = this.questions[i].getCorrectCount();
+        }
+
+        int questionCount = Math.min(ballotsPerStudent(), correctCounts.length);
+        if (questionCount < correctCounts.length){
+            Arrays.sort(correctCounts);
+        }
+
+        long maxScore = 0;
+        for (int i = correctCounts.length - questionCount; i < correctCounts.length; i++){
+            maxScore += correctCounts[i];
+        }
+
+        return (int) Math.min(maxScore, Integer.MAX_VALUE - 2);
+    }
+
+    /**
+     * Moves the Students whose scores a VoteTally changed on the leaderboard
+     * 
+     * @param tally The applied VoteTally
+     */
+    private void addScores(VoteTally tally){
+        if (this.leaderboard != null && tally.scoreChanges != null){
+            this.leaderboard.addAll(tally.scoreChanges, tally.scoreChangeCount);
+        }
+    }
+
+    /**
+     * Records a finished round in the metrics
+     * 
+     * @param metrics The metrics to record in
+     * @param start When the round started, from System.nanoTime()
+     * @param ballots The number of ballots the round applied
+     * @param tally The round's VoteTally
+     */
+    private static void recordRound(VotingMetrics metrics, long start, long ballots, VoteTally tally){
+        metrics.recordLatency(VotingMetrics.Phase.ROUND, System.nanoTime() - start);
+        metrics.addBallots(ballots, tally.changedBallots, tally.reversals);
+        metrics.addRound();
+    }
+
+    /**
+     * Records a finished submission in the metrics
+     * 
+     * @param metrics The metrics to record in
+     * @param start When the submission started, from System.nanoTime()
+     * @param ballots The number of ballots the submission applied
+     * @param tally The submission's VoteTally
+     */
+    private static void recordSubmit(VotingMetrics metrics, long start, long ballots, VoteTally tally){
+        metrics.recordLatency(VotingMetrics.Phase.SUBMIT, System.nanoTime() - start);
+        metrics.addBallots(ballots, tally.changedBallots, tally.reversals);
+    }
+
+    /**
+     * Moves on to the next round once a round's changes have been applied
+     */
+    private void finishRound(){
+        // The voting has been completed
+        this.round++;
+        this.hasVoted = true;
+
+        if (this.history != null && this.history.isPerRound()){
+            this.history.advance();
+        }
+    }
+
+    /**
+     * Looks up a Student's index in the students array
+     * 
+     * @param student The Student to look up
+     * @return The Student's index
+     * @throws IllegalArgumentException If the Student is not part of this service
+     */
+    private int getStudentIndex(Student student){
+        int studentIndex = this.studentOrdinals.indexOf(student.getOrdinal());
+        if (studentIndex < 0 || !this.students[studentIndex].equals(student)){
+            throw new IllegalArgumentException(student + " is not voting in this service.");
+        }
+
+        return studentIndex;
+    }
+
+    /**
+     * Looks up a Question's index in the questions array
+     * 
+     * @param question The Question to look up
+     * @return The Question's index
+     * @throws IllegalArgumentException If the Question is not part of this service
+     */
+    private int getQuestionIndex(QuestionInterface question){
+        int questionIndex = this.questionOrdinals.indexOf(question.getOrdinal());
+        if (questionIndex < 0 || this.questions[questionIndex] != question){
+            throw new IllegalArgumentException("The question is not part of this service.");
+        }
+
+        return questionIndex;
+    }
+
+    /**
+     * Gets the ordinals of some Students, in the order given
+     * 
+     * @param students The Students
+     * @return The ordinal of each Student
+     */
+    private static int[] ordinalsOf(Student[] students){
+        int[] ordinals = new int[students.length];
+        for (int i = 0; i < students.length; i++){
+            ordinals[i] = students[i].getOrdinal();
+        }
+
+        return ordinals;
+    }
+
+    /**
+     * Gets the ordinals of some Questions, in the order given
+     * 
+     * @param questions The Questions
+     * @return The ordinal of each Question
+     */
+    private static int[] ordinalsOf(QuestionInterface[] questions){
+        int[] ordinals = new int[questions.length];
+        for (int i = 0; i < questions.length; i++){
+            ordinals[i] = questions[i].getOrdinal();
+        }
+
+        return ordinals;
+    }
+
+    /**
+     * Creates an empty VoteTally the same shape as the statistics matrix
+     * @return The created VoteTally
+     */
+    VoteTally createTally(){
+        VoteTally tally = new VoteTally(this.positionCounts);
+        if (this.leaderboard != null){
+            tally.trackScores();
+        }
+        if (this.ballotLog != null){
+            tally.logBatch = new BallotLogBatch(this.ballotLog);
+        }
+
+        return tally;
+    }
+
+    /**
+     * Creates a VoteTally that passes answer changes straight to the statistics
+     * 
+     * @return The created VoteTally
+     */
+    private VoteTally createDirectTally(){
+        VoteTally tally = VoteTally.direct(this.statistics);
+        if (this.leaderboard != null){
+            tally.trackScores();
+        }
+        if (this.ballotLog != null){
+            tally.logBatch = new BallotLogBatch(this.ballotLog);
+        }
+
+        return tally;
+    }
+
+    /**
+     * Chooses Answers for every Question for a range of Students, recording the
+     * changes in the given VoteTally
+     * 
+     * Each Student's new ballot replaces the one from their previous round (see
+     * applyBallot). Each Student only touches their own ballots and the given
+     * tally, so separate ranges can be voted on separate threads.
+     * 
+     * @param from The first Student index to vote (inclusive)
+     * @param to The last Student index to vote (exclusive)
+     * @param tally The VoteTally to record the changes in
+     */
+    void voteRange(int from, int to, VoteTally tally){
+        VotingMetrics metrics = this.metrics;
+        long allocatedBefore = metrics != null ? metrics.currentThreadAllocatedBytes() : 0;
+        // The Student currently being looped through
+        Student student = null;
+        SplittableRandom random = null;
+        // A reusable buffer for each new ballot, so no ballot allocates
+        long[] newBallot = new long[this.ballotStore.getMaxWordCount()];
+        // A reusable buffer for the Questions each Student answers (null for all of them)
+        QuestionSamplerInterface sampler = this.questionSampler;
+        int[] sampled = sampler != null ? new int[sampler.getMaxSampleSize(this.questions.length)] : null;
+
+        // Loop through each student
+        for (int studentIndex = from; studentIndex < to; studentIndex++){
+            student = this.students[studentIndex];
+            random = new SplittableRandom(studentSeed(studentIndex));
+            int questionCount = sampleQuestions(studentIndex, sampler, sampled);
+            long correctBefore = tally.numCorrect;
+
+            // Time a sample of the Students when metrics are on
+            if (metrics != null && (studentIndex & (VotingMetrics.SAMPLE_INTERVAL - 1)) == 0){
+                voteStudentTimed(studentIndex, random, sampled, questionCount, newBallot, tally, metrics);
+            } else {
+                // Loop through each question and see what answers the Student responds with
+                for (int k = 0; k < questionCount; k++){
+                    int questionIndex = sampled != null ? sampled[k] : k;
+                    student.getAnswerIndices(this.questions[questionIndex], random, newBallot, 0);
+                    applyBallot(studentIndex, questionIndex, newBallot, 0, tally);
+                }
+            }
+            tally.addStudentScore(studentIndex, (int) (tally.numCorrect - correctBefore));
+        }
+
+        if (metrics != null){
+            metrics.addAllocatedBytes(metrics.currentThreadAllocatedBytes() - allocatedBefore);
+        }
+    }
+
+    /**
+     * Picks the Questions a Student answers this round
+     * 
+     * The pick depends only on the seed and the Student, not the round, so a
+     * Student keeps answering the same Questions from round to round
+     * 
+     * @param studentIndex The index of the Student
+     * @param sampler The QuestionSampler to pick with, or null for every Question
+     * @param sampled The array the picked Question indices are written to
+     * @return The number of Questions the Student answers
+     */
+    private int sampleQuestions(int studentIndex, QuestionSamplerInterface sampler, int[] sampled){
+        if (sampler == null){
+            return this.questions.length;
+        }
+
+        long z = (this.seed ^ 0xd1b54a32d192ed03L) + 0x9e3779b97f4a7c15L * (studentIndex + 1L);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return sampler.sample(studentIndex, this.questions.length, new SplittableRandom(z ^ (z >>> 31)), sampled);
+    }
+
+    /**
+     * Gets the Questions a Student answers each round: every Question, or the ones
+     * the question sampler picks for them (see setQuestionSampler)
+     * 
+     * @param student The Student
+     * @param questionIndices The array the Question indices are written to, at least
+     *                        getMaxQuestionsPerStudent() long
+     * @return The number of Questions the Student answers
+     * @throws IllegalArgumentException If the Student is not part of this service
+     */
+    public synchronized int getQuestionsFor(Student student, int[] questionIndices){
+        int studentIndex = getStudentIndex(student);
+        QuestionSamplerInterface sampler = this.questionSampler;
+        if (sampler != null){
+            return sampleQuestions(studentIndex, sampler, questionIndices);
+        }
+
+        for (int i = 0; i < this.questions.length; i++){
+            questionIndices[i] = i;
+        }
+        return this.questions.length;
+    }
+
+    /**
+     * Gets the most Questions a Student answers each round
+     * 
+     * @return The size getQuestionsFor needs its array to be
+     */
+    public synchronized int getMaxQuestionsPerStudent(){
+        return ballotsPerStudent();
+    }
+
+    /**
+     * Gets the most ballot words any Question's ballot takes
+     * 
+     * @return The size a ballot buffer reused across Questions needs to be
+     */
+    public int getMaxBallotWords(){
+        return this.ballotStore.getMaxWordCount();
+    }
+
+    /**
+     * Gets how many ballots each Student casts in a full round
+     * 
+     * @return The number of Questions each Student answers (at most)
+     */
+    private int ballotsPerStudent(){
+        QuestionSamplerInterface sampler = this.questionSampler;
+        return sampler != null ? sampler.getMaxSampleSize(this.questions.length) : this.questions.length;
+    }
+
+    /**
+     * Votes one Student like voteRange does, timing each choice of answers and
+     * each ballot applied
+     * 
+     * @param studentIndex The index of the Student
+     * @param random The Student's random generator for this round
+     * @param sampled The indices of the Questions the Student answers (null for all of them)
+     * @param questionCount The number of Questions the Student answers
+     * @param newBallot A buffer big enough for any Question's ballot
+     * @param tally The VoteTally to record the changes in
+     * @param metrics The metrics to record the timings in
+     */
+    private void voteStudentTimed(int studentIndex, SplittableRandom random, int[] sampled, int questionCount,
+            long[] newBallot, VoteTally tally, VotingMetrics metrics){
+        Student student = this.students[studentIndex];
+
+        for (int k = 0; k < questionCount; k++){
+            int questionIndex = sampled != null ? sampled[k] : k;
+            long start = System.nanoTime();
+            student.getAnswerIndices(this.questions[questionIndex], random, newBallot, 0);
+            long chosen = System.nanoTime();
+            applyBallot(studentIndex, questionIndex, newBallot, 0, tally);
+            long applied = System.nanoTime();
+
+            metrics.recordLatency(VotingMetrics.Phase.ANSWER_INDICES, chosen - start);
+            metrics.recordLatency(VotingMetrics.Phase.APPLY_BALLOT, applied - chosen);
+        }
+    }
+
+    /**
+     * Replaces a Student's stored ballot for a Question with a new one, recording
+     * only the difference in the given VoteTally
+     * 
+     * Answers in the old ballot but not the new one are taken back, answers in the
+     * new ballot but not the old one are counted, and answers in both are left
+     * alone.
+     * 
+     * @param studentIndex The index of the Student
+     * @param questionIndex The index of the Question
+     * @param newBallot The array holding the new ballot bitmask
+     * @param newOffset The index of the new ballot's first word in the array
+     * @param tally The VoteTally to record the changes in
+     * @return Whether or not the new ballot differed from the old one
+     */
+    private boolean applyBallot(int studentIndex, int questionIndex, long[] newBallot, int newOffset, VoteTally tally){
+        QuestionInterface question = this.questions[questionIndex];
+        int words = this.ballotStore.getWordCount(questionIndex);
+        int offset = this.ballotStore.find(studentIndex, questionIndex);
+        boolean changed = false;
+
+        // A Student only gets a slot for a Question once they choose something in it
+        if (offset < 0){
+            boolean empty = true;
+            for (int w = 0; w < words && empty; w++){
+                empty = newBallot[newOffset + w] == 0L;
+            }
+            if (empty){
+                return false;
+            }
+            offset = this.ballotStore.slot(studentIndex, questionIndex);
+        }
+        long[] ballots = this.ballotStore.getRow(studentIndex);
+
+        if (tally.logBatch != null){
+            tally.logBatch.writeBallot(
+                studentIndex, questionIndex, ballots, offset, newBallot, newOffset, words
+            );
+        }
+
+        for (int w = 0; w < words; w++){
+            long oldWord = ballots[offset + w];
+            long newWord = newBallot[newOffset + w];
+            if (oldWord == newWord){
+                continue;
+            }
+
+            // Score the change with the Question's correctness mask
+            long removed = oldWord & ~newWord;
+            long added = newWord & ~oldWord;
+            long correctMask = question.getCorrectMaskWord(w);
+            int removedCount = Long.bitCount(removed);
+            int removedCorrect = Long.bitCount(removed & correctMask);
+            int addedCorrect = Long.bitCount(added & correctMask);
+            tally.numCorrect += addedCorrect - removedCorrect;
+            tally.numWrong += (Long.bitCount(added) - addedCorrect) - (removedCount - removedCorrect);
+            tally.reversals += removedCount;
+
+            // Take back the answers that are no longer chosen
+            while (removed != 0){
+                tally.add(questionIndex, (w << 6) + Long.numberOfTrailingZeros(removed), -1);
+                removed &= removed - 1;
+            }
+
+            // Count the answers that are newly chosen
+            while (added != 0){
+                tally.add(questionIndex, (w << 6) + Long.numberOfTrailingZeros(added), 1);
+                added &= added - 1;
+            }
+
+            ballots[offset + w] = newWord;
+            changed = true;
+        }
+
+        if (changed){
+            tally.changedBallots++;
+        }
+        return changed;
+    }
+
+    /**
+     * Derives the seed of a Student's random choices for the current round
+     * 
+     * Mixes the service's seed, the round, and the Student's index with the
+     * SplitMix64 finalizer so neighbouring Students get unrelated sequences
+     * 
+     * @param studentIndex The index of the Student
+     * @return The seed for the Student's random choices
+     */
+    private long studentSeed(int studentIndex){
+        long z = this.seed + 0x9e3779b97f4a7c15L * ((((long) this.round) << 32) + studentIndex + 1);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gets the pool parallel voting runs on, creating it if needed
+     * @return The ForkJoinPool with the service's parallelism
+     */
+    private ForkJoinPool getPool(){
+        if (this.pool == null){
+            this.pool = new ForkJoinPool(this.parallelism);
+        }
+
+        return this.pool;
+    }
+
+    /**
+     * Prints the statistics calculated
+     * 
+     * Renders the plain text report into one buffered Writer over System.out and
+     * flushes it once, rather than printing each piece separately
+     * 
+     * @throws IllegalStateException If the voting has not been done yet
+     *                               (chooseAnswers() wasn't called) 
+     */
+    public void printStatistics(){
+
+        // If the user tries printing statistics before running the simulation
+        if (!hasVoted){
+            throw new IllegalStateException(
+                "The statistics for this service have not been calculated." +
+                " Make sure to run `chooseAnswers() before printing the statistics."
+            );
+        }
+
+        try {
+            writeStatistics(new OutputStreamWriter(System.out), new TextStatisticsWriter());
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Renders the statistics in the given format, streaming them Question by Question
+     * from the live counters
+     * 
+     * Only one Question's counts are held at a time, so the memory needed stays the
+     * same however many Questions there are. If voting is still running, different
+     * Questions may reflect different moments; pass a StatisticsSnapshot to
+     * writeStatistics(Writer, StatisticsWriterInterface, StatisticsSnapshot) for a
+     * report that is consistent throughout.
+     * 
+     * @param out The Writer to render into (it is buffered here and flushed once at the end)
+     * @param format The format to render the statistics in
+     * @throws IOException If the Writer fails
+     */
+    public void writeStatistics(Writer out, StatisticsWriterInterface format) throws IOException {
+        writeStatistics(out, format, null);
+    }
+
+    /**
+     * Renders the statistics in the given format, Question by Question
+     * 
+     * @param out The Writer to render into (it is buffered here and flushed once at the end)
+     * @param format The format to render the statistics in
+     * @param snapshot The snapshot to read the counts from, or null to read the live counters
+     * @throws IOException If the Writer fails
+     */
+    public void writeStatistics(Writer out, StatisticsWriterInterface format, StatisticsSnapshot snapshot) throws IOException {
+        Writer buffered = out instanceof BufferedWriter ? out : new BufferedWriter(out, REPORT_BUFFER_SIZE);
+
+        // One reusable row of counts, wide enough for any Question
+        int maxPositions = 0;
+        for (int positionCount : this.positionCounts){
+            maxPositions = Math.max(maxPositions, positionCount);
+        }
+        long[] counts = new long[maxPositions];
+
+        format.beginReport(buffered);
+
+        // Loop through each Question in the statistics order
+        for (int questionIndex = 0; questionIndex < this.questions.length; questionIndex++){
+            for (int answerIndex = 0; answerIndex < this.positionCounts[questionIndex]; answerIndex++){
+                counts[answerIndex] = snapshot != null
+                    ? snapshot.getCount(questionIndex, answerIndex)
+                    : this.statistics.getCount(questionIndex, answerIndex);
+            }
+
+            format.writeQuestion(
+                buffered, questionIndex, this.questions[questionIndex], counts, this.positionCounts[questionIndex]
+            );
+        }
+
+        // Final statistics of the total number of correct and incorrect answers chosen
+        if (snapshot != null){
+            format.endReport(buffered, snapshot.getNumCorrect(), snapshot.getNumWrong());
+        } else {
+            format.endReport(buffered, this.statistics.getNumCorrect(), this.statistics.getNumWrong());
+        }
+
+        buffered.flush();
     }
 }
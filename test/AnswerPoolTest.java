@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for sharing Answers between Questions through the AnswerPool
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class AnswerPoolTest {
+
+    /**
+     * Questions with the same answer hold the same Answer, and changing one
+     * Question's correctness doesn't touch the other
+     */
+    @Test
+    void sharesAnswers(){
+        MultipleChoiceQuestion first = new MultipleChoiceQuestion("First");
+        MultipleChoiceQuestion second = new MultipleChoiceQuestion("Second");
+        first.addPossibleAnswer("Shared");
+        second.addPossibleAnswer(new String("Shared"));
+
+        assertSame(first.getAnswerAtPosition(0), second.getAnswerAtPosition(0));
+
+        first.setCorrect("Shared", true);
+        assertTrue(first.getAnswerAtPosition(0).isCorrect());
+        assertEquals(false, second.getAnswerAtPosition(0).isCorrect());
+        assertSame(first.getAnswerAtPosition(0).getAnswerString(), second.getAnswerAtPosition(0).getAnswerString());
+        assertEquals(1, first.getPossibleAnswers().size());
+        assertTrue(first.getPossibleAnswers().contains(new Answer("Shared", false)));
+    }
+
+    /**
+     * Answers no Question holds any more are dropped from the pool
+     * 
+     * @throws InterruptedException If the test is interrupted while waiting for the collector
+     */
+    @Test
+    void dropsUnusedAnswers() throws InterruptedException {
+        int before = AnswerPool.getSize();
+        MultipleChoiceQuestion question = new MultipleChoiceQuestion("Typed in");
+        for (int i = 0; i < 1000; i++){
+            question.addPossibleAnswer("Free text " + i);
+        }
+        assertTrue(AnswerPool.getSize() >= before + 1000);
+
+        question = null;
+        for (int attempt = 0; attempt < 50 && AnswerPool.getSize() >= before + 1000; attempt++){
+            System.gc();
+            Thread.sleep(20);
+            // Dropping happens on the next lookup of a new answer
+            AnswerPool.get("Trigger " + attempt, false);
+        }
+
+        assertTrue(AnswerPool.getSize() < before + 1000);
+    }
+}
@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for streaming ballots in through a BallotIngestor
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class BallotIngestorTest {
+
+    /**
+     * Records handed in are all applied by the time the ingestor is closed
+     * 
+     * @throws InterruptedException If interrupted while handing records in
+     */
+    @Test
+    void appliesEveryRecord() throws InterruptedException {
+        Student[] students = Elections.students(50);
+        VotingService service = Elections.service(students, Elections.questions(2, 4), 1);
+        BallotIngestor ingestor = new BallotIngestor(service, 4, 8);
+
+        for (Student student : students){
+            ingestor.submit(new BallotRecord(student.getID(), 1, new int[] {0, 2}));
+        }
+        ingestor.submit(new BallotRecord("nobody", 0, new int[] {0}));
+        ingestor.close();
+
+        assertEquals(50, ingestor.getAppliedCount());
+        assertEquals(1, ingestor.getRejectedCount());
+        assertEquals(50, service.getAnswerCount(1, 2));
+    }
+
+    /**
+     * Once the applier has failed, a submitter waiting for room gives up rather than
+     * blocking forever, and so does close()
+     */
+    @Test
+    void failedApplierReleasesSubmitters(){
+        Student[] students = Elections.students(1);
+        CountDownLatch release = new CountDownLatch(1);
+        VotingService service = new VotingService(students, Elections.questions(1, 2)){
+            @Override
+            public synchronized int submitBallots(List<BallotRecord> records){
+                try {
+                    release.await();
+                } catch (InterruptedException e){
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("The service went away.");
+            }
+        };
+        BallotIngestor ingestor = new BallotIngestor(service, 1, 1);
+        BallotRecord record = new BallotRecord(students[0].getID(), 0, new int[] {1});
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            // The applier holds the first record; the second fills the queue
+            ingestor.submit(record);
+            while (ingestor.getPendingCount() > 0){
+                Thread.sleep(1);
+            }
+            ingestor.submit(record);
+
+            // These block for room, and are still blocked when the applier fails
+            List<Thread> submitters = new ArrayList<Thread>();
+            for (int t = 0; t < 3; t++){
+                Thread submitter = new Thread(() -> {
+                    try {
+                        ingestor.submit(record);
+                    } catch (InterruptedException | IllegalStateException e){
+                        // Giving up is the point
+                    }
+                });
+                submitter.start();
+                submitters.add(submitter);
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Thread submitter : submitters){
+                submitter.join();
+            }
+            assertThrows(IllegalStateException.class, () -> ingestor.submit(record));
+            assertThrows(IllegalStateException.class, ingestor::close);
+        });
+    }
+}
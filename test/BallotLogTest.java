@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for writing a BallotLog and rebuilding an election from it
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class BallotLogTest {
+
+    /**
+     * A directory for the log, removed after each test
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Replaying the log gives back the statistics it was written from
+     * 
+     * @throws IOException If the log fails
+     */
+    @Test
+    void replaysLog() throws IOException {
+        Student[] students = Elections.students(400);
+        QuestionInterface[] questions = Elections.questions(4, 9);
+
+        VotingService original = Elections.service(students, questions, 1);
+        original.enableBallotLog(this.directory);
+        original.chooseAnswers();
+        original.chooseAnswers();
+        original.revoteStudents(Arrays.asList(students).subList(10, 60));
+        original.disableBallotLog();
+
+        VotingService replayed = Elections.service(students, questions, 1);
+        assertTrue(replayed.replayBallotLog(this.directory) > 0);
+        VotingServiceTest.assertSameStatistics(original.getStatisticsSnapshot(), replayed.getStatisticsSnapshot());
+    }
+
+    /**
+     * A batch cut short by a crash is skipped, and the ballots before it replay
+     * 
+     * @throws IOException If the log fails
+     */
+    @Test
+    void skipsTruncatedTail() throws IOException {
+        Student[] students = Elections.students(300);
+        QuestionInterface[] questions = Elections.questions(3, 6);
+
+        VotingService original = Elections.service(students, questions, 1);
+        original.enableBallotLog(this.directory);
+        original.chooseAnswers();
+        StatisticsSnapshot afterFirstRound = original.getStatisticsSnapshot();
+        original.revoteStudents(Arrays.asList(students).subList(0, 20));
+        original.disableBallotLog();
+
+        // Cut the last batch short
+        List<Path> segments = BallotLog.listSegments(this.directory);
+        Path last = segments.get(segments.size() - 1);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)){
+            channel.truncate(channel.size() - 3);
+        }
+
+        VotingService replayed = Elections.service(students, questions, 1);
+        replayed.replayBallotLog(this.directory);
+        VotingServiceTest.assertSameStatistics(afterFirstRound, replayed.getStatisticsSnapshot());
+    }
+}
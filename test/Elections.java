@@ -0,0 +1,85 @@
+/**
+ * The Elections class builds the Students and Questions the tests vote with
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+final class Elections {
+
+    /**
+     * The helpers are only used statically
+     */
+    private Elections(){
+    }
+
+    /**
+     * Creates Students with fresh IDs
+     * 
+     * @param count The number of Students
+     * @return The Students
+     */
+    static Student[] students(int count){
+        Student[] students = new Student[count];
+        for (int i = 0; i < count; i++){
+            students[i] = new Student();
+        }
+
+        return students;
+    }
+
+    /**
+     * Creates a mix of single and multiple choice Questions, each with one or
+     * more correct answers
+     * 
+     * @param count The number of Questions
+     * @param options The number of possible answers of each Question
+     * @return The Questions
+     */
+    static QuestionInterface[] questions(int count, int options){
+        QuestionInterface[] questions = new QuestionInterface[count];
+        for (int i = 0; i < count; i++){
+            boolean multipleChoice = i % 2 == 1;
+            QuestionInterface question = multipleChoice
+                ? new MultipleChoiceQuestion("Question " + i)
+                : new Question("Question " + i);
+            for (int j = 0; j < options; j++){
+                question.addPossibleAnswer("Answer " + j, multipleChoice ? j % 3 == 0 : j == 0);
+            }
+            questions[i] = question;
+        }
+
+        return questions;
+    }
+
+    /**
+     * Creates a VotingService with a fixed seed
+     * 
+     * @param students The Students voting
+     * @param questions The Questions
+     * @param parallelism How many threads voting may be split across
+     * @return The VotingService
+     */
+    static VotingService service(Student[] students, QuestionInterface[] questions, int parallelism){
+        VotingService service = new VotingService(students, questions);
+        service.setSeed(42);
+        service.setParallelism(parallelism);
+        return service;
+    }
+
+    /**
+     * Adds up every count of a snapshot
+     * 
+     * @param snapshot The snapshot
+     * @return The sum of the counts
+     */
+    static long totalCount(StatisticsSnapshot snapshot){
+        long total = 0;
+        for (int i = 0; i < snapshot.getQuestionCount(); i++){
+            for (long count : snapshot.getCounts(i)){
+                total += count;
+            }
+        }
+
+        return total;
+    }
+}
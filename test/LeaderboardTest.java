@@ -0,0 +1,128 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the Leaderboard against a brute force ranking
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class LeaderboardTest {
+
+    /**
+     * Random score changes (including ones past the expected highest score) give the
+     * same scores, ranks and top lists as counting every Student each time
+     */
+    @Test
+    void matchesBruteForce(){
+        SplittableRandom random = new SplittableRandom(7);
+        Student[] students = Elections.students(200);
+        Leaderboard leaderboard = new Leaderboard(students, 10);
+        int[] scores = new int[students.length];
+
+        for (int step = 0; step < 5000; step++){
+            if (random.nextInt(4) == 0){
+                // A batch of changes, the way a round hands them in
+                int count = 1 + random.nextInt(20);
+                int[] changes = new int[2 * count];
+                for (int i = 0; i < count; i++){
+                    int studentIndex = random.nextInt(students.length);
+                    int delta = random.nextInt(-3, 4);
+                    if (scores[studentIndex] + delta < 0){
+                        delta = -scores[studentIndex];
+                    }
+                    changes[2 * i] = studentIndex;
+                    changes[2 * i + 1] = delta;
+                    scores[studentIndex] += delta;
+                }
+                leaderboard.addAll(changes, count);
+            } else {
+                int studentIndex = random.nextInt(students.length);
+                int delta = Math.max(-scores[studentIndex], random.nextInt(-5, 8));
+                leaderboard.add(studentIndex, delta);
+                scores[studentIndex] += delta;
+            }
+
+            if (step % 50 == 0){
+                assertMatches(students, scores, leaderboard);
+            }
+        }
+        assertMatches(students, scores, leaderboard);
+        assertTrue(leaderboard.getMaxScore() > 10);
+    }
+
+    /**
+     * The buckets are sized from the correct answers of the Questions a Student
+     * answers, not from every answer position
+     */
+    @Test
+    void bucketsFollowTheSampler(){
+        Student[] students = Elections.students(100);
+        QuestionInterface[] questions = Elections.questions(400, 50);
+        VotingService service = Elections.service(students, questions, 1);
+        service.setQuestionSampler(new RandomQuestionSampler(5));
+        service.chooseAnswers();
+        service.enableLeaderboard();
+
+        // Multiple choice Questions have 17 correct answers out of 50, single ones 1
+        assertTrue(service.getLeaderboard().getMaxScore() <= 5 * 17);
+        int best = 0;
+        for (Student student : students){
+            best = Math.max(best, service.getStudentScore(student));
+        }
+        assertEquals(best, service.getTopStudents(1).get(0).getScore());
+        assertEquals(1, service.getTopStudents(1).get(0).getRank());
+    }
+
+    /**
+     * Checks a Leaderboard against a brute force ranking of the scores
+     * 
+     * @param students The Students, by index
+     * @param scores The expected score of each Student
+     * @param leaderboard The Leaderboard to check
+     */
+    private static void assertMatches(Student[] students, int[] scores, Leaderboard leaderboard){
+        for (int i = 0; i < students.length; i++){
+            int higher = 0;
+            for (int score : scores){
+                higher += score > scores[i] ? 1 : 0;
+            }
+            assertEquals(scores[i], leaderboard.getScore(i), "Score of Student " + i);
+            assertEquals(1 + higher, leaderboard.getRank(i), "Rank of Student " + i);
+        }
+
+        List<RankedStudent> top = leaderboard.getTop(students.length);
+        assertEquals(students.length, top.size());
+        for (int k = 0; k < top.size(); k++){
+            RankedStudent ranked = top.get(k);
+            int studentIndex = indexOf(students, ranked.getStudent());
+            assertEquals(scores[studentIndex], ranked.getScore());
+            assertEquals(leaderboard.getRank(studentIndex), ranked.getRank());
+            if (k > 0){
+                assertTrue(top.get(k - 1).getScore() >= ranked.getScore(), "Top list out of order at " + k);
+            }
+        }
+    }
+
+    /**
+     * Finds a Student's index
+     * 
+     * @param students The Students, by index
+     * @param student The Student to find
+     * @return The Student's index
+     */
+    private static int indexOf(Student[] students, Student student){
+        for (int i = 0; i < students.length; i++){
+            if (students[i] == student){
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
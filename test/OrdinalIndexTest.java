@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for finding a VotingService's rows by ordinal
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class OrdinalIndexTest {
+
+    /**
+     * A dense run of ordinals is found through the table, a spread out one by search
+     */
+    @Test
+    void findsRows(){
+        OrdinalIndex dense = new OrdinalIndex(new int[] {10, 11, 13, 14});
+        assertTrue(dense.isDirect());
+        assertEquals(2, dense.indexOf(13));
+        assertEquals(-1, dense.indexOf(12));
+        assertEquals(-1, dense.indexOf(9));
+        assertEquals(-1, dense.indexOf(Integer.MAX_VALUE));
+
+        OrdinalIndex spread = new OrdinalIndex(new int[] {0, 1_000_000, 2_000_000});
+        assertFalse(spread.isDirect());
+        assertEquals(1, spread.indexOf(1_000_000));
+        assertEquals(-1, spread.indexOf(5));
+    }
+
+    /**
+     * Two Questions claiming the same ordinal can't share a service
+     */
+    @Test
+    void rejectsSharedOrdinals(){
+        Question first = new Question("First"){
+            @Override
+            public int getOrdinal(){
+                return 7;
+            }
+        };
+        Question second = new Question("Second"){
+            @Override
+            public int getOrdinal(){
+                return 7;
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new VotingService(Set.of(new Student()), Set.<QuestionInterface>of(first, second)));
+    }
+
+    /**
+     * A Student whose ID is turned away doesn't use up an ordinal
+     */
+    @Test
+    void rejectedStudentKeepsOrdinalsDense(){
+        Student first = new Student();
+        assertThrows(IllegalArgumentException.class, () -> new Student(first.getID()));
+        assertEquals(first.getOrdinal() + 1, new Student().getOrdinal());
+    }
+}
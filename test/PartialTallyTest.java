@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for PartialTally's wire encoding and merging
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class PartialTallyTest {
+
+    /**
+     * A PartialTally reads back equal to the one written, through both encodings
+     * 
+     * @throws IOException If the streams fail
+     */
+    @Test
+    void roundTrips() throws IOException {
+        VotingService service = Elections.service(Elections.students(300), Elections.questions(4, 70), 1);
+        service.chooseAnswers();
+        PartialTally partial = service.getPartialTally();
+
+        assertEquals(partial, PartialTally.fromBytes(partial.toBytes()));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        partial.writeTo(new DataOutputStream(bytes));
+        PartialTally read = PartialTally.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(partial, read);
+        assertEquals(300, read.getBallotCount(0));
+    }
+
+    /**
+     * Shards voting different Students merge into the totals of their union
+     */
+    @Test
+    void mergesShards(){
+        QuestionInterface[] questions = Elections.questions(3, 5);
+        Student[] students = Elections.students(400);
+        Student[] first = Arrays.copyOfRange(students, 0, 150);
+        Student[] second = Arrays.copyOfRange(students, 150, 400);
+
+        VotingService a = Elections.service(first, questions, 1);
+        VotingService b = Elections.service(second, questions, 1);
+        a.chooseAnswers();
+        b.chooseAnswers();
+        PartialTally partialA = a.getPartialTally();
+        PartialTally partialB = b.getPartialTally();
+        PartialTally merged = partialA.merge(partialB);
+
+        for (int i = 0; i < questions.length; i++){
+            for (int j = 0; j < merged.getPositionCount(i); j++){
+                assertEquals(a.getAnswerCount(i, j) + b.getAnswerCount(i, j), merged.getCount(i, j));
+            }
+            assertEquals(400, merged.getBallotCount(i));
+        }
+        assertEquals(a.getNumCorrect() + b.getNumCorrect(), merged.getNumCorrect());
+        assertEquals(a.getNumWrong() + b.getNumWrong(), merged.getNumWrong());
+
+        // Merging is commutative and has the empty tally as its identity
+        assertEquals(merged, partialB.merge(partialA));
+        int[] positionCounts = {5, 5, 5};
+        assertEquals(merged, merged.merge(PartialTally.empty(positionCounts)));
+    }
+
+    /**
+     * Tallies of differently shaped Questions can't be merged
+     */
+    @Test
+    void rejectsOtherShapes(){
+        PartialTally three = PartialTally.empty(new int[] {3});
+        PartialTally four = PartialTally.empty(new int[] {4});
+        assertThrows(IllegalArgumentException.class, () -> three.merge(four));
+    }
+}
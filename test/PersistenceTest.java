@@ -0,0 +1,159 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for checkpointing into a MappedTallyStore and restoring from it
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class PersistenceTest {
+
+    /**
+     * A directory for the tally files, removed after each test
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * A reopened service picks up the tallies, ballots, seed and round it left off with
+     * 
+     * @throws IOException If the tally file fails
+     */
+    @Test
+    void restoresCheckpoint() throws IOException {
+        Student[] students = Elections.students(500);
+        QuestionInterface[] questions = Elections.questions(4, 70);
+        Path file = this.directory.resolve("tally.bin");
+
+        VotingService original = Elections.service(students, questions, 1);
+        assertFalse(original.enablePersistence(file));
+        original.chooseAnswers();
+        original.revoteStudents(Arrays.asList(students).subList(0, 50));
+        original.disablePersistence();
+
+        VotingService reopened = Elections.service(students, questions, 1);
+        assertTrue(reopened.enablePersistence(file));
+        VotingServiceTest.assertSameStatistics(original.getStatisticsSnapshot(), reopened.getStatisticsSnapshot());
+
+        // The ballots came back too, so the next round is applied as the same deltas
+        original.chooseAnswers();
+        reopened.chooseAnswers();
+        VotingServiceTest.assertSameStatistics(original.getStatisticsSnapshot(), reopened.getStatisticsSnapshot());
+        reopened.disablePersistence();
+    }
+
+    /**
+     * A checkpoint torn part way through is passed over for the one before it
+     * 
+     * @throws IOException If the tally file fails
+     */
+    @Test
+    void fallsBackFromTornCheckpoint() throws IOException {
+        Student[] students = Elections.students(200);
+        QuestionInterface[] questions = Elections.questions(3, 6);
+        Path file = this.directory.resolve("tally.bin");
+
+        VotingService original = Elections.service(students, questions, 1);
+        original.enablePersistence(file);
+        original.chooseAnswers();
+        StatisticsSnapshot afterFirstRound = original.getStatisticsSnapshot();
+        original.chooseAnswers();
+        original.disablePersistence();
+
+        tearNewestSlot(file, questions.length);
+
+        VotingService reopened = Elections.service(students, questions, 1);
+        assertTrue(reopened.enablePersistence(file));
+        VotingServiceTest.assertSameStatistics(afterFirstRound, reopened.getStatisticsSnapshot());
+        reopened.disablePersistence();
+    }
+
+    /**
+     * Checkpoints that only rewrite the changed ballot rows keep both slots whole,
+     * so the newest restores and a torn newest falls back to the one before it
+     * 
+     * @throws IOException If the tally file fails
+     */
+    @Test
+    void restoresIncrementalCheckpoints() throws IOException {
+        Student[] students = Elections.students(300);
+        QuestionInterface[] questions = Elections.questions(4, 9);
+        Path file = this.directory.resolve("tally.bin");
+
+        VotingService original = Elections.service(students, questions, 1);
+        original.enablePersistence(file);
+        original.chooseAnswers();
+        original.revoteStudents(Arrays.asList(students).subList(0, 20));
+        original.revoteStudents(Arrays.asList(students).subList(20, 40));
+        original.submitBallot(students[250], questions[1], Set.of(0, 1, 2));
+        original.checkpoint();
+        StatisticsSnapshot beforeLast = original.getStatisticsSnapshot();
+        original.revoteStudents(Arrays.asList(students).subList(100, 110));
+        original.disablePersistence();
+
+        VotingService reopened = Elections.service(students, questions, 1);
+        assertTrue(reopened.enablePersistence(file));
+        VotingServiceTest.assertSameStatistics(original.getStatisticsSnapshot(), reopened.getStatisticsSnapshot());
+        reopened.disablePersistence();
+
+        tearNewestSlot(file, questions.length);
+
+        VotingService fallenBack = Elections.service(students, questions, 1);
+        assertTrue(fallenBack.enablePersistence(file));
+        VotingServiceTest.assertSameStatistics(beforeLast, fallenBack.getStatisticsSnapshot());
+
+        // The older slot's ballots are whole too, so redoing the lost re-vote gets back to the newest
+        fallenBack.revoteStudents(Arrays.asList(students).subList(100, 110));
+        VotingServiceTest.assertSameStatistics(original.getStatisticsSnapshot(), fallenBack.getStatisticsSnapshot());
+        fallenBack.disablePersistence();
+    }
+
+    /**
+     * An election too big to map is turned away before its sizes can wrap around
+     */
+    @Test
+    void rejectsOversizedElections(){
+        Path file = this.directory.resolve("tally.bin");
+        assertThrows(IllegalArgumentException.class,
+            () -> new MappedTallyStore(file, new int[] {4}, Integer.MAX_VALUE, 1 << 20, 0L));
+    }
+
+    /**
+     * Zeroes the trailer of the slot with the highest epoch, as if the machine went
+     * down before the checkpoint in it was finished
+     * 
+     * @param file The tally file
+     * @param questionCount The number of Questions in the election
+     * @throws IOException If the file can't be changed
+     */
+    private static void tearNewestSlot(Path file, int questionCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            // The header holds the slot size; the slots follow the position counts
+            long slotSize = buffer.getLong(32);
+            int slotsOffset = 64 + ((4 * questionCount + 7) & ~7);
+            int first = slotsOffset;
+            int second = (int) (slotsOffset + slotSize);
+            int newest = buffer.getLong(first) > buffer.getLong(second) ? first : second;
+
+            buffer.putLong((int) (newest + slotSize - 8), 0L);
+        }
+    }
+}
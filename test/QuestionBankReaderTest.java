@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for loading a question bank from several threads at once
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class QuestionBankReaderTest {
+
+    /**
+     * Threads racing to load the same Questions get the same wrappers, with every
+     * Answer there
+     * 
+     * @throws Exception If a loading thread fails
+     */
+    @Test
+    void loadsFromManyThreads() throws Exception {
+        QuestionBankWriter writer = new QuestionBankWriter();
+        for (QuestionInterface question : Elections.questions(200, 12)){
+            writer.addQuestion(question);
+        }
+        QuestionBankReader reader = new QuestionBankReader(writer.toByteBuffer());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<QuestionInterface[]>> loads = new ArrayList<Future<QuestionInterface[]>>();
+            for (int t = 0; t < 4; t++){
+                Callable<QuestionInterface[]> load = () -> {
+                    QuestionInterface[] loaded = new QuestionInterface[reader.getQuestionCount()];
+                    for (int i = 0; i < loaded.length; i++){
+                        loaded[i] = reader.getQuestion(i);
+                        for (int j = 0; j < loaded[i].getPositionCount(); j++){
+                            assertNotNull(loaded[i].getAnswerAtPosition(j).getAnswerString());
+                        }
+                    }
+                    return loaded;
+                };
+                loads.add(pool.submit(load));
+            }
+
+            QuestionInterface[] first = loads.get(0).get();
+            for (Future<QuestionInterface[]> load : loads){
+                QuestionInterface[] loaded = load.get();
+                for (int i = 0; i < loaded.length; i++){
+                    assertSame(first[i], loaded[i]);
+                }
+            }
+            assertEquals("Answer 3", first[7].getAnswerAtPosition(3).getAnswerString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for RandomQuestionSampler and StratifiedQuestionSampler
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class QuestionSamplerTest {
+
+    /**
+     * Samples either side of the switch from Floyd's algorithm to selection sampling
+     * come out sorted, without repeats, and as big as asked for
+     */
+    @Test
+    void samplesAreSortedAndDistinct(){
+        int limit = RandomQuestionSampler.FLOYD_LIMIT;
+        int[] bankSizes = {1, 10, limit, limit + 1, 1000, 5000};
+        int[] sampleSizes = {0, 1, 5, limit - 1, limit, limit + 1, 999, 4999, 5000, 6000};
+        SplittableRandom seeds = new SplittableRandom(3);
+
+        for (int n : bankSizes){
+            for (int k : sampleSizes){
+                RandomQuestionSampler sampler = new RandomQuestionSampler(k);
+                int[] picks = new int[sampler.getMaxSampleSize(n)];
+                for (int trial = 0; trial < 5; trial++){
+                    int count = sampler.sample(trial, n, seeds.split(), picks);
+                    assertEquals(Math.min(k, n), count, "Sample of " + k + " from " + n);
+                    assertSortedInRange(picks, count, 0, n);
+                }
+            }
+        }
+    }
+
+    /**
+     * With Floyd's algorithm, every subset of the bank is about as likely as any other
+     */
+    @Test
+    void floydSubsetsAreUniform(){
+        // 3 of 6 Questions: 20 subsets
+        int trials = 60_000;
+        int[] subsetCounts = new int[1 << 6];
+        RandomQuestionSampler sampler = new RandomQuestionSampler(3);
+        SplittableRandom random = new SplittableRandom(5);
+        int[] picks = new int[3];
+        for (int trial = 0; trial < trials; trial++){
+            sampler.sample(trial, 6, random, picks);
+            subsetCounts[(1 << picks[0]) | (1 << picks[1]) | (1 << picks[2])]++;
+        }
+
+        int subsets = 0;
+        for (int mask = 0; mask < subsetCounts.length; mask++){
+            if (Integer.bitCount(mask) == 3){
+                subsets++;
+                assertNear(trials / 20.0, subsetCounts[mask], 0.1, "Subset " + Integer.toBinaryString(mask));
+            } else {
+                assertEquals(0, subsetCounts[mask]);
+            }
+        }
+        assertEquals(20, subsets);
+    }
+
+    /**
+     * With selection sampling, every Question is picked about as often as any other
+     */
+    @Test
+    void selectionPicksAreUniform(){
+        int n = 600;
+        int k = RandomQuestionSampler.FLOYD_LIMIT + 44;
+        int trials = 6000;
+        int[] picked = new int[n];
+        RandomQuestionSampler sampler = new RandomQuestionSampler(k);
+        SplittableRandom random = new SplittableRandom(9);
+        int[] picks = new int[k];
+        for (int trial = 0; trial < trials; trial++){
+            int count = sampler.sample(trial, n, random, picks);
+            for (int i = 0; i < count; i++){
+                picked[picks[i]]++;
+            }
+        }
+
+        for (int q = 0; q < n; q++){
+            assertNear((double) trials * k / n, picked[q], 0.08, "Question " + q);
+        }
+    }
+
+    /**
+     * Each group gives exactly its share of Questions (all of a smaller group), and
+     * the picks come back sorted across the groups
+     */
+    @Test
+    void strataGiveTheirCounts(){
+        int[] questionStrata = new int[100];
+        for (int q = 0; q < questionStrata.length; q++){
+            questionStrata[q] = q % 3;
+        }
+        StratifiedQuestionSampler sampler = new StratifiedQuestionSampler(questionStrata, new int[] {2, 0, 50});
+        assertEquals(2 + 0 + 33, sampler.getMaxSampleSize(100));
+
+        SplittableRandom random = new SplittableRandom(13);
+        int[] picks = new int[sampler.getMaxSampleSize(100)];
+        for (int trial = 0; trial < 200; trial++){
+            int count = sampler.sample(trial, 100, random, picks);
+            assertEquals(35, count);
+            assertSortedInRange(picks, count, 0, 100);
+
+            int[] perStratum = new int[3];
+            for (int i = 0; i < count; i++){
+                perStratum[questionStrata[picks[i]]]++;
+            }
+            assertEquals(2, perStratum[0]);
+            assertEquals(0, perStratum[1]);
+            assertEquals(33, perStratum[2]);
+        }
+    }
+
+    /**
+     * A stratified sampler only samples the bank it was made for, and turns away
+     * groups it has no count for
+     */
+    @Test
+    void stratifiedRejectsOtherBanks(){
+        StratifiedQuestionSampler sampler = new StratifiedQuestionSampler(new int[] {0, 1, 0}, new int[] {1, 1});
+        assertThrows(IllegalArgumentException.class,
+            () -> sampler.sample(0, 4, new SplittableRandom(1), new int[2]));
+        assertThrows(IllegalArgumentException.class,
+            () -> new StratifiedQuestionSampler(new int[] {0, 2}, new int[] {1, 1}));
+        assertThrows(IllegalArgumentException.class,
+            () -> new StratifiedQuestionSampler(new int[] {0}, new int[] {-1}));
+        assertThrows(IllegalArgumentException.class, () -> new RandomQuestionSampler(-1));
+    }
+
+    /**
+     * Checks picks are strictly increasing and within a range
+     * 
+     * @param picks The picks
+     * @param count The number of picks
+     * @param from The lowest allowed pick
+     * @param to One past the highest allowed pick
+     */
+    private static void assertSortedInRange(int[] picks, int count, int from, int to){
+        for (int i = 0; i < count; i++){
+            assertTrue(picks[i] >= from && picks[i] < to, "Pick out of range: " + picks[i]);
+            if (i > 0){
+                assertTrue(picks[i - 1] < picks[i], "Picks out of order or repeated at " + i);
+            }
+        }
+    }
+
+    /**
+     * Checks a count is within a fraction of what was expected
+     * 
+     * @param expected The expected count
+     * @param actual The count
+     * @param tolerance The fraction of the expected count allowed either way
+     * @param message What was counted
+     */
+    private static void assertNear(double expected, int actual, double tolerance, String message){
+        assertTrue(Math.abs(actual - expected) <= expected * tolerance,
+            message + ": expected about " + expected + " but was " + actual);
+    }
+}
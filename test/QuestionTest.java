@@ -0,0 +1,160 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for Questions with removed answers, and for keeping their Answers and
+ * correctness masks in step
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class QuestionTest {
+
+    /**
+     * A removed answer's slot is empty rather than an empty Answer
+     */
+    @Test
+    void removedSlotIsNull(){
+        Question question = new Question("Q");
+        question.addPossibleAnswer("gone");
+        question.addCorrectAnswer("kept");
+        question.removePossibleAnswer("gone");
+
+        assertNull(question.getAnswerAtPosition(0));
+        assertEquals("kept", question.getAnswerAtPosition(1).getAnswerString());
+        assertNull(question.getAnswerAtPosition(2));
+        assertEquals(2, question.getPositionCount());
+        assertEquals(1, question.getAnswerCount());
+        assertEquals(0b10L, question.getLiveMaskWord(0));
+    }
+
+    /**
+     * Students never vote for a removed answer, so every wrong vote is a visible one
+     */
+    @Test
+    void votesSkipRemovedAnswers(){
+        Question single = new Question("Single");
+        single.addPossibleAnswer("gone");
+        single.addCorrectAnswer("yes");
+        single.addPossibleAnswer("no");
+        single.removePossibleAnswer("gone");
+
+        MultipleChoiceQuestion multiple = new MultipleChoiceQuestion("Multiple");
+        for (int i = 0; i < 100; i++){
+            multiple.addPossibleAnswer("Answer " + i, i % 4 == 0);
+        }
+        for (int i = 0; i < 100; i += 3){
+            multiple.removePossibleAnswer("Answer " + i);
+        }
+
+        QuestionInterface[] questions = {single, multiple};
+        VotingService service = Elections.service(Elections.students(300), questions, 1);
+        service.chooseAnswers();
+        service.chooseAnswers();
+
+        long wrong = 0;
+        long correct = 0;
+        for (int q = 0; q < questions.length; q++){
+            for (int j = 0; j < questions[q].getPositionCount(); j++){
+                long count = service.getAnswerCount(q, j);
+                if (questions[q].getAnswerAtPosition(j) == null){
+                    assertEquals(0, count, "Removed slot " + j + " of Question " + q);
+                } else if (questions[q].getAnswerAtPosition(j).isCorrect()){
+                    correct += count;
+                } else {
+                    wrong += count;
+                }
+            }
+        }
+        assertEquals(correct, service.getNumCorrect());
+        assertEquals(wrong, service.getNumWrong());
+    }
+
+    /**
+     * A ballot handed in for a removed answer is turned away on every path
+     */
+    @Test
+    void submissionsRejectRemovedAnswers(){
+        Question question = new Question("Q");
+        question.addPossibleAnswer("A");
+        question.addCorrectAnswer("B");
+        question.addPossibleAnswer("C");
+        question.removePossibleAnswer("B");
+
+        Student[] students = Elections.students(2);
+        VotingService service = Elections.service(students, new QuestionInterface[] {question}, 1);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.submitBallot(students[0], question, Set.of(1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.submitBallot(students[0], 0, new long[] {0b010L}));
+        assertEquals(0, service.submitBallots(List.of(
+            new BallotRecord(students[0].getID(), 0, new int[] {0, 1}))));
+
+        assertTrue(service.submitBallot(students[1], 0, new long[] {0b101L}));
+        assertEquals(0, service.getAnswerCount(0, 1));
+        assertEquals(0, service.getNumCorrect());
+        assertEquals(2, service.getNumWrong());
+    }
+
+    /**
+     * A Question read back from a bank keeps its empty slots empty
+     */
+    @Test
+    void bankKeepsRemovedSlots(){
+        Question question = new Question("Q");
+        question.addPossibleAnswer("gone");
+        question.addPossibleAnswer("");
+        question.addCorrectAnswer("kept");
+        question.removePossibleAnswer("gone");
+
+        QuestionBankWriter writer = new QuestionBankWriter();
+        writer.addQuestion(question);
+        QuestionInterface read = new QuestionBankReader(writer.toByteBuffer()).getQuestion(0);
+
+        assertNull(read.getAnswerAtPosition(0));
+        assertEquals("", read.getAnswerAtPosition(1).getAnswerString());
+        assertEquals(2, read.getAnswerCount());
+        assertEquals(0b110L, read.getLiveMaskWord(0));
+    }
+
+    /**
+     * Changing an answer's correctness goes through the Question, so its Answers and
+     * its mask always agree
+     */
+    @Test
+    void correctnessStaysInStep(){
+        MultipleChoiceQuestion question = new MultipleChoiceQuestion("Q");
+        question.addPossibleAnswer("a");
+        question.addPossibleAnswer("b");
+
+        assertThrows(UnsupportedOperationException.class,
+            () -> question.getPossibleAnswers().add(new Answer("c", true)));
+
+        question.setCorrect("b", true);
+        assertTrue(question.getAnswerAtPosition(1).isCorrect());
+        assertTrue(question.getPossibleAnswers().contains(question.getAnswerAtPosition(1)));
+        assertEquals(1, question.getCorrectCount());
+        assertEquals(0b10L, question.getCorrectMaskWord(0));
+
+        int correct = 0;
+        for (Answer answer : question.getPossibleAnswers()){
+            if (answer.isCorrect()){
+                correct++;
+            }
+        }
+        assertEquals(question.getCorrectCount(), correct);
+
+        question.setCorrect("b", false);
+        assertFalse(question.getAnswerAtPosition(1).isCorrect());
+        assertEquals(0, question.getCorrectCount());
+    }
+}
@@ -0,0 +1,121 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for RankedCounts against a brute force ranking, and for reading the
+ * rankings of Questions nobody has voted on
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class RankedCountsTest {
+
+    /**
+     * Single votes, bigger changes, and sparse and dense batches (either side of the
+     * point where a batch is sorted once) keep the order, ranks, shares and total
+     * the same as sorting the counts
+     */
+    @Test
+    void matchesBruteForce(){
+        SplittableRandom random = new SplittableRandom(11);
+        for (int trial = 0; trial < 40; trial++){
+            int positionCount = 1 + random.nextInt(80);
+            RankedCounts ranked = new RankedCounts(positionCount);
+            long[] counts = new long[positionCount];
+
+            for (int step = 0; step < 400; step++){
+                int kind = random.nextInt(4);
+                if (kind < 2){
+                    // One vote, or one taken back, so ties are common
+                    int answerIndex = random.nextInt(positionCount);
+                    long delta = kind == 0 || counts[answerIndex] == 0 ? 1 : -1;
+                    ranked.add(answerIndex, delta);
+                    counts[answerIndex] += delta;
+                } else if (kind == 2){
+                    int answerIndex = random.nextInt(positionCount);
+                    long delta = Math.max(-counts[answerIndex], random.nextInt(-6, 7));
+                    ranked.add(answerIndex, delta);
+                    counts[answerIndex] += delta;
+                } else {
+                    // Touch a few answers or most of them
+                    int[] deltas = new int[positionCount];
+                    int touched = random.nextBoolean() ? 1 + random.nextInt(Math.max(1, positionCount / 16)) : positionCount;
+                    for (int t = 0; t < touched; t++){
+                        int answerIndex = random.nextInt(positionCount);
+                        deltas[answerIndex] = (int) Math.max(-counts[answerIndex], random.nextInt(-4, 5));
+                    }
+                    ranked.addAll(deltas);
+                    for (int j = 0; j < positionCount; j++){
+                        counts[j] += deltas[j];
+                    }
+                }
+
+                assertMatches(counts, ranked);
+            }
+        }
+    }
+
+    /**
+     * A Question nobody voted on reads as all 0 without a ranking being made
+     */
+    @Test
+    void unvotedQuestionsReadAsEmpty(){
+        ConcurrentTally tally = new ConcurrentTally(new int[] {4, 3});
+        tally.add(1, 2, 5);
+
+        List<RankedAnswer> top = tally.getTopAnswers(0, 2);
+        assertEquals(2, top.size());
+        assertEquals(0, top.get(0).getAnswerIndex());
+        assertEquals(0, top.get(1).getCount());
+        assertEquals(0.0, tally.getShare(0, 3));
+        assertEquals(1, tally.getRank(0, 3));
+        assertEquals(0, tally.getTotal(0));
+
+        assertEquals(2, tally.getTopAnswers(1, 1).get(0).getAnswerIndex());
+        assertEquals(1.0, tally.getShare(1, 2));
+        assertEquals(2, tally.getRank(1, 0));
+    }
+
+    /**
+     * Checks RankedCounts against a brute force ranking of the counts
+     * 
+     * @param counts The expected count of each answer
+     * @param ranked The RankedCounts to check
+     */
+    private static void assertMatches(long[] counts, RankedCounts ranked){
+        int n = counts.length;
+        int[] answerIndices = new int[n];
+        long[] answerCounts = new long[n];
+        long total = ranked.top(n, answerIndices, answerCounts);
+
+        long expectedTotal = 0;
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < n; i++){
+            expectedTotal += counts[i];
+            assertEquals(counts[answerIndices[i]], answerCounts[i], "Count at place " + i);
+            assertFalse(seen[answerIndices[i]], "Answer listed twice: " + answerIndices[i]);
+            seen[answerIndices[i]] = true;
+            if (i > 0){
+                assertTrue(answerCounts[i - 1] >= answerCounts[i], "Order broken at place " + i);
+            }
+        }
+        assertEquals(expectedTotal, total);
+        assertEquals(expectedTotal, ranked.total());
+
+        for (int j = 0; j < n; j++){
+            int higher = 0;
+            for (long count : counts){
+                higher += count > counts[j] ? 1 : 0;
+            }
+            assertEquals(1 + higher, ranked.rank(j), "Rank of answer " + j);
+            double share = expectedTotal <= 0 ? 0.0 : (double) counts[j] / expectedTotal;
+            assertEquals(share, ranked.share(j), 1e-12);
+        }
+    }
+}
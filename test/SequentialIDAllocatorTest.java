@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for SequentialIDAllocator under concurrent reserve and allocate calls
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class SequentialIDAllocatorTest {
+
+    /**
+     * The digits of an ID, in order
+     */
+    private static final String DIGITS =
+        "0123456789" + "ABCDEFGHIJKLMNOPQRSTUVWXYZ" + "abcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * An ID the counter has reached can't be reserved, and a reserved one isn't allocated
+     */
+    @Test
+    void reserveAndAllocateDontOverlap(){
+        SequentialIDAllocator allocator = new SequentialIDAllocator(4);
+        String first = allocator.allocate();
+
+        assertFalse(allocator.reserve(first));
+        assertTrue(allocator.reserve(encode(1)));
+        assertFalse(allocator.reserve(encode(1)));
+        assertFalse(encode(1).equals(allocator.allocate()));
+    }
+
+    /**
+     * Threads reserving the IDs just ahead of the counter while others allocate never
+     * end up with the same ID twice
+     */
+    @Test
+    void noDuplicatesUnderContention() throws InterruptedException{
+        int perThread = 20_000;
+        SequentialIDAllocator allocator = new SequentialIDAllocator(4);
+        Set<String> handedOut = ConcurrentHashMap.newKeySet();
+        Set<String> duplicates = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++){
+            boolean reserving = t % 2 == 0;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e){
+                    return;
+                }
+
+                for (int i = 0; i < perThread; i++){
+                    String id;
+                    if (reserving){
+                        // Aim at IDs the allocating threads are about to reach
+                        id = encode(i * 2 + (i & 3));
+                        if (!allocator.reserve(id)){
+                            continue;
+                        }
+                    }
+                    else {
+                        id = allocator.allocate();
+                    }
+                    if (!handedOut.add(id)){
+                        duplicates.add(id);
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads){
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads){
+            thread.join();
+        }
+
+        assertTrue(duplicates.isEmpty(), "Handed out twice: " + duplicates);
+    }
+
+    /**
+     * Writes a counter value the way a 4 character SequentialIDAllocator does
+     * 
+     * @param value The counter value
+     * @return The ID
+     */
+    private static String encode(long value){
+        char[] id = new char[4];
+        for (int i = 3; i >= 0; i--){
+            id[i] = DIGITS.charAt((int) (value % DIGITS.length()));
+            value /= DIGITS.length();
+        }
+
+        return new String(id);
+    }
+}
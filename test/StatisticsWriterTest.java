@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the statistics report writers
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class StatisticsWriterTest {
+
+    /**
+     * An answer whose text is empty is reported, while a removed answer is not
+     * 
+     * @throws IOException If a report can't be written
+     */
+    @Test
+    void reportsEmptyAnswersButNotRemovedOnes() throws IOException {
+        Question question = new Question("Q");
+        question.addPossibleAnswer("removed");
+        question.addPossibleAnswer("");
+        question.addCorrectAnswer("kept");
+        question.removePossibleAnswer("removed");
+
+        VotingService service = Elections.service(Elections.students(50), new QuestionInterface[] {question}, 1);
+        service.chooseAnswers();
+
+        String text = render(service, new TextStatisticsWriter());
+        assertTrue(text.contains("\n : "), text);
+        assertFalse(text.contains("removed"), text);
+
+        String csv = render(service, new CsvStatisticsWriter());
+        assertTrue(csv.contains(",1,,false,"), csv);
+        assertFalse(csv.contains("removed"), csv);
+
+        String json = render(service, new JsonStatisticsWriter());
+        assertTrue(json.contains("{\"index\":1,\"answer\":\"\""), json);
+        assertFalse(json.contains("removed"), json);
+    }
+
+    /**
+     * Renders a service's statistics into a String
+     * 
+     * @param service The VotingService
+     * @param format The format to render in
+     * @return The report
+     * @throws IOException If the report can't be written
+     */
+    private static String render(VotingService service, StatisticsWriterInterface format) throws IOException {
+        StringWriter out = new StringWriter();
+        service.writeStatistics(out, format);
+        return out.toString();
+    }
+}
@@ -0,0 +1,82 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the windows a TallyHistory keeps
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class TallyHistoryTest {
+
+    /**
+     * Trends still add up once the oldest windows have been folded into the base
+     */
+    @Test
+    void trendsSurviveEviction(){
+        TallyHistory history = new TallyHistory(new int[] {3, 2}, 3);
+        for (int round = 1; round <= 5; round++){
+            history.record(0, 1, round);
+            history.recordRow(1, new int[] {1, -1});
+            history.recordScore(round, 1);
+            history.advance();
+        }
+        history.record(0, 1, 10);
+
+        assertArrayEquals(new long[] {10, 15, 25}, history.getCountTrend(0, 1, 3));
+        assertArrayEquals(new long[] {4, 5, 10}, history.getChangeTrend(0, 1, 3));
+        assertArrayEquals(new long[] {5, 5}, history.getCountTrend(1, 0, 2));
+        assertArrayEquals(new long[] {0, 0, 0}, history.getCountTrend(0, 2, 3));
+        assertArrayEquals(new long[] {15, 15}, history.getCorrectTrend(2));
+        assertArrayEquals(new long[] {5}, history.getWrongTrend(1));
+    }
+
+    /**
+     * Only the Questions voted on get rows, however big the bank is
+     */
+    @Test
+    void rowsFollowVotes(){
+        int[] positionCounts = new int[100_000];
+        Arrays.fill(positionCounts, 4);
+        TallyHistory history = new TallyHistory(positionCounts, 8);
+
+        for (int round = 0; round < 20; round++){
+            history.record(round % 3, 2, 1);
+            history.advance();
+        }
+
+        // Three base rows, and one row in each window that saw a vote
+        assertEquals(3 + 7, history.getRowCount());
+        assertArrayEquals(new long[] {7, 7}, history.getCountTrend(1, 2, 2));
+        assertArrayEquals(new long[] {0}, history.getCountTrend(99_999, 0, 1));
+        // The ring buffer, three base rows in a table of 8, and 7 windows with one row each
+        assertEquals(8 + (2 * 8 + 3 * 4) + 7 * (2 * 8 + 4), history.getFootprint());
+    }
+
+    /**
+     * A long history over a big bank costs what was voted, not windows times Questions
+     */
+    @Test
+    void windowsCostWhatWasVoted(){
+        int[] positionCounts = new int[50_000];
+        Arrays.fill(positionCounts, 4);
+        TallyHistory history = new TallyHistory(positionCounts, 3600, 1, TimeUnit.HOURS);
+        assertEquals(3600, history.getFootprint());
+
+        for (int q = 0; q < 100; q++){
+            history.record(q * 500, q % 4, 1);
+        }
+        history.recordScore(60, 40);
+
+        // One window with 100 rows, in a table grown to 256 slots
+        assertEquals(100, history.getRowCount());
+        assertEquals(3600 + 2 * 256 + 100 * 4, history.getFootprint());
+        assertArrayEquals(new long[] {1}, history.getCountTrend(49_500, 3, 1));
+        assertArrayEquals(new long[] {60}, history.getCorrectTrend(1));
+    }
+}
@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the flat, padded and striped tally layouts, on their own and inside
+ * a VotingService
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class TallyLayoutTest {
+
+    /**
+     * A padded row is whole cache lines, with at least 7 longs after its last count
+     */
+    @Test
+    void paddedRowsNeverShareALine(){
+        assertEquals(0, FlatTallyCounters.paddedLength(0));
+        for (int positionCount = 1; positionCount <= 100; positionCount++){
+            int length = FlatTallyCounters.paddedLength(positionCount);
+            assertEquals(0, length % FlatTallyCounters.LINE_LONGS, "Row of " + positionCount);
+            assertTrue(length - positionCount >= FlatTallyCounters.LINE_LONGS - 1, "Row of " + positionCount);
+            assertTrue(length - positionCount < 2 * FlatTallyCounters.LINE_LONGS - 1, "Row of " + positionCount);
+        }
+
+        FlatTallyCounters padded = new FlatTallyCounters(new int[] {3, 9, 0, 1}, true, 1);
+        assertEquals(16 + 16 + 0 + 8, padded.getBufferLength());
+    }
+
+    /**
+     * Writers spread over the stripes still read back as one count
+     */
+    @Test
+    void stripesSumOnRead() throws InterruptedException{
+        int[] positionCounts = {5, 12, 3};
+        FlatTallyCounters striped = new FlatTallyCounters(positionCounts, true, 4);
+        assertEquals(4, striped.getStripeCount());
+        assertEquals(4 * (16 + 24 + 16), striped.getBufferLength());
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++){
+            threads.add(new Thread(() -> {
+                for (int n = 0; n < 1000; n++){
+                    for (int i = 0; i < positionCounts.length; i++){
+                        for (int j = 0; j < positionCounts[i]; j++){
+                            striped.add(i, j, j + 1);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads){
+            thread.start();
+        }
+        for (Thread thread : threads){
+            thread.join();
+        }
+
+        for (int i = 0; i < positionCounts.length; i++){
+            long[] row = new long[positionCounts[i]];
+            striped.copyRow(i, row);
+            for (int j = 0; j < positionCounts[i]; j++){
+                assertEquals(8000L * (j + 1), striped.get(i, j));
+                assertEquals(8000L * (j + 1), row[j]);
+            }
+        }
+    }
+
+    /**
+     * Switching layouts keeps every count, and parallel rounds (which add blocks of
+     * Questions from several threads) give the same statistics in every layout
+     */
+    @Test
+    void layoutsAgreeInAService(){
+        Student[] students = Elections.students(4000);
+        QuestionInterface[] questions = Elections.questions(300, 6);
+        VotingService reference = Elections.service(students, questions, 1);
+        VotingService switching = Elections.service(students, questions, 4);
+
+        for (TallyLayout layout : TallyLayout.values()){
+            reference.chooseAnswers();
+            StatisticsSnapshot before = switching.getStatisticsSnapshot();
+            switching.setTallyLayout(layout);
+            assertEquals(layout, switching.getTallyLayout());
+            VotingServiceTest.assertSameStatistics(before, switching.getStatisticsSnapshot());
+
+            switching.chooseAnswers();
+            VotingServiceTest.assertSameStatistics(reference.getStatisticsSnapshot(), switching.getStatisticsSnapshot());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for VoterSimulation and the bitmask ballot path it submits through
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class VoterSimulationTest {
+
+    /**
+     * Voters only answer the Questions the sampler picks for them
+     * 
+     * @throws InterruptedException If the run is interrupted
+     */
+    @Test
+    void honoursQuestionSampler() throws InterruptedException {
+        Student[] students = Elections.students(300);
+        QuestionInterface[] questions = Elections.questions(8, 5);
+        VotingService service = Elections.service(students, questions, 1);
+        service.setQuestionSampler(new RandomQuestionSampler(2));
+
+        VoterSimulation simulation = new VoterSimulation(
+            service, Arrays.asList(students), new FixedThinkTime(0, TimeUnit.NANOSECONDS)
+        );
+        simulation.setSeed(7);
+        simulation.setUseVirtualThreads(false);
+        SimulationReport report = simulation.run();
+
+        assertEquals(600, report.getBallots());
+        PartialTally partial = service.getPartialTally();
+        long ballots = 0;
+        for (int q = 0; q < questions.length; q++){
+            ballots += partial.getBallotCount(q);
+        }
+        assertEquals(600, ballots);
+
+        // Each voter's Questions are the ones a round would have them answer
+        int[] picked = new int[service.getMaxQuestionsPerStudent()];
+        assertEquals(2, service.getQuestionsFor(students[0], picked));
+    }
+
+    /**
+     * A ballot bitmask can't choose a position its Question doesn't have
+     */
+    @Test
+    void rejectsOutOfRangeBallots(){
+        Student[] students = Elections.students(2);
+        QuestionInterface[] questions = Elections.questions(1, 5);
+        VotingService service = Elections.service(students, questions, 1);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.submitBallot(students[0], 0, new long[] {1L << 5}));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.submitBallot(students[0], 1, new long[] {1L}));
+        assertEquals(true, service.submitBallot(students[0], 0, new long[] {1L << 4}));
+        assertEquals(1, service.getAnswerCount(0, 4));
+    }
+}
@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the VotingService's vote engine
+ * 
+ * @author George Matta
+ * @version 1.0
+ */
+class VotingServiceTest {
+
+    /**
+     * The same seed gives the same statistics on one thread and on many
+     */
+    @Test
+    void parallelMatchesSequential(){
+        Student[] students = Elections.students(5000);
+        QuestionInterface[] questions = Elections.questions(6, 9);
+        VotingService sequential = Elections.service(students, questions, 1);
+        VotingService parallel = Elections.service(students, questions, 4);
+
+        for (int round = 0; round < 3; round++){
+            sequential.chooseAnswers();
+            parallel.chooseAnswers();
+            assertSameStatistics(sequential.getStatisticsSnapshot(), parallel.getStatisticsSnapshot());
+        }
+
+        // Re-polling some Students keeps them in step too
+        sequential.revoteStudents(Arrays.asList(students).subList(100, 3000));
+        parallel.revoteStudents(Arrays.asList(students).subList(100, 3000));
+        assertSameStatistics(sequential.getStatisticsSnapshot(), parallel.getStatisticsSnapshot());
+    }
+
+    /**
+     * Every chosen answer is counted once, as either correct or wrong
+     */
+    @Test
+    void totalsMatchCounts(){
+        Student[] students = Elections.students(3000);
+        VotingService service = Elections.service(students, Elections.questions(5, 7), 4);
+
+        service.chooseAnswers();
+        service.chooseAnswers();
+
+        StatisticsSnapshot snapshot = service.getStatisticsSnapshot();
+        assertEquals(Elections.totalCount(snapshot), snapshot.getNumCorrect() + snapshot.getNumWrong());
+    }
+
+    /**
+     * Checks two snapshots hold the same counts and totals
+     * 
+     * @param expected The expected snapshot
+     * @param actual The snapshot to check
+     */
+    static void assertSameStatistics(StatisticsSnapshot expected, StatisticsSnapshot actual){
+        assertEquals(expected.getQuestionCount(), actual.getQuestionCount());
+        for (int i = 0; i < expected.getQuestionCount(); i++){
+            assertArrayEquals(expected.getCounts(i), actual.getCounts(i), "Question " + i);
+        }
+        assertEquals(expected.getNumCorrect(), actual.getNumCorrect());
+        assertEquals(expected.getNumWrong(), actual.getNumWrong());
+    }
+}